@@ -1,21 +1,116 @@
 package com.uniport.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+
 /**
  * RestTemplate 빈 설정. KIS API 등 외부 HTTP 호출에 사용합니다.
+ * Apache HttpClient 5 커넥션 풀로 KIS 호스트와의 TLS 연결을 keep-alive로 재사용한다 (호출마다 핸드셰이크 X).
+ * 응답 대기 시간은 엔드포인트별로 다르게: 현재가는 짧게, 토큰 발급·차트는 길게 (kis.http.*).
+ * KIS REST 게이트웨이는 HTTP/1.1로 응답하므로 HTTP/2 대신 연결 재사용으로 지연을 줄인다.
  */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${kis.http.max-connections:40}")
+    private int maxConnections;
+
+    /** KIS는 호스트 하나(실전 또는 모의)라 사실상 이 값이 동시 호출 상한 */
+    @Value("${kis.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${kis.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMillis;
+
+    /** 풀에서 연결을 빌리기까지 최대 대기 (풀 포화 시 빠르게 실패) */
+    @Value("${kis.http.pool-acquire-timeout-ms:1000}")
+    private long poolAcquireTimeoutMillis;
+
+    /** 유휴 연결 유지 시간. 서버가 먼저 끊기 전에 정리. */
+    @Value("${kis.http.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${kis.http.response-timeout-ms.price:2000}")
+    private long priceResponseTimeoutMillis;
+
+    @Value("${kis.http.response-timeout-ms.ranking:4000}")
+    private long rankingResponseTimeoutMillis;
+
+    @Value("${kis.http.response-timeout-ms.chart:8000}")
+    private long chartResponseTimeoutMillis;
+
+    @Value("${kis.http.response-timeout-ms.auth:5000}")
+    private long authResponseTimeoutMillis;
+
+    @Value("${kis.http.response-timeout-ms.default:5000}")
+    private long defaultResponseTimeoutMillis;
+
+    /** 풀 상태(임대/대기/유휴)는 GET /api/config/kis-metrics 에서 노출 */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager kisConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient kisHttpClient(PoolingHttpClientConnectionManager kisConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(kisConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .disableCookieManagement()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10_000);
-        factory.setReadTimeout(30_000);
+    public RestTemplate restTemplate(CloseableHttpClient kisHttpClient) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(kisHttpClient);
+        factory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMillis))
+                    .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMillis(uri)))
+                    .build());
+            return context;
+        });
         return new RestTemplate(factory);
     }
+
+    /** KIS 경로별 응답 대기 시간 */
+    private long responseTimeoutMillis(URI uri) {
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        if (path.startsWith("/oauth2/")) {
+            return authResponseTimeoutMillis;
+        }
+        if (path.endsWith("/inquire-price") || path.endsWith("/inquire-index-price")) {
+            return priceResponseTimeoutMillis;
+        }
+        if (path.contains("/ranking/") || path.endsWith("/volume-rank")) {
+            return rankingResponseTimeoutMillis;
+        }
+        if (path.contains("chartprice")) {
+            return chartResponseTimeoutMillis;
+        }
+        return defaultResponseTimeoutMillis;
+    }
 }
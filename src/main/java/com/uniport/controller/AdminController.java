@@ -23,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -106,13 +107,19 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("success", true, "message", "Updated"));
     }
 
-    /** §10-4: 대회별 팀 목록 (관리자용). DB 팀 랭킹 기준. */
+    /** §10-4: 대회별 팀 목록 (관리자용). 순위 스냅샷 기준, ETag가 같으면 304. */
     @GetMapping("/competitions/{competitionId}/teams")
     public ResponseEntity<List<Map<String, Object>>> getCompetitionTeams(
             @RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long competitionId) {
+            @PathVariable Long competitionId,
+            WebRequest request) {
         requireAdmin(authorization);
-        return ResponseEntity.ok(rankingService.getCompetingTeams(competitionId, null));
+        RankingService.Versioned<List<Map<String, Object>>> teams =
+                rankingService.getCompetingTeamsVersioned(competitionId, null);
+        if (request.checkNotModified(teams.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(teams.body());
     }
 
     /** §10-5: 매칭방 목록 (관리자용) */
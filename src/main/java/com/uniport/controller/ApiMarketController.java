@@ -3,6 +3,7 @@ package com.uniport.controller;
 import com.uniport.dto.MarketIndexItemDTO;
 import com.uniport.dto.MarketStockItemDTO;
 import com.uniport.service.MarketService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,9 +11,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 명세 §3-1~3-4: 시장 지수, 거래량/상승/하락 순 종목.
+ * KIS 조회는 CompletableFuture로 반환해 응답을 기다리는 동안 서블릿 스레드를 잡지 않는다.
  */
 @RestController
 @RequestMapping("/api/market")
@@ -25,15 +28,18 @@ public class ApiMarketController {
     }
 
     @GetMapping("/indices")
-    public ResponseEntity<List<MarketIndexItemDTO>> getIndices() {
-        List<MarketIndexItemDTO> list = marketService.getIndicesForApi();
-        return ResponseEntity.ok(list);
+    public CompletableFuture<ResponseEntity<List<MarketIndexItemDTO>>> getIndices() {
+        return marketService.getIndicesForApiAsync().thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/stocks")
-    public ResponseEntity<List<MarketStockItemDTO>> getStocks(
+    public CompletableFuture<ResponseEntity<List<MarketStockItemDTO>>> getStocks(
             @RequestParam(value = "sort", required = false, defaultValue = "volume") String sort) {
-        List<MarketStockItemDTO> list = marketService.getStocksForApi(sort);
-        return ResponseEntity.ok(list);
+        return marketService.getRankingForApiAsync(sort).thenApply(snapshot -> {
+            List<MarketStockItemDTO> list = marketService.toMarketStockItems(snapshot);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.AGE, String.valueOf(snapshot.ageSeconds(System.currentTimeMillis())))
+                    .body(list);
+        });
     }
 }
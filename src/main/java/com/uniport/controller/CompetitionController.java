@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -58,12 +59,18 @@ public class CompetitionController {
         return ResponseEntity.ok(list);
     }
 
-    /** 대회별 경쟁 팀 목록 (실시간 투자금·수익률·순위). DB 팀 랭킹 기준. */
+    /** 대회별 경쟁 팀 목록 (실시간 투자금·수익률·순위). 순위 스냅샷 기준, ETag가 같으면 304. */
     @GetMapping("/{competitionId}/teams")
     public ResponseEntity<List<Map<String, Object>>> getCompetingTeams(
             @PathVariable Long competitionId,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            WebRequest request) {
         User user = authService.getUserFromTokenOrNull(authorization != null ? authorization : "");
-        return ResponseEntity.ok(rankingService.getCompetingTeams(competitionId, user));
+        RankingService.Versioned<List<Map<String, Object>>> teams =
+                rankingService.getCompetingTeamsVersioned(competitionId, user);
+        if (request.checkNotModified(teams.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(teams.body());
     }
 }
@@ -1,6 +1,25 @@
 package com.uniport.controller;
 
+import com.uniport.service.IndexQuoteCache;
 import com.uniport.service.KisApiService;
+import com.uniport.service.KisAsyncService;
+import com.uniport.service.KisCircuitBreaker;
+import com.uniport.service.KisCredentialManager;
+import com.uniport.service.KisRateLimiter;
+import com.uniport.service.RankingCache;
+import com.uniport.service.StockMasterIndex;
+import com.uniport.service.candle.CandleStore;
+import com.uniport.service.equity.TeamEquityRecorder;
+import com.uniport.service.kisrest.KisResponseReader;
+import com.uniport.service.kisws.KisWsClient;
+import com.uniport.service.kisws.KisWsSubscriptionManager;
+import com.uniport.service.kisws.QuoteFreshnessPolicy;
+import com.uniport.service.kisws.RealtimeTickPipeline;
+import com.uniport.service.valuation.CompetitionLeaderboards;
+import com.uniport.service.valuation.TeamRiskTracker;
+import com.uniport.service.valuation.TeamValuationEngine;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
 import org.springframework.core.env.Environment;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -19,10 +39,56 @@ import java.util.Map;
 public class ConfigController {
 
     private final KisApiService kisApiService;
+    private final KisWsClient kisWsClient;
+    private final RealtimeTickPipeline realtimeTickPipeline;
+    private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final QuoteFreshnessPolicy quoteFreshnessPolicy;
+    private final KisRateLimiter kisRateLimiter;
+    private final KisCircuitBreaker kisCircuitBreaker;
+    private final KisCredentialManager kisCredentialManager;
+    private final KisAsyncService kisAsyncService;
+    private final RankingCache rankingCache;
+    private final StockMasterIndex stockMasterIndex;
+    private final CandleStore candleStore;
+    private final TeamValuationEngine teamValuationEngine;
+    private final TeamEquityRecorder teamEquityRecorder;
+    private final TeamRiskTracker teamRiskTracker;
+    private final CompetitionLeaderboards competitionLeaderboards;
+    private final IndexQuoteCache indexQuoteCache;
+    private final KisResponseReader kisResponseReader;
+    private final PoolingHttpClientConnectionManager kisConnectionManager;
     private final Environment env;
 
-    public ConfigController(KisApiService kisApiService, Environment env) {
+    public ConfigController(KisApiService kisApiService, KisWsClient kisWsClient,
+                            RealtimeTickPipeline realtimeTickPipeline,
+                            KisWsSubscriptionManager kisWsSubscriptionManager,
+                            QuoteFreshnessPolicy quoteFreshnessPolicy, KisRateLimiter kisRateLimiter,
+                            KisCircuitBreaker kisCircuitBreaker, KisCredentialManager kisCredentialManager,
+                            KisAsyncService kisAsyncService,
+                            RankingCache rankingCache, StockMasterIndex stockMasterIndex, CandleStore candleStore,
+                            TeamValuationEngine teamValuationEngine, TeamEquityRecorder teamEquityRecorder,
+                            TeamRiskTracker teamRiskTracker, CompetitionLeaderboards competitionLeaderboards,
+                            IndexQuoteCache indexQuoteCache, KisResponseReader kisResponseReader,
+                            PoolingHttpClientConnectionManager kisConnectionManager, Environment env) {
         this.kisApiService = kisApiService;
+        this.kisWsClient = kisWsClient;
+        this.realtimeTickPipeline = realtimeTickPipeline;
+        this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.quoteFreshnessPolicy = quoteFreshnessPolicy;
+        this.kisRateLimiter = kisRateLimiter;
+        this.kisCircuitBreaker = kisCircuitBreaker;
+        this.kisCredentialManager = kisCredentialManager;
+        this.kisAsyncService = kisAsyncService;
+        this.rankingCache = rankingCache;
+        this.stockMasterIndex = stockMasterIndex;
+        this.candleStore = candleStore;
+        this.teamValuationEngine = teamValuationEngine;
+        this.teamEquityRecorder = teamEquityRecorder;
+        this.teamRiskTracker = teamRiskTracker;
+        this.competitionLeaderboards = competitionLeaderboards;
+        this.indexQuoteCache = indexQuoteCache;
+        this.kisResponseReader = kisResponseReader;
+        this.kisConnectionManager = kisConnectionManager;
         this.env = env;
     }
 
@@ -33,6 +99,60 @@ public class ConfigController {
         return ResponseEntity.ok(Map.of("configured", configured));
     }
 
+    /**
+     * KIS 실시간 수신 지표.
+     * connection: 세션별 연결 여부, 재접속 시도/실패 수, 끊겨 있던 누적 시간, 링 적체.
+     * pipeline: 링 버퍼 깊이, 적재/버림(overrun) 건수, 배치 수, 핸들러 오류 수.
+     * subscriptions: 세션별 등록·대기·고정 종목 수, LRU 해지·만료·세션 이동 건수.
+     * quoteCache: 시세 캐시 판정 사유별 건수 (WS 실시간 / 장 마감 / TTL / REST 재조회).
+     * singleFlight: 동시 동일 조회 합치기 (실제 호출 수, 합쳐진 호출 수, 기다리던 요청이 모두 빠져 끊긴 수).
+     * rateLimiter: 우선순위별 토큰 획득 수, 대기열 깊이·대기시간, 거절(대기열 초과/마감 초과) 건수.
+     * circuitBreaker: 엔드포인트 그룹별 서킷 상태(CLOSED/OPEN/HALF_OPEN), 지연 예산, 창 안 실패·지연 비율, 거절·열림 수.
+     * credentials: 접근토큰·접속키 남은 시간, 발급 수(요청 스레드 발급 포함), 갱신 실패, 저장 파일 복원 여부.
+     * async: 비동기 조회 제출 / 시간 초과 / 취소 / 실패 건수.
+     * rankingCache: 순위 캐시 키별 데이터 나이, fresh/stale/동기 조회 건수.
+     * stockMaster: 종목 마스터 인덱스 종목 수, 적재 시각·소요 시간.
+     * responseDecode: TR별 KIS 응답 디코드 건수, 평균 CPU(µs)·할당(바이트)·행 수.
+     * indexQuotes: 지수 캐시 값·나이·출처(ws|rest)와 WS/REST 갱신 수.
+     * candleStore: 차트 캔들 저장소 적중 / 꼬리 수신 / 전체 수신 수와 열린 시리즈.
+     * valuation: 팀 평가액 엔진의 팀·포지션·역색인 종목 수, 대회 순위표·고정 대회 수, 틱 반영·평가액 변경·팀 재적재·전체 재적재 건수.
+     * competitions: 진행 중 대회 ID, 최종 순위가 고정된 대회 수.
+     * equity: 평가액 곡선 기록 중 팀·표본·메모리, 마감 블록 수와 표본당 비트, 저장 대기·실패 건수.
+     * risk: 위험 지표 보유 팀 수, 누적 표본·체결 반영 수, 발행 버전.
+     * httpPool: KIS HTTP 커넥션 풀 (사용 중 / 연결 대기 / 유휴 / 상한). pending이 0보다 크면 풀 포화.
+     */
+    @GetMapping("/kis-metrics")
+    public ResponseEntity<Map<String, Object>> getKisMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("connection", kisWsClient.getStats());
+        metrics.put("pipeline", realtimeTickPipeline.getStats());
+        metrics.put("subscriptions", kisWsSubscriptionManager.getStats());
+        metrics.put("quoteCache", quoteFreshnessPolicy.getStats());
+        metrics.put("singleFlight", kisApiService.getSingleFlightStats());
+        metrics.put("rateLimiter", kisRateLimiter.getStats());
+        metrics.put("circuitBreaker", kisCircuitBreaker.getStats());
+        metrics.put("credentials", kisCredentialManager.getStats());
+        metrics.put("async", kisAsyncService.getStats());
+        metrics.put("rankingCache", rankingCache.getStats());
+        metrics.put("stockMaster", stockMasterIndex.getStats());
+        metrics.put("responseDecode", kisResponseReader.getStats());
+        metrics.put("indexQuotes", indexQuoteCache.getStats());
+        metrics.put("candleStore", candleStore.getStats());
+        metrics.put("valuation", teamValuationEngine.getStats());
+        metrics.put("competitions", competitionLeaderboards.getStats());
+        metrics.put("equity", teamEquityRecorder.getStats());
+        metrics.put("risk", teamRiskTracker.getStats());
+        PoolStats pool = kisConnectionManager.getTotalStats();
+        Map<String, Object> httpPool = new LinkedHashMap<>();
+        httpPool.put("leased", pool.getLeased());
+        httpPool.put("pending", pool.getPending());
+        httpPool.put("available", pool.getAvailable());
+        httpPool.put("max", pool.getMax());
+        httpPool.put("maxPerRoute", kisConnectionManager.getDefaultMaxPerRoute());
+        metrics.put("httpPool", httpPool);
+        return ResponseEntity.ok(metrics);
+    }
+
     /** KIS 접근토큰 폐기. POST /oauth2/revokeP 호출 후 캐시된 토큰 제거. 다음 API 호출 시 새 토큰 발급. */
     @PostMapping("/kis-revoke")
     public ResponseEntity<Map<String, Object>> revokeKisToken() {
@@ -1,5 +1,7 @@
 package com.uniport.controller;
 
+import com.uniport.dto.EquityPointDTO;
+import com.uniport.dto.StockPriceDTO;
 import com.uniport.entity.TeamAccount;
 import com.uniport.entity.TeamHolding;
 import com.uniport.entity.User;
@@ -9,8 +11,10 @@ import com.uniport.repository.TeamAccountRepository;
 import com.uniport.repository.TeamHoldingRepository;
 import com.uniport.service.AuthService;
 import com.uniport.service.ChatService;
-import com.uniport.service.KisApiService;
+import com.uniport.service.KisAsyncService;
+import com.uniport.service.StockMasterIndex;
 import com.uniport.service.VoteService;
+import com.uniport.service.equity.TeamEquityRecorder;
 import com.uniport.service.kisws.KisWsSubscriptionManager;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +23,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
@@ -28,9 +33,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 명세 §6: 그룹 포트폴리오. §7: 채팅. §8: 투표.
+ * 평가액 곡선(/equity)은 {@link TeamEquityRecorder}가 장중 기록한 압축 시계열을 읽는다.
+ * 포트폴리오 조회는 보유 종목 시세를 비동기로 먼저 시작하고 나머지 DB 조회와 겹쳐 처리한 뒤 CompletableFuture로 응답.
  */
 @RestController
 @RequestMapping("/api/groups")
@@ -44,41 +53,64 @@ public class GroupController {
     private final TeamAccountRepository teamAccountRepository;
     private final TeamHoldingRepository teamHoldingRepository;
     private final MatchingRoomRepository matchingRoomRepository;
-    private final KisApiService kisApiService;
+    private final KisAsyncService kisAsyncService;
     private final VoteService voteService;
     private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final StockMasterIndex stockMasterIndex;
+    private final TeamEquityRecorder teamEquityRecorder;
 
     public GroupController(ChatService chatService, AuthService authService,
                            MatchingRoomMemberRepository matchingRoomMemberRepository,
                            TeamAccountRepository teamAccountRepository,
                            TeamHoldingRepository teamHoldingRepository,
                            MatchingRoomRepository matchingRoomRepository,
-                           KisApiService kisApiService,
+                           KisAsyncService kisAsyncService,
                            VoteService voteService,
-                           KisWsSubscriptionManager kisWsSubscriptionManager) {
+                           KisWsSubscriptionManager kisWsSubscriptionManager,
+                           StockMasterIndex stockMasterIndex,
+                           TeamEquityRecorder teamEquityRecorder) {
         this.chatService = chatService;
         this.authService = authService;
         this.matchingRoomMemberRepository = matchingRoomMemberRepository;
         this.teamAccountRepository = teamAccountRepository;
         this.teamHoldingRepository = teamHoldingRepository;
         this.matchingRoomRepository = matchingRoomRepository;
-        this.kisApiService = kisApiService;
+        this.kisAsyncService = kisAsyncService;
         this.voteService = voteService;
         this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.stockMasterIndex = stockMasterIndex;
+        this.teamEquityRecorder = teamEquityRecorder;
     }
 
     @GetMapping("/{groupId}")
-    public ResponseEntity<Map<String, Object>> getGroup(@PathVariable Long groupId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getGroup(@PathVariable Long groupId) {
+        List<TeamHolding> holdings = teamHoldingRepository.findByTeamId(groupId);
+        CompletableFuture<Map<String, StockPriceDTO>> pricesFuture = pricesOf(holdings);
+
         String groupName = matchingRoomRepository.findById(groupId)
                 .map(r -> r.getName())
                 .orElse("팀 " + groupId);
-
         Optional<TeamAccount> accountOpt = teamAccountRepository.findByTeamId(groupId);
         BigDecimal cashBalance = accountOpt.map(TeamAccount::getCashBalance).orElse(INITIAL_TEAM_BALANCE);
+
+        return pricesFuture.thenApply(prices -> ResponseEntity.ok(
+                toGroupBody(groupId, groupName, cashBalance, holdings, prices)));
+    }
+
+    /**
+     * 보유 종목 시세 일괄 조회. 시간 초과·실패면 빈 결과로 두고 평균단가로 평가하되,
+     * 행마다 stale·quoteAgeSeconds·pricedAtAverage로 표시한다 ({@link #putQuoteFlags}).
+     */
+    private CompletableFuture<Map<String, StockPriceDTO>> pricesOf(List<TeamHolding> holdings) {
+        return kisAsyncService.getStockPrices(holdings.stream().map(TeamHolding::getStockCode).toList())
+                .exceptionally(e -> Map.of());
+    }
+
+    private Map<String, Object> toGroupBody(Long groupId, String groupName, BigDecimal cashBalance,
+                                            List<TeamHolding> holdings, Map<String, StockPriceDTO> prices) {
         BigDecimal holdingsValue = BigDecimal.ZERO;
+        boolean stale = false;
         List<Map<String, Object>> holdingsList = new ArrayList<>();
-
-        List<TeamHolding> holdings = teamHoldingRepository.findByTeamId(groupId);
         for (TeamHolding h : holdings) {
             try {
                 kisWsSubscriptionManager.ensureSubscribed(h.getStockCode());
@@ -87,16 +119,15 @@ public class GroupController {
             }
             String stockName = (h.getStockName() != null && !h.getStockName().isBlank())
                     ? h.getStockName()
-                    : "종목_" + h.getStockCode();
+                    : stockMasterIndex.displayName(h.getStockCode());
             BigDecimal currentPrice = h.getAveragePurchasePrice();
-            try {
-                var priceDto = kisApiService.getStockPrice(h.getStockCode());
+            StockPriceDTO priceDto = prices.get(h.getStockCode());
+            if (priceDto != null && priceDto.getCurrentPrice() != null) {
                 currentPrice = priceDto.getCurrentPrice();
                 if ((stockName.startsWith("종목_") || stockName.equals("종목_" + h.getStockCode()))
                         && priceDto.getStockName() != null && !priceDto.getStockName().isBlank()) {
                     stockName = priceDto.getStockName();
                 }
-            } catch (Exception ignored) {
             }
             BigDecimal value = currentPrice.multiply(BigDecimal.valueOf(h.getQuantity()));
             holdingsValue = holdingsValue.add(value);
@@ -108,6 +139,7 @@ public class GroupController {
             item.put("averagePrice", h.getAveragePurchasePrice());
             item.put("currentPrice", currentPrice);
             item.put("currentValue", value);
+            stale |= putQuoteFlags(item, priceDto);
             holdingsList.add(item);
         }
 
@@ -125,37 +157,71 @@ public class GroupController {
         body.put("profitLoss", profitLoss);
         body.put("profitLossPercentage", profitLossPercentage);
         body.put("holdings", holdingsList);
-        return ResponseEntity.ok(body);
+        // 한 종목이라도 마지막 정상 시세·평균단가로 평가했으면 totalValue도 현재가 기준이 아님
+        body.put("stale", stale);
+        return body;
     }
 
     @GetMapping("/{groupId}/holdings-summary")
-    public ResponseEntity<List<Map<String, Object>>> getHoldingsSummary(@PathVariable Long groupId) {
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getHoldingsSummary(@PathVariable Long groupId) {
         List<TeamHolding> holdings = teamHoldingRepository.findByTeamId(groupId);
+        return pricesOf(holdings).thenApply(prices -> ResponseEntity.ok(toHoldingsSummary(holdings, prices)));
+    }
+
+    private List<Map<String, Object>> toHoldingsSummary(List<TeamHolding> holdings, Map<String, StockPriceDTO> prices) {
         List<Map<String, Object>> result = new ArrayList<>();
         for (TeamHolding h : holdings) {
             String stockName = (h.getStockName() != null && !h.getStockName().isBlank())
                     ? h.getStockName()
-                    : "종목_" + h.getStockCode();
+                    : stockMasterIndex.displayName(h.getStockCode());
             BigDecimal currentPrice = h.getAveragePurchasePrice();
-            try {
-                var priceDto = kisApiService.getStockPrice(h.getStockCode());
+            StockPriceDTO priceDto = prices.get(h.getStockCode());
+            if (priceDto != null && priceDto.getCurrentPrice() != null) {
                 currentPrice = priceDto.getCurrentPrice();
                 if ((stockName.startsWith("종목_") || stockName.equals("종목_" + h.getStockCode()))
                         && priceDto.getStockName() != null && !priceDto.getStockName().isBlank()) {
                     stockName = priceDto.getStockName();
                 }
-            } catch (Exception ignored) {
             }
-            result.add(Map.<String, Object>of(
-                    "stockCode", h.getStockCode(),
-                    "stockName", stockName,
-                    "quantity", h.getQuantity(),
-                    "averagePurchasePrice", h.getAveragePurchasePrice(),
-                    "currentPrice", currentPrice,
-                    "value", currentPrice.multiply(BigDecimal.valueOf(h.getQuantity()))
-            ));
+            Map<String, Object> item = new HashMap<>();
+            item.put("stockCode", h.getStockCode());
+            item.put("stockName", stockName);
+            item.put("quantity", h.getQuantity());
+            item.put("averagePurchasePrice", h.getAveragePurchasePrice());
+            item.put("currentPrice", currentPrice);
+            item.put("value", currentPrice.multiply(BigDecimal.valueOf(h.getQuantity())));
+            putQuoteFlags(item, priceDto);
+            result.add(item);
         }
-        return ResponseEntity.ok(result);
+        return result;
+    }
+
+    /**
+     * 보유 행의 시세 상태. KIS 장애로 받은 마지막 정상 시세면 stale=true와 quoteAgeSeconds,
+     * 시세가 아예 없어 평균단가로 평가했으면 pricedAtAverage=true(stale=true, 나이 없음). 현재가 기준이 아니면 true 반환.
+     */
+    private static boolean putQuoteFlags(Map<String, Object> item, StockPriceDTO priceDto) {
+        boolean pricedAtAverage = priceDto == null || priceDto.getCurrentPrice() == null;
+        boolean stale = pricedAtAverage || Boolean.TRUE.equals(priceDto.getStale());
+        item.put("stale", stale);
+        item.put("quoteAgeSeconds", pricedAtAverage ? null : priceDto.getQuoteAgeSeconds());
+        item.put("pricedAtAverage", pricedAtAverage);
+        return stale;
+    }
+
+    /**
+     * 팀 평가액 곡선. from/to: epoch millis (기본 최근 1일), step: 다운샘플 간격 초 (0이면 원본 표본).
+     * 점 수가 서버 상한을 넘으면 간격을 자동으로 키운다.
+     */
+    @GetMapping("/{groupId}/equity")
+    public ResponseEntity<List<EquityPointDTO>> getEquityCurve(
+            @PathVariable Long groupId,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            @RequestParam(value = "step", defaultValue = "0") long step) {
+        long toMillis = to != null ? to : System.currentTimeMillis();
+        long fromMillis = from != null ? from : toMillis - TimeUnit.DAYS.toMillis(1);
+        return ResponseEntity.ok(teamEquityRecorder.getSeries(groupId, fromMillis, toMillis, step));
     }
 
     @GetMapping("/{groupId}/members")
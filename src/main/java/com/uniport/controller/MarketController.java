@@ -5,6 +5,8 @@ import com.uniport.dto.IndexChartPriceItemDTO;
 import com.uniport.dto.MarketIndexDTO;
 import com.uniport.dto.StockPriceDTO;
 import com.uniport.service.MarketService;
+import com.uniport.service.RankingCache;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -25,20 +27,24 @@ public class MarketController {
 
     @GetMapping("/volume-rank")
     public ResponseEntity<ApiResponse<List<StockPriceDTO>>> getVolumeRank() {
-        List<StockPriceDTO> list = marketService.getVolumeRank();
-        return ResponseEntity.ok(ApiResponse.ok(list));
+        return rankingResponse(marketService.getRanking(RankingCache.Sort.VOLUME));
     }
 
     @GetMapping("/fluctuation-rank")
     public ResponseEntity<ApiResponse<List<StockPriceDTO>>> getFluctuationRank() {
-        List<StockPriceDTO> list = marketService.getFluctuationRank();
-        return ResponseEntity.ok(ApiResponse.ok(list));
+        return rankingResponse(marketService.getRanking(RankingCache.Sort.RISING));
     }
 
     @GetMapping("/falling-rank")
     public ResponseEntity<ApiResponse<List<StockPriceDTO>>> getFallingRank() {
-        List<StockPriceDTO> list = marketService.getFallingRank();
-        return ResponseEntity.ok(ApiResponse.ok(list));
+        return rankingResponse(marketService.getRanking(RankingCache.Sort.FALLING));
+    }
+
+    /** 순위는 캐시에서 응답. Age 헤더 = 데이터를 KIS에서 받아온 뒤 지난 초. */
+    private static ResponseEntity<ApiResponse<List<StockPriceDTO>>> rankingResponse(RankingCache.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(snapshot.ageSeconds(System.currentTimeMillis())))
+                .body(ApiResponse.ok(snapshot.items()));
     }
 
     @GetMapping("/index")
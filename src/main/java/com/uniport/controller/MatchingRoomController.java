@@ -48,8 +48,9 @@ public class MatchingRoomController {
             @RequestBody(required = false) Map<String, String> body,
             @RequestHeader(value = "Authorization", required = false) String authorization) {
         String name = body != null && body.containsKey("name") ? body.get("name") : "새 매칭방";
+        String competitionId = body != null ? body.get("competitionId") : null;
         User creator = authService.getUserFromTokenOrNull(authorization != null ? authorization : "");
-        return ResponseEntity.ok(matchingRoomService.create(name, creator));
+        return ResponseEntity.ok(matchingRoomService.create(name, competitionId, creator));
     }
 
     @PostMapping("/{roomId}/join")
@@ -69,7 +70,10 @@ public class MatchingRoomController {
     }
 
     @PostMapping("/{roomId}/start")
-    public ResponseEntity<Map<String, Object>> start(@PathVariable String roomId) {
-        return ResponseEntity.ok(matchingRoomService.start(roomId));
+    public ResponseEntity<Map<String, Object>> start(
+            @PathVariable String roomId,
+            @RequestBody(required = false) Map<String, String> body) {
+        String competitionId = body != null ? body.get("competitionId") : null;
+        return ResponseEntity.ok(matchingRoomService.start(roomId, competitionId));
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -52,12 +53,18 @@ public class MeController {
         return ResponseEntity.ok(dto);
     }
 
-    /** 진행 중 대회의 경쟁 팀 목록 (실시간 투자금·수익률·순위). 미로그인 시 빈 배열. DB 팀 랭킹 기준. */
+    /** 진행 중 대회의 경쟁 팀 목록 (실시간 투자금·수익률·순위). 순위 스냅샷 기준, ETag가 같으면 304. */
     @GetMapping("/competition/competing-teams")
     public ResponseEntity<List<Map<String, Object>>> getCompetingTeams(
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            WebRequest request) {
         User user = authService.getUserFromTokenOrNull(authorization != null ? authorization : "");
-        return ResponseEntity.ok(rankingService.getCompetingTeams(null, user));
+        RankingService.Versioned<List<Map<String, Object>>> teams =
+                rankingService.getCompetingTeamsVersioned(null, user);
+        if (request.checkNotModified(teams.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(teams.body());
     }
 
     /** 내가 참가 중인 매칭방 목록 (최신 참가 순). 미로그인 시 빈 배열. */
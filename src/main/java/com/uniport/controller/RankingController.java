@@ -8,13 +8,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
 
 /**
- * 명세 §5: 랭킹. 전체 그룹 랭킹, 내 그룹 랭킹.
+ * 명세 §5: 랭킹. 전체 그룹 랭킹(limit 지정 시 상위 N), 내 그룹 랭킹, 내 그룹 주변 순위.
+ * 전체 그룹 랭킹은 순위 스냅샷 버전을 ETag로 내려주며, If-None-Match가 같으면 304.
+ * sort: profitRate(기본) | sharpe | volatility | maxDrawdown | turnover.
  */
 @RestController
 @RequestMapping("/api/ranking")
@@ -29,8 +33,16 @@ public class RankingController {
     }
 
     @GetMapping("/groups")
-    public ResponseEntity<List<Map<String, Object>>> getGroups() {
-        return ResponseEntity.ok(rankingService.getAllGroupsRanking());
+    public ResponseEntity<List<Map<String, Object>>> getGroups(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "sort", required = false) String sort,
+            WebRequest request) {
+        RankingService.Versioned<List<Map<String, Object>>> ranking =
+                rankingService.getAllGroupsRankingVersioned(limit, RankingService.RankingSort.from(sort));
+        if (request.checkNotModified(ranking.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(ranking.body());
     }
 
     @GetMapping("/my-group")
@@ -40,4 +52,13 @@ public class RankingController {
         Map<String, Object> my = user != null ? rankingService.getMyGroupRanking(user) : null;
         return my != null ? ResponseEntity.ok(my) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
+
+    @GetMapping("/my-group/around")
+    public ResponseEntity<List<Map<String, Object>>> getAroundMyGroup(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestParam(value = "radius", defaultValue = "2") int radius) {
+        User user = authService.getUserFromTokenOrNull(authorization != null ? authorization : "");
+        List<Map<String, Object>> around = user != null ? rankingService.getGroupsAroundMe(user, radius) : null;
+        return around != null ? ResponseEntity.ok(around) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
 }
@@ -1,7 +1,10 @@
 package com.uniport.controller;
 
 import com.uniport.dto.ApiResponse;
+import com.uniport.dto.MinuteCandleDTO;
+import com.uniport.dto.StockChartPriceItemDTO;
 import com.uniport.dto.StockPriceDTO;
+import com.uniport.service.ChartService;
 import com.uniport.service.StockService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +19,11 @@ import java.util.List;
 public class StockController {
 
     private final StockService stockService;
+    private final ChartService chartService;
 
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, ChartService chartService) {
         this.stockService = stockService;
+        this.chartService = chartService;
     }
 
     @GetMapping("/price")
@@ -32,4 +37,24 @@ public class StockController {
         List<StockPriceDTO> list = stockService.searchStocks(keyword != null ? keyword : "");
         return ResponseEntity.ok(ApiResponse.ok(list));
     }
+
+    /** 일/주/월/년 종목 차트 시세 (최신일부터). code=종목코드, startDate/endDate=yyyyMMdd, period=D|W|M|Y */
+    @GetMapping("/chart")
+    public ResponseEntity<ApiResponse<List<StockChartPriceItemDTO>>> getChart(
+            @RequestParam("code") String stockCode,
+            @RequestParam("startDate") String startDate,
+            @RequestParam("endDate") String endDate,
+            @RequestParam(value = "period", defaultValue = "D") String period) {
+        List<StockChartPriceItemDTO> list = chartService.getStockChart(stockCode, startDate, endDate, period);
+        return ResponseEntity.ok(ApiResponse.ok(list));
+    }
+
+    /** 당일 1분봉 (오래된 것부터 최근 limit개). 실시간 체결이 들어온 종목만 채워진다. */
+    @GetMapping("/chart/minute")
+    public ResponseEntity<ApiResponse<List<MinuteCandleDTO>>> getMinuteChart(
+            @RequestParam("code") String stockCode,
+            @RequestParam(value = "limit", defaultValue = "390") int limit) {
+        List<MinuteCandleDTO> list = chartService.getMinuteCandles(stockCode, limit);
+        return ResponseEntity.ok(ApiResponse.ok(list));
+    }
 }
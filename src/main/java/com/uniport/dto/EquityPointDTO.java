@@ -0,0 +1,24 @@
+package com.uniport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 팀 평가액 곡선의 한 점. 다운샘플 구간이면 구간 안 평가액의 시가·고가·저가·종가.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EquityPointDTO {
+
+    private long time;      // 구간 시작 시각 (epoch millis)
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+}
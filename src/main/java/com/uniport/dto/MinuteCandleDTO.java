@@ -0,0 +1,23 @@
+package com.uniport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 실시간 체결로 만든 1분봉 DTO.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MinuteCandleDTO {
+
+    private long time;      // 분 시작 시각 (epoch millis)
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;    // 해당 분 거래량 (누적거래량 차분)
+}
@@ -0,0 +1,25 @@
+package com.uniport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 종목 일/주/월/년 차트 시세 1건 DTO (KIS inquire-daily-itemchartprice).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockChartPriceItemDTO {
+
+    private String date;       // 영업일자 (yyyyMMdd)
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private Long volume;       // 누적 거래량
+}
@@ -1,5 +1,6 @@
 package com.uniport.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,4 +22,10 @@ public class StockHoldingItemDTO {
     private BigDecimal profitLoss;
     private BigDecimal profitLossPercentage;
     private String logoColor;
+    /** 현재가가 KIS 장애로 받은 마지막 정상 시세면 true (정상 조회면 생략) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+    /** stale일 때 시세 나이(초) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long quoteAgeSeconds;
 }
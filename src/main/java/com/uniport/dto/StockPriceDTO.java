@@ -1,5 +1,6 @@
 package com.uniport.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,4 +23,10 @@ public class StockPriceDTO {
     private BigDecimal changeAmount;   // 전일 대비 변동 금액
     private BigDecimal changeRate;    // 변동률 (%)
     private Long volume;              // 거래량
+    /** KIS 장애로 마지막 정상 시세를 대신 반환했으면 true (정상 조회면 생략) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+    /** stale일 때 시세 나이(초) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long quoteAgeSeconds;
 }
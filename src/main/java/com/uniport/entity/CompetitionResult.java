@@ -0,0 +1,55 @@
+package com.uniport.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * 종료된 대회의 최종 순위 한 줄. 대회가 ended가 되는 시점의 대회 순위표를 그대로 고정해 저장한다.
+ */
+@Entity
+@Table(name = "competition_results",
+        indexes = @Index(name = "idx_competition_results_competition", columnList = "competition_id, team_rank"))
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CompetitionResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "competition_id", nullable = false)
+    private Long competitionId;
+
+    /** 매칭방(팀) ID */
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    @Column(name = "team_name", length = 100)
+    private String teamName;
+
+    /** 종료 시점 평가액 */
+    @Column(name = "final_assets", nullable = false, precision = 19, scale = 4)
+    private BigDecimal finalAssets;
+
+    /** 1부터 시작 */
+    @Column(name = "team_rank", nullable = false)
+    private int teamRank;
+
+    @Column(name = "frozen_at", nullable = false)
+    private Instant frozenAt;
+}
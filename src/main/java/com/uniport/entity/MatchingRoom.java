@@ -44,6 +44,10 @@ public class MatchingRoom {
     @Builder.Default
     private String status = "waiting";  // waiting, started
 
+    /** 소속 대회. 방 시작 시 진행 중 대회로 정해지며, 대회가 없으면 null (전체 랭킹에만 포함) */
+    @Column(name = "competition_id")
+    private Long competitionId;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -0,0 +1,54 @@
+package com.uniport.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * 팀 평가액 시계열의 마감된 블록 1개. payload는 시각 delta-of-delta + 평가액 XOR 비트 압축
+ * ({@link com.uniport.service.equity.EquityBlock}).
+ */
+@Entity
+@Table(name = "team_equity_blocks",
+        indexes = @Index(name = "idx_team_equity_blocks_team_start", columnList = "team_id, start_seconds"))
+@Data
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class TeamEquityBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 매칭방(팀) ID */
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    /** 첫 표본 시각 (epoch seconds) */
+    @Column(name = "start_seconds", nullable = false)
+    private long startSeconds;
+
+    /** 마지막 표본 시각 (epoch seconds) */
+    @Column(name = "end_seconds", nullable = false)
+    private long endSeconds;
+
+    @Column(nullable = false)
+    private int sampleCount;
+
+    /** 압축 블록. @Lob이면 PostgreSQL에서 oid(large object)로 가므로 bytea/varbinary로 매핑 */
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(nullable = false, length = 65535)
+    private byte[] payload;
+}
@@ -0,0 +1,13 @@
+package com.uniport.repository;
+
+import com.uniport.entity.CompetitionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CompetitionResultRepository extends JpaRepository<CompetitionResult, Long> {
+
+    List<CompetitionResult> findByCompetitionIdOrderByTeamRankAsc(Long competitionId);
+
+    void deleteByCompetitionId(Long competitionId);
+}
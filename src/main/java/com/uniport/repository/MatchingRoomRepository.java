@@ -8,4 +8,9 @@ import java.util.List;
 public interface MatchingRoomRepository extends JpaRepository<MatchingRoom, Long> {
 
     List<MatchingRoom> findAllByOrderByCreatedAtDesc();
+
+    List<MatchingRoom> findByStatus(String status);
+
+    /** 대회가 정해지지 않은 방 (대회 도입 이전에 시작된 방 등) */
+    List<MatchingRoom> findByStatusAndCompetitionIdIsNull(String status);
 }
@@ -2,6 +2,8 @@ package com.uniport.repository;
 
 import com.uniport.entity.TeamAccount;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,4 +11,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface TeamAccountRepository extends JpaRepository<TeamAccount, Long> {
 
     Optional<TeamAccount> findByTeamId(Long teamId);
+
+    /** 여러 팀 계정 일괄 조회 (평가 엔진 전체 재적재용) */
+    List<TeamAccount> findByTeamIdIn(Collection<Long> teamIds);
 }
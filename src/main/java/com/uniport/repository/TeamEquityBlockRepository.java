@@ -0,0 +1,26 @@
+package com.uniport.repository;
+
+import com.uniport.entity.TeamEquityBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface TeamEquityBlockRepository extends JpaRepository<TeamEquityBlock, Long> {
+
+    /** [fromSeconds, toSeconds]와 겹치는 팀 블록 (시작 시각 순) */
+    @Query("SELECT b FROM TeamEquityBlock b WHERE b.teamId = :teamId AND b.endSeconds >= :fromSeconds "
+            + "AND b.startSeconds <= :toSeconds ORDER BY b.startSeconds ASC")
+    List<TeamEquityBlock> findOverlapping(@Param("teamId") Long teamId,
+                                          @Param("fromSeconds") long fromSeconds,
+                                          @Param("toSeconds") long toSeconds);
+
+    /** 보관 기간이 지난 블록 삭제 (마지막 표본이 cutoffSeconds 이전) */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TeamEquityBlock b WHERE b.endSeconds < :cutoffSeconds")
+    int deleteEndedBefore(@Param("cutoffSeconds") long cutoffSeconds);
+}
@@ -2,14 +2,23 @@ package com.uniport.repository;
 
 import com.uniport.entity.TeamHolding;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface TeamHoldingRepository extends JpaRepository<TeamHolding, Long> {
 
     List<TeamHolding> findByTeamId(Long teamId);
 
+    /** 여러 팀 보유 종목 일괄 조회 (평가 엔진 전체 재적재용) */
+    List<TeamHolding> findByTeamIdIn(Collection<Long> teamIds);
+
     Optional<TeamHolding> findByTeamIdAndStockCode(Long teamId, String stockCode);
+
+    /** 어느 팀이든 보유 중인 종목코드 (실시간 구독 고정용) */
+    @Query("SELECT DISTINCT h.stockCode FROM TeamHolding h")
+    List<String> findDistinctStockCodes();
 }
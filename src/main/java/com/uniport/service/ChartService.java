@@ -0,0 +1,179 @@
+package com.uniport.service;
+
+import com.uniport.dto.IndexChartPriceItemDTO;
+import com.uniport.dto.MinuteCandleDTO;
+import com.uniport.dto.StockChartPriceItemDTO;
+import com.uniport.exception.ApiException;
+import com.uniport.service.candle.Candle;
+import com.uniport.service.candle.CandleStore;
+import com.uniport.service.kisws.IntradayCandleBuilder;
+import com.uniport.service.kisws.KrxMarketCalendar;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 지수·종목 차트 시세. {@link CandleStore}에서 구간 조회하고, 저장소에 없는 구간(주로 최근 꼬리)만 KIS에서 받는다.
+ * 응답은 기존 KIS 차트 API와 같이 최신일부터. 당일 1분봉은 실시간 체결로 만든 {@link IntradayCandleBuilder}에서 읽는다.
+ */
+@Service
+public class ChartService {
+
+    private static final DateTimeFormatter YYYYMMDD = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final KisApiService kisApiService;
+    private final CandleStore candleStore;
+    private final IntradayCandleBuilder intradayCandleBuilder;
+    private final StockMasterIndex stockMasterIndex;
+
+    public ChartService(KisApiService kisApiService, CandleStore candleStore,
+                        IntradayCandleBuilder intradayCandleBuilder, StockMasterIndex stockMasterIndex) {
+        this.kisApiService = kisApiService;
+        this.candleStore = candleStore;
+        this.intradayCandleBuilder = intradayCandleBuilder;
+        this.stockMasterIndex = stockMasterIndex;
+    }
+
+    /** 일/주/월/년 지수 차트. indexCode=KOSPI|KOSDAQ(또는 0001|1001), 날짜 yyyyMMdd, period=D|W|M|Y */
+    public List<IndexChartPriceItemDTO> getIndexChart(String indexCode, String startDate, String endDate, String period) {
+        if (indexCode == null || indexCode.isBlank()) {
+            throw new ApiException("Index code is required", HttpStatus.BAD_REQUEST);
+        }
+        String p = normalizePeriod(period);
+        int from = parseDate(startDate);
+        int to = clampToToday(parseDate(endDate));
+        checkRange(from, to);
+        List<Candle> candles = candleStore.getRange(CandleStore.Kind.INDEX, KisApiService.toIndexFidInputIscd(indexCode),
+                p, from, to, (f, t) -> {
+                    List<Candle> out = new ArrayList<>();
+                    for (IndexChartPriceItemDTO item : kisApiService.getIndexChartPrice(indexCode, format(f), format(t), p)) {
+                        Integer date = toDateOrNull(item.getDate());
+                        if (date != null) {
+                            out.add(new Candle(date, Candle.toFixed(item.getOpen()), Candle.toFixed(item.getHigh()),
+                                    Candle.toFixed(item.getLow()), Candle.toFixed(item.getClose()), 0L));
+                        }
+                    }
+                    return out;
+                });
+        List<IndexChartPriceItemDTO> list = new ArrayList<>(candles.size());
+        for (int i = candles.size() - 1; i >= 0; i--) {
+            Candle c = candles.get(i);
+            list.add(IndexChartPriceItemDTO.builder()
+                    .date(format(c.date()))
+                    .open(Candle.fromFixed(c.open()))
+                    .high(Candle.fromFixed(c.high()))
+                    .low(Candle.fromFixed(c.low()))
+                    .close(Candle.fromFixed(c.close()))
+                    .build());
+        }
+        return list;
+    }
+
+    /**
+     * 일/주/월/년 종목 차트 (수정주가). 날짜 yyyyMMdd, period=D|W|M|Y.
+     * 종목 마스터가 적재돼 있으면 없는 코드는 캔들 저장소에 닿기 전에 404.
+     */
+    public List<StockChartPriceItemDTO> getStockChart(String stockCode, String startDate, String endDate, String period) {
+        if (stockCode == null || stockCode.isBlank()) {
+            throw new ApiException("Stock code is required", HttpStatus.BAD_REQUEST);
+        }
+        String code = stockCode.trim();
+        if (stockMasterIndex.isLoaded() && stockMasterIndex.nameOf(code) == null) {
+            throw new ApiException("Unknown stock code: " + code, HttpStatus.NOT_FOUND);
+        }
+        String p = normalizePeriod(period);
+        int from = parseDate(startDate);
+        int to = clampToToday(parseDate(endDate));
+        checkRange(from, to);
+        List<Candle> candles = candleStore.getRange(CandleStore.Kind.STOCK, code, p, from, to, (f, t) -> {
+            List<Candle> out = new ArrayList<>();
+            for (StockChartPriceItemDTO item : kisApiService.getStockChartPrice(code, format(f), format(t), p)) {
+                Integer date = toDateOrNull(item.getDate());
+                if (date != null) {
+                    out.add(new Candle(date, Candle.toFixed(item.getOpen()), Candle.toFixed(item.getHigh()),
+                            Candle.toFixed(item.getLow()), Candle.toFixed(item.getClose()),
+                            item.getVolume() != null ? item.getVolume() : 0L));
+                }
+            }
+            return out;
+        });
+        List<StockChartPriceItemDTO> list = new ArrayList<>(candles.size());
+        for (int i = candles.size() - 1; i >= 0; i--) {
+            Candle c = candles.get(i);
+            list.add(StockChartPriceItemDTO.builder()
+                    .date(format(c.date()))
+                    .open(Candle.fromFixed(c.open()))
+                    .high(Candle.fromFixed(c.high()))
+                    .low(Candle.fromFixed(c.low()))
+                    .close(Candle.fromFixed(c.close()))
+                    .volume(c.volume())
+                    .build());
+        }
+        return list;
+    }
+
+    /**
+     * 당일 1분봉 (오래된 것부터 최근 limit개). 실시간 체결을 받는 종목(시세 조회로 WS 구독된 종목)만 봉이 쌓이며,
+     * 없으면 빈 리스트.
+     */
+    public List<MinuteCandleDTO> getMinuteCandles(String stockCode, int limit) {
+        if (stockCode == null || stockCode.isBlank()) {
+            throw new ApiException("Stock code is required", HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1) {
+            throw new ApiException("limit must be positive", HttpStatus.BAD_REQUEST);
+        }
+        return intradayCandleBuilder.getCandles(stockCode.trim(), limit);
+    }
+
+    private static String normalizePeriod(String period) {
+        String p = period != null ? period.trim().toUpperCase() : "D";
+        if (!p.matches("^[DWMY]$")) {
+            throw new ApiException("period must be D(일봉), W(주봉), M(월봉), or Y(년봉)", HttpStatus.BAD_REQUEST);
+        }
+        return p;
+    }
+
+    private static int parseDate(String yyyymmdd) {
+        if (yyyymmdd == null || yyyymmdd.isBlank()) {
+            throw new ApiException("Start date and end date are required (yyyyMMdd)", HttpStatus.BAD_REQUEST);
+        }
+        Integer date = toDateOrNull(yyyymmdd.trim());
+        if (date == null) {
+            throw new ApiException("Invalid date (yyyyMMdd): " + yyyymmdd, HttpStatus.BAD_REQUEST);
+        }
+        return date;
+    }
+
+    private static Integer toDateOrNull(String yyyymmdd) {
+        if (yyyymmdd == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(LocalDate.parse(yyyymmdd.trim(), YYYYMMDD).format(YYYYMMDD));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** 미래 날짜는 오늘(KST)로. 꼬리 재수신 판단이 요청마다 달라지지 않게. */
+    private static int clampToToday(int date) {
+        int today = Integer.parseInt(LocalDate.now(KrxMarketCalendar.KST).format(YYYYMMDD));
+        return Math.min(date, today);
+    }
+
+    private static void checkRange(int from, int to) {
+        if (from > to) {
+            throw new ApiException("startDate must not be after endDate", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private static String format(int yyyymmdd) {
+        return Integer.toString(yyyymmdd);
+    }
+}
@@ -3,6 +3,7 @@ package com.uniport.service;
 import com.uniport.entity.Competition;
 import com.uniport.exception.ApiException;
 import com.uniport.repository.CompetitionRepository;
+import com.uniport.service.valuation.CompetitionLeaderboards;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,14 +14,18 @@ import java.util.Map;
 
 /**
  * 대회 CRUD 및 진행 중 대회 조회. 어드민에서 설정한 종료일을 홈/대회 API에서 사용.
+ * 상태가 바뀌면 {@link CompetitionLeaderboards}에 알린다 (ongoing: 대회 없는 시작 방 편입, ended: 최종 순위 고정).
  */
 @Service
 public class CompetitionService {
 
     private final CompetitionRepository competitionRepository;
+    private final CompetitionLeaderboards competitionLeaderboards;
 
-    public CompetitionService(CompetitionRepository competitionRepository) {
+    public CompetitionService(CompetitionRepository competitionRepository,
+                              CompetitionLeaderboards competitionLeaderboards) {
         this.competitionRepository = competitionRepository;
+        this.competitionLeaderboards = competitionLeaderboards;
     }
 
     public List<Competition> findAll() {
@@ -57,13 +62,16 @@ public class CompetitionService {
         if (endDate != null && startDate != null && endDate.compareTo(startDate) <= 0) {
             throw new ApiException("종료일은 시작일보다 이후여야 합니다.", HttpStatus.BAD_REQUEST);
         }
+        String previousStatus = c.getStatus();
         if (name != null) c.setName(name);
         if (startDate != null) c.setStartDate(startDate);
         if (endDate != null) c.setEndDate(endDate);
         if (status != null && ("ongoing".equals(status) || "upcoming".equals(status) || "ended".equals(status))) {
             c.setStatus(status);
         }
-        return competitionRepository.save(c);
+        Competition saved = competitionRepository.save(c);
+        competitionLeaderboards.onStatusChanged(saved.getId(), previousStatus, saved.getStatus());
+        return saved;
     }
 
     public Map<String, Object> toMap(Competition c) {
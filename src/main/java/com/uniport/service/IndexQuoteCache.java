@@ -0,0 +1,262 @@
+package com.uniport.service;
+
+import com.uniport.dto.MarketIndexDTO;
+import com.uniport.exception.ApiException;
+import com.uniport.service.kisws.KrxMarketCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * KOSPI/KOSDAQ 지수 메모리 캐시. 값은 WS 실시간 지수(H0UPCNT0)로 들어오고, 조회는 메모리에서 끝난다.
+ * WS가 끊겼거나 장중에 kis.index.stale-seconds 동안 틱이 없으면 백그라운드에서 REST로 채운다.
+ * 장 마감 후에는 마감 이후 값이 없을 때만 REST로 한 번 받는다. 백그라운드 REST 갱신은 BACKGROUND 우선순위로 호출한다.
+ * 값이 빠진 REST 응답은 저장하지 않는다 (자리표시 값을 실제 시세로 남기지 않게).
+ */
+@Component
+public class IndexQuoteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexQuoteCache.class);
+
+    /** KIS 업종(지수) 실시간 체결 tr_id */
+    public static final String TR_ID_INDEX_TRADE = "H0UPCNT0";
+
+    /**
+     * H0UPCNT0 레코드(^ 구분) 필드 순서 (KIS 명세):
+     * [0]BSTP_CLS_CODE, [1]BSOP_HOUR, [2]PRPR_NMIX, [3]PRDY_VRSS_SIGN, [4]BSTP_NMIX_PRDY_VRSS, ... [9]PRDY_CTRT
+     */
+    private static final int IDX_CODE = 0;
+    private static final int IDX_VALUE = 2;
+    private static final int IDX_SIGN = 3;
+    private static final int IDX_CHANGE = 4;
+    private static final int IDX_CHANGE_RATE = 9;
+
+    public static final String SOURCE_WS = "ws";
+    public static final String SOURCE_REST = "rest";
+
+    /** 캐시된 지수 1건. index는 공유되므로 변경하지 않는다. */
+    public record IndexQuote(MarketIndexDTO index, long updatedAtMillis, String source) {
+    }
+
+    private final KisApiService kisApiService;
+    private final KrxMarketCalendar marketCalendar;
+    private final List<String> codes;
+    private final long refreshIntervalMillis;
+    private final long staleMillis;
+
+    private final ConcurrentHashMap<String, IndexQuote> quotes = new ConcurrentHashMap<>();
+    private final LongAdder wsUpdates = new LongAdder();
+    private final LongAdder restRefreshes = new LongAdder();
+    private final LongAdder restFailures = new LongAdder();
+    private final LongAdder blockingLoads = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-index-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public IndexQuoteCache(KisApiService kisApiService, KrxMarketCalendar marketCalendar,
+                           @Value("${kis.index.codes:0001,1001}") String codes,
+                           @Value("${kis.index.refresh-seconds:5}") long refreshSeconds,
+                           @Value("${kis.index.stale-seconds:15}") long staleSeconds) {
+        this.kisApiService = kisApiService;
+        this.marketCalendar = marketCalendar;
+        List<String> parsed = new ArrayList<>();
+        for (String token : codes.split(",")) {
+            if (token.isBlank()) {
+                continue;
+            }
+            String code = KisApiService.toIndexFidInputIscd(token);
+            if (!parsed.contains(code)) {
+                parsed.add(code);
+            }
+        }
+        this.codes = List.copyOf(parsed);
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1L, refreshSeconds));
+        this.staleMillis = TimeUnit.SECONDS.toMillis(staleSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshStale, 0L, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** WS로 실시간 등록할 지수 업종코드 (0001=KOSPI, 1001=KOSDAQ) */
+    public List<String> getRealtimeCodes() {
+        return codes;
+    }
+
+    /**
+     * 지수 조회 (KOSPI|KOSDAQ|0001|1001). 캐시에 있으면 메모리에서 반환.
+     * 아직 한 번도 받지 못했으면 요청 스레드에서 REST 조회 후 캐시.
+     */
+    public MarketIndexDTO get(String indexCode) {
+        String code = KisApiService.toIndexFidInputIscd(indexCode);
+        IndexQuote quote = quotes.get(code);
+        if (quote == null) {
+            blockingLoads.increment();
+            quote = loadRest(code, KisPriority.MARKET_DATA);
+        }
+        MarketIndexDTO cached = quote.index();
+        return MarketIndexDTO.builder()
+                .indexCode(indexCode)
+                .indexName(cached.getIndexName())
+                .value(cached.getValue())
+                .changeAmount(cached.getChangeAmount())
+                .changeRate(cached.getChangeRate())
+                .build();
+    }
+
+    /**
+     * H0UPCNT0 평문 프레임 반영. WS 리더 스레드에서 호출 (지수 틱은 초당 몇 건이라 split 허용).
+     * 프레임: 0|H0UPCNT0|{건수}|{필드^필드^...}
+     */
+    public void onRealtimeFrame(CharSequence frame, long nowMillis) {
+        String[] parts = frame.toString().split("\\|", 4);
+        if (parts.length < 4 || !"0".equals(parts[0]) || !TR_ID_INDEX_TRADE.equals(parts[1])) {
+            return;
+        }
+        String[] fields = parts[3].split("\\^", -1);
+        int count = 1;
+        try {
+            count = Math.max(1, Integer.parseInt(parts[2].trim()));
+        } catch (NumberFormatException ignored) {
+        }
+        int stride = fields.length / count;
+        if (stride <= IDX_CHANGE_RATE) {
+            return;
+        }
+        for (int r = 0; r < count; r++) {
+            int base = r * stride;
+            String code = fields[base + IDX_CODE].trim();
+            BigDecimal value = parseDecimal(fields[base + IDX_VALUE]);
+            if (code.isEmpty() || value == null) {
+                continue;
+            }
+            BigDecimal change = orZero(parseDecimal(fields[base + IDX_CHANGE]));
+            BigDecimal rate = orZero(parseDecimal(fields[base + IDX_CHANGE_RATE]));
+            // 부호 4(하한)·5(하락)인데 양수로 오면 음수로
+            String sign = fields[base + IDX_SIGN].trim();
+            if (("4".equals(sign) || "5".equals(sign)) && change.signum() > 0) {
+                change = change.negate();
+                rate = rate.abs().negate();
+            }
+            quotes.put(code, new IndexQuote(MarketIndexDTO.builder()
+                    .indexCode(code)
+                    .indexName(nameOf(code))
+                    .value(value)
+                    .changeAmount(change)
+                    .changeRate(rate)
+                    .build(), nowMillis, SOURCE_WS));
+            wsUpdates.increment();
+        }
+    }
+
+    /** 장중에 오래된 값, 마감 후 마감 이전 값만 REST로 다시 받는다 */
+    private void refreshStale() {
+        if (!kisApiService.isKisConfigured()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean open = marketCalendar.isOpen(now);
+        long lastClose = marketCalendar.lastCloseMillis(now);
+        for (String code : codes) {
+            IndexQuote q = quotes.get(code);
+            boolean due = q == null
+                    || (open ? now - q.updatedAtMillis() >= staleMillis : q.updatedAtMillis() < lastClose);
+            if (due) {
+                try {
+                    loadRest(code, KisPriority.BACKGROUND);
+                } catch (RuntimeException e) {
+                    log.debug("index refresh failed for {}: {}", code, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** REST로 받은 값만 저장. 값이 없는 응답은 실패로 두어 기존 값(WS/REST)을 유지하고 다음 갱신에서 다시 받는다. */
+    private IndexQuote loadRest(String code, KisPriority priority) {
+        try {
+            MarketIndexDTO dto = kisApiService.getMarketIndex(code, priority);
+            if (dto == null || dto.getValue() == null) {
+                throw new ApiException("KIS index price response has no value", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            IndexQuote quote = new IndexQuote(MarketIndexDTO.builder()
+                    .indexCode(code)
+                    .indexName(nameOf(code))
+                    .value(dto.getValue())
+                    .changeAmount(dto.getChangeAmount() != null ? dto.getChangeAmount() : BigDecimal.ZERO)
+                    .changeRate(dto.getChangeRate() != null ? dto.getChangeRate() : BigDecimal.ZERO)
+                    .build(), System.currentTimeMillis(), SOURCE_REST);
+            // 그 사이 WS 틱이 들어왔으면 더 새 값 유지
+            IndexQuote merged = quotes.merge(code, quote,
+                    (old, fresh) -> old.updatedAtMillis() > fresh.updatedAtMillis() ? old : fresh);
+            restRefreshes.increment();
+            return merged;
+        } catch (RuntimeException e) {
+            restFailures.increment();
+            throw e;
+        }
+    }
+
+    private static String nameOf(String code) {
+        return "1001".equals(code) ? "KOSDAQ" : "KOSPI";
+    }
+
+    private static BigDecimal parseDecimal(String s) {
+        if (s == null || s.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+
+    /** 지수별 값·나이·출처와 WS/REST 갱신 수. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> perCode = new LinkedHashMap<>();
+        for (String code : codes) {
+            IndexQuote q = quotes.get(code);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("value", q != null ? q.index().getValue() : null);
+            m.put("ageMillis", q != null ? now - q.updatedAtMillis() : null);
+            m.put("source", q != null ? q.source() : null);
+            perCode.put(nameOf(code), m);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("wsUpdates", wsUpdates.sum());
+        stats.put("restRefreshes", restRefreshes.sum());
+        stats.put("restFailures", restFailures.sum());
+        stats.put("blockingLoads", blockingLoads.sum());
+        stats.put("indices", perCode);
+        return stats;
+    }
+}
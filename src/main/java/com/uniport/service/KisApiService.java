@@ -3,13 +3,21 @@ package com.uniport.service;
 import com.uniport.dto.IndexChartPriceItemDTO;
 import com.uniport.dto.MarketIndexDTO;
 import com.uniport.dto.OrderResponseDTO;
+import com.uniport.dto.StockChartPriceItemDTO;
 import com.uniport.dto.StockPriceDTO;
 import com.uniport.entity.OrderStatus;
 import com.uniport.entity.OrderType;
 import com.uniport.exception.ApiException;
-import com.uniport.service.kisws.PriceCache;
-import com.uniport.service.kisws.PriceSnapshot;
+import com.uniport.service.kisrest.KisChartRow;
+import com.uniport.service.kisrest.KisIndexRow;
+import com.uniport.service.kisrest.KisPriceRow;
+import com.uniport.service.kisrest.KisResponse;
+import com.uniport.service.kisrest.KisResponseReader;
+import com.uniport.service.kisrest.KisRowDecoder;
 import com.uniport.service.kisws.KisWsSubscriptionManager;
+import com.uniport.service.kisws.QuoteFreshnessPolicy;
+import com.uniport.service.kisws.QuoteStore;
+import com.uniport.service.kisws.QuoteView;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpEntity;
@@ -29,11 +37,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * KIS(한국투자증권) Open API 연동 서비스.
@@ -55,6 +67,8 @@ public class KisApiService {
     private static final String INDEX_PRICE_PATH = "/uapi/domestic-stock/v1/quotations/inquire-index-price";
     /** 지수 일/주/월/년 차트 시세 */
     private static final String INDEX_CHART_PRICE_PATH = "/uapi/domestic-stock/v1/quotations/inquire-daily-indexchartprice";
+    /** 종목 일/주/월/년 차트 시세 */
+    private static final String STOCK_CHART_PRICE_PATH = "/uapi/domestic-stock/v1/quotations/inquire-daily-itemchartprice";
     private static final String TR_ID_STOCK_PRICE = "FHKST01010100";
     /** 거래량 순위 조회 전용 tr_id (현재가 조회 FHKST01010100과 구분) */
     private static final String TR_ID_VOLUME_RANK = "FHPST01710000";
@@ -63,19 +77,23 @@ public class KisApiService {
     private static final String TR_ID_INDEX_PRICE = "FHPUP02100000";
     /** 지수 차트 시세 tr_id */
     private static final String TR_ID_INDEX_CHART = "FHKUP03500100";
-    private static final int TOKEN_REFRESH_BUFFER_SECONDS = 60;
+    /** 종목 차트 시세 tr_id */
+    private static final String TR_ID_STOCK_CHART = "FHKST03010100";
     /** approval_key TTL 23시간 */
     private static final long APPROVAL_KEY_TTL_MILLIS = 23L * 60 * 60 * 1000;
-    /** approval_key 만료 5분 전까지 캐시 재사용 */
-    private static final long APPROVAL_KEY_REFRESH_BUFFER_MILLIS = 5L * 60 * 1000;
     /** KIS 미설정 시 전역 예외 처리에서 503 + code/message/configured 응답에 사용 */
     public static final String ERROR_CODE_KIS_NOT_CONFIGURED = "KIS_NOT_CONFIGURED";
 
-    private static final long PRICE_CACHE_FRESH_MILLIS = 3000L;
-
     private final RestTemplate restTemplate;
     private final KisWsSubscriptionManager kisWsSubscriptionManager;
-    private final PriceCache priceCache;
+    private final QuoteStore quoteStore;
+    private final QuoteFreshnessPolicy quoteFreshnessPolicy;
+    private final KisRateLimiter kisRateLimiter;
+    private final RankingCache rankingCache;
+    private final StockMasterIndex stockMasterIndex;
+    private final KisResponseReader kisResponseReader;
+    private final KisCircuitBreaker kisCircuitBreaker;
+    private final KisCredentialManager kisCredentialManager;
 
     @Value("${kis.api.base-url:https://openapi.koreainvestment.com:9443}")
     private String baseUrl;
@@ -88,22 +106,33 @@ public class KisApiService {
     @Value("${kis.api.use-mock:false}")
     private boolean useMock;
 
-    private final AtomicReference<String> cachedAccessToken = new AtomicReference<>();
-    private volatile long tokenExpiresAtMillis = 0L;
-    /** 동시에 한 번만 토큰 발급되도록 락 (배포 시 레이트리밋/지연 방지) */
-    private final ReentrantLock tokenIssueLock = new ReentrantLock();
-
-    private volatile String cachedApprovalKey;
-    private volatile long approvalKeyExpiresAtMillis = 0L;
-    /** 동시에 한 번만 approval_key 발급되도록 락 */
-    private final ReentrantLock approvalKeyLock = new ReentrantLock();
+    /** 같은 조회가 동시에 몰리면(캐시 miss 폭주) KIS 호출은 한 번만 하고 결과를 공유 */
+    private final SingleFlight<PriceFlightKey, StockPriceDTO> stockPriceFlight = new SingleFlight<>("stockPrice");
+    private final SingleFlight<String, List<StockPriceDTO>> rankingFlight = new SingleFlight<>("ranking");
+    private final SingleFlight<String, MarketIndexDTO> indexFlight = new SingleFlight<>("marketIndex");
+    private final SingleFlight<String, List<IndexChartPriceItemDTO>> indexChartFlight = new SingleFlight<>("indexChart");
+    private final SingleFlight<String, List<StockChartPriceItemDTO>> stockChartFlight = new SingleFlight<>("stockChart");
 
     public KisApiService(RestTemplate restTemplate,
                          @Lazy KisWsSubscriptionManager kisWsSubscriptionManager,
-                         PriceCache priceCache) {
+                         QuoteStore quoteStore,
+                         @Lazy QuoteFreshnessPolicy quoteFreshnessPolicy,
+                         KisRateLimiter kisRateLimiter,
+                         @Lazy RankingCache rankingCache,
+                         StockMasterIndex stockMasterIndex,
+                         KisResponseReader kisResponseReader,
+                         KisCircuitBreaker kisCircuitBreaker,
+                         KisCredentialManager kisCredentialManager) {
         this.restTemplate = restTemplate;
         this.kisWsSubscriptionManager = kisWsSubscriptionManager;
-        this.priceCache = priceCache;
+        this.quoteStore = quoteStore;
+        this.quoteFreshnessPolicy = quoteFreshnessPolicy;
+        this.kisRateLimiter = kisRateLimiter;
+        this.rankingCache = rankingCache;
+        this.stockMasterIndex = stockMasterIndex;
+        this.kisResponseReader = kisResponseReader;
+        this.kisCircuitBreaker = kisCircuitBreaker;
+        this.kisCredentialManager = kisCredentialManager;
     }
 
     private String getBaseUrl() {
@@ -125,25 +154,26 @@ public class KisApiService {
     }
 
     /**
-     * KIS OAuth2 접근토큰 발급. POST /oauth2/tokenP (인증-001).
-     * access_token + 만료시간 메모리 캐시, 만료 60초 전까지 재사용.
-     * 동시 요청 시 락으로 1회만 발급(배포 시 레이트리밋/지연 방지).
+     * KIS OAuth2 접근토큰. 발급·보관·만료 전 갱신은 {@link KisCredentialManager}가 맡고,
+     * 여기서는 메모리에 있는 유효 토큰을 돌려준다 (없을 때만 호출 스레드에서 발급).
      */
     public String getAccessToken() {
+        if (!isConfigured()) {
+            throw new ApiException("KIS API appkey/appsecret not configured", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return kisCredentialManager.getAccessToken();
+    }
+
+    /**
+     * 접근토큰 발급 요청. POST /oauth2/tokenP (인증-001). KisCredentialManager가 락을 잡고 호출한다.
+     */
+    KisCredentialManager.Credential issueAccessToken() {
         String key = appkey != null ? appkey.trim() : "";
         String secret = appsecret != null ? appsecret.trim() : "";
         if (key.isBlank() || secret.isBlank()) {
             throw new ApiException("KIS API appkey/appsecret not configured", HttpStatus.INTERNAL_SERVER_ERROR);
         }
-        long now = System.currentTimeMillis();
-        if (cachedAccessToken.get() != null && now < tokenExpiresAtMillis - TOKEN_REFRESH_BUFFER_SECONDS * 1000L) {
-            return cachedAccessToken.get();
-        }
-        tokenIssueLock.lock();
         try {
-            if (cachedAccessToken.get() != null && System.currentTimeMillis() < tokenExpiresAtMillis - TOKEN_REFRESH_BUFFER_SECONDS * 1000L) {
-                return cachedAccessToken.get();
-            }
             String url = getBaseUrl() + TOKEN_PATH;
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
@@ -153,8 +183,7 @@ public class KisApiService {
                     "appsecret", secret
             );
             HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.POST, request, new ParameterizedTypeReference<Map<String, Object>>() {});
+            ResponseEntity<Map<String, Object>> response = exchange(KisPriority.INTERACTIVE, url, HttpMethod.POST, request);
             if (response.getBody() == null) {
                 throw new ApiException("KIS token response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
@@ -168,9 +197,8 @@ public class KisApiService {
                 throw new ApiException("KIS 접근토큰 발급 실패. " + kisError, HttpStatus.SERVICE_UNAVAILABLE);
             }
             int expiresInSeconds = parseTokenExpiresIn(res);
-            cachedAccessToken.set(accessToken);
-            tokenExpiresAtMillis = System.currentTimeMillis() + expiresInSeconds * 1000L;
-            return accessToken;
+            return new KisCredentialManager.Credential(accessToken,
+                    System.currentTimeMillis() + expiresInSeconds * 1000L);
         } catch (ApiException e) {
             throw e;
         } catch (RestClientResponseException e) {
@@ -178,8 +206,6 @@ public class KisApiService {
             throw new ApiException("KIS token request failed: " + e.getStatusCode() + " " + (bodyStr != null ? bodyStr : e.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (RestClientException e) {
             throw new ApiException("KIS token request failed: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
-        } finally {
-            tokenIssueLock.unlock();
         }
     }
 
@@ -212,9 +238,7 @@ public class KisApiService {
         if (key.isBlank() || secret.isBlank()) {
             throw new ApiException("KIS API appkey/appsecret not configured", HttpStatus.INTERNAL_SERVER_ERROR);
         }
-        String tokenToRevoke = cachedAccessToken.get();
-        cachedAccessToken.set(null);
-        tokenExpiresAtMillis = 0L;
+        String tokenToRevoke = kisCredentialManager.clearAccessToken();
         if (tokenToRevoke == null || tokenToRevoke.isBlank()) {
             return;
         }
@@ -228,36 +252,33 @@ public class KisApiService {
         );
         HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
         try {
-            restTemplate.exchange(
-                    url, HttpMethod.POST, request, new ParameterizedTypeReference<Map<String, Object>>() {});
+            exchange(KisPriority.INTERACTIVE, url, HttpMethod.POST, request);
         } catch (RestClientException e) {
             // 폐기 요청 실패해도 캐시는 이미 비워둠. 다음 발급 시 새 토큰 사용.
         }
     }
 
     /**
-     * 실시간(웹소켓) 접속키 발급. POST /oauth2/Approval, body JSON { grant_type, appkey, secretkey }.
-     * KIS 명세: secretkey 필드에 appsecret 값 전달. 응답의 approval_key를 웹소켓 연결 시 사용.
-     * TTL 23시간 캐시, 만료 5분 전까지 재사용. 동시 요청 시 락으로 1회만 발급.
+     * 실시간(웹소켓) 접속키. 발급·보관·만료 전 갱신은 {@link KisCredentialManager}가 맡는다.
      */
     public String getWebSocketApprovalKey() {
+        if (!isConfigured()) {
+            throw new ApiException("KIS API appkey/appsecret not configured", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return kisCredentialManager.getApprovalKey();
+    }
+
+    /**
+     * 실시간(웹소켓) 접속키 발급. POST /oauth2/Approval, body JSON { grant_type, appkey, secretkey }.
+     * KIS 명세: secretkey 필드에 appsecret 값 전달. 응답의 approval_key를 웹소켓 연결 시 사용. TTL 23시간.
+     */
+    KisCredentialManager.Credential issueApprovalKey() {
         String key = appkey != null ? appkey.trim() : "";
         String secret = appsecret != null ? appsecret.trim() : "";
         if (key.isBlank() || secret.isBlank()) {
             throw new ApiException("KIS API appkey/appsecret not configured", HttpStatus.INTERNAL_SERVER_ERROR);
         }
-        long now = System.currentTimeMillis();
-        if (cachedApprovalKey != null && !cachedApprovalKey.isBlank()
-                && now < (approvalKeyExpiresAtMillis - APPROVAL_KEY_REFRESH_BUFFER_MILLIS)) {
-            return cachedApprovalKey;
-        }
-        approvalKeyLock.lock();
         try {
-            now = System.currentTimeMillis();
-            if (cachedApprovalKey != null && !cachedApprovalKey.isBlank()
-                    && now < (approvalKeyExpiresAtMillis - APPROVAL_KEY_REFRESH_BUFFER_MILLIS)) {
-                return cachedApprovalKey;
-            }
             String url = getBaseUrl() + APPROVAL_PATH;
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
@@ -267,8 +288,7 @@ public class KisApiService {
                     "secretkey", secret
             );
             HttpEntity<Map<String, String>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.POST, request, new ParameterizedTypeReference<Map<String, Object>>() {});
+            ResponseEntity<Map<String, Object>> response = exchange(KisPriority.INTERACTIVE, url, HttpMethod.POST, request);
             if (response.getBody() == null) {
                 throw new ApiException("KIS approval response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
@@ -280,18 +300,57 @@ public class KisApiService {
             if (approvalKey == null || approvalKey.isBlank()) {
                 throw new ApiException("KIS 실시간 접속키 발급 실패. " + kisErrorMessage(res, "approval"), HttpStatus.SERVICE_UNAVAILABLE);
             }
-            cachedApprovalKey = approvalKey;
-            approvalKeyExpiresAtMillis = System.currentTimeMillis() + APPROVAL_KEY_TTL_MILLIS;
-            return approvalKey;
+            return new KisCredentialManager.Credential(approvalKey, System.currentTimeMillis() + APPROVAL_KEY_TTL_MILLIS);
         } catch (ApiException e) {
             throw e;
         } catch (RestClientException e) {
             throw new ApiException("KIS approval request failed: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
-        } finally {
-            approvalKeyLock.unlock();
         }
     }
 
+    /** KIS가 거절한 실시간 접속키 폐기 (캐시 값이 그 키일 때만). 폐기했으면 true. */
+    public boolean invalidateWebSocketApprovalKey(String rejectedKey) {
+        return kisCredentialManager.invalidateApprovalKey(rejectedKey);
+    }
+
+    /**
+     * 모든 KIS REST 호출은 여기로: 엔드포인트 서킷 허가 → 초당 한도 토큰(우선순위) → 허가 아래 HTTP 호출.
+     * 서킷이 열려 있으면 토큰을 쓰거나 한도 대기열에 서지 않고 바로 503(KIS_CIRCUIT_OPEN).
+     * 지연 예산은 HTTP 호출 구간만 잰다. 토큰을 못 받으면 허가(반열림 시험 호출 자리)를 반납.
+     */
+    private ResponseEntity<Map<String, Object>> exchange(KisPriority priority, String url, HttpMethod method,
+                                                         HttpEntity<?> request) {
+        KisCircuitBreaker.Permit permit = acquirePermit(priority, url);
+        return permit.call(() -> restTemplate.exchange(url, method, request,
+                new ParameterizedTypeReference<Map<String, Object>>() {}));
+    }
+
+    /**
+     * 시세 조회용 호출. 응답을 Map 트리 없이 TR별 행 레코드로 스트리밍 디코드 ({@link KisResponseReader}).
+     * 본문이 비었으면 null.
+     */
+    private <R> KisResponse<R> exchange(KisPriority priority, String url, HttpMethod method, HttpEntity<?> request,
+                                        String trId, KisRowDecoder<R> rowDecoder) {
+        KisCircuitBreaker.Permit permit = acquirePermit(priority, url);
+        return permit.call(() -> restTemplate.execute(url, method, restTemplate.httpEntityCallback(request),
+                response -> kisResponseReader.read(response.getBody(), trId, rowDecoder)));
+    }
+
+    /** 취소(interrupt)된 작업은 서킷·한도 토큰을 건드리지 않고 멈춘다 (차트 페이지 수신 등 연속 호출 포함). */
+    private KisCircuitBreaker.Permit acquirePermit(KisPriority priority, String url) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ApiException("KIS request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        KisCircuitBreaker.Permit permit = kisCircuitBreaker.tryAcquire(url);
+        try {
+            kisRateLimiter.acquire(priority);
+        } catch (RuntimeException | Error e) {
+            permit.release();
+            throw e;
+        }
+        return permit;
+    }
+
     private HttpHeaders buildAuthHeaders(String trId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -304,26 +363,147 @@ public class KisApiService {
     }
 
     /**
-     * 주식 현재가 조회. PriceCache에 값이 있고 3초 이내 갱신이면 캐시로 DTO 반환, 없거나 stale이면 KIS HTTP 호출.
+     * 주식 현재가 조회. QuoteStore 값이 QuoteFreshnessPolicy 기준 신선하면(장중 WS 수신 중, 장 마감 후 종가 확정값, 그 외 3초 이내)
+     * 저장소 값으로 DTO 반환, 없거나 stale이면 KIS HTTP 호출.
+     * HTTP 조회 결과도 QuoteStore에 기록해 이후 조회·평가액 계산이 재사용.
+     * KIS 장애(타임아웃·서킷 열림 등 503)면 QuoteStore의 마지막 정상 시세를 stale=true, quoteAgeSeconds와 함께 반환.
      * appkey/appsecret 미설정 시 예외 발생(스텁 반환 금지).
      */
     public StockPriceDTO getStockPrice(String stockCode) {
+        return getStockPrice(stockCode, KisPriority.INTERACTIVE);
+    }
+
+    /** 현재가 조회. REST 호출이 필요할 때 priority로 호출 한도 대기열 순서를 정한다 (평가액 계산 등은 BACKGROUND). */
+    public StockPriceDTO getStockPrice(String stockCode, KisPriority priority) {
         if (stockCode == null || stockCode.isBlank()) {
             throw new ApiException("Stock code is required", HttpStatus.BAD_REQUEST);
         }
         if (!isConfigured()) {
             throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
         }
-        String code = stockCode.trim();
-        String normalized = code.length() >= 6 ? code : String.format("%6s", code).replace(' ', '0');
+        String normalized = normalizeStockCode(stockCode);
         kisWsSubscriptionManager.ensureSubscribed(normalized);
-        Optional<PriceSnapshot> cached = priceCache.get(normalized);
-        if (cached.isPresent()) {
-            PriceSnapshot sn = cached.get();
-            if (System.currentTimeMillis() - sn.getUpdatedAtMillis() <= PRICE_CACHE_FRESH_MILLIS) {
-                return mapPriceSnapshotToStockPriceDTO(normalized, sn);
+        int slot = quoteStore.slotOf(normalized);
+        QuoteView quote = new QuoteView();
+        if (quoteStore.read(slot, quote)
+                && quoteFreshnessPolicy.isFresh(normalized, quote.getUpdatedAtMillis(), System.currentTimeMillis())) {
+            return mapQuoteToStockPriceDTO(normalized, quoteStore.getStockName(slot), quote);
+        }
+        return fetchOrLastKnownGood(normalized, slot, priority);
+    }
+
+    /** 여러 종목 현재가를 한 번에. 평가액 계산용 기본 우선순위는 INTERACTIVE. */
+    public Map<String, StockPriceDTO> getStockPrices(Collection<String> stockCodes) {
+        return getStockPrices(stockCodes, KisPriority.INTERACTIVE);
+    }
+
+    /**
+     * 여러 종목 현재가 일괄 조회. 신선한 QuoteStore 값은 바로 쓰고, 나머지만 가상 스레드로 동시에 REST 조회해
+     * 종목 수와 무관하게 대략 한 번의 왕복 시간에 끝난다. 동시 호출 수는 KisRateLimiter 초당 한도가 제한.
+     * 결과 키는 입력 종목코드 그대로, 순서는 입력 순서. KIS 장애 시엔 마지막 정상 시세(stale=true)가 들어가고,
+     * 그것도 없는 조회 실패 종목(KIS 미설정 포함)은 결과에서 빠지므로
+     * 호출부에서 평균단가 등으로 대체한다.
+     */
+    public Map<String, StockPriceDTO> getStockPrices(Collection<String> stockCodes, KisPriority priority) {
+        Map<String, StockPriceDTO> result = new LinkedHashMap<>();
+        if (stockCodes == null || stockCodes.isEmpty() || !isConfigured()) {
+            return result;
+        }
+        Map<String, StockPriceDTO> hits = new HashMap<>();
+        Map<String, Future<StockPriceDTO>> misses = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        QuoteView quote = new QuoteView();
+        long now = System.currentTimeMillis();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String stockCode : stockCodes) {
+                if (stockCode == null || stockCode.isBlank()) {
+                    continue;
+                }
+                String key = stockCode;
+                if (hits.containsKey(key) || misses.containsKey(key)) {
+                    continue;
+                }
+                keys.add(key);
+                String normalized = normalizeStockCode(key);
+                kisWsSubscriptionManager.ensureSubscribed(normalized);
+                int slot = quoteStore.slotOf(normalized);
+                if (quoteStore.read(slot, quote)
+                        && quoteFreshnessPolicy.isFresh(normalized, quote.getUpdatedAtMillis(), now)) {
+                    hits.put(key, mapQuoteToStockPriceDTO(normalized, quoteStore.getStockName(slot), quote));
+                } else {
+                    misses.put(key, executor.submit(() -> fetchOrLastKnownGood(normalized, slot, priority)));
+                }
+            }
+        }
+        for (String key : keys) {
+            StockPriceDTO dto = hits.get(key);
+            if (dto == null) {
+                dto = awaitQuietly(misses.get(key));
+            }
+            if (dto != null) {
+                result.put(key, dto);
             }
         }
+        return result;
+    }
+
+    /** 이미 끝난 Future 결과. 실패면 null. */
+    private static StockPriceDTO awaitQuietly(Future<StockPriceDTO> future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String normalizeStockCode(String stockCode) {
+        String code = stockCode.trim();
+        return code.length() >= 6 ? code : String.format("%6s", code).replace(' ', '0');
+    }
+
+    /**
+     * 현재가 single-flight 키. 우선순위별로 따로 합친다: 사용자 조회(INTERACTIVE)가 BACKGROUND leader에 붙으면
+     * 그 leader의 긴 호출 한도 대기(최대 15초)를 같이 기다리게 되므로 (우선순위 역전).
+     */
+    private record PriceFlightKey(String stockCode, KisPriority priority) {
+    }
+
+    /**
+     * 현재가 REST 조회 (single-flight, 종목·우선순위 단위). KIS 장애로 503이면 나이와 상관없이 QuoteStore의 마지막 정상 시세로 대체하고
+     * stale=true, quoteAgeSeconds로 표시. 저장된 시세도 없으면 원래 예외.
+     */
+    private StockPriceDTO fetchOrLastKnownGood(String normalized, int slot, KisPriority priority) {
+        try {
+            return stockPriceFlight.execute(new PriceFlightKey(normalized, priority),
+                    () -> fetchStockPrice(normalized, slot, priority));
+        } catch (ApiException e) {
+            QuoteView quote = new QuoteView();
+            if (e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE || !quoteStore.read(slot, quote)) {
+                throw e;
+            }
+            StockPriceDTO dto = mapQuoteToStockPriceDTO(normalized, quoteStore.getStockName(slot), quote);
+            dto.setStale(true);
+            dto.setQuoteAgeSeconds(Math.max(0L, (System.currentTimeMillis() - quote.getUpdatedAtMillis()) / 1000));
+            return dto;
+        }
+    }
+
+    /**
+     * 현재가 REST 조회 (single-flight leader만 실행). 앞선 leader가 방금 채운 값이면 호출 없이 재사용.
+     * 호출부에서 이미 신선도를 판정·집계했으므로 여기서는 집계 없이 다시 확인만 한다.
+     */
+    private StockPriceDTO fetchStockPrice(String normalized, int slot, KisPriority priority) {
+        QuoteView quote = new QuoteView();
+        if (quoteStore.read(slot, quote)
+                && quoteFreshnessPolicy.isFreshUncounted(normalized, quote.getUpdatedAtMillis(), System.currentTimeMillis())) {
+            return mapQuoteToStockPriceDTO(normalized, quoteStore.getStockName(slot), quote);
+        }
         String url = UriComponentsBuilder.fromUriString(getBaseUrl() + STOCK_PRICE_PATH)
                 .queryParam("FID_COND_MRKT_DIV_CODE", "J")
                 .queryParam("FID_INPUT_ISCD", normalized)
@@ -333,21 +513,23 @@ public class KisApiService {
         headers.setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
         HttpEntity<Void> request = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, request, new ParameterizedTypeReference<Map<String, Object>>() {});
-            Map<String, Object> body = response.getBody();
+            KisResponse<KisPriceRow> body = exchange(priority, url, HttpMethod.GET, request,
+                    TR_ID_STOCK_PRICE, KisPriceRow.DECODER);
             if (body == null) {
                 throw new ApiException("KIS stock price response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            String rtCd = (String) body.get("rt_cd");
-            if (rtCd != null && !"0".equals(rtCd)) {
-                throw new ApiException(kisErrorMessage(body, "stock price"), HttpStatus.BAD_REQUEST);
+            if (body.isError()) {
+                throw new ApiException(body.errorMessage("stock price"), HttpStatus.BAD_REQUEST);
             }
-            Map<String, Object> outputMap = getStockPriceOutputMap(body);
-            if (outputMap == null) {
+            KisPriceRow row = body.first("output2", "output", "Output");
+            if (row == null) {
                 throw new ApiException("KIS stock price output2 is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            return mapToStockPriceDTO(normalized, outputMap);
+            StockPriceDTO dto = mapToStockPriceDTO(normalized, row);
+            quoteStore.put(normalized, hasResolvedName(dto) ? dto.getStockName() : null,
+                    dto.getCurrentPrice(), dto.getChangeAmount(), dto.getChangeRate(), dto.getVolume(),
+                    System.currentTimeMillis());
+            return dto;
         } catch (ApiException e) {
             throw e;
         } catch (RestClientException e) {
@@ -355,69 +537,31 @@ public class KisApiService {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getStockPriceOutputMap(Map<String, Object> body) {
-        Map<String, Object> out = (Map<String, Object>) body.get("output2");
-        if (out == null) out = (Map<String, Object>) body.get("output");
-        if (out == null) out = (Map<String, Object>) body.get("Output");
-        return out;
+    /** 실제 종목명을 얻은 경우만 true ("종목_" fallback은 저장하지 않음) */
+    private static boolean hasResolvedName(StockPriceDTO dto) {
+        return dto.getStockName() != null && !dto.getStockName().startsWith("종목_");
     }
 
-    /** 상품유형 약어는 종목명으로 쓰지 않음 (API가 prdt_name 등으로 반환하는 경우) */
-    private static final java.util.Set<String> PRODUCT_TYPE_ABBREVS = java.util.Set.of("ETF", "ELW", "ETN");
-
-    /** KIS 응답 output에서 종목명 추출. 여러 키 시도 후 유효하지 않으면 "종목_" + code 반환. */
-    private String getStockNameFromOutput(Map<String, Object> output, String stockCode) {
-        String[] nameKeys = {"hts_kor_isnm", "itms_nm", "prdt_name", "kor_isnm", "stock_name", "stck_shrn_iscd"};
-        for (String key : nameKeys) {
-            String v = getString(output, key, null);
-            if (v != null && !v.isBlank()) {
-                String trimmed = v.trim();
-                if (!trimmed.equals(stockCode) && !trimmed.matches("\\d{6}")
-                        && !PRODUCT_TYPE_ABBREVS.contains(trimmed)) {
-                    return trimmed;
-                }
-            }
-        }
-        return "종목_" + stockCode;
-    }
-
-    private static StockPriceDTO mapPriceSnapshotToStockPriceDTO(String stockCode, PriceSnapshot sn) {
+    private StockPriceDTO mapQuoteToStockPriceDTO(String stockCode, String stockName, QuoteView quote) {
         return StockPriceDTO.builder()
                 .stockCode(stockCode)
-                .stockName("종목_" + stockCode)
-                .currentPrice(sn.getCurrentPrice() != null ? sn.getCurrentPrice() : BigDecimal.ZERO)
-                .changeAmount(sn.getChange() != null ? sn.getChange() : BigDecimal.ZERO)
-                .changeRate(sn.getChangeRate() != null ? sn.getChangeRate() : BigDecimal.ZERO)
-                .volume(sn.getVolume() != null ? sn.getVolume() : 0L)
+                .stockName(stockName != null ? stockName : stockMasterIndex.displayName(stockCode))
+                .currentPrice(quote.currentPriceAsBigDecimal())
+                .changeAmount(quote.changeAsBigDecimal())
+                .changeRate(quote.changeRateAsBigDecimal())
+                .volume(quote.getVolume())
                 .build();
     }
 
-    private StockPriceDTO mapToStockPriceDTO(String stockCode, Map<String, Object> output2) {
-        String stockName = getStockNameFromOutput(output2, stockCode);
-        BigDecimal currentPrice = getBigDecimal(output2, "stck_prpr");
-        BigDecimal changeAmount = getBigDecimal(output2, "prdy_vrss");
-        BigDecimal changeRate = getBigDecimal(output2, "prdy_ctrt");
-        Long volume = getLong(output2, "acml_vol");
-        if (currentPrice == null) {
-            currentPrice = BigDecimal.ZERO;
-        }
-        if (changeAmount == null) {
-            changeAmount = BigDecimal.ZERO;
-        }
-        if (changeRate == null) {
-            changeRate = BigDecimal.ZERO;
-        }
-        if (volume == null) {
-            volume = 0L;
-        }
+    /** 종목명이 응답에 없으면 종목 마스터 이름, 그것도 없으면 "종목_" + code */
+    private StockPriceDTO mapToStockPriceDTO(String stockCode, KisPriceRow row) {
         return StockPriceDTO.builder()
                 .stockCode(stockCode)
-                .stockName(stockName)
-                .currentPrice(currentPrice)
-                .changeAmount(changeAmount)
-                .changeRate(changeRate)
-                .volume(volume)
+                .stockName(row.name() != null ? row.name() : stockMasterIndex.displayName(stockCode))
+                .currentPrice(row.currentPrice() != null ? row.currentPrice() : BigDecimal.ZERO)
+                .changeAmount(row.change() != null ? row.change() : BigDecimal.ZERO)
+                .changeRate(row.changeRate() != null ? row.changeRate() : BigDecimal.ZERO)
+                .volume(row.volume() != null ? row.volume() : 0L)
                 .build();
     }
 
@@ -427,26 +571,10 @@ public class KisApiService {
         return String.valueOf(v).trim();
     }
 
-    private static BigDecimal getBigDecimal(Map<String, Object> m, String key) {
-        Object v = m.get(key);
-        if (v == null) return null;
-        if (v instanceof Number) return BigDecimal.valueOf(((Number) v).doubleValue());
-        try {
-            return new BigDecimal(String.valueOf(v).trim().replace(",", ""));
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    private static Long getLong(Map<String, Object> m, String key) {
-        Object v = m.get(key);
-        if (v == null) return null;
-        if (v instanceof Number) return ((Number) v).longValue();
-        try {
-            return Long.parseLong(String.valueOf(v).trim().replace(",", ""));
-        } catch (Exception e) {
-            return null;
-        }
+    /** single-flight 지표 (실제 호출 수, 합쳐진 호출 수). GET /api/config/kis-metrics 에서 노출. */
+    public List<Map<String, Object>> getSingleFlightStats() {
+        return List.of(stockPriceFlight.getStats(), rankingFlight.getStats(),
+                indexFlight.getStats(), indexChartFlight.getStats(), stockChartFlight.getStats());
     }
 
     private static String kisErrorMessage(Map<String, Object> body, String context) {
@@ -484,15 +612,29 @@ public class KisApiService {
      * 명세: GET /uapi/domestic-stock/v1/quotations/volume-rank, Query Parameter.
      * appkey/appsecret 미설정 시 예외 발생(스텁 반환 금지).
      */
-    @SuppressWarnings("unchecked")
     public List<StockPriceDTO> getVolumeRank() {
+        return getVolumeRank(RankingCache.MARKET_ALL);
+    }
+
+    /** 거래량 상위순 조회. fidInputIscd: 0000=전체, 0001=코스피, 1001=코스닥. 화면 조회는 RankingCache를 거친다. */
+    public List<StockPriceDTO> getVolumeRank(String fidInputIscd) {
+        return getVolumeRank(fidInputIscd, KisPriority.MARKET_DATA);
+    }
+
+    /** 거래량 상위순 조회. 미리 갱신 등 사용자가 기다리지 않는 호출은 BACKGROUND. single-flight는 우선순위별. */
+    public List<StockPriceDTO> getVolumeRank(String fidInputIscd, KisPriority priority) {
         if (!isConfigured()) {
             throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
         }
+        return rankingFlight.execute("volume:" + fidInputIscd + ":" + priority,
+                () -> fetchVolumeRank(fidInputIscd, priority));
+    }
+
+    private List<StockPriceDTO> fetchVolumeRank(String fidInputIscd, KisPriority priority) {
         String url = UriComponentsBuilder.fromUriString(getBaseUrl() + VOLUME_RANK_PATH)
                 .queryParam("FID_COND_MRKT_DIV_CODE", "J")
                 .queryParam("FID_COND_SCR_DIV_CODE", "20171")
-                .queryParam("FID_INPUT_ISCD", "0000")
+                .queryParam("FID_INPUT_ISCD", fidInputIscd)
                 .queryParam("FID_DIV_CLS_CODE", "0")
                 .queryParam("FID_BLNG_CLS_CODE", "0")
                 .queryParam("FID_TRGT_CLS_CODE", "111111111")
@@ -507,33 +649,15 @@ public class KisApiService {
         headers.setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
         HttpEntity<Void> request = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, request, new ParameterizedTypeReference<Map<String, Object>>() {});
-            Map<String, Object> body = response.getBody();
+            KisResponse<KisPriceRow> body = exchange(priority, url, HttpMethod.GET, request,
+                    TR_ID_VOLUME_RANK, KisPriceRow.DECODER);
             if (body == null) {
                 throw new ApiException("KIS volume rank response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            String rtCd = body.get("rt_cd") != null ? String.valueOf(body.get("rt_cd")).trim() : "";
-            if (!rtCd.isEmpty() && !"0".equals(rtCd)) {
-                throw new ApiException(kisErrorMessage(body, "volume rank"), HttpStatus.BAD_REQUEST);
-            }
-            List<Map<String, Object>> outputList = (List<Map<String, Object>>) body.get("output2");
-            if (outputList == null) {
-                outputList = (List<Map<String, Object>>) body.get("Output");
-            }
-            if (outputList == null) {
-                outputList = (List<Map<String, Object>>) body.get("output");
+            if (body.isError()) {
+                throw new ApiException(body.errorMessage("volume rank"), HttpStatus.BAD_REQUEST);
             }
-            List<StockPriceDTO> list = new ArrayList<>();
-            if (outputList != null) {
-                for (Map<String, Object> item : outputList) {
-                    String code = getString(item, "mksc_shrn_iscd", getString(item, "iscd", ""));
-                    if (code != null && !code.isBlank()) {
-                        list.add(mapToStockPriceDTO(code, item));
-                    }
-                }
-            }
-            return list;
+            return toStockPriceDTOs(body.rows("output2", "Output", "output"));
         } catch (ApiException e) {
             throw e;
         } catch (RestClientException e) {
@@ -545,24 +669,48 @@ public class KisApiService {
      * 상승률순 조회. fluctuation API (fid_rank_sort_cls_code=0, fid_prc_cls_code=1, fid_input_iscd=0001).
      */
     public List<StockPriceDTO> getFluctuationRank() {
-        return callFluctuationRank("0", "1", "0001");
+        return getFluctuationRank(RankingCache.MARKET_KOSPI);
+    }
+
+    public List<StockPriceDTO> getFluctuationRank(String fidInputIscd) {
+        return getFluctuationRank(fidInputIscd, KisPriority.MARKET_DATA);
+    }
+
+    public List<StockPriceDTO> getFluctuationRank(String fidInputIscd, KisPriority priority) {
+        return callFluctuationRank("0", "1", fidInputIscd, priority);
     }
 
     /**
      * 하락율순 조회. fluctuation API (fid_rank_sort_cls_code=1, fid_prc_cls_code=1, fid_input_iscd=0001).
      */
     public List<StockPriceDTO> getFallingRank() {
-        return callFluctuationRank("1", "1", "0001");
+        return getFallingRank(RankingCache.MARKET_KOSPI);
+    }
+
+    public List<StockPriceDTO> getFallingRank(String fidInputIscd) {
+        return getFallingRank(fidInputIscd, KisPriority.MARKET_DATA);
+    }
+
+    public List<StockPriceDTO> getFallingRank(String fidInputIscd, KisPriority priority) {
+        return callFluctuationRank("1", "1", fidInputIscd, priority);
     }
 
     /**
      * KIS 상위 랭킹. GET /uapi/domestic-stock/v1/ranking/fluctuation (등락률 순위).
      * fid_input_iscd: 0001=코스피, 1001=코스닥, 0000=전체.
      */
-    private List<StockPriceDTO> callFluctuationRank(String fidRankSortClsCode, String fidPrcClsCode, String fidInputIscd) {
+    private List<StockPriceDTO> callFluctuationRank(String fidRankSortClsCode, String fidPrcClsCode, String fidInputIscd,
+                                                    KisPriority priority) {
         if (!isConfigured()) {
             throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
         }
+        return rankingFlight.execute("fluctuation:" + fidRankSortClsCode + ":" + fidPrcClsCode + ":" + fidInputIscd
+                        + ":" + priority,
+                () -> fetchFluctuationRank(fidRankSortClsCode, fidPrcClsCode, fidInputIscd, priority));
+    }
+
+    private List<StockPriceDTO> fetchFluctuationRank(String fidRankSortClsCode, String fidPrcClsCode, String fidInputIscd,
+                                                     KisPriority priority) {
         String url = UriComponentsBuilder.fromUriString(getBaseUrl() + FLUCTUATION_RANK_PATH)
                 .queryParam("fid_cond_mrkt_div_code", "J")
                 .queryParam("fid_cond_scr_div_code", "20170")
@@ -586,34 +734,15 @@ public class KisApiService {
         headers.setContentType(MediaType.parseMediaType("application/json; charset=utf-8"));
         HttpEntity<Void> request = new HttpEntity<>(headers);
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, request, new ParameterizedTypeReference<Map<String, Object>>() {});
-            Map<String, Object> resBody = response.getBody();
+            KisResponse<KisPriceRow> resBody = exchange(priority, url, HttpMethod.GET, request,
+                    trIdRanking, KisPriceRow.DECODER);
             if (resBody == null) {
                 throw new ApiException("KIS fluctuation rank response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            String rtCd = (String) resBody.get("rt_cd");
-            if (rtCd != null && !"0".equals(rtCd)) {
-                throw new ApiException(kisErrorMessage(resBody, "fluctuation rank"), HttpStatus.BAD_REQUEST);
-            }
-            Object output = resBody.get("output");
-            if (output == null) {
-                output = resBody.get("output2");
-            }
-            List<StockPriceDTO> list = new ArrayList<>();
-            if (output instanceof List) {
-                for (Object o : (List<?>) output) {
-                    if (o instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> item = (Map<String, Object>) o;
-                        String code = getString(item, "stck_shrn_iscd", getString(item, "mksc_shrn_iscd", getString(item, "iscd", "")));
-                        if (code != null && !code.isBlank()) {
-                            list.add(mapToStockPriceDTO(code, item));
-                        }
-                    }
-                }
+            if (resBody.isError()) {
+                throw new ApiException(resBody.errorMessage("fluctuation rank"), HttpStatus.BAD_REQUEST);
             }
-            return list;
+            return toStockPriceDTOs(resBody.rows("output", "output2"));
         } catch (ApiException e) {
             throw e;
         } catch (RestClientException e) {
@@ -621,6 +750,17 @@ public class KisApiService {
         }
     }
 
+    /** 순위 행 → DTO. 종목코드 없는 행은 제외. */
+    private List<StockPriceDTO> toStockPriceDTOs(List<KisPriceRow> rows) {
+        List<StockPriceDTO> list = new ArrayList<>(rows.size());
+        for (KisPriceRow row : rows) {
+            if (row.code() != null && !row.code().isBlank()) {
+                list.add(mapToStockPriceDTO(row.code(), row));
+            }
+        }
+        return list;
+    }
+
     /**
      * 주식 주문 실행. 모의투자 전용 — 실제 KIS 주문 API를 호출하지 않고 스텁만 반환합니다.
      * (실제 돈이 오가는 로직은 코드베이스에 포함하지 않음)
@@ -651,15 +791,18 @@ public class KisApiService {
 
     /**
      * 종목 검색. KIS 거래량 순위 데이터에서 키워드(종목명·종목코드)로 필터링합니다.
-     * KIS에 키워드 검색 API가 없어 거래량 순위 목록에서 매칭된 항목을 반환합니다. 설정이 없으면 스텁.
+     * KIS에 키워드 검색 API가 없어 거래량 순위 목록(RankingCache, 키 입력마다 KIS 호출 X)에서 매칭된 항목을 반환합니다. 설정이 없으면 스텁.
      */
     public List<StockPriceDTO> searchStocks(String keyword) {
         if (keyword == null || keyword.isBlank()) {
             return List.of();
         }
+        if (stockMasterIndex.isLoaded()) {
+            return searchStockMaster(keyword);
+        }
         String k = keyword.trim().toLowerCase();
         try {
-            List<StockPriceDTO> list = getVolumeRank();
+            List<StockPriceDTO> list = rankingCache.get(RankingCache.Sort.VOLUME).items();
             return list.stream()
                     .filter(s -> (s.getStockName() != null && s.getStockName().toLowerCase().contains(k))
                             || (s.getStockCode() != null && s.getStockCode().toLowerCase().contains(k)))
@@ -672,17 +815,48 @@ public class KisApiService {
         }
     }
 
+    /**
+     * 종목 마스터 검색 (코드·이름 접두어, 초성). KIS 호출 없음.
+     * 시세는 QuoteStore에 값이 있는 종목만 채우고, 없으면 가격 필드는 null (상세 조회 시 채워짐).
+     */
+    private List<StockPriceDTO> searchStockMaster(String keyword) {
+        QuoteView quote = new QuoteView();
+        List<StockPriceDTO> result = new ArrayList<>();
+        for (StockMasterIndex.Match m : stockMasterIndex.search(keyword, 20)) {
+            StockPriceDTO.StockPriceDTOBuilder b = StockPriceDTO.builder()
+                    .stockCode(m.code())
+                    .stockName(m.name());
+            if (quoteStore.read(m.code(), quote)) {
+                b.currentPrice(quote.currentPriceAsBigDecimal())
+                        .changeAmount(quote.changeAsBigDecimal())
+                        .changeRate(quote.changeRateAsBigDecimal())
+                        .volume(quote.getVolume());
+            }
+            result.add(b.build());
+        }
+        return result;
+    }
+
     /**
      * 코스피/코스닥 지수 조회. KIS 국내업종 현재지수 API 호출.
      * FID_INPUT_ISCD: 0001=코스피, 1001=코스닥. tr_id: FHPUP02100000.
      */
     public MarketIndexDTO getMarketIndex(String indexCode) {
+        return getMarketIndex(indexCode, KisPriority.MARKET_DATA);
+    }
+
+    /** 지수 조회. 캐시 백그라운드 갱신은 BACKGROUND. single-flight는 우선순위별. */
+    public MarketIndexDTO getMarketIndex(String indexCode, KisPriority priority) {
         if (indexCode == null || indexCode.isBlank()) {
             throw new ApiException("Index code is required", HttpStatus.BAD_REQUEST);
         }
         if (!isConfigured()) {
             throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
         }
+        return indexFlight.execute(indexCode + ":" + priority, () -> fetchMarketIndex(indexCode, priority));
+    }
+
+    private MarketIndexDTO fetchMarketIndex(String indexCode, KisPriority priority) {
         String fidInputIscd = toIndexFidInputIscd(indexCode);
         String url = UriComponentsBuilder.fromUriString(getBaseUrl() + INDEX_PRICE_PATH)
                 .queryParam("FID_COND_MRKT_DIV_CODE", "U")
@@ -691,25 +865,20 @@ public class KisApiService {
                 .toUriString();
         HttpEntity<Void> request = new HttpEntity<>(buildAuthHeaders(TR_ID_INDEX_PRICE));
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, request, new ParameterizedTypeReference<Map<String, Object>>() {});
-            Map<String, Object> body = response.getBody();
+            KisResponse<KisIndexRow> body = exchange(priority, url, HttpMethod.GET, request,
+                    TR_ID_INDEX_PRICE, KisIndexRow.DECODER);
             if (body == null) {
                 throw new ApiException("KIS index price response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            String rtCd = (String) body.get("rt_cd");
-            if (rtCd != null && !"0".equals(rtCd)) {
-                throw new ApiException(kisErrorMessage(body, "market index"), HttpStatus.BAD_REQUEST);
-            }
-            Object output = body.get("output");
-            if (output == null) {
-                return getMarketIndexStub(indexCode);
+            if (body.isError()) {
+                throw new ApiException(body.errorMessage("market index"), HttpStatus.BAD_REQUEST);
             }
-            Map<String, Object> outputMap = toSingleOutputMap(output);
-            if (outputMap == null) {
-                return getMarketIndexStub(indexCode);
+            KisIndexRow row = body.first("output");
+            if (row == null || row.value() == null) {
+                // 자리표시 값을 돌려주면 지수 캐시가 실제 시세로 저장하므로 실패로 둔다
+                throw new ApiException("KIS index price response has no output", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            return mapToMarketIndexDTO(indexCode, outputMap);
+            return mapToMarketIndexDTO(indexCode, row);
         } catch (ApiException e) {
             throw e;
         } catch (RestClientException e) {
@@ -735,6 +904,13 @@ public class KisApiService {
         if (!isConfigured()) {
             throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
         }
+        String start = startDate.trim();
+        String end = endDate.trim();
+        return indexChartFlight.execute(indexCode + ":" + start + ":" + end + ":" + period,
+                () -> fetchIndexChartPrice(indexCode, start, end, period));
+    }
+
+    private List<IndexChartPriceItemDTO> fetchIndexChartPrice(String indexCode, String startDate, String endDate, String period) {
         String fidInputIscd = toIndexFidInputIscd(indexCode);
         String url = getBaseUrl() + INDEX_CHART_PRICE_PATH;
         HttpHeaders headers = buildAuthHeaders(TR_ID_INDEX_CHART);
@@ -748,29 +924,18 @@ public class KisApiService {
         );
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                    url, HttpMethod.POST, request, new ParameterizedTypeReference<Map<String, Object>>() {});
-            Map<String, Object> resBody = response.getBody();
+            KisResponse<KisChartRow> resBody = exchange(KisPriority.MARKET_DATA, url, HttpMethod.POST, request,
+                    TR_ID_INDEX_CHART, KisChartRow.DECODER);
             if (resBody == null) {
                 throw new ApiException("KIS index chart response body is null", HttpStatus.SERVICE_UNAVAILABLE);
             }
-            String rtCd = (String) resBody.get("rt_cd");
-            if (rtCd != null && !"0".equals(rtCd)) {
-                throw new ApiException(kisErrorMessage(resBody, "index chart"), HttpStatus.BAD_REQUEST);
-            }
-            Object output = resBody.get("output2");
-            if (output == null) {
-                output = resBody.get("output");
+            if (resBody.isError()) {
+                throw new ApiException(resBody.errorMessage("index chart"), HttpStatus.BAD_REQUEST);
             }
-            List<IndexChartPriceItemDTO> list = new ArrayList<>();
-            if (output instanceof List) {
-                for (Object item : (List<?>) output) {
-                    if (item instanceof Map) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> m = (Map<String, Object>) item;
-                        list.add(mapToIndexChartPriceItemDTO(m));
-                    }
-                }
+            List<KisChartRow> rows = resBody.rows("output2", "output");
+            List<IndexChartPriceItemDTO> list = new ArrayList<>(rows.size());
+            for (KisChartRow row : rows) {
+                list.add(mapToIndexChartPriceItemDTO(row));
             }
             return list;
         } catch (ApiException e) {
@@ -780,53 +945,103 @@ public class KisApiService {
         }
     }
 
-    private static IndexChartPriceItemDTO mapToIndexChartPriceItemDTO(Map<String, Object> m) {
-        String date = getString(m, "stck_bsop_date", getString(m, "stck_std", getString(m, "date", "")));
-        BigDecimal open = getBigDecimal(m, "stck_oprc");
-        if (open == null) open = getBigDecimal(m, "bstp_nmix_oprc");
-        BigDecimal high = getBigDecimal(m, "stck_hgpr");
-        if (high == null) high = getBigDecimal(m, "bstp_nmix_hgpr");
-        BigDecimal low = getBigDecimal(m, "stck_lwpr");
-        if (low == null) low = getBigDecimal(m, "bstp_nmix_lwpr");
-        BigDecimal close = getBigDecimal(m, "stck_clpr");
-        if (close == null) close = getBigDecimal(m, "bstp_nmix_prpr");
-        return IndexChartPriceItemDTO.builder()
-                .date(date)
-                .open(open != null ? open : BigDecimal.ZERO)
-                .high(high != null ? high : BigDecimal.ZERO)
-                .low(low != null ? low : BigDecimal.ZERO)
-                .close(close != null ? close : BigDecimal.ZERO)
-                .build();
+    /**
+     * 일/주/월/년 종목 차트 시세 조회. KIS inquire-daily-itemchartprice API (수정주가 기준, 최신일부터 최대 100건).
+     * FID_PERIOD_DIV_CODE: D=일봉, W=주봉, M=월봉, Y=년봉. 날짜 형식: yyyyMMdd.
+     */
+    public List<StockChartPriceItemDTO> getStockChartPrice(String stockCode, String startDate, String endDate, String periodDivCode) {
+        if (stockCode == null || stockCode.isBlank()) {
+            throw new ApiException("Stock code is required", HttpStatus.BAD_REQUEST);
+        }
+        if (startDate == null || startDate.isBlank() || endDate == null || endDate.isBlank()) {
+            throw new ApiException("Start date and end date are required (yyyyMMdd)", HttpStatus.BAD_REQUEST);
+        }
+        String period = periodDivCode != null ? periodDivCode.trim().toUpperCase() : "D";
+        if (!period.matches("^[DWMY]$")) {
+            throw new ApiException("period must be D(일봉), W(주봉), M(월봉), or Y(년봉)", HttpStatus.BAD_REQUEST);
+        }
+        if (!isConfigured()) {
+            throw new ApiException("KIS API가 설정되지 않았습니다.", HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_NOT_CONFIGURED);
+        }
+        String normalized = normalizeStockCode(stockCode);
+        String start = startDate.trim();
+        String end = endDate.trim();
+        return stockChartFlight.execute(normalized + ":" + start + ":" + end + ":" + period,
+                () -> fetchStockChartPrice(normalized, start, end, period));
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> toSingleOutputMap(Object output) {
-        if (output instanceof Map) {
-            return (Map<String, Object>) output;
-        }
-        if (output instanceof List && !((List<?>) output).isEmpty()) {
-            Object first = ((List<?>) output).get(0);
-            if (first instanceof Map) {
-                return (Map<String, Object>) first;
+    private List<StockChartPriceItemDTO> fetchStockChartPrice(String stockCode, String startDate, String endDate, String period) {
+        String url = UriComponentsBuilder.fromUriString(getBaseUrl() + STOCK_CHART_PRICE_PATH)
+                .queryParam("FID_COND_MRKT_DIV_CODE", "J")
+                .queryParam("FID_INPUT_ISCD", stockCode)
+                .queryParam("FID_INPUT_DATE_1", startDate)
+                .queryParam("FID_INPUT_DATE_2", endDate)
+                .queryParam("FID_PERIOD_DIV_CODE", period)
+                .queryParam("FID_ORG_ADJ_PRC", "0")
+                .build()
+                .toUriString();
+        HttpHeaders headers = buildAuthHeaders(TR_ID_STOCK_CHART);
+        headers.setContentType(MediaType.parseMediaType("application/json;charset=UTF-8"));
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+        try {
+            KisResponse<KisChartRow> resBody = exchange(KisPriority.MARKET_DATA, url, HttpMethod.GET, request,
+                    TR_ID_STOCK_CHART, KisChartRow.DECODER);
+            if (resBody == null) {
+                throw new ApiException("KIS stock chart response body is null", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            if (resBody.isError()) {
+                throw new ApiException(resBody.errorMessage("stock chart"), HttpStatus.BAD_REQUEST);
+            }
+            List<KisChartRow> rows = resBody.rows("output2");
+            List<StockChartPriceItemDTO> list = new ArrayList<>(rows.size());
+            for (KisChartRow row : rows) {
+                // 거래 없는 날(휴장 등)은 날짜가 비어 오는 경우가 있어 제외
+                if (row.date() != null && !row.date().isBlank()) {
+                    list.add(mapToStockChartPriceItemDTO(row));
+                }
             }
+            return list;
+        } catch (ApiException e) {
+            throw e;
+        } catch (RestClientException e) {
+            throw new ApiException("KIS stock chart request failed: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         }
-        return null;
+    }
+
+    private static StockChartPriceItemDTO mapToStockChartPriceItemDTO(KisChartRow row) {
+        return StockChartPriceItemDTO.builder()
+                .date(row.date())
+                .open(row.open() != null ? row.open() : BigDecimal.ZERO)
+                .high(row.high() != null ? row.high() : BigDecimal.ZERO)
+                .low(row.low() != null ? row.low() : BigDecimal.ZERO)
+                .close(row.close() != null ? row.close() : BigDecimal.ZERO)
+                .volume(row.volume() != null ? row.volume() : 0L)
+                .build();
+    }
+
+    private static IndexChartPriceItemDTO mapToIndexChartPriceItemDTO(KisChartRow row) {
+        return IndexChartPriceItemDTO.builder()
+                .date(row.date() != null ? row.date() : "")
+                .open(row.open() != null ? row.open() : BigDecimal.ZERO)
+                .high(row.high() != null ? row.high() : BigDecimal.ZERO)
+                .low(row.low() != null ? row.low() : BigDecimal.ZERO)
+                .close(row.close() != null ? row.close() : BigDecimal.ZERO)
+                .build();
     }
 
     /** FID_INPUT_ISCD: 0001=코스피, 1001=코스닥 */
-    private static String toIndexFidInputIscd(String indexCode) {
+    static String toIndexFidInputIscd(String indexCode) {
         if (indexCode == null) return "0001";
         String upper = indexCode.trim().toUpperCase();
         if (upper.contains("KOSDAQ") || "1001".equals(indexCode.trim())) return "1001";
         return "0001";
     }
 
-    private MarketIndexDTO mapToMarketIndexDTO(String indexCode, Map<String, Object> output) {
+    private MarketIndexDTO mapToMarketIndexDTO(String indexCode, KisIndexRow row) {
         String name = "1001".equals(toIndexFidInputIscd(indexCode)) ? "KOSDAQ" : "KOSPI";
-        BigDecimal value = getBigDecimal(output, "bstp_nmix_prpr");
-        BigDecimal changeAmount = getBigDecimal(output, "bstp_nmix_prdy_vrss");
-        BigDecimal changeRate = getBigDecimal(output, "bstp_nmix_prdy_ctrt");
-        if (value == null) value = BigDecimal.ZERO;
+        BigDecimal value = row.value();
+        BigDecimal changeAmount = row.change();
+        BigDecimal changeRate = row.changeRate();
         if (changeAmount == null) changeAmount = BigDecimal.ZERO;
         if (changeRate == null) changeRate = BigDecimal.ZERO;
         return MarketIndexDTO.builder()
@@ -838,20 +1053,6 @@ public class KisApiService {
                 .build();
     }
 
-    private MarketIndexDTO getMarketIndexStub(String indexCode) {
-        String name = "KOSPI".equalsIgnoreCase(indexCode != null ? indexCode.trim() : "") ? "KOSPI" : "KOSDAQ";
-        BigDecimal value = BigDecimal.valueOf(2500);
-        BigDecimal change = BigDecimal.ZERO;
-        BigDecimal rate = BigDecimal.ZERO;
-        return MarketIndexDTO.builder()
-                .indexCode(indexCode)
-                .indexName(name)
-                .value(value)
-                .changeAmount(change)
-                .changeRate(rate)
-                .build();
-    }
-
     /**
      * 주문 취소 (스텁). 실제 구현 시 KIS 취소 API 호출.
      */
@@ -0,0 +1,151 @@
+package com.uniport.service;
+
+import com.uniport.dto.IndexChartPriceItemDTO;
+import com.uniport.dto.MarketIndexDTO;
+import com.uniport.dto.StockChartPriceItemDTO;
+import com.uniport.dto.StockPriceDTO;
+import com.uniport.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * KIS 조회(현재가, 순위, 지수, 차트)의 비동기 창구. 각 조회를 가상 스레드에서 돌리고 CompletableFuture로 돌려준다.
+ * 컨트롤러는 여러 조회를 동시에 시작해 조합하고, CompletableFuture를 그대로 반환해 응답 대기 중 서블릿 스레드를 놓는다.
+ * 조회별 제한 시간이 지나면 반환한 future를 503(KIS_TIMEOUT)으로 끝내고 작업 스레드를 interrupt한다. 반환한 future를
+ * cancel해도 같다. 그 요청만의 작업(현재가 일괄 조회의 종목별 조회, 차트 페이지 수신 등)은 다음 KIS 호출 전에 멈춘다.
+ * single-flight로 다른 요청과 같이 쓰는 조회는 이 요청만 빠지고, 기다리는 요청이 모두 빠졌을 때만 끊긴다 ({@link SingleFlight}).
+ * 캐시·single-flight·서킷 브레이커는 동기 경로와 같이 탄다.
+ */
+@Service
+public class KisAsyncService {
+
+    public static final String ERROR_CODE_KIS_TIMEOUT = "KIS_TIMEOUT";
+
+    private final KisApiService kisApiService;
+    private final RankingCache rankingCache;
+    private final IndexQuoteCache indexQuoteCache;
+    private final ChartService chartService;
+    private final long priceTimeoutMillis;
+    private final long marketDataTimeoutMillis;
+    private final long chartTimeoutMillis;
+
+    private final ExecutorService executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public KisAsyncService(KisApiService kisApiService, RankingCache rankingCache, IndexQuoteCache indexQuoteCache,
+                           ChartService chartService,
+                           @Value("${kis.async.timeout-ms.price:3000}") long priceTimeoutMillis,
+                           @Value("${kis.async.timeout-ms.market-data:5000}") long marketDataTimeoutMillis,
+                           @Value("${kis.async.timeout-ms.chart:10000}") long chartTimeoutMillis) {
+        this.kisApiService = kisApiService;
+        this.rankingCache = rankingCache;
+        this.indexQuoteCache = indexQuoteCache;
+        this.chartService = chartService;
+        this.priceTimeoutMillis = Math.max(1L, priceTimeoutMillis);
+        this.marketDataTimeoutMillis = Math.max(1L, marketDataTimeoutMillis);
+        this.chartTimeoutMillis = Math.max(1L, chartTimeoutMillis);
+        ThreadFactory factory = Thread.ofVirtual().name("kis-async-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(factory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /** 현재가 ({@link KisApiService#getStockPrice(String)}) */
+    public CompletableFuture<StockPriceDTO> getStockPrice(String stockCode) {
+        return submit(() -> kisApiService.getStockPrice(stockCode), priceTimeoutMillis);
+    }
+
+    /** 여러 종목 현재가 ({@link KisApiService#getStockPrices(Collection)}). 조회 실패 종목은 결과에서 빠진다. */
+    public CompletableFuture<Map<String, StockPriceDTO>> getStockPrices(Collection<String> stockCodes) {
+        if (stockCodes == null || stockCodes.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        return submit(() -> kisApiService.getStockPrices(stockCodes), priceTimeoutMillis);
+    }
+
+    /** 순위 캐시 (stale-while-revalidate, {@link RankingCache#get(RankingCache.Sort)}) */
+    public CompletableFuture<RankingCache.Snapshot> getRanking(RankingCache.Sort sort) {
+        return submit(() -> rankingCache.get(sort), marketDataTimeoutMillis);
+    }
+
+    /** 지수 (실시간 지수 캐시, {@link IndexQuoteCache#get(String)}) */
+    public CompletableFuture<MarketIndexDTO> getMarketIndex(String indexCode) {
+        return submit(() -> indexQuoteCache.get(indexCode), marketDataTimeoutMillis);
+    }
+
+    /** 종목 차트 (캔들 저장소 경유, {@link ChartService#getStockChart}) */
+    public CompletableFuture<List<StockChartPriceItemDTO>> getStockChart(String stockCode, String startDate,
+                                                                         String endDate, String period) {
+        return submit(() -> chartService.getStockChart(stockCode, startDate, endDate, period), chartTimeoutMillis);
+    }
+
+    /** 지수 차트 (캔들 저장소 경유, {@link ChartService#getIndexChart}) */
+    public CompletableFuture<List<IndexChartPriceItemDTO>> getIndexChart(String indexCode, String startDate,
+                                                                         String endDate, String period) {
+        return submit(() -> chartService.getIndexChart(indexCode, startDate, endDate, period), chartTimeoutMillis);
+    }
+
+    /**
+     * 가상 스레드에서 call 실행. timeoutMillis 안에 끝나지 않으면 반환한 future를 ApiException(503, KIS_TIMEOUT)으로 완료하고,
+     * 시간 초과나 반환한 future의 cancel이면 작업 스레드를 interrupt한다.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> call, long timeoutMillis) {
+        submitted.increment();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (RuntimeException | Error e) {
+                if (result.completeExceptionally(e)) {
+                    failed.increment();
+                }
+            }
+        });
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (result.completeExceptionally(new ApiException("KIS 응답이 늦어 조회를 중단했습니다.",
+                    HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_TIMEOUT))) {
+                timedOut.increment();
+                task.cancel(true);
+            }
+        });
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                cancelled.increment();
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /** 제출/시간 초과/취소/조회 실패(예외) 건수. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("submitted", submitted.sum());
+        m.put("timedOut", timedOut.sum());
+        m.put("cancelled", cancelled.sum());
+        m.put("failed", failed.sum());
+        return m;
+    }
+}
@@ -0,0 +1,286 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * KIS REST 엔드포인트 그룹별 서킷 브레이커 ({@link KisEndpoint}).
+ * 최근 window-size 건 중 실패(타임아웃·연결 오류·5xx)와 지연 예산 초과 호출 비율이 임계치를 넘으면 열린다(OPEN).
+ * 열린 동안은 KIS를 부르지 않고 바로 503(KIS_CIRCUIT_OPEN)을 던져, 장애 중 요청 스레드가 응답 대기로 쌓이지 않게 한다.
+ * open-seconds 후 반열림(HALF_OPEN)에서 half-open-probes 건만 시험 호출해 모두 정상이면 닫고, 하나라도 실패하면 다시 연다.
+ * 4xx·업무 오류(rt_cd)는 KIS 장애가 아니므로 집계하지 않는다.
+ * 호출자는 {@link #tryAcquire(String)}로 먼저 허가를 받고(열려 있으면 호출 한도 토큰을 쓰기 전에 거절),
+ * 토큰을 받은 뒤 {@link Permit#call(Supplier)}로 호출한다. 지연 예산은 그 안의 KIS 호출에만 적용된다.
+ */
+@Component
+public class KisCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(KisCircuitBreaker.class);
+
+    public static final String ERROR_CODE_KIS_CIRCUIT_OPEN = "KIS_CIRCUIT_OPEN";
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** tryAcquire 결과 */
+    private static final int REJECTED = 0;
+    private static final int PERMITTED = 1;
+    private static final int PROBE = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final Map<KisEndpoint, Circuit> circuits = new EnumMap<>(KisEndpoint.class);
+
+    public KisCircuitBreaker(@Value("${kis.circuit.window-size:20}") int windowSize,
+                             @Value("${kis.circuit.minimum-calls:10}") int minimumCalls,
+                             @Value("${kis.circuit.failure-rate-percent:50}") int failureRatePercent,
+                             @Value("${kis.circuit.open-seconds:10}") long openSeconds,
+                             @Value("${kis.circuit.half-open-probes:2}") int halfOpenProbes,
+                             @Value("${kis.circuit.latency-budget-ms.auth:3000}") long authBudgetMillis,
+                             @Value("${kis.circuit.latency-budget-ms.price:1000}") long priceBudgetMillis,
+                             @Value("${kis.circuit.latency-budget-ms.ranking:2000}") long rankingBudgetMillis,
+                             @Value("${kis.circuit.latency-budget-ms.index:1000}") long indexBudgetMillis,
+                             @Value("${kis.circuit.latency-budget-ms.chart:4000}") long chartBudgetMillis,
+                             @Value("${kis.circuit.latency-budget-ms.default:3000}") long defaultBudgetMillis) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRatePercent = Math.max(1, Math.min(100, failureRatePercent));
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1, openSeconds));
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        circuits.put(KisEndpoint.AUTH, new Circuit(KisEndpoint.AUTH, authBudgetMillis));
+        circuits.put(KisEndpoint.PRICE, new Circuit(KisEndpoint.PRICE, priceBudgetMillis));
+        circuits.put(KisEndpoint.RANKING, new Circuit(KisEndpoint.RANKING, rankingBudgetMillis));
+        circuits.put(KisEndpoint.INDEX, new Circuit(KisEndpoint.INDEX, indexBudgetMillis));
+        circuits.put(KisEndpoint.CHART, new Circuit(KisEndpoint.CHART, chartBudgetMillis));
+        circuits.put(KisEndpoint.OTHER, new Circuit(KisEndpoint.OTHER, defaultBudgetMillis));
+    }
+
+    /**
+     * url의 엔드포인트 그룹 서킷 허가. 열려 있거나 반열림 시험 호출 자리가 없으면 ApiException(503, KIS_CIRCUIT_OPEN).
+     * 받은 허가는 {@link Permit#call(Supplier)}로 한 번 쓰거나, 호출하지 못하면 {@link Permit#release()}로 반납한다.
+     */
+    public Permit tryAcquire(String url) {
+        Circuit circuit = circuits.get(KisEndpoint.fromUrl(url));
+        int permit = circuit.tryAcquire(System.nanoTime());
+        if (permit == REJECTED) {
+            throw new ApiException("KIS 응답 지연·장애로 잠시 호출을 멈췄습니다. 잠시 후 다시 시도해 주세요.",
+                    HttpStatus.SERVICE_UNAVAILABLE, ERROR_CODE_KIS_CIRCUIT_OPEN);
+        }
+        return new Permit(circuit, permit == PROBE);
+    }
+
+    /** 허가를 받아 바로 call 실행 ({@link #tryAcquire(String)} + {@link Permit#call(Supplier)}). */
+    public <T> T call(String url, Supplier<T> call) {
+        return tryAcquire(url).call(call);
+    }
+
+    /** 엔드포인트 그룹별 상태, 창 안 실패·지연 비율, 누적 호출/실패/지연/거절/열림 수 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        circuits.forEach((endpoint, circuit) -> m.put(endpoint.name(), circuit.stats(now)));
+        return m;
+    }
+
+    /** 서킷 호출 허가 1건. call 또는 release 중 한 번만 유효. */
+    public static final class Permit {
+
+        private final Circuit circuit;
+        private final boolean probe;
+        private boolean used;
+
+        private Permit(Circuit circuit, boolean probe) {
+            this.circuit = circuit;
+            this.probe = probe;
+        }
+
+        /** 허가 아래 call 실행. 결과와 call 자체의 소요 시간을 서킷에 반영. */
+        public <T> T call(Supplier<T> call) {
+            markUsed();
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = call.get();
+            } catch (HttpClientErrorException e) {
+                circuit.onIgnored(probe);
+                throw e;
+            } catch (RestClientException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // 호출자가 취소해 끊은 연결은 KIS 장애가 아님
+                    circuit.onIgnored(probe);
+                } else {
+                    circuit.onResult(probe, true, false, System.nanoTime());
+                }
+                throw e;
+            } catch (RuntimeException | Error e) {
+                // 응답 디코드 오류 등 KIS 장애로 볼 수 없는 실패
+                circuit.onIgnored(probe);
+                throw e;
+            }
+            long end = System.nanoTime();
+            circuit.onResult(probe, false, end - start > circuit.budgetNanos, end);
+            return result;
+        }
+
+        /** 호출하지 않고 반납 (호출 한도 토큰을 못 받았을 때). 반열림 시험 호출 자리를 돌려준다. 이미 쓴 허가면 무시. */
+        public void release() {
+            synchronized (this) {
+                if (used) {
+                    return;
+                }
+                used = true;
+            }
+            circuit.onIgnored(probe);
+        }
+
+        private synchronized void markUsed() {
+            if (used) {
+                throw new IllegalStateException("Circuit permit already used");
+            }
+            used = true;
+        }
+    }
+
+    private final class Circuit {
+
+        final KisEndpoint endpoint;
+        final long budgetNanos;
+        /** 최근 결과 링 (true = 실패 또는 지연). this 보호. */
+        final boolean[] window = new boolean[windowSize];
+        int windowPos;
+        int windowCount;
+        int windowBad;
+        State state = State.CLOSED;
+        long openedAtNanos;
+        int probesInFlight;
+        int probeSuccesses;
+
+        long calls;
+        long failures;
+        long slowCalls;
+        long rejected;
+        long opened;
+
+        Circuit(KisEndpoint endpoint, long budgetMillis) {
+            this.endpoint = endpoint;
+            this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, budgetMillis));
+        }
+
+        synchronized int tryAcquire(long now) {
+            if (state == State.OPEN) {
+                if (now - openedAtNanos < openNanos) {
+                    rejected++;
+                    return REJECTED;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+                log.info("KIS {} circuit half-open, probing", endpoint);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                    rejected++;
+                    return REJECTED;
+                }
+                probesInFlight++;
+                return PROBE;
+            }
+            return PERMITTED;
+        }
+
+        synchronized void onResult(boolean probe, boolean failed, boolean slow, long now) {
+            calls++;
+            if (failed) {
+                failures++;
+            } else if (slow) {
+                slowCalls++;
+            }
+            boolean bad = failed || slow;
+            if (probe) {
+                probesInFlight--;
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+                if (bad) {
+                    open(now, "probe " + (failed ? "failed" : "slow"));
+                } else if (++probeSuccesses >= halfOpenProbes) {
+                    state = State.CLOSED;
+                    resetWindow();
+                    log.info("KIS {} circuit closed", endpoint);
+                }
+                return;
+            }
+            if (state != State.CLOSED) {
+                // 열리기 전에 출발한 호출의 늦은 결과는 창에 넣지 않음
+                return;
+            }
+            if (windowCount == windowSize) {
+                if (window[windowPos]) {
+                    windowBad--;
+                }
+            } else {
+                windowCount++;
+            }
+            window[windowPos] = bad;
+            if (bad) {
+                windowBad++;
+            }
+            windowPos = (windowPos + 1) % windowSize;
+            if (windowCount >= minimumCalls && windowBad * 100 >= failureRatePercent * windowCount) {
+                open(now, windowBad + "/" + windowCount + " failed or slow");
+            }
+        }
+
+        synchronized void onIgnored(boolean probe) {
+            if (probe) {
+                probesInFlight--;
+            }
+        }
+
+        private void open(long now, String reason) {
+            state = State.OPEN;
+            openedAtNanos = now;
+            opened++;
+            resetWindow();
+            log.warn("KIS {} circuit opened for {}s: {}", endpoint, TimeUnit.NANOSECONDS.toSeconds(openNanos), reason);
+        }
+
+        private void resetWindow() {
+            Arrays.fill(window, false);
+            windowPos = 0;
+            windowCount = 0;
+            windowBad = 0;
+        }
+
+        synchronized Map<String, Object> stats(long now) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("state", state.name());
+            m.put("latencyBudgetMs", TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+            m.put("windowCalls", windowCount);
+            m.put("windowBadPercent", windowCount > 0 ? windowBad * 100 / windowCount : 0);
+            m.put("openRemainingMs", state == State.OPEN
+                    ? Math.max(0L, TimeUnit.NANOSECONDS.toMillis(openNanos - (now - openedAtNanos))) : 0L);
+            m.put("calls", calls);
+            m.put("failures", failures);
+            m.put("slowCalls", slowCalls);
+            m.put("rejected", rejected);
+            m.put("opened", opened);
+            return m;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.uniport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * KIS 접근토큰·실시간 접속키 보관과 갱신.
+ * 백그라운드 스레드가 만료 refresh-ahead 전에 미리 새로 받아 교체하므로, 요청 스레드는 메모리 값만 읽고 발급을 기다리지 않는다.
+ * 값이 없거나 이미 만료됐을 때(최초 기동, 백그라운드 갱신 연속 실패)만 요청 스레드가 락을 잡고 직접 발급.
+ * 발급한 값은 AES-GCM으로 암호화해 store-file에 저장하고, 재기동 시 아직 유효하면 그대로 재사용한다
+ * (KIS 토큰 발급 횟수 제한 대응). appkey·실전/모의 구분을 AAD로 묶어 다른 키로 만든 파일은 복호화되지 않는다.
+ */
+@Component
+public class KisCredentialManager {
+
+    private static final Logger log = LoggerFactory.getLogger(KisCredentialManager.class);
+
+    private static final byte[] FILE_MAGIC = {'U', 'K', 'C', '1'};
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+    /** 요청 스레드가 직접 발급으로 넘어가는 기준 (만료 1분 전) */
+    private static final long HARD_EXPIRY_BUFFER_MILLIS = 60_000L;
+
+    /** 발급된 값과 만료 시각 (epoch ms) */
+    record Credential(String value, long expiresAtMillis) {
+
+        boolean usableAt(long nowMillis) {
+            return value != null && !value.isBlank() && nowMillis < expiresAtMillis - HARD_EXPIRY_BUFFER_MILLIS;
+        }
+    }
+
+    private final KisApiService kisApiService;
+    private final Path storeFile;
+    private final String encryptionKey;
+    private final long accessTokenRefreshAheadMillis;
+    private final long approvalKeyRefreshAheadMillis;
+    private final long checkIntervalSeconds;
+
+    @Value("${kis.api.appkey:}")
+    private String appkey;
+    @Value("${kis.api.appsecret:}")
+    private String appsecret;
+    @Value("${kis.api.use-mock:false}")
+    private boolean useMock;
+
+    private final AtomicReference<Credential> accessToken = new AtomicReference<>();
+    private final AtomicReference<Credential> approvalKey = new AtomicReference<>();
+    /** 같은 종류를 동시에 한 번만 발급 */
+    private final ReentrantLock accessTokenLock = new ReentrantLock();
+    private final ReentrantLock approvalKeyLock = new ReentrantLock();
+    private final SecureRandom random = new SecureRandom();
+
+    private final LongAdder accessTokenIssued = new LongAdder();
+    private final LongAdder approvalKeyIssued = new LongAdder();
+    private final LongAdder blockingIssues = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private volatile boolean loadedFromStore;
+    private volatile String lastRefreshError;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-credential-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public KisCredentialManager(@Lazy KisApiService kisApiService,
+                                @Value("${kis.credential.store-file:data/kis-credentials.bin}") String storeFile,
+                                @Value("${kis.credential.encryption-key:}") String encryptionKey,
+                                @Value("${kis.credential.access-token-refresh-ahead-minutes:60}") long accessTokenRefreshAheadMinutes,
+                                @Value("${kis.credential.approval-key-refresh-ahead-minutes:30}") long approvalKeyRefreshAheadMinutes,
+                                @Value("${kis.credential.check-seconds:60}") long checkSeconds) {
+        this.kisApiService = kisApiService;
+        this.storeFile = Paths.get(storeFile);
+        this.encryptionKey = encryptionKey;
+        this.accessTokenRefreshAheadMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, accessTokenRefreshAheadMinutes));
+        this.approvalKeyRefreshAheadMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, approvalKeyRefreshAheadMinutes));
+        this.checkIntervalSeconds = Math.max(5L, checkSeconds);
+    }
+
+    /** 저장 파일에서 복원 후 바로 한 번 점검(없거나 곧 만료면 발급)하고, 이후 check-seconds마다 점검 */
+    @PostConstruct
+    public void start() {
+        if (!isConfigured()) {
+            return;
+        }
+        load();
+        scheduler.scheduleWithFixedDelay(this::refreshAhead, 0L, checkIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** 유효한 접근토큰. 메모리 값이 없거나 만료 직전일 때만 호출 스레드에서 발급. */
+    public String getAccessToken() {
+        Credential current = accessToken.get();
+        if (current != null && current.usableAt(System.currentTimeMillis())) {
+            return current.value();
+        }
+        return issueBlocking(accessToken, accessTokenLock, kisApiService::issueAccessToken, accessTokenIssued).value();
+    }
+
+    /** 유효한 실시간 접속키. 메모리 값이 없거나 만료 직전일 때만 호출 스레드에서 발급. */
+    public String getApprovalKey() {
+        Credential current = approvalKey.get();
+        if (current != null && current.usableAt(System.currentTimeMillis())) {
+            return current.value();
+        }
+        return issueBlocking(approvalKey, approvalKeyLock, kisApiService::issueApprovalKey, approvalKeyIssued).value();
+    }
+
+    /** 접근토큰을 비우고 저장 파일에도 반영. 비우기 전 토큰(없으면 null)을 반환해 폐기 요청에 쓴다. */
+    public String clearAccessToken() {
+        accessTokenLock.lock();
+        try {
+            Credential previous = accessToken.getAndSet(null);
+            save();
+            return previous != null ? previous.value() : null;
+        } finally {
+            accessTokenLock.unlock();
+        }
+    }
+
+    /**
+     * KIS가 거절한 실시간 접속키를 비워 다음 조회 시 새로 발급. 접속키는 모든 WS 세션이 같이 쓰므로,
+     * 지금 값이 거절된 키일 때만 비운다 (다른 세션이 이미 새 키를 받아 두었으면 그대로 둔다). 비웠으면 true.
+     */
+    public boolean invalidateApprovalKey(String rejectedKey) {
+        approvalKeyLock.lock();
+        try {
+            Credential current = approvalKey.get();
+            if (current == null || rejectedKey == null || !rejectedKey.equals(current.value())) {
+                return false;
+            }
+            approvalKey.set(null);
+            save();
+            return true;
+        } finally {
+            approvalKeyLock.unlock();
+        }
+    }
+
+    private Credential issueBlocking(AtomicReference<Credential> ref, ReentrantLock lock,
+                                     Supplier<Credential> issuer, LongAdder issued) {
+        lock.lock();
+        try {
+            Credential current = ref.get();
+            if (current != null && current.usableAt(System.currentTimeMillis())) {
+                return current;
+            }
+            blockingIssues.increment();
+            Credential fresh = issuer.get();
+            ref.set(fresh);
+            issued.increment();
+            save();
+            return fresh;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 만료 refresh-ahead 안으로 들어온 값을 미리 교체. 교체 전까지 기존 값이 계속 쓰인다.
+     * 접근토큰은 없으면 바로 발급(기동 직후 첫 요청이 기다리지 않게), 접속키는 WS가 한 번 받아 간 뒤부터만 갱신.
+     */
+    private void refreshAhead() {
+        refreshAhead(accessToken, accessTokenLock, accessTokenRefreshAheadMillis,
+                kisApiService::issueAccessToken, accessTokenIssued, "access token");
+        if (approvalKey.get() != null) {
+            refreshAhead(approvalKey, approvalKeyLock, approvalKeyRefreshAheadMillis,
+                    kisApiService::issueApprovalKey, approvalKeyIssued, "approval key");
+        }
+    }
+
+    private void refreshAhead(AtomicReference<Credential> ref, ReentrantLock lock, long aheadMillis,
+                              Supplier<Credential> issuer, LongAdder issued, String name) {
+        Credential current = ref.get();
+        if (current != null && System.currentTimeMillis() < current.expiresAtMillis() - aheadMillis) {
+            return;
+        }
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            Credential latest = ref.get();
+            if (latest != null && latest != current
+                    && System.currentTimeMillis() < latest.expiresAtMillis() - aheadMillis) {
+                return;
+            }
+            Credential fresh = issuer.get();
+            ref.set(fresh);
+            issued.increment();
+            save();
+            log.info("KIS {} refreshed, expires at {}", name, Instant.ofEpochMilli(fresh.expiresAtMillis()));
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            lastRefreshError = name + ": " + e.getMessage();
+            log.warn("KIS {} refresh failed (retry in {}s): {}", name, checkIntervalSeconds, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isConfigured() {
+        return appkey != null && !appkey.isBlank() && appsecret != null && !appsecret.isBlank();
+    }
+
+    // ---- 암호화 저장 파일: "UKC1" | IV(12) | AES-256-GCM(Properties 텍스트) ----
+
+    private void load() {
+        if (!Files.isRegularFile(storeFile)) {
+            return;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(storeFile);
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            byte[] magic = new byte[FILE_MAGIC.length];
+            if (bytes.length <= FILE_MAGIC.length + GCM_IV_BYTES) {
+                return;
+            }
+            buf.get(magic);
+            if (!MessageDigest.isEqual(magic, FILE_MAGIC)) {
+                log.warn("KIS credential store {} has unknown format, ignoring", storeFile);
+                return;
+            }
+            byte[] iv = new byte[GCM_IV_BYTES];
+            buf.get(iv);
+            byte[] cipherText = new byte[buf.remaining()];
+            buf.get(cipherText);
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, iv);
+            String text = new String(cipher.doFinal(cipherText), StandardCharsets.UTF_8);
+            Properties props = new Properties();
+            props.load(new StringReader(text));
+            long now = System.currentTimeMillis();
+            Credential token = readCredential(props, "access_token");
+            Credential key = readCredential(props, "approval_key");
+            if (token != null && token.usableAt(now)) {
+                accessToken.compareAndSet(null, token);
+                loadedFromStore = true;
+            }
+            if (key != null && key.usableAt(now)) {
+                approvalKey.compareAndSet(null, key);
+                loadedFromStore = true;
+            }
+            log.info("KIS credentials restored from {} (access token: {}, approval key: {})", storeFile,
+                    accessToken.get() != null, approvalKey.get() != null);
+        } catch (GeneralSecurityException e) {
+            // 키(appkey/appsecret/encryption-key)가 바뀌었거나 파일이 손상됨 → 새로 발급
+            log.warn("KIS credential store {} could not be decrypted, ignoring", storeFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("KIS credential store {} could not be read: {}", storeFile, e.getMessage());
+        }
+    }
+
+    private static Credential readCredential(Properties props, String name) {
+        String value = props.getProperty(name);
+        String expires = props.getProperty(name + ".expires_at");
+        if (value == null || expires == null) {
+            return null;
+        }
+        try {
+            return new Credential(value, Long.parseLong(expires));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private synchronized void save() {
+        Properties props = new Properties();
+        writeCredential(props, "access_token", accessToken.get());
+        writeCredential(props, "approval_key", approvalKey.get());
+        try {
+            StringWriter text = new StringWriter();
+            props.store(text, null);
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            byte[] cipherText = cipher(Cipher.ENCRYPT_MODE, iv).doFinal(text.toString().getBytes(StandardCharsets.UTF_8));
+            ByteBuffer out = ByteBuffer.allocate(FILE_MAGIC.length + iv.length + cipherText.length);
+            out.put(FILE_MAGIC).put(iv).put(cipherText);
+            Path dir = storeFile.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Path tmp = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+            // 쓰기 전에 소유자 전용 권한으로 만든다 (기본 umask로 만든 뒤 좁히면 그 사이 다른 사용자가 열 수 있음)
+            Files.deleteIfExists(tmp);
+            try {
+                Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } catch (UnsupportedOperationException e) {
+                // POSIX 권한이 없는 파일시스템
+                Files.createFile(tmp);
+            }
+            Files.write(tmp, out.array(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("KIS credential store {} could not be written: {}", storeFile, e.getMessage());
+        }
+    }
+
+    private static void writeCredential(Properties props, String name, Credential credential) {
+        if (credential != null && credential.value() != null) {
+            props.setProperty(name, credential.value());
+            props.setProperty(name + ".expires_at", Long.toString(credential.expiresAtMillis()));
+        }
+    }
+
+    /**
+     * AES-256-GCM. 키는 kis.credential.encryption-key, 없으면 appsecret에서 SHA-256으로 유도.
+     * AAD는 실전/모의 구분 + appkey.
+     */
+    private Cipher cipher(int mode, byte[] iv) throws GeneralSecurityException {
+        String secret = encryptionKey != null && !encryptionKey.isBlank()
+                ? encryptionKey
+                : "uniport-kis-credential|" + appsecret.trim();
+        byte[] key = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(GCM_TAG_BITS, iv));
+        cipher.updateAAD(((useMock ? "mock|" : "real|") + appkey.trim()).getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+
+    /** 토큰·접속키 남은 시간, 발급 수(백그라운드 포함), 요청 스레드 발급 수, 갱신 실패 수, 파일 복원 여부 */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("accessTokenRemainingSeconds", remainingSeconds(accessToken.get(), now));
+        m.put("approvalKeyRemainingSeconds", remainingSeconds(approvalKey.get(), now));
+        m.put("accessTokenIssued", accessTokenIssued.sum());
+        m.put("approvalKeyIssued", approvalKeyIssued.sum());
+        m.put("blockingIssues", blockingIssues.sum());
+        m.put("refreshFailures", refreshFailures.sum());
+        m.put("lastRefreshError", lastRefreshError);
+        m.put("loadedFromStore", loadedFromStore);
+        return m;
+    }
+
+    private static Long remainingSeconds(Credential credential, long now) {
+        return credential != null ? Math.max(0L, (credential.expiresAtMillis() - now) / 1000) : null;
+    }
+}
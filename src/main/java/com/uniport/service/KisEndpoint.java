@@ -0,0 +1,43 @@
+package com.uniport.service;
+
+/**
+ * KIS REST 엔드포인트 그룹. 응답 대기 시간·서킷 브레이커를 그룹 단위로 나눈다 ({@link KisCircuitBreaker}).
+ */
+public enum KisEndpoint {
+
+    /** 토큰·실시간 접속키 발급 (/oauth2/*) */
+    AUTH,
+    /** 종목 현재가 */
+    PRICE,
+    /** 거래량·등락률 순위 */
+    RANKING,
+    /** 지수 현재가 */
+    INDEX,
+    /** 종목·지수 일/주/월/년 차트 */
+    CHART,
+    /** 그 외 */
+    OTHER;
+
+    /** 요청 URL 경로로 그룹 판정 (RestTemplateConfig 경로별 응답 대기와 같은 기준) */
+    public static KisEndpoint fromUrl(String url) {
+        if (url == null) {
+            return OTHER;
+        }
+        if (url.contains("/oauth2/")) {
+            return AUTH;
+        }
+        if (url.contains("/inquire-index-price")) {
+            return INDEX;
+        }
+        if (url.contains("/inquire-price")) {
+            return PRICE;
+        }
+        if (url.contains("/ranking/") || url.contains("/volume-rank")) {
+            return RANKING;
+        }
+        if (url.contains("chartprice")) {
+            return CHART;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,14 @@
+package com.uniport.service;
+
+/**
+ * KIS REST 호출 우선순위. 초당 호출 한도가 모자랄 때 앞의 것부터 토큰을 받는다 ({@link KisRateLimiter}).
+ */
+public enum KisPriority {
+
+    /** 사용자가 기다리는 조회 (현재가, 토큰·접속키 발급) */
+    INTERACTIVE,
+    /** 화면용 시장 데이터 (순위, 지수, 지수 차트) */
+    MARKET_DATA,
+    /** 백그라운드 갱신·평가액 계산 */
+    BACKGROUND
+}
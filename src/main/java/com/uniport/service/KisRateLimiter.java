@@ -0,0 +1,238 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * KIS REST 초당 호출 한도용 토큰 버킷 + 우선순위 대기열.
+ * 토큰이 없으면 우선순위별 FIFO 대기열에 줄을 서고, 높은 우선순위 대기열의 맨 앞부터 토큰을 받는다.
+ * 대기열이 가득 찼거나 앞사람 수로 계산한 예상 대기가 우선순위별 허용 대기시간을 넘으면 기다리지 않고 바로 거절(503).
+ * 기다리는 중 허용 시간이 지나도 거절. 별도 스레드 없이 대기 중인 호출 스레드가 토큰 충전 시각까지 잠든다.
+ */
+@Component
+public class KisRateLimiter {
+
+    public static final String ERROR_CODE_KIS_RATE_LIMITED = "KIS_RATE_LIMITED";
+
+    private static final KisPriority[] PRIORITIES = KisPriority.values();
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final int queueCapacity;
+    private final long[] maxWaitNanos = new long[PRIORITIES.length];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** 우선순위별 대기열. lock 보호. */
+    private final List<ArrayDeque<Waiter>> queues = new ArrayList<>(PRIORITIES.length);
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final LongAdder[] acquired = new LongAdder[PRIORITIES.length];
+    private final LongAdder[] queued = new LongAdder[PRIORITIES.length];
+    private final LongAdder[] queuedAcquired = new LongAdder[PRIORITIES.length];
+    private final LongAdder[] waitNanosTotal = new LongAdder[PRIORITIES.length];
+    private final LongAccumulator[] waitNanosMax = new LongAccumulator[PRIORITIES.length];
+    private final LongAdder[] rejectedQueueFull = new LongAdder[PRIORITIES.length];
+    private final LongAdder[] rejectedDeadline = new LongAdder[PRIORITIES.length];
+
+    public KisRateLimiter(@Value("${kis.api.rate-limit.permits-per-second:18}") double permitsPerSecond,
+                          @Value("${kis.api.rate-limit.burst:18}") int burst,
+                          @Value("${kis.api.rate-limit.queue-capacity:200}") int queueCapacity,
+                          @Value("${kis.api.rate-limit.max-wait-ms.interactive:3000}") long interactiveMaxWaitMillis,
+                          @Value("${kis.api.rate-limit.max-wait-ms.market-data:5000}") long marketDataMaxWaitMillis,
+                          @Value("${kis.api.rate-limit.max-wait-ms.background:15000}") long backgroundMaxWaitMillis) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("kis.api.rate-limit.permits-per-second must be > 0");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        maxWaitNanos[KisPriority.INTERACTIVE.ordinal()] = TimeUnit.MILLISECONDS.toNanos(interactiveMaxWaitMillis);
+        maxWaitNanos[KisPriority.MARKET_DATA.ordinal()] = TimeUnit.MILLISECONDS.toNanos(marketDataMaxWaitMillis);
+        maxWaitNanos[KisPriority.BACKGROUND.ordinal()] = TimeUnit.MILLISECONDS.toNanos(backgroundMaxWaitMillis);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+            acquired[i] = new LongAdder();
+            queued[i] = new LongAdder();
+            queuedAcquired[i] = new LongAdder();
+            waitNanosTotal[i] = new LongAdder();
+            waitNanosMax[i] = new LongAccumulator(Math::max, 0L);
+            rejectedQueueFull[i] = new LongAdder();
+            rejectedDeadline[i] = new LongAdder();
+        }
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 호출 1건 분량의 토큰을 받는다. 받을 때까지 블록.
+     * 허용 대기시간 안에 받을 수 없으면 ApiException(503, KIS_RATE_LIMITED).
+     */
+    public void acquire(KisPriority priority) {
+        int p = priority.ordinal();
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            refill(start);
+            if (waiting() == 0 && tokens >= 1) {
+                tokens -= 1;
+                acquired[p].increment();
+                return;
+            }
+            ArrayDeque<Waiter> queue = queues.get(p);
+            if (queue.size() >= queueCapacity) {
+                rejectedQueueFull[p].increment();
+                throw rateLimited();
+            }
+            long deadline = start + maxWaitNanos[p];
+            if (estimatedWaitNanos(p) > maxWaitNanos[p]) {
+                rejectedDeadline[p].increment();
+                throw rateLimited();
+            }
+            Waiter self = new Waiter(lock.newCondition());
+            queue.addLast(self);
+            queued[p].increment();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    boolean head = head() == self;
+                    if (head && tokens >= 1) {
+                        tokens -= 1;
+                        queue.remove(self);
+                        signalHead();
+                        long waited = now - start;
+                        acquired[p].increment();
+                        queuedAcquired[p].increment();
+                        waitNanosTotal[p].add(waited);
+                        waitNanosMax[p].accumulate(waited);
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        queue.remove(self);
+                        signalHead();
+                        rejectedDeadline[p].increment();
+                        throw rateLimited();
+                    }
+                    // 맨 앞이면 다음 토큰 충전 시각까지, 아니면 앞사람이 빠지며 깨워줄 때까지(최대 마감까지)
+                    long sleep = head ? Math.min(remaining, nanosUntilNextToken()) : remaining;
+                    self.condition.awaitNanos(Math.max(1L, sleep));
+                }
+            } catch (InterruptedException e) {
+                queue.remove(self);
+                signalHead();
+                Thread.currentThread().interrupt();
+                throw new ApiException("KIS request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * permitsPerNano);
+            lastRefillNanos = now;
+        }
+    }
+
+    private long nanosUntilNextToken() {
+        return tokens >= 1 ? 0L : (long) Math.ceil((1 - tokens) / permitsPerNano);
+    }
+
+    /** 지금 줄을 서면 토큰을 받기까지 걸릴 시간 추정 (같거나 높은 우선순위 대기자 수 기준) */
+    private long estimatedWaitNanos(int p) {
+        int ahead = 0;
+        for (int i = 0; i <= p; i++) {
+            ahead += queues.get(i).size();
+        }
+        double deficit = ahead + 1 - tokens;
+        return deficit <= 0 ? 0L : (long) Math.ceil(deficit / permitsPerNano);
+    }
+
+    private Waiter head() {
+        for (ArrayDeque<Waiter> q : queues) {
+            Waiter w = q.peekFirst();
+            if (w != null) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    private void signalHead() {
+        Waiter w = head();
+        if (w != null) {
+            w.condition.signal();
+        }
+    }
+
+    private int waiting() {
+        int n = 0;
+        for (ArrayDeque<Waiter> q : queues) {
+            n += q.size();
+        }
+        return n;
+    }
+
+    private static ApiException rateLimited() {
+        return new ApiException("KIS 요청이 많아 잠시 후 다시 시도해 주세요.", HttpStatus.SERVICE_UNAVAILABLE,
+                ERROR_CODE_KIS_RATE_LIMITED);
+    }
+
+    /** 우선순위별 토큰 획득/대기/거절 지표. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("permitsPerSecond", permitsPerNano * TimeUnit.SECONDS.toNanos(1));
+        m.put("burst", burst);
+        m.put("queueCapacity", queueCapacity);
+        Map<String, Object> perPriority = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            m.put("availableTokens", tokens);
+            for (KisPriority priority : PRIORITIES) {
+                int p = priority.ordinal();
+                long waitedCount = queuedAcquired[p].sum();
+                Map<String, Object> s = new LinkedHashMap<>();
+                s.put("acquired", acquired[p].sum());
+                s.put("queueDepth", queues.get(p).size());
+                s.put("queued", queued[p].sum());
+                s.put("avgQueueWaitMillis", waitedCount == 0 ? 0L
+                        : TimeUnit.NANOSECONDS.toMillis(waitNanosTotal[p].sum() / waitedCount));
+                s.put("maxQueueWaitMillis", TimeUnit.NANOSECONDS.toMillis(waitNanosMax[p].get()));
+                s.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos[p]));
+                s.put("rejectedQueueFull", rejectedQueueFull[p].sum());
+                s.put("rejectedDeadline", rejectedDeadline[p].sum());
+                perPriority.put(priority.name(), s);
+            }
+        } finally {
+            lock.unlock();
+        }
+        m.put("priorities", perPriority);
+        return m;
+    }
+
+    private static final class Waiter {
+        final Condition condition;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,49 +24,55 @@ public class MarketService {
 
     private final KisApiService kisApiService;
     private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final RankingCache rankingCache;
+    private final ChartService chartService;
+    private final IndexQuoteCache indexQuoteCache;
+    private final KisAsyncService kisAsyncService;
 
     public MarketService(KisApiService kisApiService,
-                         @Lazy KisWsSubscriptionManager kisWsSubscriptionManager) {
+                         @Lazy KisWsSubscriptionManager kisWsSubscriptionManager,
+                         RankingCache rankingCache,
+                         ChartService chartService,
+                         IndexQuoteCache indexQuoteCache,
+                         KisAsyncService kisAsyncService) {
         this.kisApiService = kisApiService;
         this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.rankingCache = rankingCache;
+        this.chartService = chartService;
+        this.indexQuoteCache = indexQuoteCache;
+        this.kisAsyncService = kisAsyncService;
     }
 
-    public List<StockPriceDTO> getVolumeRank() {
+    /** 순위 캐시 조회 (stale-while-revalidate). Snapshot의 조회 시각으로 응답 Age 헤더를 채운다. */
+    public RankingCache.Snapshot getRanking(RankingCache.Sort sort) {
         try {
-            return kisApiService.getVolumeRank();
+            return rankingCache.get(sort);
         } catch (ApiException e) {
             throw e;
         } catch (Exception e) {
-            throw new ApiException("Failed to fetch volume rank: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+            throw new ApiException("Failed to fetch " + sort.name().toLowerCase() + " rank: " + e.getMessage(),
+                    HttpStatus.SERVICE_UNAVAILABLE);
         }
     }
 
+    public List<StockPriceDTO> getVolumeRank() {
+        return getRanking(RankingCache.Sort.VOLUME).items();
+    }
+
     /** 상승률순 조회. KIS fluctuation ranking API. */
     public List<StockPriceDTO> getFluctuationRank() {
-        try {
-            return kisApiService.getFluctuationRank();
-        } catch (ApiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ApiException("Failed to fetch fluctuation rank: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
-        }
+        return getRanking(RankingCache.Sort.RISING).items();
     }
 
     /** 하락율순 조회. KIS fluctuation ranking API (fid_rank_sort_cls_code=1, fid_prc_cls_code=1). */
     public List<StockPriceDTO> getFallingRank() {
-        try {
-            return kisApiService.getFallingRank();
-        } catch (ApiException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ApiException("Failed to fetch falling rank: " + e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
-        }
+        return getRanking(RankingCache.Sort.FALLING).items();
     }
 
-    /** 일/주/월/년 지수 차트 시세. period: D=일봉, W=주봉, M=월봉, Y=년봉. 날짜: yyyyMMdd. */
+    /** 일/주/월/년 지수 차트 시세 (로컬 캔들 저장소 경유). period: D=일봉, W=주봉, M=월봉, Y=년봉. 날짜: yyyyMMdd. */
     public List<IndexChartPriceItemDTO> getIndexChartPrice(String indexCode, String startDate, String endDate, String period) {
         try {
-            return kisApiService.getIndexChartPrice(indexCode, startDate, endDate, period);
+            return chartService.getIndexChart(indexCode, startDate, endDate, period);
         } catch (ApiException e) {
             throw e;
         } catch (Exception e) {
@@ -73,12 +80,13 @@ public class MarketService {
         }
     }
 
+    /** 지수 조회 (실시간 지수 캐시에서 응답) */
     public MarketIndexDTO getMarketIndex(String indexCode) {
         if (indexCode == null || indexCode.isBlank()) {
             throw new ApiException("Index code is required", HttpStatus.BAD_REQUEST);
         }
         try {
-            return kisApiService.getMarketIndex(indexCode.trim());
+            return indexQuoteCache.get(indexCode.trim());
         } catch (ApiException e) {
             throw e;
         } catch (Exception e) {
@@ -86,50 +94,88 @@ public class MarketService {
         }
     }
 
-    /** 명세 §3-1: 시장 지수 배열 (id, name, value, change, changeRate) */
+    /** 명세 §3-1: 시장 지수 배열 (id, name, value, change, changeRate). 실시간 지수 캐시에서 응답. */
     public List<MarketIndexItemDTO> getIndicesForApi() {
         List<MarketIndexItemDTO> list = new ArrayList<>();
+        list.add(toIndexItem(1L, "KOSPI", BigDecimal.valueOf(2500)));
+        list.add(toIndexItem(2L, "KOSDAQ", BigDecimal.valueOf(800)));
+        return list;
+    }
+
+    /** §3-1 비동기 버전. KOSPI·KOSDAQ을 동시에 조회하고, 각 지수가 실패·시간 초과면 그 지수만 기본값. */
+    public CompletableFuture<List<MarketIndexItemDTO>> getIndicesForApiAsync() {
+        CompletableFuture<MarketIndexItemDTO> kospi = kisAsyncService.getMarketIndex("KOSPI")
+                .handle((index, e) -> toIndexItem(1L, "KOSPI", BigDecimal.valueOf(2500), e == null ? index : null));
+        CompletableFuture<MarketIndexItemDTO> kosdaq = kisAsyncService.getMarketIndex("KOSDAQ")
+                .handle((index, e) -> toIndexItem(2L, "KOSDAQ", BigDecimal.valueOf(800), e == null ? index : null));
+        return kospi.thenCombine(kosdaq, (a, b) -> {
+            List<MarketIndexItemDTO> list = new ArrayList<>();
+            list.add(a);
+            list.add(b);
+            return list;
+        });
+    }
+
+    /** 캐시에도 없고 REST 조회도 실패하면 기본값 */
+    private MarketIndexItemDTO toIndexItem(long id, String indexCode, BigDecimal fallbackValue) {
+        MarketIndexDTO index;
         try {
-            MarketIndexDTO kospi = kisApiService.getMarketIndex("KOSPI");
-            list.add(MarketIndexItemDTO.builder()
-                    .id(1L)
-                    .name(kospi.getIndexName() != null ? kospi.getIndexName() : "KOSPI")
-                    .value(kospi.getValue() != null ? kospi.getValue() : BigDecimal.ZERO)
-                    .change(kospi.getChangeAmount() != null ? kospi.getChangeAmount() : BigDecimal.ZERO)
-                    .changeRate(kospi.getChangeRate() != null ? kospi.getChangeRate() : BigDecimal.ZERO)
-                    .build());
-            MarketIndexDTO kosdaq = kisApiService.getMarketIndex("KOSDAQ");
-            list.add(MarketIndexItemDTO.builder()
-                    .id(2L)
-                    .name(kosdaq.getIndexName() != null ? kosdaq.getIndexName() : "KOSDAQ")
-                    .value(kosdaq.getValue() != null ? kosdaq.getValue() : BigDecimal.ZERO)
-                    .change(kosdaq.getChangeAmount() != null ? kosdaq.getChangeAmount() : BigDecimal.ZERO)
-                    .changeRate(kosdaq.getChangeRate() != null ? kosdaq.getChangeRate() : BigDecimal.ZERO)
-                    .build());
+            index = indexQuoteCache.get(indexCode);
         } catch (Exception e) {
-            list.add(MarketIndexItemDTO.builder().id(1L).name("KOSPI").value(BigDecimal.valueOf(2500)).change(BigDecimal.ZERO).changeRate(BigDecimal.ZERO).build());
-            list.add(MarketIndexItemDTO.builder().id(2L).name("KOSDAQ").value(BigDecimal.valueOf(800)).change(BigDecimal.ZERO).changeRate(BigDecimal.ZERO).build());
+            index = null;
         }
-        return list;
+        return toIndexItem(id, indexCode, fallbackValue, index);
+    }
+
+    private static MarketIndexItemDTO toIndexItem(long id, String indexCode, BigDecimal fallbackValue,
+                                                  MarketIndexDTO index) {
+        if (index == null) {
+            return MarketIndexItemDTO.builder().id(id).name(indexCode).value(fallbackValue)
+                    .change(BigDecimal.ZERO).changeRate(BigDecimal.ZERO).build();
+        }
+        return MarketIndexItemDTO.builder()
+                .id(id)
+                .name(index.getIndexName() != null ? index.getIndexName() : indexCode)
+                .value(index.getValue() != null ? index.getValue() : BigDecimal.ZERO)
+                .change(index.getChangeAmount() != null ? index.getChangeAmount() : BigDecimal.ZERO)
+                .changeRate(index.getChangeRate() != null ? index.getChangeRate() : BigDecimal.ZERO)
+                .build();
     }
 
     /** 명세 §3-2~3-4: sort=volume|rising|falling. volume 실패 시 빈 배열 반환(프론트 전달 보장). */
     public List<MarketStockItemDTO> getStocksForApi(String sort) {
-        List<StockPriceDTO> list;
+        return toMarketStockItems(getRankingForApi(sort));
+    }
+
+    /** sort 파라미터(volume|rising|falling) → 순위 캐시. volume 실패 시 빈 Snapshot. */
+    public RankingCache.Snapshot getRankingForApi(String sort) {
         if ("rising".equalsIgnoreCase(sort)) {
-            list = getFluctuationRank();
-        } else if ("falling".equalsIgnoreCase(sort)) {
-            list = getFallingRank();
-        } else {
-            try {
-                list = getVolumeRank();
-            } catch (Exception e) {
-                list = List.of();
-            }
+            return getRanking(RankingCache.Sort.RISING);
         }
-        if (list == null) {
-            list = List.of();
+        if ("falling".equalsIgnoreCase(sort)) {
+            return getRanking(RankingCache.Sort.FALLING);
         }
+        try {
+            return getRanking(RankingCache.Sort.VOLUME);
+        } catch (Exception e) {
+            return new RankingCache.Snapshot(List.of(), System.currentTimeMillis());
+        }
+    }
+
+    /** 순위 조회 비동기 버전. sort 해석과 volume 실패 시 빈 Snapshot은 {@link #getRankingForApi(String)}와 같다. */
+    public CompletableFuture<RankingCache.Snapshot> getRankingForApiAsync(String sort) {
+        RankingCache.Sort key = "rising".equalsIgnoreCase(sort) ? RankingCache.Sort.RISING
+                : "falling".equalsIgnoreCase(sort) ? RankingCache.Sort.FALLING
+                : RankingCache.Sort.VOLUME;
+        CompletableFuture<RankingCache.Snapshot> snapshot = kisAsyncService.getRanking(key);
+        if (key != RankingCache.Sort.VOLUME) {
+            return snapshot;
+        }
+        return snapshot.exceptionally(e -> new RankingCache.Snapshot(List.of(), System.currentTimeMillis()));
+    }
+
+    public List<MarketStockItemDTO> toMarketStockItems(RankingCache.Snapshot snapshot) {
+        List<StockPriceDTO> list = snapshot.items();
         for (StockPriceDTO p : list) {
             try {
                 kisWsSubscriptionManager.ensureSubscribed(p.getStockCode());
@@ -1,12 +1,16 @@
 package com.uniport.service;
 
+import com.uniport.entity.Competition;
 import com.uniport.entity.MatchingRoom;
 import com.uniport.entity.MatchingRoomMember;
 import com.uniport.entity.User;
 import com.uniport.exception.ApiException;
+import com.uniport.repository.CompetitionRepository;
 import com.uniport.repository.MatchingRoomMemberRepository;
 import com.uniport.repository.MatchingRoomRepository;
 import com.uniport.repository.UserRepository;
+import com.uniport.service.valuation.CompetitionLeaderboards;
+import com.uniport.service.valuation.TeamValuationEngine;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,13 +32,22 @@ public class MatchingRoomService {
     private final MatchingRoomRepository matchingRoomRepository;
     private final MatchingRoomMemberRepository matchingRoomMemberRepository;
     private final UserRepository userRepository;
+    private final TeamValuationEngine teamValuationEngine;
+    private final CompetitionLeaderboards competitionLeaderboards;
+    private final CompetitionRepository competitionRepository;
 
     public MatchingRoomService(MatchingRoomRepository matchingRoomRepository,
                               MatchingRoomMemberRepository matchingRoomMemberRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              TeamValuationEngine teamValuationEngine,
+                              CompetitionLeaderboards competitionLeaderboards,
+                              CompetitionRepository competitionRepository) {
         this.matchingRoomRepository = matchingRoomRepository;
         this.matchingRoomMemberRepository = matchingRoomMemberRepository;
         this.userRepository = userRepository;
+        this.teamValuationEngine = teamValuationEngine;
+        this.competitionLeaderboards = competitionLeaderboards;
+        this.competitionRepository = competitionRepository;
     }
 
     /** 방 목록. user가 있으면 각 방에 isJoined(현재 사용자 참가 여부) 포함. */
@@ -64,13 +77,18 @@ public class MatchingRoomService {
                 .collect(Collectors.toList());
     }
 
-    /** 방 생성. creator가 있으면 해당 멤버를 방에 자동 추가. 이미 참가 중인 방이 있으면 생성 불가. */
+    /**
+     * 방 생성. creator가 있으면 해당 멤버를 방에 자동 추가. 이미 참가 중인 방이 있으면 생성 불가.
+     * competitionId를 주면 그 대회(종료되지 않은 대회만) 소속으로 만든다.
+     */
     @Transactional
-    public Map<String, Object> create(String name, User creator) {
+    public Map<String, Object> create(String name, String competitionId, User creator) {
         if (creator != null && !matchingRoomMemberRepository.findByUserIdOrderByJoinedAtDesc(creator.getId()).isEmpty()) {
             throw new ApiException("이미 참가 중인 방이 있습니다. 새 방을 만들려면 먼저 방을 나가세요.", HttpStatus.BAD_REQUEST);
         }
+        Long competition = findOpenCompetitionId(competitionId);
         MatchingRoom room = MatchingRoom.create(name);
+        room.setCompetitionId(competition);
         room = matchingRoomRepository.save(room);
         if (creator != null) {
             matchingRoomMemberRepository.save(MatchingRoomMember.of(room, creator));
@@ -119,14 +137,28 @@ public class MatchingRoomService {
         matchingRoomRepository.save(room);
         if (newCount == 0) {
             matchingRoomRepository.delete(room);
+            teamValuationEngine.onTeamChanged(room.getId());
         }
         return Map.of("success", true, "message", "Left");
     }
 
+    /**
+     * 방 시작. competitionId를 주면 그 대회(종료되지 않은 대회만) 소속으로, 이미 다른 대회 소속이면 409.
+     * 주지 않았고 소속 대회도 없으면 진행 중 대회에 붙인다. 소속 대회 순위표(엔진 partition)에 올라간다.
+     */
     @Transactional
-    public Map<String, Object> start(String roomId) {
+    public Map<String, Object> start(String roomId, String competitionId) {
         MatchingRoom room = findRoomByApiId(roomId);
+        Long competition = findOpenCompetitionId(competitionId);
+        if (competition != null && room.getCompetitionId() != null && !competition.equals(room.getCompetitionId())) {
+            throw new ApiException("이미 다른 대회에 소속된 방입니다.", HttpStatus.CONFLICT);
+        }
         room.setStatus("started");
+        if (competition != null) {
+            room.setCompetitionId(competition);
+        } else if (room.getCompetitionId() == null) {
+            room.setCompetitionId(competitionLeaderboards.ongoingCompetitionId());
+        }
         matchingRoomRepository.save(room);
         // 방이 시작되면 이 방 멤버들의 팀을 이 방으로 고정 → 주문/보유가 이 팀(groupId)에 쌓임
         String teamIdStr = "team-" + room.getId();
@@ -138,12 +170,13 @@ public class MatchingRoomService {
                 userRepository.save(u);
             }
         }
-        return Map.of(
-                "success", true,
-                "message", "Started",
-                "teamId", teamIdStr,
-                "competitionId", 1
-        );
+        teamValuationEngine.onTeamChanged(room.getId());
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("message", "Started");
+        result.put("teamId", teamIdStr);
+        result.put("competitionId", room.getCompetitionId());
+        return result;
     }
 
     /** 관리자: 팀(매칭방) 삭제. 소속 멤버 전부 삭제 후 방 삭제. */
@@ -152,6 +185,7 @@ public class MatchingRoomService {
         MatchingRoom room = findRoomByApiIdFlexible(roomId);
         matchingRoomMemberRepository.deleteByMatchingRoom_Id(room.getId());
         matchingRoomRepository.delete(room);
+        teamValuationEngine.onTeamChanged(room.getId());
         return Map.of("success", true, "message", "팀(매칭방)이 삭제되었습니다.");
     }
 
@@ -168,10 +202,30 @@ public class MatchingRoomService {
         matchingRoomRepository.save(room);
         if (newCount == 0) {
             matchingRoomRepository.delete(room);
+            teamValuationEngine.onTeamChanged(room.getId());
         }
         return Map.of("success", true, "message", "멤버가 팀에서 제거되었습니다.");
     }
 
+    /** 요청의 대회 ID 검증. 없으면 null, 형식이 틀리면 400, 없는 대회는 404, 종료된 대회는 400. */
+    private Long findOpenCompetitionId(String competitionId) {
+        if (competitionId == null || competitionId.isBlank()) {
+            return null;
+        }
+        long id;
+        try {
+            id = Long.parseLong(competitionId.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException("잘못된 대회 ID입니다.", HttpStatus.BAD_REQUEST);
+        }
+        Competition competition = competitionRepository.findById(id)
+                .orElseThrow(() -> new ApiException("대회를 찾을 수 없습니다.", HttpStatus.NOT_FOUND));
+        if ("ended".equals(competition.getStatus())) {
+            throw new ApiException("종료된 대회에는 참가할 수 없습니다.", HttpStatus.BAD_REQUEST);
+        }
+        return competition.getId();
+    }
+
     private MatchingRoom findRoomByApiId(String roomId) {
         Long id = parseRoomId(roomId);
         return matchingRoomRepository.findById(id)
@@ -232,6 +286,7 @@ public class MatchingRoomService {
         map.put("memberCount", memberCount);
         map.put("members", membersList);
         map.put("status", room.getStatus());
+        map.put("competitionId", room.getCompetitionId());
         map.put("createdAt", room.getCreatedAt().toString());
         return map;
     }
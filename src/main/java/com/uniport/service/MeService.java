@@ -14,6 +14,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,12 +29,15 @@ public class MeService {
     private final StockService stockService;
     private final MatchingRoomService matchingRoomService;
     private final CompetitionService competitionService;
+    private final StockMasterIndex stockMasterIndex;
 
-    public MeService(HoldingRepository holdingRepository, StockService stockService, MatchingRoomService matchingRoomService, CompetitionService competitionService) {
+    public MeService(HoldingRepository holdingRepository, StockService stockService, MatchingRoomService matchingRoomService, CompetitionService competitionService,
+                     StockMasterIndex stockMasterIndex) {
         this.holdingRepository = holdingRepository;
         this.stockService = stockService;
         this.matchingRoomService = matchingRoomService;
         this.competitionService = competitionService;
+        this.stockMasterIndex = stockMasterIndex;
     }
 
     /** user가 null이면 빈/0 데이터 반환 (미로그인 시 홈에서 401 대신 사용). */
@@ -67,8 +71,10 @@ public class MeService {
                 .build();
 
         List<Holding> holdings = holdingRepository.findByUser_Id(user.getId());
+        Map<String, StockPriceDTO> prices = stockService.getStockPrices(
+                holdings.stream().map(Holding::getStockCode).toList());
         List<StockHoldingItemDTO> stockHoldings = holdings.stream()
-                .map(h -> toStockHoldingItem(h))
+                .map(h -> toStockHoldingItem(h, prices.get(h.getStockCode())))
                 .collect(Collectors.toList());
 
         CompetitionDataDTO competitionData = null;
@@ -91,14 +97,13 @@ public class MeService {
                 .build();
     }
 
-    private StockHoldingItemDTO toStockHoldingItem(Holding h) {
+    /** price: 일괄 조회 결과 (조회 실패 시 null → 현재가 0) */
+    private StockHoldingItemDTO toStockHoldingItem(Holding h, StockPriceDTO price) {
         BigDecimal currentPrice = BigDecimal.ZERO;
-        String stockName = "종목_" + h.getStockCode();
-        try {
-            StockPriceDTO price = stockService.getStockPrice(h.getStockCode());
+        String stockName = stockMasterIndex.displayName(h.getStockCode());
+        if (price != null) {
             currentPrice = price.getCurrentPrice() != null ? price.getCurrentPrice() : BigDecimal.ZERO;
             if (price.getStockName() != null && !price.getStockName().isBlank()) stockName = price.getStockName();
-        } catch (Exception ignored) {
         }
         BigDecimal avg = h.getAveragePurchasePrice() != null ? h.getAveragePurchasePrice() : BigDecimal.ZERO;
         BigDecimal currentValue = currentPrice.multiply(BigDecimal.valueOf(h.getQuantity()));
@@ -115,6 +120,8 @@ public class MeService {
                 .profitLoss(profitLoss)
                 .profitLossPercentage(profitLossPct)
                 .logoColor(DEFAULT_LOGO_COLOR)
+                .stale(price != null ? price.getStale() : null)
+                .quoteAgeSeconds(price != null ? price.getQuoteAgeSeconds() : null)
                 .build();
     }
 }
@@ -0,0 +1,232 @@
+package com.uniport.service;
+
+import com.uniport.dto.StockPriceDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 거래량/상승/하락 순위 캐시 (stale-while-revalidate). 키는 (정렬, 시장).
+ * TTL(kis.ranking.ttl-seconds) 안이면 그대로, 지났으면 가진 값을 바로 주고 백그라운드에서 갱신한다.
+ * 최근 조회된 키는 TTL마다 미리 갱신해 두므로 요청은 보통 메모리에서 끝난다.
+ * 처음 조회(값 없음)와 max-stale을 넘긴 값만 요청 스레드에서 KIS를 호출하며(MARKET_DATA), 그때 실패하면 오래된 값이라도 준다.
+ * 백그라운드 갱신은 사용자 조회와 호출 한도를 다투지 않도록 BACKGROUND 우선순위로 호출한다.
+ * 반환 Snapshot에 조회 시각이 있어 응답에 데이터 나이(Age)를 싣는다.
+ */
+@Component
+public class RankingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RankingCache.class);
+
+    /** KIS 시장 구분 코드 (fid_input_iscd) */
+    public static final String MARKET_ALL = "0000";
+    public static final String MARKET_KOSPI = "0001";
+    public static final String MARKET_KOSDAQ = "1001";
+
+    public enum Sort {
+        VOLUME(MARKET_ALL),
+        RISING(MARKET_KOSPI),
+        FALLING(MARKET_KOSPI);
+
+        /** 시장을 지정하지 않았을 때 쓰는 시장 (기존 조회 조건) */
+        private final String defaultMarket;
+
+        Sort(String defaultMarket) {
+            this.defaultMarket = defaultMarket;
+        }
+
+        public String getDefaultMarket() {
+            return defaultMarket;
+        }
+    }
+
+    /** 캐시된 순위 한 벌. items는 불변. */
+    public record Snapshot(List<StockPriceDTO> items, long fetchedAtMillis) {
+
+        public long ageSeconds(long nowMillis) {
+            return Math.max(0L, TimeUnit.MILLISECONDS.toSeconds(nowMillis - fetchedAtMillis));
+        }
+    }
+
+    private record Key(Sort sort, String market) {
+    }
+
+    private static final class Entry {
+        volatile Snapshot snapshot;
+        volatile long lastAccessMillis;
+        volatile String lastError;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        final LongAdder refreshes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private final KisApiService kisApiService;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final long idleMillis;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder freshHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder blockingLoads = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-ranking-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RankingCache(KisApiService kisApiService,
+                        @Value("${kis.ranking.ttl-seconds:5}") long ttlSeconds,
+                        @Value("${kis.ranking.max-stale-seconds:300}") long maxStaleSeconds,
+                        @Value("${kis.ranking.idle-seconds:600}") long idleSeconds) {
+        this.kisApiService = kisApiService;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(1L, ttlSeconds));
+        this.maxStaleMillis = Math.max(ttlMillis, TimeUnit.SECONDS.toMillis(maxStaleSeconds));
+        this.idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshRecentlyUsed, ttlMillis, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public Snapshot get(Sort sort) {
+        return get(sort, sort.getDefaultMarket());
+    }
+
+    /**
+     * 순위 조회. 값이 있으면 TTL이 지났어도 바로 반환(갱신은 백그라운드).
+     * 값이 없거나 max-stale을 넘었으면 KIS 호출 후 반환. 이때 실패하고 가진 값도 없으면 ApiException.
+     */
+    public Snapshot get(Sort sort, String market) {
+        Key key = new Key(sort, market != null && !market.isBlank() ? market : sort.getDefaultMarket());
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        long now = System.currentTimeMillis();
+        entry.lastAccessMillis = now;
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot != null) {
+            long age = now - snapshot.fetchedAtMillis();
+            if (age < ttlMillis) {
+                freshHits.increment();
+                return snapshot;
+            }
+            if (age < maxStaleMillis) {
+                staleHits.increment();
+                refreshAsync(key, entry);
+                return snapshot;
+            }
+        }
+        blockingLoads.increment();
+        try {
+            return load(key, entry, KisPriority.MARKET_DATA);
+        } catch (RuntimeException e) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            throw e;
+        }
+    }
+
+    private void refreshAsync(Key key, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    load(key, entry, KisPriority.BACKGROUND);
+                } catch (RuntimeException e) {
+                    log.debug("ranking refresh failed for {}: {}", key, e.getMessage());
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 종료 중 등으로 거절되면 다음 요청이 다시 시도
+            entry.refreshing.set(false);
+        }
+    }
+
+    /** 최근 idle-seconds 안에 조회된 키 중 TTL이 지난 것을 미리 갱신 */
+    private void refreshRecentlyUsed() {
+        if (!kisApiService.isKisConfigured()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            Snapshot s = entry.snapshot;
+            boolean recentlyUsed = now - entry.lastAccessMillis < idleMillis;
+            if (recentlyUsed && (s == null || now - s.fetchedAtMillis() >= ttlMillis)
+                    && entry.refreshing.compareAndSet(false, true)) {
+                try {
+                    load(key, entry, KisPriority.BACKGROUND);
+                } catch (RuntimeException e) {
+                    log.debug("ranking refresh failed for {}: {}", key, e.getMessage());
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            }
+        });
+    }
+
+    private Snapshot load(Key key, Entry entry, KisPriority priority) {
+        entry.refreshes.increment();
+        try {
+            List<StockPriceDTO> items = switch (key.sort()) {
+                case VOLUME -> kisApiService.getVolumeRank(key.market(), priority);
+                case RISING -> kisApiService.getFluctuationRank(key.market(), priority);
+                case FALLING -> kisApiService.getFallingRank(key.market(), priority);
+            };
+            Snapshot snapshot = new Snapshot(List.copyOf(items), System.currentTimeMillis());
+            entry.snapshot = snapshot;
+            entry.lastError = null;
+            return snapshot;
+        } catch (RuntimeException e) {
+            entry.failures.increment();
+            entry.lastError = e.getMessage();
+            throw e;
+        }
+    }
+
+    /** 키별 데이터 나이·갱신/실패 수와 fresh/stale/blocking 적중 수. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> perKey = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            Snapshot s = entry.snapshot;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("items", s != null ? s.items().size() : 0);
+            m.put("ageSeconds", s != null ? s.ageSeconds(now) : null);
+            m.put("refreshes", entry.refreshes.sum());
+            m.put("failures", entry.failures.sum());
+            m.put("lastError", entry.lastError);
+            perKey.put(key.sort() + ":" + key.market(), m);
+        });
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlSeconds", TimeUnit.MILLISECONDS.toSeconds(ttlMillis));
+        stats.put("freshHits", freshHits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("blockingLoads", blockingLoads.sum());
+        stats.put("keys", perKey);
+        return stats;
+    }
+}
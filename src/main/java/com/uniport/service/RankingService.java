@@ -2,142 +2,255 @@ package com.uniport.service;
 
 import com.uniport.entity.MatchingRoom;
 import com.uniport.entity.MatchingRoomMember;
-import com.uniport.entity.TeamAccount;
-import com.uniport.entity.TeamHolding;
 import com.uniport.entity.User;
+import com.uniport.exception.ApiException;
 import com.uniport.repository.MatchingRoomMemberRepository;
-import com.uniport.repository.MatchingRoomRepository;
-import com.uniport.repository.TeamAccountRepository;
-import com.uniport.repository.TeamHoldingRepository;
+import com.uniport.service.valuation.CompetitionLeaderboards;
+import com.uniport.service.valuation.RankingSnapshot;
+import com.uniport.service.valuation.TeamRisk;
+import com.uniport.service.valuation.TeamRiskTracker;
+import com.uniport.service.valuation.TeamStanding;
+import com.uniport.service.valuation.TeamValuationEngine;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 랭킹: 시작된 매칭방(팀)별 현재 평가액·수익률 계산 후 순위.
+ * 랭킹: 시작된 매칭방(팀)별 현재 평가액·수익률 순위.
+ * 평가액·순위는 {@link TeamValuationEngine}이 틱·체결마다 증분 갱신하므로 여기서는 DB·KIS를 부르지 않고 읽기만 한다.
+ * 전체 목록은 엔진이 주기적으로 발행하는 {@link RankingSnapshot} 기준이며, *Versioned 메서드는 스냅샷 버전으로 만든
+ * ETag를 함께 돌려준다 (컨트롤러가 If-None-Match와 같으면 304).
+ * 각 행에는 {@link TeamRiskTracker}가 발행한 위험 지표(변동성·샤프 지수·최대 낙폭·회전율)를 붙이고, 전체 랭킹은 이 지표로도
+ * 정렬할 수 있다. 위험 지표는 표본 주기마다 버전이 바뀌므로 ETag에 순위 스냅샷 버전과 함께 넣는다.
+ * 대회 경쟁 팀 목록은 {@link CompetitionLeaderboards}의 대회별 순위표만 읽으며, 종료된 대회는 고정된 최종 순위를 돌려준다.
  */
 @Service
 public class RankingService {
 
     private static final BigDecimal INITIAL_TEAM_BALANCE = new BigDecimal("10000000");
 
-    private final MatchingRoomRepository matchingRoomRepository;
     private final MatchingRoomMemberRepository matchingRoomMemberRepository;
-    private final TeamAccountRepository teamAccountRepository;
-    private final TeamHoldingRepository teamHoldingRepository;
-    private final KisApiService kisApiService;
-
-    public RankingService(MatchingRoomRepository matchingRoomRepository,
-                          MatchingRoomMemberRepository matchingRoomMemberRepository,
-                          TeamAccountRepository teamAccountRepository,
-                          TeamHoldingRepository teamHoldingRepository,
-                          KisApiService kisApiService) {
-        this.matchingRoomRepository = matchingRoomRepository;
+    private final TeamValuationEngine teamValuationEngine;
+    private final TeamRiskTracker teamRiskTracker;
+    private final CompetitionLeaderboards competitionLeaderboards;
+
+    /** 정렬 기준별 엔진 스냅샷·위험 지표 → 응답 행 변환 결과 (둘 다 같으면 재사용) */
+    private final Map<RankingSort, GroupRows> groupRows = new ConcurrentHashMap<>();
+
+    private record GroupRows(RankingSnapshot source, TeamRiskTracker.Published risk, List<Map<String, Object>> rows) {}
+
+    /** 응답 본문과 그 본문을 만든 스냅샷의 ETag */
+    public record Versioned<T>(String eTag, T body) {}
+
+    /**
+     * 전체 랭킹 정렬 기준. profitRate(기본, 평가액 내림차순), sharpe(내림차순), volatility·maxDrawdown(오름차순),
+     * turnover(내림차순). 지표가 아직 없는 팀은 뒤로, 같으면 평가액 순위 순.
+     */
+    public enum RankingSort {
+        PROFIT_RATE("profitRate"),
+        SHARPE("sharpe"),
+        VOLATILITY("volatility"),
+        MAX_DRAWDOWN("maxDrawdown"),
+        TURNOVER("turnover");
+
+        private final String key;
+
+        RankingSort(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /** 요청 파라미터 → 정렬 기준. 비어 있으면 profitRate */
+        public static RankingSort from(String key) {
+            if (key == null || key.isBlank()) {
+                return PROFIT_RATE;
+            }
+            for (RankingSort sort : values()) {
+                if (sort.key.equalsIgnoreCase(key.trim())) {
+                    return sort;
+                }
+            }
+            throw new ApiException("지원하지 않는 정렬 기준입니다: " + key, HttpStatus.BAD_REQUEST);
+        }
+
+        /** 오름차순 비교 값 (작을수록 앞). 지표 없음은 NaN → Double.compare에서 맨 뒤 */
+        private double order(TeamRisk r) {
+            if (r == null) {
+                return Double.NaN;
+            }
+            return switch (this) {
+                case PROFIT_RATE -> 0d;
+                case SHARPE -> -r.sharpe();
+                case VOLATILITY -> r.volatility();
+                case MAX_DRAWDOWN -> r.maxDrawdown();
+                case TURNOVER -> -r.turnover();
+            };
+        }
+    }
+
+    public RankingService(MatchingRoomMemberRepository matchingRoomMemberRepository,
+                          TeamValuationEngine teamValuationEngine,
+                          TeamRiskTracker teamRiskTracker,
+                          CompetitionLeaderboards competitionLeaderboards) {
         this.matchingRoomMemberRepository = matchingRoomMemberRepository;
-        this.teamAccountRepository = teamAccountRepository;
-        this.teamHoldingRepository = teamHoldingRepository;
-        this.kisApiService = kisApiService;
+        this.teamValuationEngine = teamValuationEngine;
+        this.teamRiskTracker = teamRiskTracker;
+        this.competitionLeaderboards = competitionLeaderboards;
     }
 
-    /** 시작된 모든 팀의 랭킹 (평가액 내림차순). */
-    public List<Map<String, Object>> getAllGroupsRanking() {
-        List<MatchingRoom> started = matchingRoomRepository.findAllByOrderByCreatedAtDesc().stream()
-                .filter(r -> "started".equals(r.getStatus()))
-                .collect(Collectors.toList());
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (MatchingRoom room : started) {
-            BigDecimal totalValue = computeTotalValue(room.getId());
-            BigDecimal profitRate = INITIAL_TEAM_BALANCE.compareTo(BigDecimal.ZERO) != 0
-                    ? totalValue.subtract(INITIAL_TEAM_BALANCE).divide(INITIAL_TEAM_BALANCE, 4, RoundingMode.HALF_UP)
-                    : BigDecimal.ZERO;
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", room.getId());
-            map.put("groupName", room.getName() != null ? room.getName() : "팀 " + room.getId());
-            map.put("currentAssets", totalValue);
-            map.put("profitRate", profitRate);
-            list.add(map);
+    /** 시작된 모든 팀(limit 지정 시 상위 limit 팀)의 랭킹 (sort 기준, 기본 평가액 내림차순)과 ETag. */
+    public Versioned<List<Map<String, Object>>> getAllGroupsRankingVersioned(Integer limit, RankingSort sort) {
+        RankingSnapshot snapshot = teamValuationEngine.snapshot();
+        TeamRiskTracker.Published risk = teamRiskTracker.published();
+        List<Map<String, Object>> rows = groupRows(snapshot, risk, sort);
+        if (limit != null) {
+            rows = rows.subList(0, Math.max(0, Math.min(limit, rows.size())));
         }
-        list.sort(Comparator.<Map<String, Object>, BigDecimal>comparing(m -> (BigDecimal) m.get("currentAssets")).reversed());
-        return list;
+        return new Versioned<>(eTag(snapshot, risk, sort.key() + "-" + (limit != null ? "top" + limit : "all")), rows);
+    }
+
+    private List<Map<String, Object>> groupRows(RankingSnapshot snapshot, TeamRiskTracker.Published risk,
+                                                RankingSort sort) {
+        GroupRows cached = groupRows.get(sort);
+        if (cached == null || cached.source() != snapshot || cached.risk() != risk) {
+            List<TeamStanding> ordered = snapshot.rows();
+            if (sort != RankingSort.PROFIT_RATE) {
+                ordered = new ArrayList<>(ordered);
+                ordered.sort(Comparator.<TeamStanding>comparingDouble(s -> sort.order(risk.byTeam().get(s.teamId())))
+                        .thenComparingInt(TeamStanding::rank));
+            }
+            List<Map<String, Object>> rows = new ArrayList<>(ordered.size());
+            for (TeamStanding s : ordered) {
+                rows.add(Collections.unmodifiableMap(toGroupRow(s, risk.byTeam().get(s.teamId()))));
+            }
+            cached = new GroupRows(snapshot, risk, Collections.unmodifiableList(rows));
+            groupRows.put(sort, cached);
+        }
+        return cached.rows();
     }
 
     /**
-     * 경쟁 팀 목록 (대회/홈/관리자용). teamId, groupName, totalValue, investmentAmount, profitLoss, profitLossPercentage, rank, isMyTeam.
-     * competitionId는 현재 미사용(전체 시작된 팀 반환).
+     * 경쟁 팀 목록 (대회/홈/관리자용)과 ETag. teamId, groupName, totalValue, investmentAmount, profitLoss,
+     * profitLossPercentage, rank(대회 내 순위), isMyTeam과 위험 지표. isMyTeam이 사용자마다 다르므로 ETag에 사용자 팀을 포함한다.
+     * competitionId가 없으면 사용자 팀의 대회, 그것도 없으면 진행 중 대회. 대회가 하나도 없으면 시작된 전체 팀.
+     * 종료된 대회는 최종 순위 그대로이며 위험 지표를 붙이지 않는다 (ETag도 바뀌지 않음).
      */
-    public List<Map<String, Object>> getCompetingTeams(Long competitionId, User user) {
-        List<Map<String, Object>> all = getAllGroupsRanking();
-        Long myTeamId = user != null ? parseTeamId(user) : null;
-        if (myTeamId == null && user != null) {
-            myTeamId = findStartedRoomIdByMember(user.getId());
+    public Versioned<List<Map<String, Object>>> getCompetingTeamsVersioned(Long competitionId, User user) {
+        Long myTeamId = user != null ? resolveTeamId(user) : null;
+        Long cid = competitionId;
+        if (cid == null) {
+            cid = myTeamId != null ? teamValuationEngine.competitionOf(myTeamId) : null;
+            if (cid == null) {
+                cid = competitionLeaderboards.ongoingCompetitionId();
+            }
         }
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (int i = 0; i < all.size(); i++) {
-            Map<String, Object> m = all.get(i);
-            Long id = ((Number) m.get("id")).longValue();
-            BigDecimal currentAssets = (BigDecimal) m.get("currentAssets");
-            BigDecimal profitRate = (BigDecimal) m.get("profitRate");
+        boolean isFinal = cid != null && competitionLeaderboards.isFinal(cid);
+        RankingSnapshot snapshot = cid != null ? competitionLeaderboards.snapshot(cid) : teamValuationEngine.snapshot();
+        TeamRiskTracker.Published risk = isFinal ? null : teamRiskTracker.published();
+        List<Map<String, Object>> result = new ArrayList<>(snapshot.rows().size());
+        for (TeamStanding s : snapshot.rows()) {
+            BigDecimal currentAssets = s.nav();
             BigDecimal profitLoss = currentAssets.subtract(INITIAL_TEAM_BALANCE);
-            double profitLossPercentage = profitRate.multiply(BigDecimal.valueOf(100)).doubleValue();
-            boolean isMyTeam = myTeamId != null && myTeamId.equals(id);
+            double profitLossPercentage = profitRate(currentAssets).multiply(BigDecimal.valueOf(100)).doubleValue();
+            boolean isMyTeam = myTeamId != null && myTeamId == s.teamId();
             Map<String, Object> item = new HashMap<>();
-            item.put("teamId", "team-" + id);
-            item.put("groupName", m.get("groupName"));
+            item.put("teamId", "team-" + s.teamId());
+            item.put("groupName", s.name());
             item.put("totalValue", currentAssets);
             item.put("investmentAmount", INITIAL_TEAM_BALANCE);
             item.put("profitLoss", profitLoss);
             item.put("profitLossPercentage", profitLossPercentage);
-            item.put("rank", i + 1);
+            item.put("rank", s.rank());
             item.put("isMyTeam", isMyTeam);
+            if (risk != null) {
+                putRisk(item, risk.byTeam().get(s.teamId()));
+            }
             result.add(item);
         }
-        return result;
+        return new Versioned<>(eTag(snapshot, risk, "teams-" + (myTeamId != null ? myTeamId : "none")), result);
+    }
+
+    /** risk가 null이면 (최종 순위) 스냅샷 tag만 */
+    private static String eTag(RankingSnapshot snapshot, TeamRiskTracker.Published risk, String variant) {
+        String tag = risk != null ? snapshot.tag() + "." + risk.version() : snapshot.tag();
+        return "\"" + tag + "-" + variant + "\"";
     }
 
     /** 현재 사용자 팀의 랭킹 정보. 팀 미소속 시 null. */
     public Map<String, Object> getMyGroupRanking(User user) {
-        Long teamId = parseTeamId(user);
-        // User.teamId가 없어도 참가 중인 'started' 방이 있으면 그 방 기준으로 순위 반환
-        if (teamId == null && user != null) {
-            teamId = findStartedRoomIdByMember(user.getId());
-        }
+        Long teamId = resolveTeamId(user);
         if (teamId == null) return null;
-        List<Map<String, Object>> all = getAllGroupsRanking();
-        int rank = 0;
-        Map<String, Object> my = null;
-        for (int i = 0; i < all.size(); i++) {
-            if (teamId.equals(((Number) all.get(i).get("id")).longValue())) {
-                rank = i + 1;
-                my = new HashMap<>(all.get(i));
-                break;
-            }
-        }
-        if (my == null) return null;
-        my.put("rank", rank);
+        TeamStanding s = teamValuationEngine.standing(teamId);
+        if (s == null) return null;
+        Map<String, Object> my = toGroupRow(s, teamRiskTracker.risk(teamId));
+        my.put("rank", s.rank());
         return my;
     }
 
-    private BigDecimal computeTotalValue(Long teamId) {
-        BigDecimal cash = teamAccountRepository.findByTeamId(teamId)
-                .map(TeamAccount::getCashBalance)
-                .orElse(INITIAL_TEAM_BALANCE);
-        BigDecimal holdingsValue = BigDecimal.ZERO;
-        for (TeamHolding h : teamHoldingRepository.findByTeamId(teamId)) {
-            BigDecimal price = h.getAveragePurchasePrice();
-            try {
-                price = kisApiService.getStockPrice(h.getStockCode()).getCurrentPrice();
-            } catch (Exception ignored) {
-            }
-            holdingsValue = holdingsValue.add(price.multiply(BigDecimal.valueOf(h.getQuantity())));
+    /** 현재 사용자 팀 순위 앞뒤 radius 팀 (각 행에 rank 포함). 팀 미소속 시 null. */
+    public List<Map<String, Object>> getGroupsAroundMe(User user, int radius) {
+        Long teamId = resolveTeamId(user);
+        if (teamId == null) return null;
+        List<TeamStanding> around = teamValuationEngine.around(teamId, radius);
+        if (around.isEmpty()) return null;
+        List<Map<String, Object>> list = new ArrayList<>(around.size());
+        for (TeamStanding s : around) {
+            Map<String, Object> row = toGroupRow(s, teamRiskTracker.risk(s.teamId()));
+            row.put("rank", s.rank());
+            row.put("isMyTeam", teamId == s.teamId());
+            list.add(row);
+        }
+        return list;
+    }
+
+    private static Map<String, Object> toGroupRow(TeamStanding s, TeamRisk risk) {
+        BigDecimal totalValue = s.nav();
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", s.teamId());
+        map.put("groupName", s.name());
+        map.put("currentAssets", totalValue);
+        map.put("profitRate", profitRate(totalValue));
+        putRisk(map, risk);
+        return map;
+    }
+
+    /** 위험 지표 필드 (비율, scale 4). 아직 계산할 수 없으면 null */
+    private static void putRisk(Map<String, Object> map, TeamRisk risk) {
+        map.put("volatility", risk != null ? ratio(risk.volatility()) : null);
+        map.put("sharpeRatio", risk != null ? ratio(risk.sharpe()) : null);
+        map.put("maxDrawdown", risk != null ? ratio(risk.maxDrawdown()) : null);
+        map.put("turnover", risk != null ? ratio(risk.turnover()) : null);
+    }
+
+    private static BigDecimal ratio(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP) : null;
+    }
+
+    private static BigDecimal profitRate(BigDecimal totalValue) {
+        return INITIAL_TEAM_BALANCE.compareTo(BigDecimal.ZERO) != 0
+                ? totalValue.subtract(INITIAL_TEAM_BALANCE).divide(INITIAL_TEAM_BALANCE, 4, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    private Long resolveTeamId(User user) {
+        Long teamId = parseTeamId(user);
+        // User.teamId가 없어도 참가 중인 'started' 방이 있으면 그 방 기준으로 순위 반환
+        if (teamId == null && user != null) {
+            teamId = findStartedRoomIdByMember(user.getId());
         }
-        return cash.add(holdingsValue);
+        return teamId;
     }
 
     /** User.teamId가 없을 때, 참가 중인 'started' 방이 있으면 그 방 ID 반환. */
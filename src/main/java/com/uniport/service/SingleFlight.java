@@ -0,0 +1,129 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 동시에 들어온 조회를 한 번의 호출로 합친다 (single-flight).
+ * 처음 들어온 호출이 loader를 전용 가상 스레드(flight)에서 시작하고, 그 호출을 포함해 같은 키로 온 호출은 모두 그 결과를 기다려 공유한다.
+ * 기다리던 호출이 interrupt되면 자기만 빠지고(ApiException 503), 마지막으로 기다리던 호출이 빠질 때만 flight를 interrupt한다 —
+ * 다른 요청과 같이 쓰는 조회가 한 요청의 취소·시간 초과로 끊기지 않게. 빠진 flight에는 새 호출이 붙지 않고 새 flight를 시작한다.
+ * 결과는 캐시하지 않는다: flight가 끝나면 키를 지우므로 이후 호출은 다시 loader를 탄다.
+ * loader 예외는 기다리던 호출 모두에 같은 예외(ApiException 등)로 그대로 전달된다.
+ */
+final class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    SingleFlight(String name) {
+        this.name = name;
+    }
+
+    V execute(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> mine = new Flight<>();
+            mine.join();
+            Flight<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                executions.increment();
+                start(key, mine, loader);
+                return await(mine);
+            }
+            if (existing.join()) {
+                coalesced.increment();
+                return await(existing);
+            }
+            // 끝났거나, 기다리던 호출이 모두 빠져 끊기는 중인 flight — 치우고 새로 시작
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private void start(K key, Flight<V> flight, Supplier<V> loader) {
+        Thread runner = Thread.ofVirtual().name("single-flight-" + name).unstarted(() -> {
+            // 결과를 알리기 전에 키를 지워, 결과를 받은 호출이 바로 다시 부르면 새 flight를 탄다
+            try {
+                V value = loader.get();
+                inFlight.remove(key, flight);
+                flight.result.complete(value);
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(key, flight);
+                flight.result.completeExceptionally(e);
+            }
+        });
+        flight.runner = runner;
+        runner.start();
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("KIS request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (flight.leave()) {
+                abandoned.increment();
+                flight.runner.interrupt();
+            }
+        }
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", name);
+        m.put("executions", executions.sum());
+        m.put("coalesced", coalesced.sum());
+        m.put("abandoned", abandoned.sum());
+        m.put("inFlight", inFlight.size());
+        return m;
+    }
+
+    private static final class Flight<V> {
+
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        /** 첫 호출의 await 전에 시작하므로 leave에서 항상 보인다 */
+        volatile Thread runner;
+        /** 기다리는 호출 수. this 보호. */
+        private int waiters;
+        private boolean abandoned;
+
+        /** 끝났거나 끊기는 중이면 false (붙지 않음) */
+        synchronized boolean join() {
+            if (abandoned || result.isDone()) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /** 마지막 호출이 결과 전에 빠지면 true (flight를 끊어야 함) */
+        synchronized boolean leave() {
+            if (--waiters == 0 && !result.isDone()) {
+                abandoned = true;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.uniport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KIS 종목 마스터(kospi_code.mst, kosdaq_code.mst) 기반 종목 검색·종목명 조회 인덱스.
+ * 마스터 파일(cp949, 고정폭)은 KIS에서 받아 kis.master.dir 에 두면 기동 시 읽고, 파일이 바뀌면 다시 읽는다.
+ * 코드·이름·초성 문자열을 각각 정렬한 배열에 이분 탐색으로 접두어 범위를 찾으므로 검색은 KIS 호출 없이 메모리에서 끝난다.
+ * 초성 검색: 질의가 자음(ㄱ~ㅎ)으로만 이뤄지면 이름의 초성열과 비교 (ㅅㅅ → 삼성전자, 삼성SDI ...).
+ * 파일이 없으면 비어 있는 상태로 동작하고, 호출부는 기존 방식(순위 목록 검색, "종목_" 이름)으로 대체한다.
+ */
+@Component
+public class StockMasterIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMasterIndex.class);
+
+    private static final Charset MST_CHARSET = Charset.forName("MS949");
+    /** 각 줄 끝 고정폭 부가정보 길이 (KIS 마스터 파일 형식) */
+    private static final int KOSPI_TAIL_LENGTH = 228;
+    private static final int KOSDAQ_TAIL_LENGTH = 222;
+    /** 줄 앞부분: 단축코드 9자 + 표준코드 12자, 이후 한글 종목명 */
+    private static final int SHORT_CODE_END = 9;
+    private static final int NAME_START = 21;
+
+    private static final char[] CHOSUNG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+    private static final long RELOAD_CHECK_INTERVAL_MINUTES = 10L;
+    /** 접두어 하나가 너무 넓을 때("0", "ㅅ") 순위 매길 후보 상한 */
+    private static final int MAX_PREFIX_CANDIDATES = 512;
+
+    /** 결과 순위: 값이 작을수록 앞 */
+    private static final int RANK_CODE_EXACT = 0;
+    private static final int RANK_NAME_EXACT = 1;
+    private static final int RANK_CODE_PREFIX = 2;
+    private static final int RANK_NAME_PREFIX = 3;
+    private static final int RANK_CHOSUNG_PREFIX = 4;
+    private static final int RANK_CONTAINS = 5;
+
+    public record Match(String code, String name, String market) {
+    }
+
+    private final Path kospiFile;
+    private final Path kosdaqFile;
+
+    private volatile Index index = Index.EMPTY;
+    private volatile long loadedFromModifiedMillis = Long.MIN_VALUE;
+    private volatile long loadedAtMillis;
+    private volatile long loadMillis;
+    private boolean missingLogged;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stock-master-reload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public StockMasterIndex(@Value("${kis.master.dir:data/kis-master}") String dir) {
+        Path base = Paths.get(dir);
+        this.kospiFile = base.resolve("kospi_code.mst");
+        this.kosdaqFile = base.resolve("kosdaq_code.mst");
+    }
+
+    @PostConstruct
+    public void start() {
+        reloadIfChanged();
+        scheduler.scheduleWithFixedDelay(this::reloadIfChanged,
+                RELOAD_CHECK_INTERVAL_MINUTES, RELOAD_CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isLoaded() {
+        return index.size() > 0;
+    }
+
+    /** 종목코드 → 종목명. 모르는 코드면 null. */
+    public String nameOf(String stockCode) {
+        if (stockCode == null || stockCode.isBlank()) {
+            return null;
+        }
+        Index current = index;
+        int i = Arrays.binarySearch(current.codes, stockCode.trim());
+        return i >= 0 ? current.names[i] : null;
+    }
+
+    /** 화면 표시용 종목명. 마스터에 없으면 기존 표기("종목_" + 코드). */
+    public String displayName(String stockCode) {
+        String name = nameOf(stockCode);
+        return name != null ? name : "종목_" + stockCode;
+    }
+
+    /**
+     * 코드·이름 접두어, 초성 검색. 순위: 코드 일치 > 이름 일치 > 코드 접두어 > 이름 접두어 > 초성 접두어 > 부분 일치,
+     * 같은 순위면 이름이 짧은 것부터.
+     */
+    public List<Match> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        Index current = index;
+        if (current.size() == 0) {
+            return List.of();
+        }
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        Map<Integer, Integer> ranks = new HashMap<>();
+        if (isChosungQuery(q)) {
+            for (int i : current.prefixRange(current.chosungKeys, current.byChosung, q)) {
+                ranks.merge(i, RANK_CHOSUNG_PREFIX, Math::min);
+            }
+            for (int i = 0; i < current.size() && ranks.size() < limit * 4; i++) {
+                if (current.chosungKeys[i].contains(q)) {
+                    ranks.merge(i, RANK_CONTAINS, Math::min);
+                }
+            }
+        } else {
+            for (int i : current.prefixRange(current.codeKeys, current.byCode, q)) {
+                ranks.merge(i, current.codeKeys[i].equals(q) ? RANK_CODE_EXACT : RANK_CODE_PREFIX, Math::min);
+            }
+            for (int i : current.prefixRange(current.nameKeys, current.byName, q)) {
+                ranks.merge(i, current.nameKeys[i].equals(q) ? RANK_NAME_EXACT : RANK_NAME_PREFIX, Math::min);
+            }
+            for (int i = 0; i < current.size() && ranks.size() < limit * 4; i++) {
+                if (current.nameKeys[i].contains(q)) {
+                    ranks.merge(i, RANK_CONTAINS, Math::min);
+                }
+            }
+        }
+        return ranks.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Integer, Integer>>comparingInt(Map.Entry::getValue)
+                        .thenComparingInt(e -> current.names[e.getKey()].length())
+                        .thenComparing(e -> current.codes[e.getKey()]))
+                .limit(limit)
+                .map(e -> new Match(current.codes[e.getKey()], current.names[e.getKey()], current.markets[e.getKey()]))
+                .toList();
+    }
+
+    /** 마스터 파일 수정 시각이 바뀌었으면 다시 읽는다. 읽기 실패 시 기존 인덱스 유지. */
+    public synchronized void reloadIfChanged() {
+        long modified = Math.max(lastModified(kospiFile), lastModified(kosdaqFile));
+        if (modified == Long.MIN_VALUE) {
+            if (!missingLogged) {
+                log.info("Stock master files not found under {}, local stock search disabled", kospiFile.getParent());
+                missingLogged = true;
+            }
+            return;
+        }
+        if (modified == loadedFromModifiedMillis) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<String[]> rows = new ArrayList<>();
+            readMaster(kospiFile, KOSPI_TAIL_LENGTH, "KOSPI", rows);
+            readMaster(kosdaqFile, KOSDAQ_TAIL_LENGTH, "KOSDAQ", rows);
+            index = Index.build(rows);
+            loadedFromModifiedMillis = modified;
+            loadedAtMillis = System.currentTimeMillis();
+            loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Stock master loaded: {} symbols in {}ms", index.size(), loadMillis);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stock master load failed, keeping previous index: {}", e.getMessage());
+        }
+    }
+
+    private static void readMaster(Path file, int tailLength, String market, List<String[]> out) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        for (String line : Files.readAllLines(file, MST_CHARSET)) {
+            int nameEnd = line.length() - tailLength;
+            if (nameEnd <= NAME_START) {
+                continue;
+            }
+            String code = line.substring(0, SHORT_CODE_END).trim();
+            String name = line.substring(NAME_START, nameEnd).trim();
+            if (!code.isEmpty() && !name.isEmpty()) {
+                out.add(new String[]{code, name, market});
+            }
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.isRegularFile(file) ? Files.getLastModifiedTime(file).toMillis() : Long.MIN_VALUE;
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static boolean isChosungQuery(String q) {
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c < 'ㄱ' || c > 'ㅎ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 한글 음절은 초성으로, 나머지 문자는 소문자 그대로 */
+    static String toChosung(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '가' && c <= '힣') {
+                sb.append(CHOSUNG[(c - '가') / 588]);
+            } else {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("symbols", index.size());
+        m.put("loadedAtMillis", loadedAtMillis);
+        m.put("loadMillis", loadMillis);
+        return m;
+    }
+
+    /**
+     * 불변 인덱스. 종목은 코드순 배열에 두고, 이름·초성 검색용으로 정렬 순서만 int 배열로 따로 갖는다.
+     * 재적재 시 통째로 교체하므로 읽기는 락 없이.
+     */
+    private static final class Index {
+
+        static final Index EMPTY = build(List.of());
+
+        final String[] codes;
+        final String[] names;
+        final String[] markets;
+        final String[] codeKeys;
+        final String[] nameKeys;
+        final String[] chosungKeys;
+        final int[] byCode;
+        final int[] byName;
+        final int[] byChosung;
+
+        private Index(String[] codes, String[] names, String[] markets) {
+            int n = codes.length;
+            this.codes = codes;
+            this.names = names;
+            this.markets = markets;
+            this.codeKeys = new String[n];
+            this.nameKeys = new String[n];
+            this.chosungKeys = new String[n];
+            for (int i = 0; i < n; i++) {
+                codeKeys[i] = codes[i].toLowerCase(Locale.ROOT);
+                nameKeys[i] = names[i].toLowerCase(Locale.ROOT);
+                chosungKeys[i] = toChosung(names[i]);
+            }
+            this.byCode = sortedOrder(codeKeys);
+            this.byName = sortedOrder(nameKeys);
+            this.byChosung = sortedOrder(chosungKeys);
+        }
+
+        static Index build(List<String[]> rows) {
+            String[][] sorted = rows.stream()
+                    .sorted(Comparator.comparing(r -> r[0]))
+                    .toArray(String[][]::new);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || !sorted[i][0].equals(sorted[i - 1][0])) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            String[] codes = new String[n];
+            String[] names = new String[n];
+            String[] markets = new String[n];
+            for (int i = 0; i < n; i++) {
+                codes[i] = sorted[i][0];
+                names[i] = sorted[i][1];
+                markets[i] = sorted[i][2];
+            }
+            return new Index(codes, names, markets);
+        }
+
+        int size() {
+            return codes.length;
+        }
+
+        /** keys를 order 순으로 봤을 때 prefix로 시작하는 항목들의 위치 */
+        List<Integer> prefixRange(String[] keys, int[] order, String prefix) {
+            int lo = 0;
+            int hi = order.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[order[mid]].compareTo(prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            List<Integer> out = new ArrayList<>();
+            for (int i = lo; i < order.length && out.size() < MAX_PREFIX_CANDIDATES
+                    && keys[order[i]].startsWith(prefix); i++) {
+                out.add(order[i]);
+            }
+            return out;
+        }
+
+        private static int[] sortedOrder(String[] keys) {
+            Integer[] boxed = new Integer[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, Comparator.comparing(i -> keys[i]));
+            int[] order = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                order[i] = boxed[i];
+            }
+            return order;
+        }
+    }
+}
@@ -15,7 +15,9 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -27,14 +29,17 @@ public class StockService {
     private final HoldingRepository holdingRepository;
     private final TeamHoldingRepository teamHoldingRepository;
     private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final StockMasterIndex stockMasterIndex;
 
     public StockService(KisApiService kisApiService, HoldingRepository holdingRepository,
                         TeamHoldingRepository teamHoldingRepository,
-                        @Lazy KisWsSubscriptionManager kisWsSubscriptionManager) {
+                        @Lazy KisWsSubscriptionManager kisWsSubscriptionManager,
+                        StockMasterIndex stockMasterIndex) {
         this.kisApiService = kisApiService;
         this.holdingRepository = holdingRepository;
         this.teamHoldingRepository = teamHoldingRepository;
         this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.stockMasterIndex = stockMasterIndex;
     }
 
     private static Long parseTeamId(User user) {
@@ -47,6 +52,11 @@ public class StockService {
         }
     }
 
+    /** 여러 종목 현재가 일괄 조회. 조회 실패 종목은 결과에서 빠짐 ({@link KisApiService#getStockPrices}). */
+    public Map<String, StockPriceDTO> getStockPrices(Collection<String> stockCodes) {
+        return kisApiService.getStockPrices(stockCodes);
+    }
+
     public StockPriceDTO getStockPrice(String stockCode) {
         if (stockCode == null || stockCode.isBlank()) {
             throw new ApiException("Stock code is required", HttpStatus.BAD_REQUEST);
@@ -144,7 +154,7 @@ public class StockService {
 
         String displayName = price.getStockName() != null ? price.getStockName().trim() : "";
         if (displayName.isEmpty() || displayName.equals(code) || displayName.matches("\\d{6}")) {
-            displayName = "종목_" + code;
+            displayName = stockMasterIndex.displayName(code);
         }
         return StockDetailDTO.builder()
                 .id(idLong)
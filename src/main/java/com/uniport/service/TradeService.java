@@ -14,6 +14,8 @@ import com.uniport.exception.ApiException;
 import com.uniport.repository.OrderRepository;
 import com.uniport.repository.TeamAccountRepository;
 import com.uniport.repository.TeamHoldingRepository;
+import com.uniport.service.valuation.TeamRiskTracker;
+import com.uniport.service.valuation.TeamValuationEngine;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,14 +37,23 @@ public class TradeService {
     private final KisApiService kisApiService;
     private final TeamAccountRepository teamAccountRepository;
     private final TeamHoldingRepository teamHoldingRepository;
+    private final StockMasterIndex stockMasterIndex;
+    private final TeamValuationEngine teamValuationEngine;
+    private final TeamRiskTracker teamRiskTracker;
 
     public TradeService(OrderRepository orderRepository, KisApiService kisApiService,
                         TeamAccountRepository teamAccountRepository,
-                        TeamHoldingRepository teamHoldingRepository) {
+                        TeamHoldingRepository teamHoldingRepository,
+                        StockMasterIndex stockMasterIndex,
+                        TeamValuationEngine teamValuationEngine,
+                        TeamRiskTracker teamRiskTracker) {
         this.orderRepository = orderRepository;
         this.kisApiService = kisApiService;
         this.teamAccountRepository = teamAccountRepository;
         this.teamHoldingRepository = teamHoldingRepository;
+        this.stockMasterIndex = stockMasterIndex;
+        this.teamValuationEngine = teamValuationEngine;
+        this.teamRiskTracker = teamRiskTracker;
     }
 
     /** User.teamId (예: "team-123")에서 팀 PK 추출 */
@@ -130,13 +141,16 @@ public class TradeService {
                 holding = TeamHolding.builder()
                         .teamId(teamId)
                         .stockCode(request.getStockCode())
-                        .stockName(request.getStockName() != null && !request.getStockName().isBlank() ? request.getStockName() : null)
+                        .stockName(request.getStockName() != null && !request.getStockName().isBlank()
+                                ? request.getStockName() : stockMasterIndex.nameOf(request.getStockCode()))
                         .quantity(request.getQuantity())
                         .averagePurchasePrice(request.getPrice())
                         .build();
             }
             if (request.getStockName() != null && !request.getStockName().isBlank()) {
                 holding.setStockName(request.getStockName());
+            } else if (holding.getStockName() == null || holding.getStockName().isBlank()) {
+                holding.setStockName(stockMasterIndex.nameOf(request.getStockCode()));
             }
             teamHoldingRepository.save(holding);
         } else {
@@ -181,6 +195,9 @@ public class TradeService {
                 .orderDate(LocalDateTime.now())
                 .build();
         order = orderRepository.save(order);
+        // 커밋 후 이 팀 평가액·순위만 다시 계산하고, 체결 금액은 회전율에 반영
+        teamValuationEngine.onTeamChanged(teamId);
+        teamRiskTracker.onTrade(teamId, amount);
 
         return OrderResponseDTO.builder()
                 .orderId(order.getId())
@@ -0,0 +1,21 @@
+package com.uniport.service.candle;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 일/주/월/년 캔들 1개. date는 yyyyMMdd 정수, 가격은 {@link #PRICE_SCALE}배 고정소수점 (지수 소수 둘째 자리까지).
+ */
+public record Candle(int date, long open, long high, long low, long close, long volume) {
+
+    public static final int PRICE_SCALE = 100;
+
+    public static long toFixed(BigDecimal price) {
+        return price == null ? 0L : price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /** 정수 가격(주식)은 소수점 없이, 지수는 소수 둘째 자리까지 */
+    public static BigDecimal fromFixed(long fixed) {
+        return fixed % PRICE_SCALE == 0 ? BigDecimal.valueOf(fixed / PRICE_SCALE) : BigDecimal.valueOf(fixed, 2);
+    }
+}
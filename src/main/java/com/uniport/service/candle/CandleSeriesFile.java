@@ -0,0 +1,213 @@
+package com.uniport.service.candle;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 종목·주기 하나의 캔들 파일 (memory-mapped, 컬럼형, 뒤에만 추가).
+ * 레이아웃: [헤더 32B][date int × cap][open long × cap][high][low][close][volume].
+ * 날짜 오름차순으로만 쌓이므로 범위 조회는 date 컬럼 이분 탐색 후 해당 구간만 읽는다 (전체 로드 X).
+ * 용량이 차면 2배 크기 새 파일로 복사 후 교체. 모든 접근은 이 객체 락으로 직렬화.
+ * {@link #close()} 후에는 쓰지 않는다 — 저장소가 축출한 파일을 락을 잡은 뒤 {@link #isClosed()}로 확인하고 다시 연다.
+ */
+final class CandleSeriesFile {
+
+    private static final int MAGIC = 0x434E444C; // "CNDL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_CAPACITY = 8;
+    private static final int OFF_COUNT = 12;
+    private static final int OFF_COVERED_FROM = 16;
+    /** date(int) + open/high/low/close/volume(long) */
+    private static final int BYTES_PER_CANDLE = 4 + 5 * 8;
+
+    private final Path path;
+    private MappedByteBuffer buf;
+    private int capacity;
+    private int count;
+    private boolean closed;
+
+    private CandleSeriesFile(Path path, MappedByteBuffer buf) {
+        this.path = path;
+        this.buf = buf;
+        this.capacity = buf.getInt(OFF_CAPACITY);
+        this.count = buf.getInt(OFF_COUNT);
+    }
+
+    static CandleSeriesFile open(Path path, int initialCapacity) throws IOException {
+        if (Files.exists(path)) {
+            MappedByteBuffer buf = map(path, Files.size(path));
+            if (buf.getInt(OFF_MAGIC) != MAGIC || buf.getInt(OFF_VERSION) != VERSION) {
+                throw new IOException("Not a candle file: " + path);
+            }
+            return new CandleSeriesFile(path, buf);
+        }
+        Files.createDirectories(path.getParent());
+        MappedByteBuffer buf = create(path, initialCapacity);
+        return new CandleSeriesFile(path, buf);
+    }
+
+    /** 매핑을 놓는다 (실제 해제는 GC 시점). 진행 중인 접근이 끝난 뒤에 닫힌다. */
+    synchronized void close() {
+        if (!closed) {
+            buf.force();
+            closed = true;
+            buf = null;
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /** 이 날짜 이후 구간은 빠짐없이 받아둔 상태 (더 이른 구간 요청 시 전체 재수신). 비어 있으면 0. */
+    synchronized int coveredFrom() {
+        return buf.getInt(OFF_COVERED_FROM);
+    }
+
+    synchronized int lastDate() {
+        return count == 0 ? 0 : dateAt(count - 1);
+    }
+
+    /** [fromDate, toDate] 구간 캔들 (날짜 오름차순) */
+    synchronized List<Candle> read(int fromDate, int toDate) {
+        int from = lowerBound(fromDate);
+        int to = lowerBound(toDate + 1);
+        List<Candle> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            out.add(new Candle(dateAt(i), column(1, i), column(2, i), column(3, i), column(4, i), column(5, i)));
+        }
+        return out;
+    }
+
+    /**
+     * candles(날짜 오름차순)의 첫 날짜 이상인 기존 캔들을 지우고 이어 붙인다.
+     * 마지막 캔들(진행 중인 주기)을 갱신하고 새 캔들을 추가하는 용도.
+     */
+    synchronized void upsertTail(List<Candle> candles) throws IOException {
+        if (candles.isEmpty()) {
+            return;
+        }
+        int at = lowerBound(candles.get(0).date());
+        ensureCapacity(at + candles.size());
+        for (Candle c : candles) {
+            write(at++, c);
+        }
+        count = at;
+        buf.putInt(OFF_COUNT, count);
+        buf.force();
+    }
+
+    /** 전체 교체 (요청 구간이 보관 구간보다 앞으로 넓어졌을 때) */
+    synchronized void replaceAll(List<Candle> candles, int coveredFrom) throws IOException {
+        count = 0;
+        buf.putInt(OFF_COUNT, 0);
+        ensureCapacity(candles.size());
+        int i = 0;
+        for (Candle c : candles) {
+            write(i++, c);
+        }
+        count = i;
+        buf.putInt(OFF_COUNT, count);
+        buf.putInt(OFF_COVERED_FROM, coveredFrom);
+        buf.force();
+    }
+
+    private void write(int i, Candle c) {
+        buf.putInt(HEADER_BYTES + i * 4, c.date());
+        putColumn(1, i, c.open());
+        putColumn(2, i, c.high());
+        putColumn(3, i, c.low());
+        putColumn(4, i, c.close());
+        putColumn(5, i, c.volume());
+    }
+
+    /** date >= target 인 첫 위치 */
+    private int lowerBound(int target) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dateAt(mid) < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int dateAt(int i) {
+        return buf.getInt(HEADER_BYTES + i * 4);
+    }
+
+    /** column: 1=open .. 5=volume */
+    private long column(int column, int i) {
+        return buf.getLong(columnOffset(capacity, column) + i * 8);
+    }
+
+    private void putColumn(int column, int i, long v) {
+        buf.putLong(columnOffset(capacity, column) + i * 8, v);
+    }
+
+    private static int columnOffset(int capacity, int column) {
+        return HEADER_BYTES + capacity * 4 + (column - 1) * capacity * 8;
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (needed <= capacity) {
+            return;
+        }
+        int newCapacity = capacity;
+        while (newCapacity < needed) {
+            newCapacity *= 2;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".grow");
+        MappedByteBuffer grown = create(tmp, newCapacity);
+        for (int i = 0; i < count; i++) {
+            grown.putInt(HEADER_BYTES + i * 4, dateAt(i));
+            for (int column = 1; column <= 5; column++) {
+                grown.putLong(columnOffset(newCapacity, column) + i * 8, column(column, i));
+            }
+        }
+        grown.putInt(OFF_COUNT, count);
+        grown.putInt(OFF_COVERED_FROM, buf.getInt(OFF_COVERED_FROM));
+        grown.force();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        buf = grown;
+        capacity = newCapacity;
+    }
+
+    private static MappedByteBuffer create(Path path, int capacity) throws IOException {
+        MappedByteBuffer buf = map(path, HEADER_BYTES + (long) capacity * BYTES_PER_CANDLE);
+        buf.putInt(OFF_MAGIC, MAGIC);
+        buf.putInt(OFF_VERSION, VERSION);
+        buf.putInt(OFF_CAPACITY, capacity);
+        buf.putInt(OFF_COUNT, 0);
+        buf.putInt(OFF_COVERED_FROM, 0);
+        return buf;
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            return buf;
+        }
+    }
+}
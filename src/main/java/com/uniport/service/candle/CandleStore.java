@@ -0,0 +1,245 @@
+package com.uniport.service.candle;
+
+import com.uniport.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 지수·종목 일/주/월/년 캔들 로컬 저장소. (종류, 코드, 주기)마다 {@link CandleSeriesFile} 하나 (kis.candle.store-dir).
+ * 마감된 캔들은 바뀌지 않으므로 한 번 받은 구간은 다시 받지 않고, 마지막 저장일부터 요청 끝까지(꼬리)만 KIS에서 받는다.
+ * 마지막 캔들은 진행 중인 주기일 수 있어 꼬리 수신 시 덮어쓴다. 꼬리 재수신은 시리즈당 kis.candle.tail-refresh-seconds 간격.
+ * 저장된 시작일보다 앞 구간을 요청하면 그 구간부터 통째로 다시 받는다 (뒤에만 추가하는 파일이라).
+ * 보관 시작일(coveredFrom)은 실제로 받은 가장 이른 캔들 날짜 — 상장 전이거나 페이지 한도로 앞이 비어도 빈 구간을
+ * 받아둔 것으로 치지 않는다. 같은 앞 구간을 이미 요청해 더 받을 게 없었으면 다시 받지 않는다.
+ * 처음 보는 시리즈는 KIS에서 캔들이 하나라도 와야 파일을 만든다 (없는 코드로 파일·매핑이 쌓이지 않게).
+ * 열어 둔 파일은 kis.candle.max-open-series 개까지, 넘으면 가장 오래 안 쓴 것부터 닫는다.
+ */
+@Component
+public class CandleStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleStore.class);
+
+    private static final DateTimeFormatter YYYYMMDD = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int INITIAL_CAPACITY = 1024;
+    /** KIS 차트 API는 한 번에 최대 100건 안팎이라 긴 구간은 끝에서부터 나눠 받는다 */
+    private static final int MAX_PAGES = 100;
+
+    public enum Kind { INDEX, STOCK }
+
+    /** KIS에서 [fromDate, toDate] 구간 캔들을 받아오는 함수. 순서 무관, 일부만 와도 됨(끝 쪽부터). */
+    @FunctionalInterface
+    public interface Fetcher {
+        List<Candle> fetch(int fromDate, int toDate);
+    }
+
+    /** 마지막 꼬리 수신 시각과 그때 받은 끝 날짜 */
+    private record TailFetch(long atMillis, int toDate) {
+    }
+
+    private final Path dir;
+    private final long tailRefreshMillis;
+    private final int maxOpenSeries;
+    /** 열린 시리즈 (접근 순서, LRU). 이 맵 락 안에서만 접근 */
+    private final LinkedHashMap<String, CandleSeriesFile> series = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<String, TailFetch> lastTailFetch = new ConcurrentHashMap<>();
+    /** 시리즈별로 KIS에 요청해 본 가장 이른 시작일 (그보다 늦은 시작일 요청은 더 받을 게 없음) */
+    private final ConcurrentHashMap<String, Integer> requestedFrom = new ConcurrentHashMap<>();
+
+    private final LongAdder servedFromStore = new LongAdder();
+    private final LongAdder tailFetches = new LongAdder();
+    private final LongAdder fullFetches = new LongAdder();
+    private final LongAdder fetchedCandles = new LongAdder();
+    private final LongAdder emptySeries = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CandleStore(@Value("${kis.candle.store-dir:data/candles}") String dir,
+                       @Value("${kis.candle.tail-refresh-seconds:60}") long tailRefreshSeconds,
+                       @Value("${kis.candle.max-open-series:512}") int maxOpenSeries) {
+        this.dir = Paths.get(dir);
+        this.tailRefreshMillis = TimeUnit.SECONDS.toMillis(tailRefreshSeconds);
+        this.maxOpenSeries = Math.max(1, maxOpenSeries);
+    }
+
+    /**
+     * [fromDate, toDate] 캔들 (날짜 오름차순). 저장소에 없는 구간만 fetcher로 받아 저장한 뒤 저장소에서 읽는다.
+     * KIS 수신이 실패해도 저장된 캔들이 있으면 그것으로 응답. KIS에 캔들이 없는 시리즈는 저장하지 않고 빈 리스트.
+     */
+    public List<Candle> getRange(Kind kind, String code, String period, int fromDate, int toDate, Fetcher fetcher) {
+        String key = kind + "_" + sanitize(code) + "_" + period;
+        while (true) {
+            CandleSeriesFile file = open(key, false);
+            List<Candle> first = null;
+            if (file == null) {
+                first = fetchAll(fetcher, fromDate, toDate);
+                fullFetches.increment();
+                if (first.isEmpty()) {
+                    emptySeries.increment();
+                    return List.of();
+                }
+                file = open(key, true);
+            }
+            synchronized (file) {
+                if (file.isClosed()) {
+                    continue; // 기다리는 사이 축출됨 — 다시 연다
+                }
+                try {
+                    if (first != null && file.count() == 0) {
+                        replaceAll(key, file, first, fromDate, toDate);
+                    } else if (file.count() == 0 || needsEarlier(key, file, fromDate)) {
+                        // 이미 받아둔 뒤쪽 구간도 함께 다시 받아 교체 후 잃지 않게
+                        int fetchTo = Math.max(toDate, file.lastDate());
+                        replaceAll(key, file, fetchAll(fetcher, fromDate, fetchTo), fromDate, fetchTo);
+                        fullFetches.increment();
+                    } else if (toDate >= file.lastDate() && tailDue(key, toDate)) {
+                        file.upsertTail(fetchAll(fetcher, file.lastDate(), toDate));
+                        tailFetches.increment();
+                        lastTailFetch.put(key, new TailFetch(System.currentTimeMillis(), toDate));
+                    } else {
+                        servedFromStore.increment();
+                    }
+                } catch (IOException e) {
+                    throw new ApiException("Candle store write failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+                } catch (RuntimeException e) {
+                    if (file.count() == 0) {
+                        throw e;
+                    }
+                    log.debug("candle fetch failed for {}, serving stored data: {}", key, e.getMessage());
+                }
+                return file.read(fromDate, toDate);
+            }
+        }
+    }
+
+    /** 보관 시작일보다 앞을 요청했고, 그 시작일로 아직 KIS에 요청해 본 적이 없을 때 */
+    private boolean needsEarlier(String key, CandleSeriesFile file, int fromDate) {
+        return fromDate < file.coveredFrom() && fromDate < requestedFrom.getOrDefault(key, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 받은 캔들로 전체 교체. 보관 시작일은 받은 가장 이른 캔들 날짜. 저장분보다 이른 캔들이 오지 않았으면
+     * (상장 전 구간 등) 저장분을 그대로 두고, 그 시작일로 요청해 봤다는 것만 기록한다.
+     */
+    private void replaceAll(String key, CandleSeriesFile file, List<Candle> candles, int fromDate, int toDate)
+            throws IOException {
+        requestedFrom.merge(key, fromDate, Math::min);
+        if (candles.isEmpty() || (file.count() > 0 && candles.get(0).date() >= file.coveredFrom())) {
+            return;
+        }
+        file.replaceAll(candles, candles.get(0).date());
+        lastTailFetch.put(key, new TailFetch(System.currentTimeMillis(), toDate));
+    }
+
+    /** 더 뒤 날짜까지 요청했거나, 마지막 꼬리 수신 후 tail-refresh-seconds가 지났으면 다시 받는다 */
+    private boolean tailDue(String key, int toDate) {
+        TailFetch last = lastTailFetch.get(key);
+        return last == null || toDate > last.toDate()
+                || System.currentTimeMillis() - last.atMillis() >= tailRefreshMillis;
+    }
+
+    /** 끝에서부터 페이지 단위로 받아 from까지 채운다. 날짜 중복 제거 후 오름차순. */
+    private List<Candle> fetchAll(Fetcher fetcher, int fromDate, int toDate) {
+        TreeMap<Integer, Candle> byDate = new TreeMap<>();
+        int to = toDate;
+        for (int page = 0; page < MAX_PAGES && to >= fromDate; page++) {
+            List<Candle> got = fetcher.fetch(fromDate, to);
+            int earliest = Integer.MAX_VALUE;
+            for (Candle c : got) {
+                if (c.date() >= fromDate && c.date() <= toDate) {
+                    byDate.putIfAbsent(c.date(), c);
+                }
+                earliest = Math.min(earliest, c.date());
+            }
+            fetchedCandles.add(got.size());
+            if (got.isEmpty() || earliest <= fromDate || earliest > to) {
+                break;
+            }
+            to = dayBefore(earliest);
+        }
+        return new ArrayList<>(byDate.values());
+    }
+
+    /** 열린 시리즈를 돌려주거나 파일을 연다. create=false면 파일이 없을 때 null. 상한을 넘으면 LRU 시리즈를 닫는다. */
+    private CandleSeriesFile open(String key, boolean create) {
+        CandleSeriesFile evicted = null;
+        CandleSeriesFile file;
+        synchronized (series) {
+            file = series.get(key);
+            if (file != null) {
+                return file;
+            }
+            Path path = dir.resolve(key + ".cndl");
+            if (!create && !Files.exists(path)) {
+                return null;
+            }
+            try {
+                file = CandleSeriesFile.open(path, INITIAL_CAPACITY);
+            } catch (IOException e) {
+                throw new ApiException("Candle store open failed: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            series.put(key, file);
+            if (series.size() > maxOpenSeries) {
+                Iterator<Map.Entry<String, CandleSeriesFile>> it = series.entrySet().iterator();
+                Map.Entry<String, CandleSeriesFile> eldest = it.next();
+                it.remove();
+                lastTailFetch.remove(eldest.getKey());
+                requestedFrom.remove(eldest.getKey());
+                evicted = eldest.getValue();
+            }
+        }
+        if (evicted != null) {
+            // 맵 락 밖에서: 그 파일로 KIS 수신 중인 요청이 끝날 때까지 기다리므로
+            evicted.close();
+            evictions.increment();
+        }
+        return file;
+    }
+
+    private static String sanitize(String code) {
+        return code.trim().toUpperCase().replaceAll("[^A-Z0-9]", "");
+    }
+
+    private static int dayBefore(int yyyymmdd) {
+        LocalDate d = LocalDate.parse(Integer.toString(yyyymmdd), YYYYMMDD).minusDays(1);
+        return Integer.parseInt(d.format(YYYYMMDD));
+    }
+
+    /** 저장소 적중/꼬리 수신/전체 수신/축출 건수. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        List<String> keys;
+        synchronized (series) {
+            keys = new ArrayList<>(series.keySet());
+        }
+        m.put("openSeries", keys.size());
+        m.put("maxOpenSeries", maxOpenSeries);
+        m.put("servedFromStore", servedFromStore.sum());
+        m.put("tailFetches", tailFetches.sum());
+        m.put("fullFetches", fullFetches.sum());
+        m.put("fetchedCandles", fetchedCandles.sum());
+        m.put("emptySeries", emptySeries.sum());
+        m.put("evictions", evictions.sum());
+        keys.sort(Comparator.naturalOrder());
+        m.put("series", keys);
+        return m;
+    }
+}
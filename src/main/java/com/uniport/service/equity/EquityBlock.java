@@ -0,0 +1,228 @@
+package com.uniport.service.equity;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 팀 평가액 표본(epoch seconds, 1/10000원 고정소수점)을 비트 단위로 압축해 쌓는 블록 (Gorilla 방식).
+ * 첫 표본은 시각·값 각 64비트. 이후 시각은 직전 간격과의 차(delta-of-delta)를 '0' / '10'+7 / '110'+9 / '1110'+12 /
+ * '1111'+32 비트로, 값은 직전 값과의 XOR을 '0'(같음) / '10'+직전 유효 비트 구간 / '11'+선행 0 개수(6)+길이(6)+유효 비트로 적는다.
+ * 일정 주기 표본은 시각이 1비트, 값이 안 바뀐 표본은 2비트로 끝난다.
+ * 동기화 없음 — 열린 블록은 {@link TeamEquityRecorder}가 블록 단위 synchronized로 감싼다.
+ */
+public final class EquityBlock {
+
+    /** 복원된 표본 소비자 */
+    @FunctionalInterface
+    public interface SampleVisitor {
+        void visit(long epochSeconds, long navFixed);
+    }
+
+    private long[] words = new long[16];
+    private int bitCount;
+    private int count;
+    private long startSeconds;
+    private long lastSeconds;
+    private long lastDelta;
+    private long lastValue;
+    private int lastLeading = -1;
+    private int lastTrailing;
+
+    public int count() {
+        return count;
+    }
+
+    public long startSeconds() {
+        return startSeconds;
+    }
+
+    public long lastSeconds() {
+        return lastSeconds;
+    }
+
+    /** 압축된 크기 (바이트) */
+    public int sizeBytes() {
+        return (bitCount + 7) >>> 3;
+    }
+
+    /** 메모리에 잡힌 버퍼 크기 (바이트) */
+    public int capacityBytes() {
+        return words.length * 8;
+    }
+
+    /**
+     * 표본 추가. 시각은 직전 표본보다 커야 한다 (같거나 이르면 무시하고 false).
+     * 간격 변화(delta-of-delta)가 32비트를 넘는 표본도 false — 잘라 적으면 복원 시각이 틀어지므로 새 블록에 담는다.
+     */
+    public boolean append(long epochSeconds, long navFixed) {
+        if (count == 0) {
+            writeBits(epochSeconds, 64);
+            writeBits(navFixed, 64);
+            startSeconds = epochSeconds;
+            lastSeconds = epochSeconds;
+            lastValue = navFixed;
+            count = 1;
+            return true;
+        }
+        if (epochSeconds <= lastSeconds) {
+            return false;
+        }
+        long delta = epochSeconds - lastSeconds;
+        long dod = delta - lastDelta;
+        if (dod < Integer.MIN_VALUE || dod > Integer.MAX_VALUE) {
+            return false;
+        }
+        writeDeltaOfDelta(dod);
+        lastDelta = delta;
+        lastSeconds = epochSeconds;
+        writeXor(navFixed ^ lastValue);
+        lastValue = navFixed;
+        count++;
+        return true;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0L) {
+            writeBits(0L, 1);
+        } else if (dod >= -64L && dod <= 63L) {
+            writeBits(0b10L, 2);
+            writeBits(dod, 7);
+        } else if (dod >= -256L && dod <= 255L) {
+            writeBits(0b110L, 3);
+            writeBits(dod, 9);
+        } else if (dod >= -2048L && dod <= 2047L) {
+            writeBits(0b1110L, 4);
+            writeBits(dod, 12);
+        } else {
+            writeBits(0b1111L, 4);
+            writeBits(dod, 32);
+        }
+    }
+
+    private void writeXor(long xor) {
+        if (xor == 0L) {
+            writeBits(0L, 1);
+            return;
+        }
+        int leading = Long.numberOfLeadingZeros(xor);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+            writeBits(0b10L, 2);
+            writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            return;
+        }
+        int meaningful = 64 - leading - trailing;
+        writeBits(0b11L, 2);
+        writeBits(leading, 6);
+        writeBits(meaningful - 1, 6);
+        writeBits(xor >>> trailing, meaningful);
+        lastLeading = leading;
+        lastTrailing = trailing;
+    }
+
+    /** value 하위 n비트를 앞(MSB)부터 이어 쓴다 */
+    private void writeBits(long value, int n) {
+        if (n < 64) {
+            value &= (1L << n) - 1;
+        }
+        int need = (bitCount + n + 63) >>> 6;
+        if (need > words.length) {
+            words = Arrays.copyOf(words, Math.max(need, words.length * 2));
+        }
+        int word = bitCount >>> 6;
+        int free = 64 - (bitCount & 63);
+        if (n <= free) {
+            words[word] |= value << (free - n);
+        } else {
+            int rest = n - free;
+            words[word] |= value >>> rest;
+            words[word + 1] |= value << (64 - rest);
+        }
+        bitCount += n;
+    }
+
+    /** 마감용 직렬화 (앞에서부터 big-endian 바이트) */
+    public byte[] toBytes() {
+        int size = sizeBytes();
+        ByteBuffer buf = ByteBuffer.allocate(((size + 7) >>> 3) * 8);
+        for (int i = 0; i < (size + 7) >>> 3; i++) {
+            buf.putLong(words[i]);
+        }
+        return Arrays.copyOf(buf.array(), size);
+    }
+
+    /** 마감된 블록(toBytes 결과) 복원 */
+    public static void decode(byte[] payload, int count, SampleVisitor visitor) {
+        long[] w = new long[(payload.length + 7) >>> 3];
+        ByteBuffer buf = ByteBuffer.wrap(Arrays.copyOf(payload, w.length * 8));
+        for (int i = 0; i < w.length; i++) {
+            w[i] = buf.getLong();
+        }
+        decode(w, count, visitor);
+    }
+
+    private static void decode(long[] words, int count, SampleVisitor visitor) {
+        if (count <= 0) {
+            return;
+        }
+        BitReader in = new BitReader(words);
+        long seconds = in.read(64);
+        long value = in.read(64);
+        visitor.visit(seconds, value);
+        long delta = 0L;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (in.read(1) == 0L) {
+                dod = 0L;
+            } else if (in.read(1) == 0L) {
+                dod = in.readSigned(7);
+            } else if (in.read(1) == 0L) {
+                dod = in.readSigned(9);
+            } else if (in.read(1) == 0L) {
+                dod = in.readSigned(12);
+            } else {
+                dod = in.readSigned(32);
+            }
+            delta += dod;
+            seconds += delta;
+            if (in.read(1) != 0L) {
+                if (in.read(1) != 0L) {
+                    leading = (int) in.read(6);
+                    int meaningful = (int) in.read(6) + 1;
+                    trailing = 64 - leading - meaningful;
+                }
+                value ^= in.read(64 - leading - trailing) << trailing;
+            }
+            visitor.visit(seconds, value);
+        }
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private int pos;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int n) {
+            int word = pos >>> 6;
+            int free = 64 - (pos & 63);
+            long result;
+            if (n <= free) {
+                result = words[word] >>> (free - n);
+            } else {
+                int rest = n - free;
+                result = (words[word] << rest) | (words[word + 1] >>> (64 - rest));
+            }
+            pos += n;
+            return n == 64 ? result : result & ((1L << n) - 1);
+        }
+
+        long readSigned(int n) {
+            return (read(n) << (64 - n)) >> (64 - n);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.uniport.service.equity;
+
+import com.uniport.dto.EquityPointDTO;
+import com.uniport.entity.TeamEquityBlock;
+import com.uniport.repository.TeamEquityBlockRepository;
+import com.uniport.service.kisws.KrxMarketCalendar;
+import com.uniport.service.valuation.RankingSnapshot;
+import com.uniport.service.valuation.TeamRiskTracker;
+import com.uniport.service.valuation.TeamStanding;
+import com.uniport.service.valuation.TeamValuationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 팀별 장중 평가액 곡선 기록기. 정규장 동안 sample-seconds마다 {@link TeamValuationEngine}의 순위표 스냅샷에서
+ * 팀 평가액을 읽어 팀별 열린 {@link EquityBlock}에 압축해 쌓는다.
+ * 블록은 samples-per-block 표본이 차거나 block-minutes가 지나거나 장이 닫히면 마감되어 team_equity_blocks에 한 행으로 저장된다
+ * (저장 실패 시 다음 주기에 재시도). retention-days가 지난 블록은 주기적으로 지운다.
+ * 같은 표본으로 {@link TeamRiskTracker}의 위험 지표도 갱신한다.
+ * 조회는 열린 블록 → 저장 대기 블록 → DB 순으로 모아 구간을 자르고, 요청 간격(또는 max-points를 넘지 않는 간격)으로 OHLC 다운샘플한다.
+ */
+@Component
+public class TeamEquityRecorder implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(TeamEquityRecorder.class);
+
+    /** DB 장애가 길어질 때 메모리에 쌓아 둘 마감 블록 상한. 넘치면 오래된 것부터 버린다. */
+    private static final int MAX_PENDING_BLOCKS = 10_000;
+    private static final int FLUSH_BATCH = 500;
+    private static final long RETENTION_PURGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final TeamValuationEngine teamValuationEngine;
+    private final TeamRiskTracker teamRiskTracker;
+    private final TeamEquityBlockRepository teamEquityBlockRepository;
+    private final KrxMarketCalendar marketCalendar;
+    private final long sampleSeconds;
+    private final int samplesPerBlock;
+    private final long blockSeconds;
+    private final long retentionSeconds;
+    private final int maxPoints;
+
+    /** 팀 ID → 기록 중인 블록. 블록 내용은 블록 객체 synchronized로 보호 */
+    private final Map<Long, EquityBlock> openBlocks = new ConcurrentHashMap<>();
+    /** 마감됐지만 아직 저장 전인 블록. 추가·제거는 team-equity-sampler 스레드만 한다. */
+    private final ConcurrentLinkedQueue<TeamEquityBlock> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    /** team-equity-sampler 스레드 전용 */
+    private long lastPurgeAt;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder sealedBlocks = new LongAdder();
+    private final LongAdder sealedBits = new LongAdder();
+    private final LongAdder sealedSamples = new LongAdder();
+    private final LongAdder flushedBlocks = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder droppedBlocks = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "team-equity-sampler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TeamEquityRecorder(TeamValuationEngine teamValuationEngine,
+                              TeamRiskTracker teamRiskTracker,
+                              TeamEquityBlockRepository teamEquityBlockRepository,
+                              KrxMarketCalendar marketCalendar,
+                              @Value("${uniport.equity.sample-seconds:5}") long sampleSeconds,
+                              @Value("${uniport.equity.samples-per-block:720}") int samplesPerBlock,
+                              @Value("${uniport.equity.block-minutes:60}") long blockMinutes,
+                              @Value("${uniport.equity.retention-days:60}") long retentionDays,
+                              @Value("${uniport.equity.max-points:5000}") int maxPoints) {
+        this.teamValuationEngine = teamValuationEngine;
+        this.teamRiskTracker = teamRiskTracker;
+        this.teamEquityBlockRepository = teamEquityBlockRepository;
+        this.marketCalendar = marketCalendar;
+        this.sampleSeconds = Math.max(1L, sampleSeconds);
+        this.samplesPerBlock = Math.max(2, samplesPerBlock);
+        this.blockSeconds = TimeUnit.MINUTES.toSeconds(Math.max(1L, blockMinutes));
+        this.retentionSeconds = TimeUnit.DAYS.toSeconds(Math.max(1L, retentionDays));
+        this.maxPoints = Math.max(10, maxPoints);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        scheduler.scheduleAtFixedRate(this::tick, sampleSeconds, sampleSeconds, TimeUnit.SECONDS);
+    }
+
+    /** 종료 시 기록 중이던 블록도 마감해 저장한다 */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sealAll();
+        flush();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            if (marketCalendar.isOpen(now)) {
+                sample(now);
+            } else if (!openBlocks.isEmpty()) {
+                sealAll();
+            }
+            flush();
+            if (now - lastPurgeAt >= RETENTION_PURGE_MILLIS) {
+                lastPurgeAt = now;
+                purgeExpired(now);
+            }
+        } catch (Exception e) {
+            log.warn("Team equity sampling failed: {}", e.getMessage());
+        }
+    }
+
+    private void sample(long nowMillis) {
+        RankingSnapshot snap = teamValuationEngine.snapshot();
+        /* 시각을 표본 주기 격자에 맞춰 delta-of-delta가 0(1비트)이 되게 한다 */
+        long epochSeconds = TimeUnit.MILLISECONDS.toSeconds(nowMillis) / sampleSeconds * sampleSeconds;
+        Set<Long> seen = new HashSet<>();
+        for (TeamStanding row : snap.rows()) {
+            seen.add(row.teamId());
+            EquityBlock block = openBlocks.computeIfAbsent(row.teamId(), id -> new EquityBlock());
+            synchronized (block) {
+                if (block.count() >= samplesPerBlock
+                        || (block.count() > 0 && epochSeconds - block.startSeconds() >= blockSeconds)) {
+                    seal(row.teamId(), block);
+                    block = new EquityBlock();
+                    openBlocks.put(row.teamId(), block);
+                }
+            }
+            synchronized (block) {
+                if (block.append(epochSeconds, row.navFixed())) {
+                    samples.increment();
+                }
+            }
+        }
+        /* 순위표에서 빠진 팀(방 삭제 등)은 마감 */
+        for (Iterator<Map.Entry<Long, EquityBlock>> it = openBlocks.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, EquityBlock> e = it.next();
+            if (!seen.contains(e.getKey())) {
+                synchronized (e.getValue()) {
+                    seal(e.getKey(), e.getValue());
+                }
+                it.remove();
+            }
+        }
+        teamRiskTracker.onSample(marketCalendar.todayOpenMillis(nowMillis), snap.rows());
+    }
+
+    private void sealAll() {
+        for (Iterator<Map.Entry<Long, EquityBlock>> it = openBlocks.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, EquityBlock> e = it.next();
+            synchronized (e.getValue()) {
+                seal(e.getKey(), e.getValue());
+            }
+            it.remove();
+        }
+    }
+
+    /** 블록 마감 → 저장 대기열. 호출자가 블록 락을 잡고 있어야 한다. */
+    private void seal(long teamId, EquityBlock block) {
+        if (block.count() == 0) {
+            return;
+        }
+        pending.add(TeamEquityBlock.builder()
+                .teamId(teamId)
+                .startSeconds(block.startSeconds())
+                .endSeconds(block.lastSeconds())
+                .sampleCount(block.count())
+                .payload(block.toBytes())
+                .build());
+        sealedBlocks.increment();
+        sealedSamples.add(block.count());
+        sealedBits.add(block.sizeBytes() * 8L);
+        pendingSize.incrementAndGet();
+        // 저장이 계속 실패해 쌓이면 가장 오래된 블록부터 버린다
+        while (pendingSize.get() > MAX_PENDING_BLOCKS && pending.poll() != null) {
+            pendingSize.decrementAndGet();
+            droppedBlocks.increment();
+        }
+    }
+
+    /** 저장 대기 블록을 앞에서부터 배치로 저장. 저장이 끝난 뒤에 대기열에서 빼므로 조회가 블록을 놓치지 않는다. */
+    private void flush() {
+        while (!pending.isEmpty()) {
+            List<TeamEquityBlock> batch = new ArrayList<>(FLUSH_BATCH);
+            for (TeamEquityBlock b : pending) {
+                batch.add(b);
+                if (batch.size() >= FLUSH_BATCH) {
+                    break;
+                }
+            }
+            try {
+                teamEquityBlockRepository.saveAll(batch);
+            } catch (Exception e) {
+                flushFailures.increment();
+                log.warn("Team equity flush failed ({} pending): {}", pendingSize.get(), e.getMessage());
+                return;
+            }
+            // 저장하는 사이 seal이 앞쪽 블록을 버렸을 수 있어 개수만큼 poll하지 않고 저장한 블록을 찾아 뺀다
+            for (TeamEquityBlock b : batch) {
+                if (pending.remove(b)) {
+                    pendingSize.decrementAndGet();
+                }
+            }
+            flushedBlocks.add(batch.size());
+        }
+    }
+
+    private void purgeExpired(long nowMillis) {
+        long cutoff = TimeUnit.MILLISECONDS.toSeconds(nowMillis) - retentionSeconds;
+        try {
+            int deleted = teamEquityBlockRepository.deleteEndedBefore(cutoff);
+            if (deleted > 0) {
+                log.info("Purged {} team equity blocks older than {} days", deleted, TimeUnit.SECONDS.toDays(retentionSeconds));
+            }
+        } catch (Exception e) {
+            log.warn("Team equity retention purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 팀 평가액 곡선 [fromMillis, toMillis].
+     * stepSeconds 0이면 원본 표본 그대로(open=high=low=close), 그 외에는 step 격자 구간별 OHLC.
+     * 결과가 max-points를 넘으면 넘지 않도록 간격을 표본 주기 배수로 키운다.
+     */
+    public List<EquityPointDTO> getSeries(long teamId, long fromMillis, long toMillis, long stepSeconds) {
+        queries.increment();
+        long from = Math.floorDiv(fromMillis, 1000L);
+        long to = Math.floorDiv(toMillis, 1000L);
+        if (to < from) {
+            return List.of();
+        }
+        /* 블록 시작 시각 → 표본 공급원. 열린 → 대기 → DB 순으로 읽어, 그 사이 블록이 다음 단계로 옮겨가도 한 곳에서는 보인다. */
+        TreeMap<Long, BlockSource> sources = new TreeMap<>();
+        EquityBlock open = openBlocks.get(teamId);
+        if (open != null) {
+            synchronized (open) {
+                if (open.count() > 0 && open.lastSeconds() >= from && open.startSeconds() <= to) {
+                    sources.put(open.startSeconds(), new BlockSource(open.toBytes(), open.count()));
+                }
+            }
+        }
+        for (TeamEquityBlock b : pending) {
+            if (b.getTeamId() == teamId && b.getEndSeconds() >= from && b.getStartSeconds() <= to) {
+                sources.putIfAbsent(b.getStartSeconds(), new BlockSource(b.getPayload(), b.getSampleCount()));
+            }
+        }
+        for (TeamEquityBlock b : teamEquityBlockRepository.findOverlapping(teamId, from, to)) {
+            sources.putIfAbsent(b.getStartSeconds(), new BlockSource(b.getPayload(), b.getSampleCount()));
+        }
+
+        int total = 0;
+        for (BlockSource s : sources.values()) {
+            total += s.count();
+        }
+        long step = Math.max(0L, stepSeconds);
+        long span = to - from + 1;
+        if ((step == 0L && total > maxPoints) || (step > 0L && span / step > maxPoints)) {
+            long minStep = (span + maxPoints - 1) / maxPoints;
+            step = Math.max(step, (minStep + sampleSeconds - 1) / sampleSeconds * sampleSeconds);
+        }
+
+        Downsampler out = new Downsampler(step, Math.min(total, maxPoints));
+        for (BlockSource s : sources.values()) {
+            EquityBlock.decode(s.payload(), s.count(), (ts, nav) -> {
+                if (ts >= from && ts <= to) {
+                    out.visit(ts, nav);
+                }
+            });
+        }
+        return out.finish();
+    }
+
+    private record BlockSource(byte[] payload, int count) {}
+
+    /** 시각 순 표본을 step 격자 OHLC로 모은다 (step 0 = 그대로) */
+    private static final class Downsampler implements EquityBlock.SampleVisitor {
+        private final long step;
+        private final List<EquityPointDTO> points;
+        private long bucket = Long.MIN_VALUE;
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+
+        Downsampler(long step, int expected) {
+            this.step = step;
+            this.points = new ArrayList<>(expected);
+        }
+
+        @Override
+        public void visit(long epochSeconds, long navFixed) {
+            long b = step == 0L ? epochSeconds : Math.floorDiv(epochSeconds, step) * step;
+            if (b != bucket) {
+                emit();
+                bucket = b;
+                open = navFixed;
+                high = navFixed;
+                low = navFixed;
+            } else {
+                high = Math.max(high, navFixed);
+                low = Math.min(low, navFixed);
+            }
+            close = navFixed;
+        }
+
+        private void emit() {
+            if (bucket == Long.MIN_VALUE) {
+                return;
+            }
+            points.add(EquityPointDTO.builder()
+                    .time(TimeUnit.SECONDS.toMillis(bucket))
+                    .open(nav(open))
+                    .high(nav(high))
+                    .low(nav(low))
+                    .close(nav(close))
+                    .build());
+        }
+
+        List<EquityPointDTO> finish() {
+            emit();
+            bucket = Long.MIN_VALUE;
+            return points;
+        }
+
+        private static BigDecimal nav(long navFixed) {
+            return BigDecimal.valueOf(navFixed, TeamValuationEngine.NAV_SCALE);
+        }
+    }
+
+    /** 기록 중 팀·표본·메모리, 누적 표본·마감 블록과 표본당 비트, 저장 대기·저장·실패·버림 건수 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        int openSamples = 0;
+        long openBytes = 0L;
+        for (EquityBlock block : openBlocks.values()) {
+            synchronized (block) {
+                openSamples += block.count();
+                openBytes += block.capacityBytes();
+            }
+        }
+        m.put("openTeams", openBlocks.size());
+        m.put("openSamples", openSamples);
+        m.put("openBytes", openBytes);
+        m.put("samples", samples.sum());
+        m.put("sealedBlocks", sealedBlocks.sum());
+        long sealed = sealedSamples.sum();
+        m.put("bitsPerSample", sealed > 0 ? Math.round(sealedBits.sum() * 100.0 / sealed) / 100.0 : 0.0);
+        m.put("pendingBlocks", pendingSize.get());
+        m.put("flushedBlocks", flushedBlocks.sum());
+        m.put("flushFailures", flushFailures.sum());
+        m.put("droppedBlocks", droppedBlocks.sum());
+        m.put("queries", queries.sum());
+        return m;
+    }
+}
@@ -0,0 +1,57 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * 일/주/월/년 차트 행. 종목(FHKST03010100, stck_*)과 지수(FHKUP03500100, bstp_nmix_*) 공통.
+ * 같은 값이 두 키로 오면 stck_* 우선.
+ */
+public record KisChartRow(String date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                          Long volume) {
+
+    public static final KisRowDecoder<KisChartRow> DECODER = KisChartRow::decode;
+
+    private static KisChartRow decode(JsonParser p) throws IOException {
+        String date = null;
+        String stdDate = null;
+        String plainDate = null;
+        BigDecimal open = null;
+        BigDecimal high = null;
+        BigDecimal low = null;
+        BigDecimal close = null;
+        BigDecimal indexOpen = null;
+        BigDecimal indexHigh = null;
+        BigDecimal indexLow = null;
+        BigDecimal indexClose = null;
+        Long volume = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "stck_bsop_date" -> date = KisJson.text(p);
+                case "stck_std" -> stdDate = KisJson.text(p);
+                case "date" -> plainDate = KisJson.text(p);
+                case "stck_oprc" -> open = KisJson.decimal(p);
+                case "stck_hgpr" -> high = KisJson.decimal(p);
+                case "stck_lwpr" -> low = KisJson.decimal(p);
+                case "stck_clpr" -> close = KisJson.decimal(p);
+                case "bstp_nmix_oprc" -> indexOpen = KisJson.decimal(p);
+                case "bstp_nmix_hgpr" -> indexHigh = KisJson.decimal(p);
+                case "bstp_nmix_lwpr" -> indexLow = KisJson.decimal(p);
+                case "bstp_nmix_prpr" -> indexClose = KisJson.decimal(p);
+                case "acml_vol" -> volume = KisJson.longValue(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new KisChartRow(date != null ? date : (stdDate != null ? stdDate : plainDate),
+                open != null ? open : indexOpen,
+                high != null ? high : indexHigh,
+                low != null ? low : indexLow,
+                close != null ? close : indexClose,
+                volume);
+    }
+}
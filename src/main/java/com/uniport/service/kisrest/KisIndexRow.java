@@ -0,0 +1,32 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * 업종(지수) 현재가 행 (FHPUP02100000 output).
+ */
+public record KisIndexRow(BigDecimal value, BigDecimal change, BigDecimal changeRate) {
+
+    public static final KisRowDecoder<KisIndexRow> DECODER = KisIndexRow::decode;
+
+    private static KisIndexRow decode(JsonParser p) throws IOException {
+        BigDecimal value = null;
+        BigDecimal change = null;
+        BigDecimal rate = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "bstp_nmix_prpr" -> value = KisJson.decimal(p);
+                case "bstp_nmix_prdy_vrss" -> change = KisJson.decimal(p);
+                case "bstp_nmix_prdy_ctrt" -> rate = KisJson.decimal(p);
+                default -> p.skipChildren();
+            }
+        }
+        return new KisIndexRow(value, change, rate);
+    }
+}
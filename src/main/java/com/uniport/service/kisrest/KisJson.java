@@ -0,0 +1,123 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * KIS 응답 값 읽기 (스트리밍 파서 현재 토큰 기준).
+ * KIS는 숫자를 문자열("71500", "-1.23")로 주므로 파서 내부 char 버퍼에서 바로 숫자로 바꾼다 (중간 String 없음).
+ */
+final class KisJson {
+
+    /** long에 안전하게 담기는 자릿수. 넘으면 BigDecimal(String)으로 */
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private KisJson() {
+    }
+
+    /** 문자열/숫자 값 → 앞뒤 공백 제거한 문자열. 객체·배열·null이면 건너뛰고 null. */
+    static String text(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == null || !t.isScalarValue() || t == JsonToken.VALUE_NULL) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getText().trim();
+    }
+
+    /** "71,500", "-1.23", " 0 " 등 → BigDecimal (new BigDecimal(문자열)과 같은 scale). 숫자가 아니면 null. */
+    static BigDecimal decimal(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDecimalValue();
+        }
+        if (t != JsonToken.VALUE_STRING) {
+            p.skipChildren();
+            return null;
+        }
+        char[] buf = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        long unscaled = 0L;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = false;
+        boolean signed = false;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return slowDecimal(p);
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if ((c == '-' || c == '+') && digits == 0 && scale < 0 && !signed) {
+                negative = c == '-';
+                signed = true;
+            } else if (c != ',' && c > ' ') {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /** 정수 (쉼표 허용). 소수점이 있거나 숫자가 아니거나 long 범위를 넘으면 null. */
+    static Long longValue(JsonParser p) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NUMBER_INT) {
+            return p.getNumberType() == JsonParser.NumberType.BIG_INTEGER ? null : p.getLongValue();
+        }
+        if (t != JsonToken.VALUE_STRING) {
+            p.skipChildren();
+            return null;
+        }
+        char[] buf = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        long value = 0L;
+        int digits = 0;
+        boolean negative = false;
+        boolean signed = false;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return slowLong(p);
+                }
+                value = value * 10 + (c - '0');
+            } else if ((c == '-' || c == '+') && digits == 0 && !signed) {
+                negative = c == '-';
+                signed = true;
+            } else if (c != ',' && c > ' ') {
+                return null;
+            }
+        }
+        return digits == 0 ? null : (negative ? -value : value);
+    }
+
+    private static Long slowLong(JsonParser p) throws IOException {
+        try {
+            return Long.parseLong(p.getText().trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal slowDecimal(JsonParser p) throws IOException {
+        try {
+            return new BigDecimal(p.getText().trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
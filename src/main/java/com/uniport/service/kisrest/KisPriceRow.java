@@ -0,0 +1,85 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * 종목 시세 행. 현재가(FHKST01010100), 거래량 순위(FHPST01710000), 등락률 순위(FHPST01700000) 공통.
+ * name은 종목명 후보 키 중 우선순위가 가장 높은 유효값 (없으면 null → 호출부가 종목 마스터로 대체).
+ */
+public record KisPriceRow(String code, String name, BigDecimal currentPrice, BigDecimal change,
+                          BigDecimal changeRate, Long volume) {
+
+    /** 상품유형 약어는 종목명으로 쓰지 않음 (API가 prdt_name 등으로 반환하는 경우) */
+    private static final Set<String> PRODUCT_TYPE_ABBREVS = Set.of("ETF", "ELW", "ETN");
+
+    public static final KisRowDecoder<KisPriceRow> DECODER = KisPriceRow::decode;
+
+    private static KisPriceRow decode(JsonParser p) throws IOException {
+        // 코드: mksc_shrn_iscd > stck_shrn_iscd > iscd, 이름: hts_kor_isnm > itms_nm > prdt_name > kor_isnm > stock_name
+        String[] codes = new String[3];
+        String[] names = new String[5];
+        BigDecimal price = null;
+        BigDecimal change = null;
+        BigDecimal rate = null;
+        Long volume = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "mksc_shrn_iscd" -> codes[0] = KisJson.text(p);
+                case "stck_shrn_iscd" -> codes[1] = KisJson.text(p);
+                case "iscd" -> codes[2] = KisJson.text(p);
+                case "hts_kor_isnm" -> names[0] = KisJson.text(p);
+                case "itms_nm" -> names[1] = KisJson.text(p);
+                case "prdt_name" -> names[2] = KisJson.text(p);
+                case "kor_isnm" -> names[3] = KisJson.text(p);
+                case "stock_name" -> names[4] = KisJson.text(p);
+                case "stck_prpr" -> price = KisJson.decimal(p);
+                case "prdy_vrss" -> change = KisJson.decimal(p);
+                case "prdy_ctrt" -> rate = KisJson.decimal(p);
+                case "acml_vol" -> volume = KisJson.longValue(p);
+                default -> p.skipChildren();
+            }
+        }
+        String code = firstNonBlank(codes);
+        return new KisPriceRow(code, validName(names, code), price, change, rate, volume);
+    }
+
+    private static String firstNonBlank(String[] values) {
+        for (String v : values) {
+            if (v != null && !v.isEmpty()) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    /** 종목코드와 같거나 6자리 숫자·상품유형 약어인 값은 이름이 아님 */
+    private static String validName(String[] candidates, String code) {
+        for (String v : candidates) {
+            if (v != null && !v.isEmpty() && !v.equals(code) && !isSixDigits(v)
+                    && !PRODUCT_TYPE_ABBREVS.contains(v)) {
+                return v;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSixDigits(String v) {
+        if (v.length() != 6) {
+            return false;
+        }
+        for (int i = 0; i < 6; i++) {
+            char c = v.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.uniport.service.kisrest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 디코드된 KIS REST 응답. 공통 헤더(rt_cd, msg_cd, msg1)와 output/output1/output2 행 목록.
+ * output이 단일 객체로 오면 행 1개짜리 목록.
+ */
+public record KisResponse<R>(String rtCd, String msgCd, String msg1, String error, String errorDescription,
+                             Map<String, List<R>> outputs) {
+
+    /** rt_cd가 있고 0이 아니면 실패 */
+    public boolean isError() {
+        return rtCd != null && !rtCd.isEmpty() && !"0".equals(rtCd);
+    }
+
+    /** 이름 순서대로 찾아 처음 있는 output의 행들. 없으면 빈 목록. */
+    public List<R> rows(String... names) {
+        for (String name : names) {
+            List<R> rows = outputs.get(name);
+            if (rows != null) {
+                return rows;
+            }
+        }
+        return List.of();
+    }
+
+    /** 첫 행 (output이 단일 객체인 TR용). 없으면 null. */
+    public R first(String... names) {
+        List<R> rows = rows(names);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** 로그·예외 메시지용: rt_cd, msg_cd, msg1, error, error_description */
+    public String errorMessage(String context) {
+        String prefix = "KIS API error (" + (context != null ? context : "") + ")";
+        StringBuilder sb = new StringBuilder(prefix);
+        if (notEmpty(rtCd) || notEmpty(msgCd) || notEmpty(msg1)) {
+            sb.append(" rt_cd=").append(notEmpty(rtCd) ? rtCd : "(empty)");
+            sb.append(" msg_cd=").append(notEmpty(msgCd) ? msgCd : "(empty)");
+            sb.append(" msg1=").append(notEmpty(msg1) ? msg1 : "(empty)");
+        }
+        if (notEmpty(error) || notEmpty(errorDescription)) {
+            sb.append(" error=").append(notEmpty(error) ? error : "(empty)");
+            sb.append(" error_description=").append(notEmpty(errorDescription) ? errorDescription : "(empty)");
+        }
+        if (sb.length() == prefix.length()) {
+            sb.append(" (no detail in response)");
+        }
+        return sb.toString();
+    }
+
+    private static boolean notEmpty(String s) {
+        return s != null && !s.isEmpty();
+    }
+}
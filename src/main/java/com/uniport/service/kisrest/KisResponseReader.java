@@ -0,0 +1,132 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * KIS REST 응답 스트리밍 디코더. Map 트리를 만들지 않고 Jackson 토큰을 읽어 TR별 행 레코드로 바로 채운다.
+ * 공통 헤더와 output/output1/output2 외 필드, 행 안의 모르는 필드는 건너뛴다 (skipChildren).
+ * TR별로 디코드 CPU 시간과 할당 바이트를 재서 GET /api/config/kis-metrics 에 노출 (소켓 읽기 포함,
+ * 가상 스레드처럼 측정이 지원되지 않는 스레드는 건수만 센다).
+ */
+@Component
+public class KisResponseReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOC_THREADS =
+            THREADS instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported() ? t : null;
+    private static final boolean CPU_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private static final class DecodeStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder measured = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final LongAdder rows = new LongAdder();
+    }
+
+    private final ConcurrentHashMap<String, DecodeStats> stats = new ConcurrentHashMap<>();
+
+    /** 응답 본문 디코드. 본문이 비었거나 JSON 객체가 아니면 null. */
+    public <R> KisResponse<R> read(InputStream body, String trId, KisRowDecoder<R> rowDecoder) throws IOException {
+        DecodeStats s = stats.computeIfAbsent(trId, k -> new DecodeStats());
+        long cpuBefore = CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1L;
+        long allocBefore = ALLOC_THREADS != null ? ALLOC_THREADS.getCurrentThreadAllocatedBytes() : -1L;
+        KisResponse<R> response = body != null ? decode(body, rowDecoder) : null;
+        long cpuAfter = cpuBefore >= 0 ? THREADS.getCurrentThreadCpuTime() : -1L;
+        long allocAfter = allocBefore >= 0 ? ALLOC_THREADS.getCurrentThreadAllocatedBytes() : -1L;
+        s.calls.increment();
+        if (cpuBefore >= 0 && cpuAfter >= 0 && allocBefore >= 0 && allocAfter >= 0) {
+            s.measured.increment();
+            s.cpuNanos.add(cpuAfter - cpuBefore);
+            s.allocatedBytes.add(allocAfter - allocBefore);
+        }
+        if (response != null) {
+            response.outputs().values().forEach(rows -> s.rows.add(rows.size()));
+        }
+        return response;
+    }
+
+    private static <R> KisResponse<R> decode(InputStream body, KisRowDecoder<R> rowDecoder) throws IOException {
+        try (JsonParser p = JSON_FACTORY.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String rtCd = null;
+            String msgCd = null;
+            String msg1 = null;
+            String error = null;
+            String errorDescription = null;
+            Map<String, List<R>> outputs = new LinkedHashMap<>(4);
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "rt_cd", "rtCd" -> rtCd = rtCd != null ? rtCd : KisJson.text(p);
+                    case "msg_cd", "msgCd" -> msgCd = msgCd != null ? msgCd : KisJson.text(p);
+                    case "msg1", "message" -> msg1 = msg1 != null ? msg1 : KisJson.text(p);
+                    case "error" -> error = KisJson.text(p);
+                    case "error_description" -> errorDescription = KisJson.text(p);
+                    case "output", "output1", "output2", "Output" -> outputs.put(field, readRows(p, value, rowDecoder));
+                    default -> p.skipChildren();
+                }
+            }
+            return new KisResponse<>(rtCd, msgCd, msg1, error, errorDescription, outputs);
+        }
+    }
+
+    private static <R> List<R> readRows(JsonParser p, JsonToken value, KisRowDecoder<R> rowDecoder)
+            throws IOException {
+        if (value == JsonToken.START_OBJECT) {
+            List<R> single = new ArrayList<>(1);
+            single.add(rowDecoder.decode(p));
+            return single;
+        }
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return List.of();
+        }
+        List<R> rows = new ArrayList<>();
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+            if (t == JsonToken.START_OBJECT) {
+                rows.add(rowDecoder.decode(p));
+            } else {
+                p.skipChildren();
+            }
+        }
+        return rows;
+    }
+
+    /** TR별 디코드 건수·평균 CPU(µs)·평균 할당(바이트)·평균 행 수 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perTr = new TreeMap<>();
+        stats.forEach((trId, s) -> {
+            long calls = s.calls.sum();
+            long measured = s.measured.sum();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("calls", calls);
+            m.put("avgCpuMicros", measured > 0 ? s.cpuNanos.sum() / measured / 1_000 : null);
+            m.put("avgAllocatedBytes", measured > 0 ? s.allocatedBytes.sum() / measured : null);
+            m.put("avgRows", calls > 0 ? s.rows.sum() / calls : 0);
+            perTr.put(trId, m);
+        });
+        return perTr;
+    }
+}
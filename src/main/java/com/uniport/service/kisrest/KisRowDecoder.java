@@ -0,0 +1,15 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * output 배열의 행(JSON 객체) 1개 → 타입 있는 레코드. TR마다 하나.
+ * 호출 시 파서는 START_OBJECT에 있고, END_OBJECT까지 읽고 반환해야 한다 (모르는 필드는 skipChildren).
+ */
+@FunctionalInterface
+public interface KisRowDecoder<R> {
+
+    R decode(JsonParser p) throws IOException;
+}
@@ -0,0 +1,67 @@
+package com.uniport.service.kisws;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 종목 → WS 세션 배정용 consistent hash 링. 세션마다 가상 노드를 여러 개 두어 고르게 나눈다.
+ * 세션이 빠지면(연결 끊김) 그 세션 몫만 링 시계방향 다음 세션들로 흩어지고, 나머지 종목은 그대로 남는다.
+ * 생성 후 불변이라 락 없이 공유.
+ */
+public final class ConsistentHashRing {
+
+    public static final int NO_NODE = -1;
+
+    private final long[] points;
+    private final int[] nodes;
+
+    public ConsistentHashRing(int nodeCount, int virtualNodesPerNode) {
+        int total = Math.max(1, nodeCount) * Math.max(1, virtualNodesPerNode);
+        long[] hashes = new long[total];
+        int k = 0;
+        for (int node = 0; node < Math.max(1, nodeCount); node++) {
+            for (int v = 0; v < Math.max(1, virtualNodesPerNode); v++) {
+                // 상위 비트에 노드, 하위 비트에 가상노드 번호 → 섞어서 링 위치로
+                hashes[k++] = mix(((long) node << 32) | v);
+            }
+        }
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        this.points = sorted;
+        this.nodes = new int[total];
+        k = 0;
+        for (int node = 0; node < Math.max(1, nodeCount); node++) {
+            for (int v = 0; v < Math.max(1, virtualNodesPerNode); v++) {
+                int pos = Arrays.binarySearch(sorted, hashes[k++]);
+                nodes[pos] = node;
+            }
+        }
+    }
+
+    /** key를 맡을 노드. available이 false인 노드는 건너뛰고 다음 노드로. 쓸 수 있는 노드가 없으면 NO_NODE. */
+    public int owner(long key, IntPredicate available) {
+        long h = mix(key);
+        int start = Arrays.binarySearch(points, h);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = 0; i < points.length; i++) {
+            int node = nodes[(start + i) % points.length];
+            if (available.test(node)) {
+                return node;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /** 전 노드 가용일 때의 본래 주인 */
+    public int owner(long key) {
+        return owner(key, node -> true);
+    }
+
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
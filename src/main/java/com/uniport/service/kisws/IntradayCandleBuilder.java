@@ -0,0 +1,134 @@
+package com.uniport.service.kisws;
+
+import com.uniport.dto.MinuteCandleDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 실시간 체결 → 종목별 1분봉(OHLCV). {@link RealtimeTickPipeline}의 두 번째 핸들러.
+ * QuoteStore slot 번호를 그대로 인덱스로 쓰고, 틱이 들어온 종목만 시리즈를 할당한다.
+ * 시리즈마다 최근 N분을 원형 primitive 배열로 보관 (정규장 390분 + 여유).
+ */
+@Component
+@Order(1)
+public class IntradayCandleBuilder implements RealtimeTickHandler {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final QuoteStore quoteStore;
+    private final int maxMinutes;
+    private final Series[] series;
+
+    public IntradayCandleBuilder(QuoteStore quoteStore,
+                                 @Value("${kis.candle.intraday-minutes:400}") int maxMinutes) {
+        this.quoteStore = quoteStore;
+        this.maxMinutes = Math.max(1, maxMinutes);
+        this.series = new Series[quoteStore.capacity()];
+    }
+
+    @Override
+    public void onTicks(TickRingBuffer ring, long fromSeq, long toSeq) {
+        for (long seq = fromSeq; seq < toSeq; seq++) {
+            int slot = quoteStore.slotOf(ring.codeKey(seq));
+            if (slot == QuoteStore.NO_SLOT) {
+                continue;
+            }
+            Series s = series[slot];
+            if (s == null) {
+                s = new Series(maxMinutes);
+                series[slot] = s;
+            }
+            s.apply(ring.receivedAtMillis(seq) / MINUTE_MILLIS, ring.currentPrice(seq), ring.volume(seq));
+        }
+    }
+
+    /** 최근 limit개 분봉 (오래된 것부터). 틱이 없던 종목이면 빈 리스트. */
+    public List<MinuteCandleDTO> getCandles(String stockCode, int limit) {
+        int slot = quoteStore.slotOf(stockCode);
+        if (slot == QuoteStore.NO_SLOT || slot >= series.length) {
+            return Collections.emptyList();
+        }
+        Series s = series[slot];
+        return s != null ? s.snapshot(limit) : Collections.emptyList();
+    }
+
+    /** 종목 1개의 분봉 원형 버퍼. 쓰기는 디스패처, 읽기는 요청 스레드 → 시리즈 단위 synchronized. */
+    private static final class Series {
+        private final long[] minutes;
+        private final long[] opens;
+        private final long[] highs;
+        private final long[] lows;
+        private final long[] closes;
+        private final long[] volumes;
+        /** 가장 최근 봉 위치, 봉 개수 */
+        private int head = -1;
+        private int count;
+        /** 직전 틱의 누적거래량 (분봉 거래량 = 차분). -1 = 기준 없음 */
+        private long lastCumulativeVolume = -1L;
+
+        Series(int size) {
+            minutes = new long[size];
+            opens = new long[size];
+            highs = new long[size];
+            lows = new long[size];
+            closes = new long[size];
+            volumes = new long[size];
+        }
+
+        synchronized void apply(long minute, long price, long cumulativeVolume) {
+            long delta = 0L;
+            if (lastCumulativeVolume >= 0L) {
+                // 누적거래량이 줄면 장 시작(리셋)으로 보고 값 자체를 증분으로 사용
+                delta = cumulativeVolume >= lastCumulativeVolume
+                        ? cumulativeVolume - lastCumulativeVolume : cumulativeVolume;
+            }
+            lastCumulativeVolume = cumulativeVolume;
+
+            if (head >= 0 && minutes[head] == minute) {
+                if (price > highs[head]) highs[head] = price;
+                if (price < lows[head]) lows[head] = price;
+                closes[head] = price;
+                volumes[head] += delta;
+                return;
+            }
+            if (head >= 0 && minute < minutes[head]) {
+                // 시계 역행(수신 순서 뒤바뀜)은 최근 봉에 합친다
+                closes[head] = price;
+                volumes[head] += delta;
+                return;
+            }
+            head = (head + 1) % minutes.length;
+            if (count < minutes.length) {
+                count++;
+            }
+            minutes[head] = minute;
+            opens[head] = price;
+            highs[head] = price;
+            lows[head] = price;
+            closes[head] = price;
+            volumes[head] = delta;
+        }
+
+        synchronized List<MinuteCandleDTO> snapshot(int limit) {
+            int n = Math.min(Math.max(limit, 0), count);
+            List<MinuteCandleDTO> out = new ArrayList<>(n);
+            for (int k = n - 1; k >= 0; k--) {
+                int i = Math.floorMod(head - k, minutes.length);
+                out.add(MinuteCandleDTO.builder()
+                        .time(minutes[i] * MINUTE_MILLIS)
+                        .open(opens[i])
+                        .high(highs[i])
+                        .low(lows[i])
+                        .close(closes[i])
+                        .volume(volumes[i])
+                        .build());
+            }
+            return out;
+        }
+    }
+}
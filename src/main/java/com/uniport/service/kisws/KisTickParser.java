@@ -0,0 +1,165 @@
+package com.uniport.service.kisws;
+
+/**
+ * KIS 실시간 체결(H0STCNT0) 프레임 파서.
+ * 프레임: {암호화여부}|{tr_id}|{건수}|{필드^필드^...}. 건수만큼 레코드(각 46필드)가 ^로 이어져 온다.
+ * CharSequence를 그대로 한 번 훑으며 필요한 필드만 primitive로 읽는다 (String.split/BigDecimal 생성 없음). 스레드당 1개 사용.
+ */
+public final class KisTickParser {
+
+    public static final String TR_ID_STOCK_TRADE = "H0STCNT0";
+
+    /** 등락률 고정소수점 자릿수 (KIS는 소수 둘째 자리까지 내려줌) */
+    public static final int RATE_SCALE = 2;
+
+    /**
+     * H0STCNT0 레코드(^ 구분) 필드 순서 (KIS 명세):
+     * [0]MKSC_SHRN_ISCD, [1]STCK_CNTG_HOUR, [2]STCK_PRPR, [3]PRDY_VRSS_SIGN, [4]PRDY_VRSS, [5]PRDY_CTRT, ... [13]ACML_VOL
+     */
+    private static final int IDX_STOCK_CODE = 0;
+    private static final int IDX_CURRENT_PRICE = 2;
+    private static final int IDX_CHANGE = 4;
+    private static final int IDX_CHANGE_RATE = 5;
+    private static final int IDX_VOLUME = 13;
+    /** H0STCNT0 레코드 1건의 필드 수 */
+    private static final int FIELDS_PER_RECORD = 46;
+
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 실시간 데이터 프레임(0| 또는 1| 로 시작)인지. JSON 제어 메시지(구독 응답, PINGPONG)는 false.
+     */
+    public static boolean isRealtimeFrame(CharSequence frame) {
+        if (frame == null || frame.length() < 2) return false;
+        char c = frame.charAt(0);
+        return (c == '0' || c == '1') && frame.charAt(1) == '|';
+    }
+
+    /** 실시간 프레임의 tr_id가 trId인지 ({암호화여부}|{tr_id}|...) */
+    public static boolean hasTrId(CharSequence frame, String trId) {
+        if (!isRealtimeFrame(frame)) return false;
+        int end = 2 + trId.length();
+        return end < frame.length() && frame.charAt(end) == '|' && regionEquals(frame, 2, end, trId);
+    }
+
+    /**
+     * 평문 H0STCNT0 프레임의 모든 레코드를 batch에 채운다 (batch는 먼저 비움).
+     * 종목코드·현재가가 없는 레코드는 건너뛴다. 채운 건수 반환, 체결 프레임이 아니면(암호화 포함) 0.
+     */
+    public int parse(CharSequence frame, RealtimeTickBatch batch) {
+        batch.clear();
+        if (!isRealtimeFrame(frame) || frame.charAt(0) != '0') {
+            return 0;
+        }
+        int len = frame.length();
+        int trStart = 2;
+        int trEnd = indexOf(frame, '|', trStart, len);
+        if (trEnd < 0 || !regionEquals(frame, trStart, trEnd, TR_ID_STOCK_TRADE)) {
+            return 0;
+        }
+        int countEnd = indexOf(frame, '|', trEnd + 1, len);
+        if (countEnd < 0) {
+            return 0;
+        }
+        long declared = parseLong(frame, trEnd + 1, countEnd);
+        int recordCount = declared == INVALID || declared < 1 ? 1 : (int) declared;
+        int payloadEnd = indexOf(frame, '|', countEnd + 1, len);
+        if (payloadEnd < 0) {
+            payloadEnd = len;
+        }
+
+        long codeKey = StockCodeKey.NONE;
+        long price = INVALID;
+        long change = 0L;
+        long changeRate = 0L;
+        long volume = 0L;
+
+        int field = 0;
+        int records = 0;
+        int start = countEnd + 1;
+        for (int i = start; i <= payloadEnd && records < recordCount; i++) {
+            if (i < payloadEnd && frame.charAt(i) != '^') {
+                continue;
+            }
+            switch (field) {
+                case IDX_STOCK_CODE -> codeKey = StockCodeKey.pack(frame, start, i);
+                case IDX_CURRENT_PRICE -> price = parseLong(frame, start, i);
+                case IDX_CHANGE -> change = orZero(parseLong(frame, start, i));
+                case IDX_CHANGE_RATE -> changeRate = orZero(parseFixed(frame, start, i, RATE_SCALE));
+                case IDX_VOLUME -> volume = orZero(parseLong(frame, start, i));
+                default -> { }
+            }
+            start = i + 1;
+            if (++field == FIELDS_PER_RECORD || i == payloadEnd) {
+                if (codeKey != StockCodeKey.NONE && price != INVALID) {
+                    batch.add(codeKey, price, change, (int) changeRate, volume);
+                }
+                records++;
+                field = 0;
+                codeKey = StockCodeKey.NONE;
+                price = INVALID;
+                change = 0L;
+                changeRate = 0L;
+                volume = 0L;
+            }
+        }
+        return batch.size();
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(CharSequence s, int start, int end, String expected) {
+        if (end - start != expected.length()) return false;
+        for (int i = 0; i < expected.length(); i++) {
+            if (s.charAt(start + i) != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static long orZero(long v) {
+        return v == INVALID ? 0L : v;
+    }
+
+    /** 부호 있는 정수. 공백·쉼표는 무시, 그 외 문자가 있거나 숫자가 없으면 INVALID. */
+    static long parseLong(CharSequence s, int start, int end) {
+        return parseFixed(s, start, end, 0);
+    }
+
+    /** 부호 있는 소수를 scale 자리 고정소수점 long으로. 초과 자릿수는 버림. */
+    static long parseFixed(CharSequence s, int start, int end, int scale) {
+        long value = 0L;
+        boolean negative = false;
+        boolean digits = false;
+        int fraction = -1;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fraction < 0) {
+                    value = value * 10 + (c - '0');
+                } else if (fraction < scale) {
+                    value = value * 10 + (c - '0');
+                    fraction++;
+                }
+                digits = true;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else if ((c == '-' || c == '+') && !digits && fraction < 0) {
+                negative = c == '-';
+            } else if (c != ',' && c > ' ') {
+                return INVALID;
+            }
+        }
+        if (!digits) {
+            return INVALID;
+        }
+        for (int f = Math.max(fraction, 0); f < scale; f++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+}
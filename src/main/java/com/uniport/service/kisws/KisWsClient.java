@@ -1,7 +1,6 @@
 package com.uniport.service.kisws;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniport.service.IndexQuoteCache;
 import com.uniport.service.KisApiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,49 +9,71 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
-import java.math.BigDecimal;
+import jakarta.annotation.PreDestroy;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.WebSocket;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * KIS 실시간 WebSocket 연결 (Java 표준 java.net.http.WebSocket).
- * 구독은 KisWsSubscriptionManager를 통해 자동 요청됨 (하드코딩 없음).
+ * KIS 실시간 WebSocket 연결 풀 (Java 표준 java.net.http.WebSocket, 세션 {@code kis.ws.session-count}개).
+ * 세션마다 구독 상한이 따로 있고 리더 스레드·링 버퍼도 따로 둔다 ({@link KisWsSession}).
+ * 종목 → 세션 배정은 KisWsSubscriptionManager가 {@link ConsistentHashRing}으로 정한다 (하드코딩 없음).
+ * 지수 실시간(H0UPCNT0)은 0번 세션이 맡고, 그만큼 0번 세션의 종목 등록 자리를 비워 둔다.
  */
 @Component
 public class KisWsClient {
 
     private static final Logger log = LoggerFactory.getLogger(KisWsClient.class);
 
+    /** 무수신 감시 주기 */
+    private static final long IDLE_CHECK_INTERVAL_SECONDS = 10L;
+    /** 지수 실시간을 등록하는 세션 */
+    private static final int INDEX_SESSION = 0;
+
     @Value("${kis.api.use-mock:false}")
     private boolean useMock;
 
+    /** 동시 연결 수. 세션마다 구독 상한(kis.ws.max-subscriptions)이 따로 적용된다. */
+    @Value("${kis.ws.session-count:1}")
+    private int sessionCount;
+
+    /** 재접속 백오프: 초기값, 상한 (실패할 때마다 2배, 실제 지연은 [절반, 전체] 구간 랜덤) */
+    @Value("${kis.ws.reconnect.initial-backoff-ms:1000}")
+    private long reconnectInitialBackoffMillis;
+
+    @Value("${kis.ws.reconnect.max-backoff-ms:60000}")
+    private long reconnectMaxBackoffMillis;
+
+    /** 이 시간 동안 아무 프레임(PINGPONG 포함)도 없으면 끊긴 것으로 보고 재접속 */
+    @Value("${kis.ws.idle-timeout-seconds:120}")
+    private long idleTimeoutSeconds;
+
     private final KisApiService kisApiService;
-    private final StockRealtimeCache stockRealtimeCache;
-    private final PriceCache priceCache;
+    private final RealtimeTickPipeline tickPipeline;
     private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final IndexQuoteCache indexQuoteCache;
 
-    /** 연결된 WebSocket (onOpen에서 설정, onClose에서 null) */
-    private volatile WebSocket webSocketRef;
-
-    /** PINGPONG 로그 억제: 마지막 info 로그 시각 */
-    private volatile long lastPongLogMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-ws-reconnect");
+        t.setDaemon(true);
+        return t;
+    });
 
-    /** H0STCNT0 payload(^ 구분) 필드 순서: [0]MKSC_SHRN_ISCD, [1]tradeTime(미사용), [2]STCK_PRPR, [3]PRDY_VRSS, [4]PRDY_CTRT, [5]ACML_VOL */
-    private static final int IDX_STOCK_CODE = 0;
-    private static final int IDX_CURRENT_PRICE = 2;
-    private static final int IDX_CHANGE = 3;
-    private static final int IDX_CHANGE_RATE = 4;
-    private static final int IDX_VOLUME = 5;
+    /** connect() 전에는 비어 있음 (KIS 미설정 시 계속 비어 있음) */
+    private volatile List<KisWsSession> sessions = List.of();
 
-    public KisWsClient(KisApiService kisApiService, StockRealtimeCache stockRealtimeCache,
-                      PriceCache priceCache, @Lazy KisWsSubscriptionManager kisWsSubscriptionManager) {
+    public KisWsClient(KisApiService kisApiService, RealtimeTickPipeline tickPipeline,
+                       @Lazy KisWsSubscriptionManager kisWsSubscriptionManager,
+                       IndexQuoteCache indexQuoteCache) {
         this.kisApiService = kisApiService;
-        this.stockRealtimeCache = stockRealtimeCache;
-        this.priceCache = priceCache;
+        this.tickPipeline = tickPipeline;
         this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.indexQuoteCache = indexQuoteCache;
     }
 
     @PostConstruct
@@ -62,173 +83,92 @@ public class KisWsClient {
             log.debug("KIS not configured, skipping WebSocket");
             return;
         }
-        try {
-            String base = useMock ? "ws://ops.koreainvestment.com:31000" : "ws://ops.koreainvestment.com:21000";
-            URI uri = URI.create(base);
-
-            HttpClient.newHttpClient()
-                    .newWebSocketBuilder()
-                    .buildAsync(uri, new WebSocket.Listener() {
-                        @Override
-                        public void onOpen(WebSocket webSocket) {
-                            log.info("KIS WS connect success");
-                            webSocketRef = webSocket;
-                            webSocket.request(1);
-                            kisWsSubscriptionManager.onWsConnected();
-                        }
-
-                        @Override
-                        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-                            String text = data != null ? data.toString() : "";
-                            boolean isPingPong = false;
-                            boolean subscribeSuccess = false;
-                            boolean isJson = text.trim().startsWith("{");
-                            if (isJson) {
-                                try {
-                                    JsonNode root = new ObjectMapper().readTree(text);
-                                    JsonNode header = root.path("header");
-                                    if (!header.isMissingNode()) {
-                                        String trId = header.path("tr_id").asText("");
-                                        if ("PINGPONG".equals(trId)) {
-                                            isPingPong = true;
-                                        }
-                                    }
-                                    JsonNode body = root.path("body");
-                                    if (!body.isMissingNode()) {
-                                        String msg1 = body.path("msg1").asText("");
-                                        if ("SUBSCRIBE SUCCESS".equals(msg1)) {
-                                            subscribeSuccess = true;
-                                        }
-                                    }
-                                } catch (Exception ignored) {
-                                }
-                            } else if (text.startsWith("0|") && text.contains("H0STCNT0")) {
-                                try {
-                                    String[] recvstr = text.split("\\|", -1);
-                                    if (recvstr.length >= 3 && "H0STCNT0".equals(recvstr[1])) {
-                                        String payload = recvstr.length >= 4 ? recvstr[3] : recvstr[2];
-                                        String[] fields = payload.split("\\^", -1);
-                                        if (fields.length > IDX_VOLUME) {
-                                            String stockCode = safeTrim(fields[IDX_STOCK_CODE]);
-                                            BigDecimal currentPrice = parseBigDecimal(fields[IDX_CURRENT_PRICE]);
-                                            BigDecimal change = parseBigDecimal(fields[IDX_CHANGE]);
-                                            BigDecimal changeRate = parseBigDecimal(fields[IDX_CHANGE_RATE]);
-                                            Long volume = parseLong(fields[IDX_VOLUME]);
-                                            if (stockCode != null && currentPrice != null) {
-                                                long now = System.currentTimeMillis();
-                                                PriceSnapshot snapshot = new PriceSnapshot(
-                                                        currentPrice,
-                                                        change != null ? change : BigDecimal.ZERO,
-                                                        changeRate != null ? changeRate : BigDecimal.ZERO,
-                                                        volume != null ? volume : 0L,
-                                                        now);
-                                                priceCache.put(stockCode, snapshot);
-                                                RealtimeStock rt = new RealtimeStock(stockCode, currentPrice, change != null ? change : BigDecimal.ZERO, changeRate != null ? changeRate : BigDecimal.ZERO, volume != null ? volume : 0L, now);
-                                                stockRealtimeCache.put(stockCode, rt);
-                                                log.debug("실시간 캐시 갱신 stock={} price={} vol={}", stockCode, currentPrice, volume);
-                                            }
-                                        }
-                                    }
-                                } catch (Exception e) {
-                                    log.warn("KIS WS H0STCNT0 parse failed");
-                                }
-                            }
-                            if (isPingPong) {
-                                webSocket.sendText(text, true).whenComplete((w, ex) -> {
-                                    if (ex == null) {
-                                        long now = System.currentTimeMillis();
-                                        if (now - lastPongLogMillis > 60_000) {
-                                            log.info("KIS WS pong sent");
-                                            lastPongLogMillis = now;
-                                        } else {
-                                            log.debug("KIS WS pong sent");
-                                        }
-                                    }
-                                });
-                            } else if (subscribeSuccess) {
-                                log.debug("KIS WS SUBSCRIBE SUCCESS");
-                            }
-                            webSocket.request(1);
-                            return CompletableFuture.completedFuture(null);
-                        }
-
-                        @Override
-                        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
-                            webSocketRef = null;
-                            kisWsSubscriptionManager.clearSubscribedCodes();
-                            log.info("KIS WS close statusCode={} reason={}", statusCode, reason);
-                            return CompletableFuture.completedFuture(null);
-                        }
-
-                        @Override
-                        public void onError(WebSocket webSocket, Throwable error) {
-                            log.warn("KIS WS error: {}", error != null ? error.toString() : "");
-                        }
-                    })
-                    .whenComplete((ws, ex) -> {
-                        if (ex != null) {
-                            log.warn("KIS WS buildAsync failed: {}", ex.toString());
-                        }
-                    });
-        } catch (Exception e) {
-            log.warn("KIS WS error: {}", e.toString());
+        String base = useMock ? "ws://ops.koreainvestment.com:31000" : "ws://ops.koreainvestment.com:21000";
+        URI uri = URI.create(base);
+        int n = getSessionCount();
+        List<KisWsSession> created = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<String> indexCodes = i == INDEX_SESSION ? indexQuoteCache.getRealtimeCodes() : List.of();
+            created.add(new KisWsSession(i, uri, kisApiService, tickPipeline, kisWsSubscriptionManager,
+                    indexQuoteCache, indexCodes, scheduler,
+                    reconnectInitialBackoffMillis, reconnectMaxBackoffMillis,
+                    TimeUnit.SECONDS.toMillis(idleTimeoutSeconds)));
         }
+        sessions = List.copyOf(created);
+        scheduler.scheduleWithFixedDelay(() -> sessions.forEach(KisWsSession::checkIdle),
+                IDLE_CHECK_INTERVAL_SECONDS, IDLE_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        created.forEach(KisWsSession::start);
     }
 
-    /** 연결 여부. 구독 요청은 연결된 경우에만 유효. */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        sessions.forEach(KisWsSession::stop);
+    }
+
+    /** 설정된 세션 수 (연결 여부 무관). 구독 샤딩 기준. */
+    public int getSessionCount() {
+        return Math.max(1, sessionCount);
+    }
+
+    /** 세션에서 종목 외 용도(지수 실시간)로 쓰는 등록 수. 구독 상한에서 뺀다. */
+    public int getReservedRegistrations(int session) {
+        return session == INDEX_SESSION ? indexQuoteCache.getRealtimeCodes().size() : 0;
+    }
+
+    /** 하나라도 연결돼 있는지 */
     public boolean isConnected() {
-        return webSocketRef != null;
+        for (KisWsSession s : sessions) {
+            if (s.isConnected()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isConnected(int session) {
+        List<KisWsSession> current = sessions;
+        return session >= 0 && session < current.size() && current.get(session).isConnected();
     }
 
     /**
-     * H0STCNT0 실시간 체결 구독 전송. 연결된 경우에만 전송.
+     * H0STCNT0 실시간 체결 구독 전송. 해당 세션이 연결된 경우에만 전송.
      * KIS 문서: body는 반드시 {"input": {...}} 형태로 감싼다.
      * tr_key에 6자리 종목코드 사용.
      */
-    public void sendSubscribe(String stockCode) {
-        if (stockCode == null || stockCode.isBlank() || webSocketRef == null) {
-            return;
-        }
-        String code = stockCode.length() >= 6 ? stockCode : String.format("%6s", stockCode).replace(' ', '0');
-        try {
-            String approvalKey = kisApiService.getWebSocketApprovalKey();
-            String escaped = approvalKey.replace("\\", "\\\\").replace("\"", "\\\"");
-            String subscribeJson = "{\"header\":{\"approval_key\":\"" + escaped
-                    + "\",\"custtype\":\"P\",\"tr_type\":\"1\",\"content-type\":\"utf-8\"}"
-                    + ",\"body\":{\"input\":{\"tr_id\":\"H0STCNT0\",\"tr_key\":\"" + code + "\"}}}";
-            webSocketRef.sendText(subscribeJson, true).whenComplete((w, ex) -> {
-                if (ex != null) {
-                    log.warn("KIS WS subscribe send failed: {}", ex.toString());
-                } else {
-                    log.debug("KIS WS subscribe sent: {}", code);
-                }
-            });
-        } catch (Exception e) {
-            log.warn("KIS WS subscribe failed");
-        }
+    public void sendSubscribe(int session, String stockCode) {
+        send(session, stockCode, "1");
     }
 
-    private static String safeTrim(String s) {
-        if (s == null) return null;
-        String t = s.trim();
-        return t.isEmpty() ? null : t;
+    /** H0STCNT0 실시간 체결 구독 해지 (tr_type=2). 세션당 등록 상한을 비우기 위해 사용. */
+    public void sendUnsubscribe(int session, String stockCode) {
+        send(session, stockCode, "2");
     }
 
-    private static BigDecimal parseBigDecimal(String s) {
-        if (s == null || s.trim().isEmpty()) return null;
-        try {
-            return new BigDecimal(s.trim().replace(",", ""));
-        } catch (Exception e) {
-            return null;
+    private void send(int session, String stockCode, String trType) {
+        List<KisWsSession> current = sessions;
+        if (stockCode == null || stockCode.isBlank() || session < 0 || session >= current.size()) {
+            return;
         }
+        String code = stockCode.length() >= 6 ? stockCode : String.format("%6s", stockCode).replace(' ', '0');
+        current.get(session).sendRegistration(KisTickParser.TR_ID_STOCK_TRADE, code, trType);
     }
 
-    private static Long parseLong(String s) {
-        if (s == null || s.trim().isEmpty()) return null;
-        try {
-            return Long.parseLong(s.trim().replace(",", ""));
-        } catch (Exception e) {
-            return null;
+    /** 세션별 연결 지표. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        List<KisWsSession> current = sessions;
+        List<Map<String, Object>> perSession = new ArrayList<>(current.size());
+        int connected = 0;
+        for (KisWsSession s : current) {
+            perSession.add(s.getStats());
+            if (s.isConnected()) {
+                connected++;
+            }
         }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sessionCount", current.size());
+        m.put("connectedSessions", connected);
+        m.put("sessions", perSession);
+        return m;
     }
 }
@@ -0,0 +1,469 @@
+package com.uniport.service.kisws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniport.service.IndexQuoteCache;
+import com.uniport.service.KisApiService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KIS 실시간 WebSocket 연결 1개 (샤드). {@link KisWsClient}가 N개를 만들어 관리한다.
+ * 세션마다 전용 리더 스레드에서 수신·파싱하고, 자기 링 버퍼(단일 생산자)에 적재한다.
+ * 연결이 끊기거나(close/error/무수신) 접속에 실패하면 지터를 둔 지수 백오프로 재접속한다.
+ * 실시간 접속키는 모든 세션이 같이 쓰므로 재접속만으로는 폐기하지 않고, KIS가 이 세션이 보낸 키를 거절했을 때만
+ * 그 키를 폐기(다른 세션이 이미 새 키를 받았으면 그대로)하고 재접속한다.
+ * 지수 실시간(H0UPCNT0)을 맡은 세션은 연결될 때마다 지수를 직접 등록하고 {@link IndexQuoteCache}에 반영한다.
+ */
+final class KisWsSession {
+
+    private static final Logger log = LoggerFactory.getLogger(KisWsSession.class);
+
+    /** 제어 메시지(JSON) 파싱용. thread-safe하므로 공유. */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /** 분할 프레임 재조립 버퍼 초기 용량 / 이보다 커지면 재조립 후 축소 */
+    private static final int FRAME_BUFFER_INITIAL_CAPACITY = 4 * 1024;
+    private static final int FRAME_BUFFER_MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final int index;
+    private final URI uri;
+    private final KisApiService kisApiService;
+    private final RealtimeTickPipeline tickPipeline;
+    private final TickRingBuffer ring;
+    private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final IndexQuoteCache indexQuoteCache;
+    /** 이 세션이 등록할 지수 업종코드 (지수 담당 세션이 아니면 비어 있음) */
+    private final List<String> indexCodes;
+    private final ScheduledExecutorService scheduler;
+    private final long reconnectInitialBackoffMillis;
+    private final long reconnectMaxBackoffMillis;
+    private final long idleTimeoutMillis;
+
+    /** 이 세션 전용 리더 스레드 (onText 콜백·파싱이 여기서 돈다) */
+    private final ExecutorService readerExecutor;
+    private final HttpClient httpClient;
+
+    /** 연결된 WebSocket (onOpen에서 설정, 끊기면 null) */
+    private volatile WebSocket webSocketRef;
+
+    /** 접속 시도 중이거나 재접속이 예약돼 있으면 true (중복 예약 방지) */
+    private final AtomicBoolean connecting = new AtomicBoolean();
+    private volatile boolean stopped;
+
+    /** java.net.http.WebSocket은 동시에 하나의 send만 허용 → 직전 send 완료 후 이어서 보낸다 */
+    private final Object sendLock = new Object();
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+
+    /** 이 세션이 마지막 등록 요청에 실어 보낸 접속키 (거절 시 이 키만 폐기) */
+    private volatile String approvalKeyInUse;
+
+    /** PINGPONG 로그 억제: 마지막 info 로그 시각 */
+    private volatile long lastPongLogMillis;
+
+    /** 연결 지표 */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong connectCount = new AtomicLong();
+    private final AtomicLong reconnectAttemptCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong approvalRejectedCount = new AtomicLong();
+    private final AtomicLong disconnectedMillisTotal = new AtomicLong();
+    /** 끊긴 시각 (연결 중이면 0) */
+    private volatile long disconnectedSinceMillis;
+    private volatile long lastMessageMillis;
+    private volatile String lastDisconnectReason;
+
+    KisWsSession(int index, URI uri, KisApiService kisApiService, RealtimeTickPipeline tickPipeline,
+                 KisWsSubscriptionManager kisWsSubscriptionManager, IndexQuoteCache indexQuoteCache,
+                 List<String> indexCodes, ScheduledExecutorService scheduler,
+                 long reconnectInitialBackoffMillis, long reconnectMaxBackoffMillis, long idleTimeoutMillis) {
+        this.index = index;
+        this.uri = uri;
+        this.kisApiService = kisApiService;
+        this.tickPipeline = tickPipeline;
+        this.ring = tickPipeline.newProducerRing();
+        this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.indexQuoteCache = indexQuoteCache;
+        this.indexCodes = List.copyOf(indexCodes);
+        this.scheduler = scheduler;
+        this.reconnectInitialBackoffMillis = reconnectInitialBackoffMillis;
+        this.reconnectMaxBackoffMillis = reconnectMaxBackoffMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.readerExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "kis-ws-reader-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+        this.httpClient = HttpClient.newBuilder().executor(readerExecutor).build();
+    }
+
+    int index() {
+        return index;
+    }
+
+    void start() {
+        disconnectedSinceMillis = System.currentTimeMillis();
+        scheduleConnect(0L);
+    }
+
+    void stop() {
+        stopped = true;
+        WebSocket ws = webSocketRef;
+        webSocketRef = null;
+        if (ws != null) {
+            ws.abort();
+        }
+        readerExecutor.shutdownNow();
+    }
+
+    boolean isConnected() {
+        return webSocketRef != null;
+    }
+
+    private void scheduleConnect(long delayMillis) {
+        if (stopped || !connecting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::openSocket, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            connecting.set(false);
+        }
+    }
+
+    /** 접속 1회 시도. 접속키가 없으면(최초·거절 후) 먼저 발급받는다. */
+    private void openSocket() {
+        if (stopped) {
+            connecting.set(false);
+            return;
+        }
+        try {
+            if (connectCount.get() > 0 || consecutiveFailures.get() > 0) {
+                reconnectAttemptCount.incrementAndGet();
+            }
+            approvalKeyInUse = kisApiService.getWebSocketApprovalKey();
+
+            httpClient.newWebSocketBuilder()
+                    .buildAsync(uri, new WebSocket.Listener() {
+                        @Override
+                        public void onOpen(WebSocket webSocket) {
+                            log.info("KIS WS[{}] connect success", index);
+                            onConnected(webSocket);
+                            webSocket.request(1);
+                            for (String indexCode : indexCodes) {
+                                sendRegistration(IndexQuoteCache.TR_ID_INDEX_TRADE, indexCode, "1");
+                            }
+                            kisWsSubscriptionManager.onWsConnected(index);
+                        }
+
+                        /** 분할 수신(last=false) 프레임 재조립 버퍼. 리더 스레드 전용, 재사용. */
+                        private final StringBuilder frameBuffer = new StringBuilder(FRAME_BUFFER_INITIAL_CAPACITY);
+                        private final KisTickParser tickParser = new KisTickParser();
+                        private final RealtimeTickBatch batch = new RealtimeTickBatch();
+
+                        @Override
+                        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                            lastMessageMillis = System.currentTimeMillis();
+                            if (!last) {
+                                // data는 콜백 반환 후 재사용될 수 있으므로 복사해 둔다
+                                frameBuffer.append(data);
+                                webSocket.request(1);
+                                return CompletableFuture.completedFuture(null);
+                            }
+                            CharSequence frame = data != null ? data : "";
+                            if (frameBuffer.length() > 0) {
+                                frameBuffer.append(frame);
+                                frame = frameBuffer;
+                            }
+                            try {
+                                if (KisTickParser.isRealtimeFrame(frame)) {
+                                    onRealtimeFrame(frame);
+                                } else {
+                                    onControlMessage(webSocket, frame);
+                                }
+                            } finally {
+                                resetFrameBuffer();
+                            }
+                            webSocket.request(1);
+                            return CompletableFuture.completedFuture(null);
+                        }
+
+                        private void onRealtimeFrame(CharSequence frame) {
+                            try {
+                                if (tickParser.parse(frame, batch) > 0) {
+                                    tickPipeline.publish(ring, batch, System.currentTimeMillis());
+                                    if (kisWsSubscriptionManager.hasUnconfirmed()) {
+                                        for (int i = 0; i < batch.size(); i++) {
+                                            kisWsSubscriptionManager.onTick(index, batch.getCodeKey(i));
+                                        }
+                                    }
+                                } else if (!indexCodes.isEmpty()
+                                        && KisTickParser.hasTrId(frame, IndexQuoteCache.TR_ID_INDEX_TRADE)) {
+                                    indexQuoteCache.onRealtimeFrame(frame, System.currentTimeMillis());
+                                }
+                            } catch (Exception e) {
+                                log.warn("KIS WS realtime frame parse failed");
+                            }
+                        }
+
+                        private void resetFrameBuffer() {
+                            if (frameBuffer.capacity() > FRAME_BUFFER_MAX_RETAINED_CAPACITY) {
+                                frameBuffer.setLength(0);
+                                frameBuffer.trimToSize();
+                                frameBuffer.ensureCapacity(FRAME_BUFFER_INITIAL_CAPACITY);
+                            } else {
+                                frameBuffer.setLength(0);
+                            }
+                        }
+
+                        @Override
+                        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                            log.info("KIS WS[{}] close statusCode={} reason={}", index, statusCode, reason);
+                            onDisconnected(webSocket, "close " + statusCode);
+                            return CompletableFuture.completedFuture(null);
+                        }
+
+                        @Override
+                        public void onError(WebSocket webSocket, Throwable error) {
+                            log.warn("KIS WS[{}] error: {}", index, error != null ? error.toString() : "");
+                            onDisconnected(webSocket, "error " + (error != null ? error.getClass().getSimpleName() : ""));
+                        }
+                    })
+                    .whenComplete((ws, ex) -> {
+                        if (ex != null) {
+                            log.warn("KIS WS[{}] buildAsync failed: {}", index, ex.toString());
+                            onConnectFailed("connect failed");
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("KIS WS[{}] error: {}", index, e.toString());
+            onConnectFailed("connect failed");
+        }
+    }
+
+    private synchronized void onConnected(WebSocket webSocket) {
+        long now = System.currentTimeMillis();
+        webSocketRef = webSocket;
+        lastMessageMillis = now;
+        long since = disconnectedSinceMillis;
+        if (since > 0L) {
+            disconnectedMillisTotal.addAndGet(now - since);
+            disconnectedSinceMillis = 0L;
+        }
+        connectCount.incrementAndGet();
+        consecutiveFailures.set(0);
+        connecting.set(false);
+    }
+
+    /** 열려 있던 소켓이 끊김. 이미 교체된 소켓의 늦은 콜백은 무시. */
+    private void onDisconnected(WebSocket webSocket, String reason) {
+        synchronized (this) {
+            if (webSocketRef == null || webSocketRef != webSocket) {
+                return;
+            }
+            webSocketRef = null;
+            disconnectedSinceMillis = System.currentTimeMillis();
+            lastDisconnectReason = reason;
+        }
+        kisWsSubscriptionManager.onWsDisconnected(index);
+        scheduleReconnect();
+    }
+
+    private void onConnectFailed(String reason) {
+        failedAttemptCount.incrementAndGet();
+        lastDisconnectReason = reason;
+        connecting.set(false);
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (stopped) {
+            return;
+        }
+        int failures = consecutiveFailures.getAndIncrement();
+        long delay = backoffMillis(failures);
+        log.info("KIS WS[{}] reconnect scheduled in {}ms (attempt {})", index, delay, failures + 1);
+        scheduleConnect(delay);
+    }
+
+    /** 지수 백오프 + equal jitter: [d/2, d], d = min(max, initial * 2^failures) */
+    private long backoffMillis(int failures) {
+        long initial = Math.max(1L, reconnectInitialBackoffMillis);
+        long max = Math.max(initial, reconnectMaxBackoffMillis);
+        long d = failures >= 30 ? max : Math.min(max, initial << failures);
+        return d / 2 + ThreadLocalRandom.current().nextLong(d / 2 + 1);
+    }
+
+    /** 소켓은 열려 있는데 PINGPONG조차 끊긴 반쯤 죽은 연결 감지 */
+    void checkIdle() {
+        WebSocket ws = webSocketRef;
+        if (ws == null || idleTimeoutMillis <= 0) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - lastMessageMillis;
+        if (idle > idleTimeoutMillis) {
+            log.warn("KIS WS[{}] idle for {}ms, reconnecting", index, idle);
+            ws.abort();
+            onDisconnected(ws, "idle timeout");
+        }
+    }
+
+    /** 실시간 구독(tr_type=1) / 해지(tr_type=2) 전송 (종목 H0STCNT0, 지수 H0UPCNT0). 연결된 경우에만 전송. */
+    void sendRegistration(String trId, String code, String trType) {
+        WebSocket ws = webSocketRef;
+        if (code == null || code.isBlank() || ws == null) {
+            return;
+        }
+        String action = "1".equals(trType) ? "subscribe" : "unsubscribe";
+        try {
+            String approvalKey = kisApiService.getWebSocketApprovalKey();
+            approvalKeyInUse = approvalKey;
+            String escaped = approvalKey.replace("\\", "\\\\").replace("\"", "\\\"");
+            String registrationJson = "{\"header\":{\"approval_key\":\"" + escaped
+                    + "\",\"custtype\":\"P\",\"tr_type\":\"" + trType + "\",\"content-type\":\"utf-8\"}"
+                    + ",\"body\":{\"input\":{\"tr_id\":\"" + trId
+                    + "\",\"tr_key\":\"" + code + "\"}}}";
+            sendText(ws, registrationJson).whenComplete((w, ex) -> {
+                if (ex != null) {
+                    log.warn("KIS WS[{}] {} send failed: {}", index, action, ex.toString());
+                } else {
+                    log.debug("KIS WS[{}] {} sent: {} {}", index, action, trId, code);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("KIS WS[{}] {} failed", index, action);
+        }
+    }
+
+    /** 직전 send가 끝난 뒤 전송 (구독·해지·pong이 여러 스레드에서 겹쳐도 IllegalStateException 없음) */
+    private CompletableFuture<?> sendText(WebSocket ws, String text) {
+        synchronized (sendLock) {
+            CompletableFuture<?> next = lastSend
+                    .handle((r, ex) -> null)
+                    .thenCompose(ignored -> ws.sendText(text, true));
+            lastSend = next;
+            return next;
+        }
+    }
+
+    /**
+     * JSON 제어 메시지 (PINGPONG, 등록 응답 등). 빈도가 낮아 String 변환 허용.
+     * 종목 등록 응답은 성공·거절 모두 구독 매니저에 넘겨 실시간 여부 판정에 쓴다.
+     */
+    private void onControlMessage(WebSocket webSocket, CharSequence frame) {
+        String text = frame.toString();
+        boolean isPingPong = false;
+        boolean subscribeSuccess = false;
+        String approvalRejected = null;
+        String stockTrKey = null;
+        String msg1 = "";
+        boolean accepted = false;
+        if (text.trim().startsWith("{")) {
+            try {
+                JsonNode root = OBJECT_MAPPER.readTree(text);
+                JsonNode header = root.path("header");
+                if (!header.isMissingNode() && "PINGPONG".equals(header.path("tr_id").asText(""))) {
+                    isPingPong = true;
+                }
+                JsonNode body = root.path("body");
+                msg1 = body.path("msg1").asText("");
+                String rtCd = body.path("rt_cd").asText("0");
+                if (!body.isMissingNode() && "SUBSCRIBE SUCCESS".equals(msg1)) {
+                    subscribeSuccess = true;
+                }
+                if (isApprovalRejection(rtCd, body.path("msg_cd").asText(""), msg1)) {
+                    approvalRejected = msg1;
+                } else if (!body.isMissingNode()
+                        && KisTickParser.TR_ID_STOCK_TRADE.equals(header.path("tr_id").asText(""))
+                        && !msg1.startsWith("UNSUBSCRIBE")) {
+                    accepted = subscribeSuccess || "ALREADY IN SUBSCRIBE".equals(msg1);
+                    if (accepted || !"0".equals(rtCd)) {
+                        stockTrKey = header.path("tr_key").asText("");
+                    }
+                }
+            } catch (Exception ignored) {
+            }
+        }
+        if (approvalRejected != null) {
+            onApprovalKeyRejected(webSocket, approvalRejected);
+            return;
+        }
+        if (stockTrKey != null && !stockTrKey.isBlank()) {
+            kisWsSubscriptionManager.onSubscribeResult(index, stockTrKey, accepted, msg1);
+        }
+        if (isPingPong) {
+            sendText(webSocket, text).whenComplete((w, ex) -> {
+                if (ex == null) {
+                    long now = System.currentTimeMillis();
+                    if (now - lastPongLogMillis > 60_000) {
+                        log.info("KIS WS[{}] pong sent", index);
+                        lastPongLogMillis = now;
+                    } else {
+                        log.debug("KIS WS[{}] pong sent", index);
+                    }
+                }
+            });
+        } else if (subscribeSuccess) {
+            log.debug("KIS WS[{}] SUBSCRIBE SUCCESS", index);
+        }
+    }
+
+    /** 접속키 거절 응답 (예: rt_cd=9, msg_cd=OPSP0011, msg1="invalid approval : NOT FOUND") */
+    private static boolean isApprovalRejection(String rtCd, String msgCd, String msg1) {
+        if ("0".equals(rtCd)) {
+            return false;
+        }
+        return "OPSP0011".equals(msgCd) || msg1.toLowerCase().contains("approval");
+    }
+
+    /** 이 세션이 쓴 접속키가 거절됨: 그 키가 아직 공유 캐시에 있으면 폐기하고, 이 세션만 재접속 (다른 세션은 유지) */
+    private void onApprovalKeyRejected(WebSocket webSocket, String message) {
+        if (webSocketRef != webSocket) {
+            return;
+        }
+        approvalRejectedCount.incrementAndGet();
+        boolean invalidated = kisApiService.invalidateWebSocketApprovalKey(approvalKeyInUse);
+        log.warn("KIS WS[{}] approval key rejected ({}), {}reconnecting", index, message,
+                invalidated ? "key invalidated, " : "");
+        webSocket.abort();
+        onDisconnected(webSocket, "approval rejected");
+    }
+
+    Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        long since = disconnectedSinceMillis;
+        long currentDown = since > 0L ? now - since : 0L;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("session", index);
+        m.put("connected", isConnected());
+        m.put("connects", connectCount.get());
+        m.put("reconnectAttempts", reconnectAttemptCount.get());
+        m.put("failedAttempts", failedAttemptCount.get());
+        m.put("approvalRejected", approvalRejectedCount.get());
+        m.put("consecutiveFailures", consecutiveFailures.get());
+        m.put("disconnectedMillisTotal", disconnectedMillisTotal.get() + currentDown);
+        m.put("currentDisconnectedMillis", currentDown);
+        m.put("lastDisconnectReason", lastDisconnectReason);
+        m.put("lastMessageAgeMillis", lastMessageMillis > 0L ? now - lastMessageMillis : null);
+        m.put("ringDepth", ring.depth());
+        m.put("ringDropped", ring.droppedCount());
+        return m;
+    }
+}
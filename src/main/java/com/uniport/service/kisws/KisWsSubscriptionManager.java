@@ -1,82 +1,496 @@
 package com.uniport.service.kisws;
 
+import com.uniport.repository.TeamHoldingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * stockCode를 받아서 WS에 subscribe 보장.
- * 이미 구독 중이면 skip. 연결 전이면 pending에 쌓아두고 연결 시 drain하여 전송.
- * subscribe payload: body.input 포함 {"body":{"input":{"tr_id":"H0STCNT0","tr_key":"005930"}}}.
+ * 종목별 실시간(H0STCNT0) 구독 수요 관리.
+ * <ul>
+ *   <li>ensureSubscribed: 조회 시마다 호출되는 일시적 수요. 마지막 요청 후 idle TTL이 지나면 해지(tr_type=2).</li>
+ *   <li>acquire/release: 계속 시세가 필요한 소비자의 참조 카운트. 0이 될 때까지 해지하지 않음.</li>
+ *   <li>팀 보유 종목은 고정(pinned) — 주기적으로 DB에서 동기화.</li>
+ * </ul>
+ * 종목은 {@link ConsistentHashRing}으로 WS 세션(샤드)에 배정한다. 세션이 끊기면 그 세션 종목만
+ * 연결된 다른 세션으로 옮기고, 다시 붙으면 본래 세션으로 돌려놓는다.
+ * KIS는 세션당 실시간 등록 수에 상한이 있으므로 세션별로 max-subscriptions를 넘으면
+ * 그 세션에서 고정·참조되지 않은 종목 중 가장 오래 요청 없던 것(LRU)을 해지하고 자리를 만든다.
+ * 빈 자리가 없으면 대기했다가 자리가 나면(해지·재연결 시) 최근 수요 순으로 등록한다.
+ * 재연결 직후 전체 재등록·재배치는 resubscribe-batch-size개씩 간격을 두고 보낸다 (KIS 초당 요청 제한).
+ * 등록 요청을 보냈다고 바로 실시간으로 보지 않는다. KIS 등록 성공 응답(또는 등록 후 첫 체결)을 받아야
+ * {@link #isLive}가 true가 되고, 거절(MAX SUBSCRIBE OVER 등)·무응답이면 시세 신선도는 TTL로 판정된다.
+ * 등록·해지 결정은 매니저 락 안에서 하지만, 전송(접속키 발급 HTTP가 걸릴 수 있음)은 락을 놓은 뒤
+ * kis-ws-subscription 스레드에서 결정한 순서대로 한다. 조회 스레드가 전송을 기다리며 락에 줄 서지 않는다.
  */
 @Component
 public class KisWsSubscriptionManager {
 
     private static final Logger log = LoggerFactory.getLogger(KisWsSubscriptionManager.class);
 
+    /** 만료 정리·보유 종목 동기화 주기 */
+    private static final long SWEEP_INTERVAL_SECONDS = 30L;
+    private static final long CAP_WARN_INTERVAL_MILLIS = 60_000L;
+    /** 세션당 링 위 가상 노드 수 */
+    private static final int VIRTUAL_NODES_PER_SESSION = 64;
+    private static final int NO_SESSION = ConsistentHashRing.NO_NODE;
+
+    /** 고정·참조 중인 종목 우선, 그다음 최근 요청 순 */
+    private static final Comparator<Subscription> REGISTER_ORDER =
+            Comparator.comparing((Subscription s) -> !s.isHeld())
+                    .thenComparing(s -> -s.lastDemandMillis);
+
     private final KisWsClient kisWsClient;
-    /** 이미 구독 요청을 보낸 종목코드 */
-    private final Set<String> subscribedCodes = ConcurrentHashMap.newKeySet();
-    /** WS 미연결 시 대기할 종목코드 (연결되면 drain) */
-    private final Set<String> pendingCodes = ConcurrentHashMap.newKeySet();
+    private final TeamHoldingRepository teamHoldingRepository;
+    private final int maxSubscriptions;
+    private final long idleTtlMillis;
+    private final int resubscribeBatchSize;
+    private final long resubscribeIntervalMillis;
+    private final ConsistentHashRing shardRing;
+
+    /** 수요가 있는 종목 전체 (등록 여부 무관). 구조 변경은 this 락 안에서만. */
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    /** 세션별 KIS에 등록(tr_type=1)된 종목 수 */
+    private final int[] registeredCounts;
+    /** 등록 요청 후 아직 KIS 응답·체결로 확인되지 않은 종목 (종목 키 → 구독). 체결 경로에서 락 없이 조회 */
+    private final Map<Long, Subscription> unconfirmed = new ConcurrentHashMap<>();
+
+    private long evictionCount;
+    private long expiredCount;
+    private long movedCount;
+    private long lastCapWarnMillis;
+    /** 세션 리더 스레드에서 갱신 */
+    private final LongAdder confirmedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
 
-    public KisWsSubscriptionManager(KisWsClient kisWsClient) {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-ws-subscription");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public KisWsSubscriptionManager(KisWsClient kisWsClient,
+                                    TeamHoldingRepository teamHoldingRepository,
+                                    @Value("${kis.ws.session-count:1}") int sessionCount,
+                                    @Value("${kis.ws.max-subscriptions:40}") int maxSubscriptions,
+                                    @Value("${kis.ws.subscription-idle-ttl-seconds:300}") long idleTtlSeconds,
+                                    @Value("${kis.ws.resubscribe-batch-size:10}") int resubscribeBatchSize,
+                                    @Value("${kis.ws.resubscribe-interval-ms:500}") long resubscribeIntervalMillis) {
         this.kisWsClient = kisWsClient;
+        this.teamHoldingRepository = teamHoldingRepository;
+        this.maxSubscriptions = Math.max(1, maxSubscriptions);
+        this.idleTtlMillis = TimeUnit.SECONDS.toMillis(idleTtlSeconds);
+        this.resubscribeBatchSize = Math.max(1, resubscribeBatchSize);
+        this.resubscribeIntervalMillis = Math.max(0L, resubscribeIntervalMillis);
+        this.shardRing = new ConsistentHashRing(Math.max(1, sessionCount), VIRTUAL_NODES_PER_SESSION);
+        this.registeredCounts = new int[Math.max(1, sessionCount)];
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, 5L, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
     }
 
     /**
-     * 해당 종목 구독 보장. 이미 구독 중이면 return.
-     * 연결됐으면 바로 전송, 아니면 pending에 넣고 연결 시 drain.
+     * 일시적 수요 표시 (시세 조회 등). 이미 등록된 종목이면 요청 시각만 갱신하고 락 없이 반환.
+     * 담당 세션이 연결 전이거나 상한이 차 있으면 대기 목록에 남는다.
      */
     public void ensureSubscribed(String stockCode) {
-        if (stockCode == null || stockCode.isBlank()) {
+        String code = normalizeStockCode(stockCode);
+        if (code == null) {
             return;
         }
-        String code = normalizeStockCode(stockCode.trim());
-        if (subscribedCodes.contains(code)) {
+        long now = System.currentTimeMillis();
+        Subscription s = subscriptions.get(code);
+        if (s != null) {
+            s.lastDemandMillis = now;
+            if (s.isRegistered()) {
+                return;
+            }
+        }
+        synchronized (this) {
+            s = subscriptions.computeIfAbsent(code, Subscription::new);
+            s.lastDemandMillis = now;
+            registerIfPossible(s, now);
+        }
+    }
+
+    /**
+     * WS로 지금 틱을 받고 있는 종목인지: 담당 세션이 연결 중이고, 그 세션 등록이 KIS 성공 응답이나 체결로 확인됨.
+     * 등록 요청만 보냈거나 거절된 종목은 false. 락 없음.
+     */
+    public boolean isLive(String stockCode) {
+        String code = normalizeStockCode(stockCode);
+        Subscription s = code != null ? subscriptions.get(code) : null;
+        if (s == null || !s.confirmed) {
+            return false;
+        }
+        int session = s.session;
+        return session != NO_SESSION && kisWsClient.isConnected(session);
+    }
+
+    /**
+     * KIS 종목 등록 응답 (세션 리더 스레드). accepted(SUBSCRIBE SUCCESS, ALREADY IN SUBSCRIBE)면 확인 처리,
+     * 거절이면 확인하지 않고 남겨 둔다 (TTL 판정 유지, 재배치·재연결 때 다시 등록). 락 없음.
+     */
+    public void onSubscribeResult(int session, String stockCode, boolean accepted, String message) {
+        String code = normalizeStockCode(stockCode);
+        Subscription s = code != null ? subscriptions.get(code) : null;
+        if (s == null || s.session != session) {
             return;
         }
-        if (kisWsClient.isConnected()) {
-            kisWsClient.sendSubscribe(code);
-            subscribedCodes.add(code);
-            log.debug("KIS WS subscribe requested: {}", code);
+        if (accepted) {
+            confirm(s);
         } else {
-            pendingCodes.add(code);
-            log.debug("KIS WS subscribe pending (not connected): {}", code);
+            rejectedCount.increment();
+            log.warn("KIS WS[{}] subscribe rejected: {} ({})", session, code, message);
         }
     }
 
-    /** WS 연결됐을 때 호출. pending을 비우며 전부 subscribe 전송. */
-    public void onWsConnected() {
-        if (!kisWsClient.isConnected()) {
+    /** 확인 대기 종목이 있는지. 체결 경로는 이 값이 true일 때만 {@link #onTick}을 부른다. */
+    public boolean hasUnconfirmed() {
+        return !unconfirmed.isEmpty();
+    }
+
+    /** 체결 수신 (세션 리더 스레드). 등록 응답을 못 받았더라도 그 세션에서 체결이 오면 실시간으로 본다. 락 없음. */
+    public void onTick(int session, long codeKey) {
+        Subscription s = unconfirmed.get(codeKey);
+        if (s != null && s.session == session) {
+            confirm(s);
+        }
+    }
+
+    private void confirm(Subscription s) {
+        if (!s.confirmed) {
+            s.confirmed = true;
+            confirmedCount.increment();
+        }
+        unconfirmed.remove(s.codeKey, s);
+    }
+
+    /** 지속 수요 등록. release 전까지 idle 만료·LRU 해지 대상에서 제외. */
+    public synchronized void acquire(String stockCode) {
+        String code = normalizeStockCode(stockCode);
+        if (code == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Subscription s = subscriptions.computeIfAbsent(code, Subscription::new);
+        s.refCount++;
+        s.lastDemandMillis = now;
+        registerIfPossible(s, now);
+    }
+
+    /** acquire 해제. 0이 되면 이 시점부터 idle TTL 후 해지. */
+    public synchronized void release(String stockCode) {
+        String code = normalizeStockCode(stockCode);
+        Subscription s = code != null ? subscriptions.get(code) : null;
+        if (s == null || s.refCount == 0) {
             return;
         }
-        var toSend = new ArrayList<>(pendingCodes);
-        pendingCodes.clear();
-        for (String code : toSend) {
-            if (subscribedCodes.contains(code)) {
+        s.refCount--;
+        s.lastDemandMillis = System.currentTimeMillis();
+    }
+
+    /** 세션이 연결됐을 때 호출. 이 세션 몫 종목을 되찾아 오고 대기 종목을 배치 단위로 나눠 등록. */
+    public void onWsConnected(int session) {
+        scheduler.execute(this::rebalanceStep);
+    }
+
+    /** 세션 연결 종료 시 호출. 그 세션의 등록 상태만 지우고 수요는 유지해 다른 세션(또는 재연결 후)에 다시 등록. */
+    public void onWsDisconnected(int session) {
+        synchronized (this) {
+            for (Subscription s : subscriptions.values()) {
+                if (s.session == session) {
+                    s.session = NO_SESSION;
+                    s.confirmed = false;
+                    unconfirmed.remove(s.codeKey, s);
+                }
+            }
+            if (session >= 0 && session < registeredCounts.length) {
+                registeredCounts[session] = 0;
+            }
+        }
+        scheduler.execute(this::rebalanceStep);
+    }
+
+    /** 구독 현황. GET /api/config/kis-metrics 에서 노출. */
+    public synchronized Map<String, Object> getStats() {
+        int pinned = 0;
+        int referenced = 0;
+        int registered = 0;
+        int live = 0;
+        for (Subscription s : subscriptions.values()) {
+            if (s.pinned) pinned++;
+            if (s.refCount > 0) referenced++;
+            if (s.isRegistered()) registered++;
+            if (s.isRegistered() && s.confirmed) live++;
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxSubscriptionsPerSession", maxSubscriptions);
+        m.put("registered", registered);
+        m.put("registeredPerSession", registeredCounts.clone());
+        m.put("confirmed", live);
+        m.put("unconfirmed", registered - live);
+        m.put("confirmations", confirmedCount.sum());
+        m.put("rejected", rejectedCount.sum());
+        m.put("waiting", subscriptions.size() - registered);
+        m.put("pinned", pinned);
+        m.put("referenced", referenced);
+        m.put("evicted", evictionCount);
+        m.put("expired", expiredCount);
+        m.put("moved", movedCount);
+        return m;
+    }
+
+    private void rebalanceStep() {
+        boolean more;
+        synchronized (this) {
+            more = rebalance(resubscribeBatchSize);
+        }
+        if (more) {
+            scheduler.schedule(this::rebalanceStep, resubscribeIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            syncPinnedCodes();
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("KIS WS subscription sweep failed: {}", e.toString());
+        }
+    }
+
+    /** 팀 보유 종목 고정 동기화. 보유가 사라진 종목은 고정 해제 후 idle TTL 적용. */
+    private void syncPinnedCodes() {
+        Set<String> held = new HashSet<>();
+        for (String code : teamHoldingRepository.findDistinctStockCodes()) {
+            String normalized = normalizeStockCode(code);
+            if (normalized != null) {
+                held.add(normalized);
+            }
+        }
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (Subscription s : subscriptions.values()) {
+                if (s.pinned && !held.contains(s.code)) {
+                    s.pinned = false;
+                    s.lastDemandMillis = now;
+                }
+            }
+            for (String code : held) {
+                Subscription s = subscriptions.computeIfAbsent(code, Subscription::new);
+                if (!s.pinned) {
+                    s.pinned = true;
+                    s.lastDemandMillis = now;
+                    registerIfPossible(s, now);
+                }
+            }
+        }
+    }
+
+    /** idle TTL 지난 일시 수요 해지·제거 후 빈 자리에 대기 종목 등록. */
+    private synchronized void sweep(long now) {
+        var it = subscriptions.values().iterator();
+        while (it.hasNext()) {
+            Subscription s = it.next();
+            if (!s.isHeld() && now - s.lastDemandMillis > idleTtlMillis) {
+                if (s.isRegistered()) {
+                    unregister(s);
+                }
+                it.remove();
+                expiredCount++;
+            }
+        }
+        rebalance(resubscribeBatchSize);
+    }
+
+    /**
+     * this 락 안에서 호출. 최대 limit건 전송:
+     * 1) 담당 세션이 아닌 곳에 등록된 종목을 담당 세션으로 이동, 2) 대기 종목을 담당 세션에 등록.
+     * 한도까지 보냈으면(남은 작업이 있을 수 있음) true.
+     */
+    private boolean rebalance(int limit) {
+        if (!kisWsClient.isConnected()) {
+            return false;
+        }
+        int sent = 0;
+        for (Subscription s : subscriptions.values()) {
+            if (sent >= limit) {
+                return true;
+            }
+            if (!s.isRegistered()) {
                 continue;
             }
-            kisWsClient.sendSubscribe(code);
-            subscribedCodes.add(code);
-            log.debug("KIS WS subscribe drained: {}", code);
+            int target = ownerOf(s);
+            if (target != NO_SESSION && target != s.session && registeredCounts[target] < capacityOf(target)) {
+                unregister(s);
+                register(s, target);
+                movedCount++;
+                sent++;
+            }
+        }
+        List<Subscription> waiting = new ArrayList<>();
+        for (Subscription s : subscriptions.values()) {
+            if (!s.isRegistered()) {
+                waiting.add(s);
+            }
+        }
+        waiting.sort(REGISTER_ORDER);
+        for (Subscription s : waiting) {
+            if (sent >= limit) {
+                return true;
+            }
+            int target = ownerOf(s);
+            if (target != NO_SESSION && registeredCounts[target] < capacityOf(target)) {
+                register(s, target);
+                sent++;
+            }
+        }
+        return false;
+    }
+
+    /** 세션의 종목 등록 상한. 지수 실시간 등록이 같은 세션 한도를 나눠 쓰므로 그만큼 뺀다. */
+    private int capacityOf(int session) {
+        return Math.max(1, maxSubscriptions - kisWsClient.getReservedRegistrations(session));
+    }
+
+    /** 연결된 세션 중 링에서 이 종목을 맡는 세션 */
+    private int ownerOf(Subscription s) {
+        return shardRing.owner(s.codeKey, kisWsClient::isConnected);
+    }
+
+    /** this 락 안에서 호출. 담당 세션이 상한이면 그 세션의 LRU 종목을 해지하고 등록, 해지할 종목이 없으면 대기. */
+    private void registerIfPossible(Subscription s, long now) {
+        if (s.isRegistered()) {
+            return;
+        }
+        int target = ownerOf(s);
+        if (target == NO_SESSION) {
+            return;
+        }
+        if (registeredCounts[target] >= capacityOf(target)) {
+            Subscription victim = findEvictionVictim(s, target);
+            if (victim == null) {
+                if (now - lastCapWarnMillis > CAP_WARN_INTERVAL_MILLIS) {
+                    lastCapWarnMillis = now;
+                    log.warn("KIS WS[{}] subscription cap {} reached, {} waiting", target, capacityOf(target), s.code);
+                }
+                return;
+            }
+            unregister(victim);
+            subscriptions.remove(victim.code);
+            evictionCount++;
+            log.debug("KIS WS subscription evicted (LRU): {}", victim.code);
+        }
+        register(s, target);
+    }
+
+    /** 해당 세션에 등록된 고정·참조되지 않은 종목 중 마지막 요청이 가장 오래된 것. 대상 종목보다 최근이면 해지하지 않음. */
+    private Subscription findEvictionVictim(Subscription incoming, int session) {
+        Subscription victim = null;
+        for (Subscription s : subscriptions.values()) {
+            if (s.session == session && !s.isHeld()
+                    && (victim == null || s.lastDemandMillis < victim.lastDemandMillis)) {
+                victim = s;
+            }
+        }
+        if (victim != null && !incoming.isHeld() && victim.lastDemandMillis > incoming.lastDemandMillis) {
+            return null;
         }
+        return victim;
     }
 
-    /** 연결 종료 시 호출. 재연결 후 재구독 가능하도록 set 비움. */
-    public void clearSubscribedCodes() {
-        subscribedCodes.clear();
-        pendingCodes.clear();
+    private void register(Subscription s, int session) {
+        String code = s.code;
+        sendLater(() -> kisWsClient.sendSubscribe(session, code));
+        s.confirmed = false;
+        s.session = session;
+        unconfirmed.put(s.codeKey, s);
+        registeredCounts[session]++;
+        log.debug("KIS WS[{}] subscribe requested: {}", session, s.code);
+    }
+
+    private void unregister(Subscription s) {
+        int session = s.session;
+        String code = s.code;
+        sendLater(() -> kisWsClient.sendUnsubscribe(session, code));
+        s.session = NO_SESSION;
+        s.confirmed = false;
+        unconfirmed.remove(s.codeKey, s);
+        registeredCounts[session]--;
+        log.debug("KIS WS[{}] unsubscribe requested: {}", session, s.code);
+    }
+
+    /**
+     * this 락 안에서 호출. 전송을 kis-ws-subscription 스레드 큐에 넣는다. 큐 삽입은 락 안에서 하므로
+     * 같은 종목의 등록·해지가 결정 순서대로 나가고, 실제 전송은 락 밖에서 일어난다.
+     */
+    private void sendLater(Runnable send) {
+        try {
+            scheduler.execute(send);
+        } catch (RejectedExecutionException e) {
+            log.debug("KIS WS registration skipped (shutting down)");
+        }
     }
 
     private static String normalizeStockCode(String code) {
-        if (code == null || code.length() >= 6) {
-            return code;
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        String trimmed = code.trim();
+        if (trimmed.length() >= 6) {
+            return trimmed;
+        }
+        return String.format("%6s", trimmed).replace(' ', '0');
+    }
+
+    /** 종목 1개의 구독 상태. lastDemandMillis·confirmed 외 필드는 매니저 락 안에서만 변경. */
+    private static final class Subscription {
+        final String code;
+        final long codeKey;
+        volatile long lastDemandMillis;
+        /** 등록된 세션 (미등록이면 NO_SESSION) */
+        volatile int session = NO_SESSION;
+        /** 현재 등록이 KIS 성공 응답이나 체결로 확인됐는지 (등록·해지 시 false) */
+        volatile boolean confirmed;
+        int refCount;
+        boolean pinned;
+
+        Subscription(String code) {
+            this.code = code;
+            this.codeKey = StockCodeKey.pack(code);
+        }
+
+        boolean isRegistered() {
+            return session != NO_SESSION;
+        }
+
+        boolean isHeld() {
+            return pinned || refCount > 0;
         }
-        return String.format("%6s", code).replace(' ', '0');
     }
 }
@@ -0,0 +1,117 @@
+package com.uniport.service.kisws;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * KRX 정규장 달력 (KST 09:00 ~ 15:30).
+ * 주말, 연말 휴장일(12월 마지막 평일), 설정한 공휴일(kis.market.holidays, yyyy-MM-dd 쉼표 구분)은 휴장.
+ * 임시 휴장·단축 개장은 설정으로 반영한다.
+ */
+@Component
+public class KrxMarketCalendar {
+
+    public static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final LocalTime OPEN = LocalTime.of(9, 0);
+    private static final LocalTime CLOSE = LocalTime.of(15, 30);
+    /** 휴장일을 건너뛰며 직전/다음 거래일을 찾을 때 최대 탐색 일수 */
+    private static final int MAX_LOOKUP_DAYS = 30;
+
+    private final Set<LocalDate> holidays = new HashSet<>();
+
+    public KrxMarketCalendar(@Value("${kis.market.holidays:}") String holidays) {
+        if (holidays == null) {
+            return;
+        }
+        for (String token : holidays.split(",")) {
+            String t = token.trim();
+            if (t.isEmpty()) {
+                continue;
+            }
+            try {
+                this.holidays.add(LocalDate.parse(t));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("kis.market.holidays: invalid date " + t, e);
+            }
+        }
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        DayOfWeek dow = date.getDayOfWeek();
+        if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        if (holidays.contains(date)) {
+            return false;
+        }
+        return !isYearEndClosing(date);
+    }
+
+    /** 정규장 개장 중인지 */
+    public boolean isOpen(long epochMillis) {
+        ZonedDateTime t = at(epochMillis);
+        LocalTime time = t.toLocalTime();
+        return isTradingDay(t.toLocalDate()) && !time.isBefore(OPEN) && time.isBefore(CLOSE);
+    }
+
+    /** 오늘 개장 시각 (오늘이 거래일이 아니어도 09:00 KST를 반환) */
+    public long todayOpenMillis(long epochMillis) {
+        return at(epochMillis).toLocalDate().atTime(OPEN).atZone(KST).toInstant().toEpochMilli();
+    }
+
+    /** now 이전에 끝난 가장 최근 정규장 마감 시각. 찾지 못하면 Long.MIN_VALUE. */
+    public long lastCloseMillis(long epochMillis) {
+        ZonedDateTime now = at(epochMillis);
+        LocalDate date = now.toLocalDate();
+        if (now.toLocalTime().isBefore(CLOSE)) {
+            date = date.minusDays(1);
+        }
+        for (int i = 0; i < MAX_LOOKUP_DAYS; i++, date = date.minusDays(1)) {
+            if (isTradingDay(date)) {
+                return date.atTime(CLOSE).atZone(KST).toInstant().toEpochMilli();
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /** now 이후 가장 가까운 정규장 개장 시각. 찾지 못하면 Long.MAX_VALUE. */
+    public long nextOpenMillis(long epochMillis) {
+        ZonedDateTime now = at(epochMillis);
+        LocalDate date = now.toLocalDate();
+        if (!now.toLocalTime().isBefore(OPEN)) {
+            date = date.plusDays(1);
+        }
+        for (int i = 0; i < MAX_LOOKUP_DAYS; i++, date = date.plusDays(1)) {
+            if (isTradingDay(date)) {
+                return date.atTime(OPEN).atZone(KST).toInstant().toEpochMilli();
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /** KRX는 매년 12월 마지막 평일 휴장 */
+    private static boolean isYearEndClosing(LocalDate date) {
+        if (date.getMonthValue() != 12) {
+            return false;
+        }
+        LocalDate d = LocalDate.of(date.getYear(), 12, 31);
+        while (d.getDayOfWeek() == DayOfWeek.SATURDAY || d.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            d = d.minusDays(1);
+        }
+        return d.equals(date);
+    }
+
+    private static ZonedDateTime at(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), KST);
+    }
+}
@@ -0,0 +1,87 @@
+package com.uniport.service.kisws;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QuoteStore에 있는 시세를 REST 재조회 없이 그대로 내줘도 되는지 판단.
+ * <ul>
+ *   <li>장중 + WS 실시간 등록이 확인된 종목(KIS 등록 성공 응답 또는 등록 후 체결 수신): 체결이 오면 틱으로 갱신되므로,
+ *       오늘 개장 후 값이면 항상 신선 (거래가 없어 조용한 종목 포함).</li>
+ *   <li>장중 + 미등록·등록 미확인·거절된 종목: 기존처럼 짧은 TTL (kis.quote.fresh-millis).</li>
+ *   <li>장 마감 후·휴장일: 직전 마감(+ 종가 확정 여유) 이후 값이면 다음 개장까지 그대로 사용.</li>
+ * </ul>
+ */
+@Component
+public class QuoteFreshnessPolicy {
+
+    private final KrxMarketCalendar marketCalendar;
+    private final KisWsSubscriptionManager kisWsSubscriptionManager;
+    private final long freshMillis;
+    private final long closeSettleMillis;
+
+    private final LongAdder servedLive = new LongAdder();
+    private final LongAdder servedClosed = new LongAdder();
+    private final LongAdder servedTtl = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public QuoteFreshnessPolicy(KrxMarketCalendar marketCalendar,
+                                KisWsSubscriptionManager kisWsSubscriptionManager,
+                                @Value("${kis.quote.fresh-millis:3000}") long freshMillis,
+                                @Value("${kis.market.close-settle-seconds:60}") long closeSettleSeconds) {
+        this.marketCalendar = marketCalendar;
+        this.kisWsSubscriptionManager = kisWsSubscriptionManager;
+        this.freshMillis = freshMillis;
+        this.closeSettleMillis = TimeUnit.SECONDS.toMillis(closeSettleSeconds);
+    }
+
+    /** 판정 사유 */
+    private enum Verdict { LIVE, CLOSED, TTL, STALE }
+
+    /** updatedAtMillis에 저장된 stockCode 시세를 now 시점에 그대로 써도 되는지. 조회 1건당 한 번만 부른다 (사유별 집계). */
+    public boolean isFresh(String stockCode, long updatedAtMillis, long now) {
+        Verdict verdict = judge(stockCode, updatedAtMillis, now);
+        switch (verdict) {
+            case LIVE -> servedLive.increment();
+            case CLOSED -> servedClosed.increment();
+            case TTL -> servedTtl.increment();
+            default -> stale.increment();
+        }
+        return verdict != Verdict.STALE;
+    }
+
+    /** isFresh와 같은 판정이지만 집계하지 않음. 이미 isFresh로 집계된 조회 안에서 다시 확인할 때 (single-flight leader 등). */
+    public boolean isFreshUncounted(String stockCode, long updatedAtMillis, long now) {
+        return judge(stockCode, updatedAtMillis, now) != Verdict.STALE;
+    }
+
+    private Verdict judge(String stockCode, long updatedAtMillis, long now) {
+        if (marketCalendar.isOpen(now)) {
+            if (updatedAtMillis >= marketCalendar.todayOpenMillis(now) && kisWsSubscriptionManager.isLive(stockCode)) {
+                return Verdict.LIVE;
+            }
+        } else {
+            long lastClose = marketCalendar.lastCloseMillis(now);
+            if (lastClose != Long.MIN_VALUE && updatedAtMillis >= lastClose + closeSettleMillis) {
+                return Verdict.CLOSED;
+            }
+        }
+        return now - updatedAtMillis <= freshMillis ? Verdict.TTL : Verdict.STALE;
+    }
+
+    /** 캐시 판정 건수 (사유별). GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("marketOpen", marketCalendar.isOpen(System.currentTimeMillis()));
+        m.put("servedLive", servedLive.sum());
+        m.put("servedClosed", servedClosed.sum());
+        m.put("servedTtl", servedTtl.sum());
+        m.put("stale", stale.sum());
+        return m;
+    }
+}
@@ -0,0 +1,271 @@
+package com.uniport.service.kisws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+
+/**
+ * 종목 시세 단일 저장소 (WS 실시간 체결 + REST 조회 결과).
+ * 종목코드 → int slot, slot별 병렬 primitive 배열에 현재가·대비·등락률·거래량·갱신시각 보관.
+ * 쓰기는 slot별 seqlock(홀수=쓰는 중), 읽기는 락 없이 재시도하므로 찢어진 값을 보지 않고 할당도 없다.
+ * 용량은 기동 시 고정 (KRX 전 종목 + ETF/ETN 수용).
+ * 실시간 틱은 {@link RealtimeTickPipeline}의 첫 번째 핸들러로 반영된다.
+ */
+@Component
+@Order(0)
+public class QuoteStore implements RealtimeTickHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteStore.class);
+
+    private static final VarHandle LONG_ARRAY = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /** slot 미할당 */
+    public static final int NO_SLOT = -1;
+
+    private final int capacity;
+
+    /** 종목 키(StockCodeKey) → slot. open addressing, key 0 = 빈칸. key는 release로 게시 */
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+    private final int tableMask;
+    private final Object slotAllocationLock = new Object();
+    private volatile int slotCount;
+
+    private final String[] stockCodes;
+    /** REST 응답 등에서 얻은 종목명 (없으면 null). 참조 대입이라 seqlock 밖에서 관리 */
+    private final String[] stockNames;
+
+    private final long[] seqs;
+    private final long[] currentPrices;
+    private final long[] changes;
+    private final int[] changeRatesFixed;
+    private final long[] volumes;
+    private final long[] updatedAtMillis;
+
+    private volatile boolean capacityWarned;
+
+    public QuoteStore(@Value("${kis.quote-store.capacity:8192}") int capacity) {
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 16) * 2 - 1) << 1;
+        this.tableKeys = new long[tableSize];
+        this.tableSlots = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        this.stockCodes = new String[capacity];
+        this.stockNames = new String[capacity];
+        this.seqs = new long[capacity];
+        this.currentPrices = new long[capacity];
+        this.changes = new long[capacity];
+        this.changeRatesFixed = new int[capacity];
+        this.volumes = new long[capacity];
+        this.updatedAtMillis = new long[capacity];
+    }
+
+    /** 등록된 slot. 없으면 NO_SLOT. 락·할당 없음. */
+    public int slotOf(long codeKey) {
+        if (codeKey == StockCodeKey.NONE) {
+            return NO_SLOT;
+        }
+        for (int i = mix(codeKey) & tableMask; ; i = (i + 1) & tableMask) {
+            long k = (long) LONG_ARRAY.getAcquire(tableKeys, i);
+            if (k == codeKey) {
+                return tableSlots[i];
+            }
+            if (k == StockCodeKey.NONE) {
+                return NO_SLOT;
+            }
+        }
+    }
+
+    public int slotOf(String stockCode) {
+        return slotOf(StockCodeKey.pack(stockCode));
+    }
+
+    /** slot 조회, 없으면 할당. 용량 초과 시 NO_SLOT. 신규 종목일 때만 락을 잡는다. */
+    public int slotFor(long codeKey) {
+        int slot = slotOf(codeKey);
+        if (slot != NO_SLOT || codeKey == StockCodeKey.NONE) {
+            return slot;
+        }
+        synchronized (slotAllocationLock) {
+            slot = slotOf(codeKey);
+            if (slot != NO_SLOT) {
+                return slot;
+            }
+            if (slotCount >= capacity) {
+                if (!capacityWarned) {
+                    capacityWarned = true;
+                    log.warn("QuoteStore capacity {} reached, new symbols are not cached", capacity);
+                }
+                return NO_SLOT;
+            }
+            slot = slotCount;
+            stockCodes[slot] = StockCodeKey.unpack(codeKey);
+            int i = mix(codeKey) & tableMask;
+            while (tableKeys[i] != StockCodeKey.NONE) {
+                i = (i + 1) & tableMask;
+            }
+            tableSlots[i] = slot;
+            LONG_ARRAY.setRelease(tableKeys, i, codeKey);
+            slotCount = slot + 1;
+            return slot;
+        }
+    }
+
+    public int slotFor(String stockCode) {
+        return slotFor(StockCodeKey.pack(stockCode));
+    }
+
+    /** seqlock 쓰기. 여러 스레드(WS 소비자, REST 조회)가 같은 slot에 써도 CAS로 직렬화. */
+    public void update(int slot, long currentPrice, long change, int changeRateFixed, long volume, long updatedAt) {
+        long seq;
+        do {
+            seq = (long) LONG_ARRAY.getVolatile(seqs, slot);
+            if ((seq & 1L) != 0L) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (LONG_ARRAY.compareAndSet(seqs, slot, seq, seq + 1L)) {
+                break;
+            }
+        } while (true);
+        currentPrices[slot] = currentPrice;
+        changes[slot] = change;
+        changeRatesFixed[slot] = changeRateFixed;
+        volumes[slot] = volume;
+        updatedAtMillis[slot] = updatedAt;
+        LONG_ARRAY.setRelease(seqs, slot, seq + 2L);
+    }
+
+    /** 파이프라인 디스패처: 링 구간을 그대로 반영. 틱마다 수신 시각을 갱신 시각으로 사용. */
+    @Override
+    public void onTicks(TickRingBuffer ring, long fromSeq, long toSeq) {
+        for (long seq = fromSeq; seq < toSeq; seq++) {
+            int slot = slotFor(ring.codeKey(seq));
+            if (slot != NO_SLOT) {
+                update(slot, ring.currentPrice(seq), ring.change(seq),
+                        ring.changeRateFixed(seq), ring.volume(seq), ring.receivedAtMillis(seq));
+            }
+        }
+    }
+
+    /** REST 조회 결과 반영 (BigDecimal → primitive). 종목명이 있으면 함께 저장. */
+    public void put(String stockCode, String stockName, BigDecimal currentPrice, BigDecimal change,
+                    BigDecimal changeRate, long volume, long updatedAt) {
+        int slot = slotFor(stockCode);
+        if (slot == NO_SLOT || currentPrice == null) {
+            return;
+        }
+        update(slot,
+                currentPrice.longValue(),
+                change != null ? change.longValue() : 0L,
+                changeRate != null ? changeRate.movePointRight(KisTickParser.RATE_SCALE).intValue() : 0,
+                volume,
+                updatedAt);
+        if (stockName != null && !stockName.isBlank()) {
+            stockNames[slot] = stockName;
+        }
+    }
+
+    /**
+     * seqlock 읽기. 값이 한 번도 쓰이지 않은 slot이면 false.
+     * 쓰는 중(홀수)이거나 읽는 사이 seq가 바뀌면 재시도.
+     */
+    public boolean read(int slot, QuoteView view) {
+        if (slot < 0 || slot >= slotCount) {
+            return false;
+        }
+        for (;;) {
+            long before = (long) LONG_ARRAY.getAcquire(seqs, slot);
+            if ((before & 1L) != 0L) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long price = currentPrices[slot];
+            long change = changes[slot];
+            int rate = changeRatesFixed[slot];
+            long volume = volumes[slot];
+            long updatedAt = updatedAtMillis[slot];
+            VarHandle.acquireFence();
+            long after = (long) LONG_ARRAY.getVolatile(seqs, slot);
+            if (before == after) {
+                if (before == 0L) {
+                    return false;
+                }
+                view.currentPrice = price;
+                view.change = change;
+                view.changeRateFixed = rate;
+                view.volume = volume;
+                view.updatedAtMillis = updatedAt;
+                return true;
+            }
+        }
+    }
+
+    public boolean read(String stockCode, QuoteView view) {
+        return read(slotOf(stockCode), view);
+    }
+
+    /** 현재가만 필요한 경우 (평가액 계산 등). 없으면 -1. */
+    public long getCurrentPrice(String stockCode) {
+        int slot = slotOf(stockCode);
+        if (slot == NO_SLOT) {
+            return -1L;
+        }
+        for (;;) {
+            long before = (long) LONG_ARRAY.getAcquire(seqs, slot);
+            if ((before & 1L) != 0L) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long price = currentPrices[slot];
+            VarHandle.acquireFence();
+            if (before == (long) LONG_ARRAY.getVolatile(seqs, slot)) {
+                return before == 0L ? -1L : price;
+            }
+        }
+    }
+
+    public String getStockCode(int slot) {
+        return slot >= 0 && slot < slotCount ? stockCodes[slot] : null;
+    }
+
+    public String getStockName(int slot) {
+        return slot >= 0 && slot < slotCount ? stockNames[slot] : null;
+    }
+
+    public int size() {
+        return slotCount;
+    }
+
+    /** 최대 slot 수 (slot 번호는 항상 이보다 작다) */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** 저장된 전 종목 순회 (기존 getAllSnapshot 대체). view는 호출마다 덮어씀. */
+    public void forEach(QuoteVisitor visitor) {
+        QuoteView view = new QuoteView();
+        int n = slotCount;
+        for (int slot = 0; slot < n; slot++) {
+            if (read(slot, view)) {
+                visitor.visit(stockCodes[slot], view);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface QuoteVisitor {
+        void visit(String stockCode, QuoteView quote);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,26 @@
+package com.uniport.service.kisws;
+
+import java.math.BigDecimal;
+
+/**
+ * QuoteStore 읽기 결과를 담는 호출부 소유 가변 객체. 재사용하면 읽기 경로에서 할당이 없다.
+ */
+public final class QuoteView {
+
+    long currentPrice;
+    long change;
+    int changeRateFixed;
+    long volume;
+    long updatedAtMillis;
+
+    public long getCurrentPrice() { return currentPrice; }
+    public long getChange() { return change; }
+    /** 등락률 × 10^RATE_SCALE */
+    public int getChangeRateFixed() { return changeRateFixed; }
+    public long getVolume() { return volume; }
+    public long getUpdatedAtMillis() { return updatedAtMillis; }
+
+    public BigDecimal currentPriceAsBigDecimal() { return BigDecimal.valueOf(currentPrice); }
+    public BigDecimal changeAsBigDecimal() { return BigDecimal.valueOf(change); }
+    public BigDecimal changeRateAsBigDecimal() { return BigDecimal.valueOf(changeRateFixed, KisTickParser.RATE_SCALE); }
+}
@@ -0,0 +1,49 @@
+package com.uniport.service.kisws;
+
+import java.util.Arrays;
+
+/**
+ * H0STCNT0 프레임 1개에 담긴 체결 N건. 리더 스레드에서 재사용하는 병렬 primitive 배열.
+ * 종목은 {@link StockCodeKey}로 packing한 long (틱마다 String을 만들지 않음).
+ * 가격·대비는 원 단위 long, 등락률은 {@link KisTickParser#RATE_SCALE} 자리 고정소수점 int.
+ */
+public final class RealtimeTickBatch {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] codeKeys = new long[INITIAL_CAPACITY];
+    private long[] currentPrices = new long[INITIAL_CAPACITY];
+    private long[] changes = new long[INITIAL_CAPACITY];
+    private int[] changeRatesFixed = new int[INITIAL_CAPACITY];
+    private long[] volumes = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(long codeKey, long currentPrice, long change, int changeRateFixed, long volume) {
+        if (size == codeKeys.length) {
+            int capacity = size * 2;
+            codeKeys = Arrays.copyOf(codeKeys, capacity);
+            currentPrices = Arrays.copyOf(currentPrices, capacity);
+            changes = Arrays.copyOf(changes, capacity);
+            changeRatesFixed = Arrays.copyOf(changeRatesFixed, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+        }
+        codeKeys[size] = codeKey;
+        currentPrices[size] = currentPrice;
+        changes[size] = change;
+        changeRatesFixed[size] = changeRateFixed;
+        volumes[size] = volume;
+        size++;
+    }
+
+    public int size() { return size; }
+    public long getCodeKey(int i) { return codeKeys[i]; }
+    public long getCurrentPrice(int i) { return currentPrices[i]; }
+    public long getChange(int i) { return changes[i]; }
+    /** 등락률 × 10^RATE_SCALE (예: 0.71% → 71) */
+    public int getChangeRateFixed(int i) { return changeRatesFixed[i]; }
+    public long getVolume(int i) { return volumes[i]; }
+}
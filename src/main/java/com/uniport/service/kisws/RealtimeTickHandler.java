@@ -0,0 +1,14 @@
+package com.uniport.service.kisws;
+
+/**
+ * 실시간 틱 소비자. {@link RealtimeTickPipeline} 디스패처 스레드에서 배치 단위로 호출된다.
+ * 빈으로 등록하면 자동으로 파이프라인에 붙으며, 순서는 {@link org.springframework.core.annotation.Order}로 정한다.
+ */
+public interface RealtimeTickHandler {
+
+    /**
+     * ring의 [fromSeq, toSeq) 구간 틱을 일괄 처리. ring 접근자는 이 호출 안에서만 유효하다.
+     * WS 소켓 읽기와 분리된 스레드이므로 느려도 수신은 막히지 않지만, 밀리면 링이 차서 틱이 버려진다.
+     */
+    void onTicks(TickRingBuffer ring, long fromSeq, long toSeq);
+}
@@ -0,0 +1,188 @@
+package com.uniport.service.kisws;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * KIS WS 리더 → 링 버퍼 → 디스패처 스레드 → {@link RealtimeTickHandler}들 (시세 저장소, 분봉 등).
+ * 리더 스레드는 파싱 후 링에 적재만 하고 바로 webSocket.request(1)로 돌아간다.
+ * WS 세션마다 자기 링을 하나씩 받고(단일 생산자 유지), 디스패처 하나가 모든 링을 돌며
+ * 쌓인 구간을 한 번에 꺼내 핸들러마다 배치로 넘긴다. 핸들러는 항상 디스패처 스레드에서만 호출된다.
+ */
+@Component
+public class RealtimeTickPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(RealtimeTickPipeline.class);
+
+    /** 빈 링에서 park 전에 바쁘게 확인하는 횟수 */
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** 핸들러 오류 로그 억제 간격 */
+    private static final long ERROR_LOG_INTERVAL_MILLIS = 60_000L;
+
+    private final List<RealtimeTickHandler> handlers;
+    private final int ringCapacity;
+    private final int maxBatch;
+
+    /** 생산자(WS 세션)별 링. 추가는 드물어 copy-on-write 배열 */
+    private volatile TickRingBuffer[] rings = new TickRingBuffer[0];
+
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+    private volatile boolean dispatcherParked;
+
+    /** 디스패처 전용 통계 */
+    private volatile long batchCount;
+    private volatile long maxObservedBatch;
+    private volatile long handlerErrorCount;
+    private long lastErrorLogMillis;
+
+    public RealtimeTickPipeline(List<RealtimeTickHandler> handlers,
+                                @Value("${kis.ws.pipeline.ring-capacity:65536}") int ringCapacity,
+                                @Value("${kis.ws.pipeline.max-batch:1024}") int maxBatch) {
+        this.handlers = List.copyOf(handlers);
+        this.ringCapacity = ringCapacity;
+        this.maxBatch = Math.max(1, maxBatch);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread t = new Thread(this::dispatchLoop, "kis-tick-dispatcher");
+        t.setDaemon(true);
+        dispatcher = t;
+        t.start();
+        log.info("KIS tick pipeline started (ringCapacity={}, handlers={})", ringCapacity, handlers.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread t = dispatcher;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /** 생산자 1개(WS 세션)용 링 생성·등록. 반환된 링에는 그 생산자 스레드만 publish해야 한다. */
+    public synchronized TickRingBuffer newProducerRing() {
+        TickRingBuffer ring = new TickRingBuffer(ringCapacity);
+        TickRingBuffer[] next = Arrays.copyOf(rings, rings.length + 1);
+        next[next.length - 1] = ring;
+        rings = next;
+        return ring;
+    }
+
+    /** WS 리더 스레드에서 호출. 링이 차면 버리고 즉시 반환 (블로킹 없음). */
+    public void publish(TickRingBuffer ring, RealtimeTickBatch batch, long receivedAt) {
+        ring.publish(batch, receivedAt);
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void dispatchLoop() {
+        int idle = 0;
+        while (running) {
+            boolean worked = false;
+            for (TickRingBuffer ring : rings) {
+                long from = ring.readSeq();
+                long to = ring.writeSeq();
+                if (to > from) {
+                    worked = true;
+                    if (to - from > maxBatch) {
+                        to = from + maxBatch;
+                    }
+                    dispatch(ring, from, to);
+                    ring.release(to);
+                }
+            }
+            if (worked) {
+                idle = 0;
+                continue;
+            }
+            if (++idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            dispatcherParked = true;
+            if (allEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            dispatcherParked = false;
+        }
+    }
+
+    private boolean allEmpty() {
+        for (TickRingBuffer ring : rings) {
+            if (ring.writeSeq() != ring.readSeq()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dispatch(TickRingBuffer ring, long from, long to) {
+        for (RealtimeTickHandler handler : handlers) {
+            try {
+                handler.onTicks(ring, from, to);
+            } catch (Exception e) {
+                handlerErrorCount = handlerErrorCount + 1;
+                long now = System.currentTimeMillis();
+                if (now - lastErrorLogMillis > ERROR_LOG_INTERVAL_MILLIS) {
+                    lastErrorLogMillis = now;
+                    log.warn("KIS tick handler {} failed: {}", handler.getClass().getSimpleName(), e.toString());
+                }
+            }
+        }
+        long size = to - from;
+        batchCount = batchCount + 1;
+        if (size > maxObservedBatch) {
+            maxObservedBatch = size;
+        }
+        if (log.isDebugEnabled()) {
+            for (long seq = from; seq < to; seq++) {
+                log.debug("실시간 시세 갱신 stock={} price={} vol={}",
+                        StockCodeKey.unpack(ring.codeKey(seq)), ring.currentPrice(seq), ring.volume(seq));
+            }
+        }
+    }
+
+    /** 큐 깊이·적재/버림 건수 등. GET /api/config/kis-metrics 에서 노출. */
+    public Map<String, Object> getStats() {
+        long depth = 0L;
+        long published = 0L;
+        long dropped = 0L;
+        long overruns = 0L;
+        TickRingBuffer[] current = rings;
+        for (TickRingBuffer ring : current) {
+            depth += ring.depth();
+            published += ring.publishedCount();
+            dropped += ring.droppedCount();
+            overruns += ring.overrunCount();
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("rings", current.length);
+        m.put("ringCapacity", ringCapacity);
+        m.put("queueDepth", depth);
+        m.put("published", published);
+        m.put("dropped", dropped);
+        m.put("overruns", overruns);
+        m.put("batches", batchCount);
+        m.put("maxBatch", maxObservedBatch);
+        m.put("handlerErrors", handlerErrorCount);
+        m.put("handlers", handlers.stream().map(h -> h.getClass().getSimpleName()).toList());
+        return m;
+    }
+}
@@ -0,0 +1,51 @@
+package com.uniport.service.kisws;
+
+/**
+ * 종목코드(최대 8자 ASCII, 예: "005930", "0000J0")를 long 하나로 packing.
+ * 실시간 틱 경로에서 String 없이 종목을 식별하기 위해 사용. 0은 "없음".
+ */
+public final class StockCodeKey {
+
+    public static final long NONE = 0L;
+
+    private static final int MAX_LENGTH = 8;
+
+    private StockCodeKey() {
+    }
+
+    /** s[start, end)의 앞뒤 공백을 제외하고 packing. 비었거나 8자 초과·비 ASCII면 NONE. */
+    public static long pack(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        int len = end - start;
+        if (len == 0 || len > MAX_LENGTH) {
+            return NONE;
+        }
+        long key = 0L;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c > 0x7F) {
+                return NONE;
+            }
+            key = (key << 8) | c;
+        }
+        return key;
+    }
+
+    public static long pack(CharSequence code) {
+        return code == null ? NONE : pack(code, 0, code.length());
+    }
+
+    public static String unpack(long key) {
+        if (key == NONE) {
+            return null;
+        }
+        char[] buf = new char[MAX_LENGTH];
+        int pos = MAX_LENGTH;
+        while (key != 0) {
+            buf[--pos] = (char) (key & 0xFF);
+            key >>>= 8;
+        }
+        return new String(buf, pos, MAX_LENGTH - pos);
+    }
+}
@@ -0,0 +1,117 @@
+package com.uniport.service.kisws;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * WS 리더 스레드(생산자 1) → 디스패처 스레드(소비자 1) 사이의 고정 크기 틱 링 버퍼.
+ * 슬롯은 기동 시 primitive 배열로 미리 할당하고, 생산자/소비자 시퀀스만 release/acquire로 주고받는다 (락 없음).
+ * 가득 차면 생산자는 기다리지 않고 남는 틱을 버린다 (소켓 읽기를 막지 않기 위함).
+ */
+public final class TickRingBuffer {
+
+    private static final VarHandle WRITE_SEQ;
+    private static final VarHandle READ_SEQ;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRITE_SEQ = lookup.findVarHandle(TickRingBuffer.class, "writeSeq", long.class);
+            READ_SEQ = lookup.findVarHandle(TickRingBuffer.class, "readSeq", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] codeKeys;
+    private final long[] currentPrices;
+    private final long[] changes;
+    private final int[] changeRatesFixed;
+    private final long[] volumes;
+    private final long[] receivedAtMillis;
+
+    /** 다음에 쓸 시퀀스 (생산자만 갱신) */
+    private volatile long writeSeq;
+    /** 다음에 읽을 시퀀스 (소비자만 갱신) */
+    private volatile long readSeq;
+
+    /** 생산자 전용 통계 (단일 writer, 읽기는 아무 스레드) */
+    private volatile long publishedCount;
+    private volatile long droppedCount;
+    private volatile long overrunCount;
+
+    /** capacity는 2의 거듭제곱으로 올림 */
+    public TickRingBuffer(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1);
+        this.mask = this.capacity - 1;
+        this.codeKeys = new long[this.capacity];
+        this.currentPrices = new long[this.capacity];
+        this.changes = new long[this.capacity];
+        this.changeRatesFixed = new int[this.capacity];
+        this.volumes = new long[this.capacity];
+        this.receivedAtMillis = new long[this.capacity];
+    }
+
+    /**
+     * 생산자: 프레임 1개분 틱을 적재. 자리가 부족하면 들어가는 만큼만 넣고 나머지는 버림(overrun 1회로 집계).
+     * 적재한 건수 반환.
+     */
+    public int publish(RealtimeTickBatch batch, long receivedAt) {
+        int n = batch.size();
+        if (n == 0) {
+            return 0;
+        }
+        long write = writeSeq;
+        long free = capacity - (write - (long) READ_SEQ.getAcquire(this));
+        int accepted = (int) Math.min(n, free);
+        for (int i = 0; i < accepted; i++) {
+            int idx = (int) (write + i) & mask;
+            codeKeys[idx] = batch.getCodeKey(i);
+            currentPrices[idx] = batch.getCurrentPrice(i);
+            changes[idx] = batch.getChange(i);
+            changeRatesFixed[idx] = batch.getChangeRateFixed(i);
+            volumes[idx] = batch.getVolume(i);
+            receivedAtMillis[idx] = receivedAt;
+        }
+        if (accepted > 0) {
+            WRITE_SEQ.setRelease(this, write + accepted);
+            publishedCount = publishedCount + accepted;
+        }
+        if (accepted < n) {
+            droppedCount = droppedCount + (n - accepted);
+            overrunCount = overrunCount + 1;
+        }
+        return accepted;
+    }
+
+    /** 소비자: 다음에 읽을 시퀀스 */
+    public long readSeq() {
+        return readSeq;
+    }
+
+    /** 소비자: 게시된 마지막 시퀀스 + 1 (acquire — 이후 슬롯 읽기가 게시된 값을 본다) */
+    public long writeSeq() {
+        return (long) WRITE_SEQ.getAcquire(this);
+    }
+
+    /** 소비자: upTo 이전 슬롯 처리 완료 → 생산자가 재사용 가능 */
+    public void release(long upTo) {
+        READ_SEQ.setRelease(this, upTo);
+    }
+
+    public long codeKey(long seq) { return codeKeys[(int) seq & mask]; }
+    public long currentPrice(long seq) { return currentPrices[(int) seq & mask]; }
+    public long change(long seq) { return changes[(int) seq & mask]; }
+    public int changeRateFixed(long seq) { return changeRatesFixed[(int) seq & mask]; }
+    public long volume(long seq) { return volumes[(int) seq & mask]; }
+    public long receivedAtMillis(long seq) { return receivedAtMillis[(int) seq & mask]; }
+
+    public int capacity() { return capacity; }
+    /** 적재됐지만 아직 소비되지 않은 틱 수 */
+    public long depth() { return writeSeq - readSeq; }
+    public long publishedCount() { return publishedCount; }
+    public long droppedCount() { return droppedCount; }
+    public long overrunCount() { return overrunCount; }
+}
@@ -0,0 +1,212 @@
+package com.uniport.service.valuation;
+
+import com.uniport.entity.Competition;
+import com.uniport.entity.CompetitionResult;
+import com.uniport.entity.MatchingRoom;
+import com.uniport.repository.CompetitionRepository;
+import com.uniport.repository.CompetitionResultRepository;
+import com.uniport.repository.MatchingRoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 대회별 순위표. 진행 중 대회는 {@link TeamValuationEngine}의 대회 partition 스냅샷을, 종료된 대회는 종료 시점에 고정한
+ * 최종 스냅샷(competition_results에 저장, 기동 시 복원)을 돌려준다. 조회는 해당 대회 팀 수에만 비례한다.
+ * 대회 상태 변경({@link com.uniport.service.CompetitionService#update})을 받아 진행 중 대회 ID를 갱신하고,
+ * ongoing이 되면 대회 없이 시작된 방을 그 대회에 붙이며, ended가 되면 순위를 고정한다.
+ */
+@Component
+public class CompetitionLeaderboards implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(CompetitionLeaderboards.class);
+
+    private final TeamValuationEngine teamValuationEngine;
+    private final CompetitionRepository competitionRepository;
+    private final CompetitionResultRepository competitionResultRepository;
+    private final MatchingRoomRepository matchingRoomRepository;
+
+    /** 대회 ID → 최종 스냅샷 (불변) */
+    private final Map<Long, RankingSnapshot> finals = new ConcurrentHashMap<>();
+    /** 진행 중 대회 (없으면 null) */
+    private volatile Long ongoingCompetitionId;
+
+    public CompetitionLeaderboards(TeamValuationEngine teamValuationEngine,
+                                   CompetitionRepository competitionRepository,
+                                   CompetitionResultRepository competitionResultRepository,
+                                   MatchingRoomRepository matchingRoomRepository) {
+        this.teamValuationEngine = teamValuationEngine;
+        this.competitionRepository = competitionRepository;
+        this.competitionResultRepository = competitionResultRepository;
+        this.matchingRoomRepository = matchingRoomRepository;
+    }
+
+    /**
+     * 시드 데이터 적재(CommandLineRunner) 이후: 종료된 대회의 최종 순위 복원, 진행 중 대회 확인, 대회 없는 시작 방 편입.
+     * 최종 순위가 저장되지 않은 종료 대회(기능 도입 이전 종료 등)는 현재 대회 순위표를 그대로 보여 준다.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            for (Competition c : competitionRepository.findByStatusOrderByStartDateAsc("ended")) {
+                List<CompetitionResult> results = competitionResultRepository.findByCompetitionIdOrderByTeamRankAsc(c.getId());
+                if (!results.isEmpty()) {
+                    finals.put(c.getId(), toSnapshot(c.getId(), results));
+                    teamValuationEngine.freezeCompetition(c.getId());
+                }
+            }
+            ongoingCompetitionId = competitionRepository.findFirstByStatusOrderByStartDateAsc("ongoing")
+                    .map(Competition::getId)
+                    .orElse(null);
+            if (ongoingCompetitionId != null) {
+                attachUnassignedRooms(ongoingCompetitionId);
+            }
+        } catch (Exception e) {
+            log.warn("Competition leaderboards init failed: {}", e.getMessage());
+        }
+    }
+
+    /** 진행 중 대회 ID (방 시작 시 소속 대회, 대회 미지정 조회의 기본 대회). 없으면 null. */
+    public Long ongoingCompetitionId() {
+        return ongoingCompetitionId;
+    }
+
+    /** 대회 순위 스냅샷. 종료된 대회는 최종 스냅샷, 소속 팀이 없으면 빈 스냅샷. */
+    public RankingSnapshot snapshot(long competitionId) {
+        RankingSnapshot fin = finals.get(competitionId);
+        if (fin != null) {
+            return fin;
+        }
+        RankingSnapshot live = teamValuationEngine.snapshot(competitionId);
+        return live != null ? live : new RankingSnapshot("c" + competitionId + ".empty", 0L, 0L, List.of());
+    }
+
+    /** 최종 순위로 고정된 대회인지 */
+    public boolean isFinal(long competitionId) {
+        return finals.containsKey(competitionId);
+    }
+
+    /**
+     * 대회 상태 변경 반영 (대회 저장 트랜잭션 안에서 호출). 대회 편입은 같은 트랜잭션에서, 순위 고정·해제와
+     * 진행 중 대회 ID 갱신은 커밋 후에 한다.
+     */
+    public void onStatusChanged(Long competitionId, String previousStatus, String status) {
+        if (competitionId == null || status == null || status.equals(previousStatus)) {
+            return;
+        }
+        if ("ongoing".equals(status)) {
+            attachUnassignedRooms(competitionId);
+        }
+        if ("ended".equals(previousStatus)) {
+            competitionResultRepository.deleteByCompetitionId(competitionId);
+        }
+        afterCommit(() -> {
+            ongoingCompetitionId = competitionRepository.findFirstByStatusOrderByStartDateAsc("ongoing")
+                    .map(Competition::getId)
+                    .orElse(null);
+            if ("ended".equals(status)) {
+                freeze(competitionId);
+            } else if ("ended".equals(previousStatus)) {
+                finals.remove(competitionId);
+                teamValuationEngine.reopenCompetition(competitionId);
+            }
+        });
+    }
+
+    /** 대회 없이 시작된 방을 대회에 편입하고 엔진에 재적재를 알린다 */
+    private void attachUnassignedRooms(Long competitionId) {
+        List<MatchingRoom> rooms = matchingRoomRepository.findByStatusAndCompetitionIdIsNull("started");
+        if (rooms.isEmpty()) {
+            return;
+        }
+        for (MatchingRoom room : rooms) {
+            room.setCompetitionId(competitionId);
+        }
+        matchingRoomRepository.saveAll(rooms);
+        for (MatchingRoom room : rooms) {
+            teamValuationEngine.onTeamChanged(room.getId());
+        }
+        log.info("Attached {} started rooms to competition {}", rooms.size(), competitionId);
+    }
+
+    /** 엔진에서 최종 스냅샷을 받아 메모리에 고정하고 저장 (커밋된 요청 트랜잭션에 묶이지 않도록 별도 스레드) */
+    private void freeze(long competitionId) {
+        teamValuationEngine.freezeCompetition(competitionId).thenAcceptAsync(snapshot -> {
+            if (snapshot == null) {
+                return;
+            }
+            Instant frozenAt = Instant.ofEpochMilli(snapshot.builtAtMillis());
+            List<CompetitionResult> results = new ArrayList<>(snapshot.rows().size());
+            for (TeamStanding s : snapshot.rows()) {
+                results.add(CompetitionResult.builder()
+                        .competitionId(competitionId)
+                        .teamId(s.teamId())
+                        .teamName(s.name())
+                        .finalAssets(s.nav())
+                        .teamRank(s.rank())
+                        .frozenAt(frozenAt)
+                        .build());
+            }
+            finals.put(competitionId, toSnapshot(competitionId, results));
+            try {
+                competitionResultRepository.saveAll(results);
+                log.info("Competition {} frozen: {} teams", competitionId, results.size());
+            } catch (Exception e) {
+                log.warn("Competition {} final standings not saved: {}", competitionId, e.getMessage());
+            }
+        }).exceptionally(e -> {
+            log.warn("Competition {} freeze failed: {}", competitionId, e.getMessage());
+            return null;
+        });
+    }
+
+    /** 저장된 최종 순위 → 스냅샷. tag는 고정 시각 기준이라 재기동 후에도 같다. */
+    private static RankingSnapshot toSnapshot(long competitionId, List<CompetitionResult> results) {
+        long frozenAt = results.isEmpty() ? System.currentTimeMillis() : results.get(0).getFrozenAt().toEpochMilli();
+        List<TeamStanding> rows = new ArrayList<>(results.size());
+        for (CompetitionResult r : results) {
+            rows.add(new TeamStanding(r.getTeamId(), r.getTeamName(), toFixed(r.getFinalAssets()), r.getTeamRank()));
+        }
+        return new RankingSnapshot("final.c" + competitionId + "." + Long.toString(frozenAt, 36), 0L, frozenAt,
+                Collections.unmodifiableList(rows));
+    }
+
+    private static long toFixed(BigDecimal value) {
+        return value.setScale(TeamValuationEngine.NAV_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** 진행 중 대회, 최종 순위 고정 대회 수 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ongoingCompetitionId", ongoingCompetitionId);
+        m.put("finalized", finals.size());
+        return m;
+    }
+}
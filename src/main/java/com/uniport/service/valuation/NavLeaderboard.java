@@ -0,0 +1,156 @@
+package com.uniport.service.valuation;
+
+import java.util.SplittableRandom;
+
+/**
+ * 팀 평가액 순위표. (평가액 내림차순, 팀 ID 오름차순) 키의 크기 보강 treap.
+ * 추가·삭제·순위 조회는 O(log n), 순위 구간(상위 K, 내 주변) 조회는 O(log n + k).
+ * 동기화 없음 — {@link TeamValuationEngine} 락 안에서만 사용.
+ */
+final class NavLeaderboard {
+
+    private static final class Node {
+        final long teamId;
+        final long nav;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long teamId, long nav, int priority) {
+            this.teamId = teamId;
+            this.nav = nav;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void add(long teamId, long nav) {
+        Node node = new Node(teamId, nav, random.nextInt());
+        Node[] parts = split(root, teamId, nav);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /** (teamId, nav) 항목 삭제. 없으면 false. */
+    boolean remove(long teamId, long nav) {
+        int before = size(root);
+        root = remove(root, teamId, nav);
+        return size(root) < before;
+    }
+
+    /** 1부터 시작하는 순위 (앞선 항목 수 + 1). 항목 존재 여부는 확인하지 않는다. */
+    int rankOf(long teamId, long nav) {
+        int ahead = 0;
+        Node n = root;
+        while (n != null) {
+            if (before(n.teamId, n.nav, teamId, nav)) {
+                ahead += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return ahead + 1;
+    }
+
+    /** 순위 구간 [fromIndex, toIndex) (0부터) 의 팀 ID를 순서대로 채운다. 채운 개수 반환. */
+    int range(int fromIndex, int toIndex, long[] teamIds, long[] navs) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size(root), toIndex);
+        if (from >= to) {
+            return 0;
+        }
+        return collect(root, from, to, 0, teamIds, navs, 0);
+    }
+
+    private static int collect(Node n, int from, int to, int offset, long[] teamIds, long[] navs, int filled) {
+        if (n == null) {
+            return filled;
+        }
+        int leftSize = size(n.left);
+        int index = offset + leftSize;
+        if (from < index) {
+            filled = collect(n.left, from, to, offset, teamIds, navs, filled);
+        }
+        if (index >= from && index < to) {
+            teamIds[filled] = n.teamId;
+            navs[filled] = n.nav;
+            filled++;
+        }
+        if (index + 1 < to) {
+            filled = collect(n.right, from, to, index + 1, teamIds, navs, filled);
+        }
+        return filled;
+    }
+
+    /** a가 b보다 앞 순위인지: 평가액이 크거나, 같으면 팀 ID가 작은 쪽 */
+    private static boolean before(long aTeamId, long aNav, long bTeamId, long bNav) {
+        return aNav > bNav || (aNav == bNav && aTeamId < bTeamId);
+    }
+
+    /** [키보다 앞, 나머지] 로 분할 */
+    private static Node[] split(Node n, long teamId, long nav) {
+        if (n == null) {
+            return new Node[] { null, null };
+        }
+        if (before(n.teamId, n.nav, teamId, nav)) {
+            Node[] parts = split(n.right, teamId, nav);
+            n.right = parts[0];
+            update(n);
+            parts[0] = n;
+            return parts;
+        }
+        Node[] parts = split(n.left, teamId, nav);
+        n.left = parts[1];
+        update(n);
+        parts[1] = n;
+        return parts;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node remove(Node n, long teamId, long nav) {
+        if (n == null) {
+            return null;
+        }
+        if (n.teamId == teamId && n.nav == nav) {
+            return merge(n.left, n.right);
+        }
+        if (before(n.teamId, n.nav, teamId, nav)) {
+            n.right = remove(n.right, teamId, nav);
+        } else {
+            n.left = remove(n.left, teamId, nav);
+        }
+        update(n);
+        return n;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static int size(Node n) {
+        return n != null ? n.size : 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.uniport.service.valuation;
+
+import java.util.List;
+
+/**
+ * 발행 시점의 전체 순위표 (불변). 순위표가 바뀔 때만 새로 발행되며, 같은 version이면 내용도 같다.
+ *
+ * @param tag 재기동을 넘어서도 겹치지 않는 버전 문자열 (ETag 용)
+ * @param rows 평가액 내림차순
+ */
+public record RankingSnapshot(String tag, long version, long builtAtMillis, List<TeamStanding> rows) {
+}
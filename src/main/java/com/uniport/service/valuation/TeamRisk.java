@@ -0,0 +1,15 @@
+package com.uniport.service.valuation;
+
+/**
+ * 팀 위험 지표 (발행 시점 값, 불변). 수익률은 평가액 표본 간 단순 수익률, 무위험 수익률 0 기준.
+ * 표본이 2개 미만이거나 변동이 없으면 volatility·sharpe는 NaN.
+ *
+ * @param volatility 연율화 표준편차 (0.2 = 20%)
+ * @param sharpe 연율화 샤프 지수
+ * @param maxDrawdown 관측 고점 대비 최대 낙폭 (0.1 = 10%)
+ * @param drawdown 현재 고점 대비 낙폭
+ * @param turnover 누적 체결 금액 / 초기 자본
+ */
+public record TeamRisk(long teamId, long returns, double volatility, double sharpe,
+                       double maxDrawdown, double drawdown, double turnover) {
+}
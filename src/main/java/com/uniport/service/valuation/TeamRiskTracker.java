@@ -0,0 +1,199 @@
+package com.uniport.service.valuation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 팀별 위험 지표 스트리밍 계산. 정규장 표본 주기마다 {@link com.uniport.service.equity.TeamEquityRecorder}가 넘겨주는
+ * 순위표 평가액으로 수익률 평균·분산(Welford), 고점·낙폭을 갱신하고, 체결은 커밋 후 체결 금액을 회전율에 더한다.
+ * 팀당 갱신은 O(1)이며 과거 표본을 다시 읽지 않는다 (재기동 시 지표는 처음부터 다시 쌓인다).
+ * 수익률은 같은 정규장 안의 표본끼리만 잰다 — 장이 바뀌면 직전 평가액을 버려 밤사이 갭이 표본 주기 1개 수익률로 잡히지 않게.
+ * 표본 주기마다 전 팀 지표를 불변 맵으로 발행하고 버전을 올린다. 랭킹 API는 이 맵을 읽는다.
+ * 순위표에 잠깐 빠진 팀(대회 편입 전 체결 등)의 누적값은 유지하고, 직전 정규장 내내 표본·체결이 없던 팀만 새 장 시작 때 버린다.
+ */
+@Component
+public class TeamRiskTracker {
+
+    private static final double INITIAL_TEAM_BALANCE = 10_000_000d;
+    private static final double TRADING_DAYS_PER_YEAR = 252d;
+    /** KRX 정규장 09:00~15:30 */
+    private static final double SESSION_SECONDS = TimeUnit.MINUTES.toSeconds(390);
+
+    /** 표본 주기 기준 연간 수익률 관측 수 (연율화 계수의 제곱) */
+    private final double periodsPerYear;
+
+    private final Map<Long, RiskAccumulator> accumulators = new ConcurrentHashMap<>();
+    private volatile Published published = new Published(0L, Map.of());
+    /** 지금(또는 마지막) 정규장의 개장 시각 (epoch millis). 아직 표본이 없으면 0. */
+    private volatile long currentSession;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder trades = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    /** 발행된 전 팀 지표와 발행 버전 (표본 주기마다 증가) */
+    public record Published(long version, Map<Long, TeamRisk> byTeam) {}
+
+    public TeamRiskTracker(@Value("${uniport.equity.sample-seconds:5}") long sampleSeconds) {
+        this.periodsPerYear = TRADING_DAYS_PER_YEAR * SESSION_SECONDS / Math.max(1L, sampleSeconds);
+    }
+
+    /**
+     * 한 표본 주기의 순위표 평가액 반영 후 발행 (발행 맵에는 순위표에 있는 팀만). team-equity-sampler 스레드에서 호출.
+     *
+     * @param sessionOpenMillis 표본이 속한 정규장의 개장 시각 ({@link com.uniport.service.kisws.KrxMarketCalendar#todayOpenMillis})
+     */
+    public void onSample(long sessionOpenMillis, List<TeamStanding> rows) {
+        long previous = currentSession;
+        if (sessionOpenMillis != previous) {
+            currentSession = sessionOpenMillis;
+            if (previous != 0L) {
+                pruneInactiveSince(previous);
+            }
+        }
+        Map<Long, TeamRisk> next = new HashMap<>(rows.size() * 2);
+        for (TeamStanding row : rows) {
+            RiskAccumulator acc = accumulators.computeIfAbsent(row.teamId(), RiskAccumulator::new);
+            next.put(row.teamId(), acc.sample(sessionOpenMillis, row.navFixed()));
+            samples.increment();
+        }
+        published = new Published(published.version() + 1, Collections.unmodifiableMap(next));
+    }
+
+    /** session(직전 정규장) 동안 표본·체결이 하나도 없던 팀의 누적값을 버린다. 체결 반영과 같은 키에서 겹치지 않게 키 단위로. */
+    private void pruneInactiveSince(long session) {
+        for (Long teamId : accumulators.keySet()) {
+            accumulators.computeIfPresent(teamId, (id, acc) -> {
+                if (acc.lastActiveSession() < session) {
+                    pruned.increment();
+                    return null;
+                }
+                return acc;
+            });
+        }
+    }
+
+    /** 체결 금액을 회전율에 반영. 트랜잭션 안이면 커밋 후에만 더한다. */
+    public void onTrade(Long teamId, BigDecimal amount) {
+        if (teamId == null || amount == null) {
+            return;
+        }
+        double notional = amount.abs().doubleValue();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addTrade(teamId, notional);
+                }
+            });
+        } else {
+            addTrade(teamId, notional);
+        }
+    }
+
+    private void addTrade(Long teamId, double notional) {
+        long session = currentSession;
+        accumulators.compute(teamId, (id, acc) -> {
+            RiskAccumulator a = acc != null ? acc : new RiskAccumulator(id);
+            a.trade(session, notional);
+            return a;
+        });
+        trades.increment();
+    }
+
+    /** 마지막으로 발행된 지표 */
+    public Published published() {
+        return published;
+    }
+
+    /** 팀 지표. 아직 표본이 없으면 null */
+    public TeamRisk risk(long teamId) {
+        return published.byTeam().get(teamId);
+    }
+
+    /** 지표 보유 팀 수, 누적 표본·체결 반영 수, 비활성으로 버린 팀 수, 발행 버전 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("teams", accumulators.size());
+        m.put("samples", samples.sum());
+        m.put("trades", trades.sum());
+        m.put("pruned", pruned.sum());
+        m.put("version", published.version());
+        return m;
+    }
+
+    /** 팀 1개의 누적 상태. 표본은 sampler 스레드, 체결은 커밋 스레드에서 오므로 메서드 단위로 동기화 */
+    private final class RiskAccumulator {
+        private final long teamId;
+        /** lastNav가 속한 정규장 개장 시각 */
+        private long lastNavSession;
+        /** 마지막 표본·체결이 있던 정규장 개장 시각 */
+        private long lastActiveSession;
+        private long lastNav = -1L;
+        private long peakNav;
+        private long returns;
+        private double mean;
+        private double m2;
+        private double maxDrawdown;
+        private double drawdown;
+        private double tradedNotional;
+
+        RiskAccumulator(Long teamId) {
+            this.teamId = teamId;
+        }
+
+        synchronized TeamRisk sample(long session, long navFixed) {
+            if (session != lastNavSession) {
+                // 새 정규장: 직전 장 마지막 평가액과의 차이(밤사이 갭)는 수익률로 세지 않는다
+                lastNav = -1L;
+                lastNavSession = session;
+            }
+            lastActiveSession = session;
+            if (lastNav > 0L) {
+                double r = (double) navFixed / lastNav - 1d;
+                returns++;
+                double delta = r - mean;
+                mean += delta / returns;
+                m2 += delta * (r - mean);
+            }
+            lastNav = navFixed;
+            if (navFixed > peakNav) {
+                peakNav = navFixed;
+            }
+            drawdown = peakNav > 0L ? 1d - (double) navFixed / peakNav : 0d;
+            if (drawdown > maxDrawdown) {
+                maxDrawdown = drawdown;
+            }
+            return snapshot();
+        }
+
+        synchronized void trade(long session, double notional) {
+            tradedNotional += notional;
+            lastActiveSession = Math.max(lastActiveSession, session);
+        }
+
+        synchronized long lastActiveSession() {
+            return lastActiveSession;
+        }
+
+        private TeamRisk snapshot() {
+            double std = returns > 1 ? Math.sqrt(m2 / (returns - 1)) : Double.NaN;
+            double volatility = std * Math.sqrt(periodsPerYear);
+            double sharpe = std > 0d ? mean / std * Math.sqrt(periodsPerYear) : Double.NaN;
+            return new TeamRisk(teamId, returns, volatility, sharpe, maxDrawdown, drawdown,
+                    tradedNotional / INITIAL_TEAM_BALANCE);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.uniport.service.valuation;
+
+import java.math.BigDecimal;
+
+/**
+ * 순위표 한 줄. navFixed는 1/10000원 단위 고정소수점 평가액 (현금 + 보유 종목 시가).
+ *
+ * @param rank 1부터 시작
+ */
+public record TeamStanding(long teamId, String name, long navFixed, int rank) {
+
+    /** 평가액 (원, scale 4) */
+    public BigDecimal nav() {
+        return BigDecimal.valueOf(navFixed, TeamValuationEngine.NAV_SCALE);
+    }
+}
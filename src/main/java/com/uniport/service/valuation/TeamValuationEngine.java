@@ -0,0 +1,758 @@
+package com.uniport.service.valuation;
+
+import com.uniport.entity.MatchingRoom;
+import com.uniport.entity.TeamAccount;
+import com.uniport.entity.TeamHolding;
+import com.uniport.repository.MatchingRoomRepository;
+import com.uniport.repository.TeamAccountRepository;
+import com.uniport.repository.TeamHoldingRepository;
+import com.uniport.service.KisApiService;
+import com.uniport.service.KisPriority;
+import com.uniport.service.kisws.QuoteStore;
+import com.uniport.service.kisws.QuoteView;
+import com.uniport.service.kisws.RealtimeTickHandler;
+import com.uniport.service.kisws.TickRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 팀 평가액(현금 + 보유 종목 시가) 증분 계산 엔진. {@link com.uniport.service.kisws.RealtimeTickPipeline}의 세 번째 핸들러.
+ * QuoteStore slot별로 그 종목을 가진 팀 포지션 목록(역색인)을 두고, 틱이 오면 해당 종목 보유 팀의 평가액만 차액으로 고친 뒤
+ * {@link NavLeaderboard}에서 자리만 옮긴다. 주문 체결·방 시작/삭제는 커밋 후 그 팀만 DB에서 다시 읽는다.
+ * 랭킹 API는 DB·KIS를 부르지 않고 이 엔진의 순위표를 읽는다. 전체 목록은 snapshot-millis마다(바뀐 경우만)
+ * 발행하는 불변 {@link RankingSnapshot}을 그대로 돌려주고, 버전으로 클라이언트가 변경 없는 응답을 건너뛸 수 있다.
+ * 주기 작업(team-valuation 스레드): QuoteStore에서 전 포지션 재평가(REST로 들어온 시세 반영),
+ * quote-refresh-seconds마다 보유 종목 시세 보충(BACKGROUND), rebuild-minutes마다 DB 기준 전체 재적재.
+ * 전체 재적재는 현금·보유 종목을 쿼리 2회로 읽고, 시세를 한 번에 읽은 뒤 팀별 평가를 fork-join 풀에서 병렬로 한다.
+ * 대회가 정해진 팀은 대회별 순위표(partition)에도 함께 올라가며, 대회 순위 스냅샷은 그 대회 팀만으로 만든다.
+ * 종료된 대회는 {@link #freezeCompetition}으로 최종 스냅샷을 만든 뒤 partition을 더 이상 유지하지 않는다.
+ */
+@Component
+@Order(2)
+public class TeamValuationEngine implements RealtimeTickHandler, ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(TeamValuationEngine.class);
+
+    /** 평가액 고정소수점 자릿수 (1/10000원). DB 현금·평균단가 scale과 같다. */
+    public static final int NAV_SCALE = 4;
+    private static final long NAV_UNIT = 10_000L;
+    private static final BigDecimal INITIAL_TEAM_BALANCE = new BigDecimal("10000000");
+
+    private final MatchingRoomRepository matchingRoomRepository;
+    private final TeamAccountRepository teamAccountRepository;
+    private final TeamHoldingRepository teamHoldingRepository;
+    private final QuoteStore quoteStore;
+    private final KisApiService kisApiService;
+    private final long sweepMillis;
+    private final long quoteRefreshMillis;
+    private final long rebuildMillis;
+    private final long snapshotMillis;
+    private final ForkJoinPool valuationPool;
+
+    /** teams, holdersBySlot, leaderboard, partitions 쓰기, frozenCompetitions, view 보호 */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, TeamBook> teams = new HashMap<>();
+    /** QuoteStore slot → 그 종목 보유 포지션. 틱 경로는 락 없이 null 여부만 먼저 본다 (놓친 틱은 주기 재평가가 반영). */
+    private final List<Position>[] holdersBySlot;
+    private final NavLeaderboard leaderboard = new NavLeaderboard();
+    /** 대회 ID → 대회 순위표. 읽기(스냅샷 조회)는 락 없이 */
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+    /** 최종 스냅샷을 만든 대회. 소속 팀을 partition에 올리지 않는다. */
+    private final Set<Long> frozenCompetitions = new HashSet<>();
+    private final QuoteView view = new QuoteView();
+    /** 순위표가 바뀔 때마다 증가 (락 안에서만 쓰기) */
+    private volatile long version;
+    /** 스냅샷 tag 접두사. 재기동 후 같은 version 번호가 이전 내용과 겹치지 않게 한다. */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile RankingSnapshot snapshot;
+
+    private final Set<Long> dirtyTeams = ConcurrentHashMap.newKeySet();
+    /** team-valuation 스레드 전용 */
+    private boolean loaded;
+    private long lastRebuildAt;
+    private long lastQuoteRefreshAt;
+
+    private final LongAdder ticksApplied = new LongAdder();
+    private final LongAdder navUpdates = new LongAdder();
+    private final LongAdder teamReloads = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder snapshotBuilds = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "team-valuation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** 평가 시점에 한 번 읽은 종목 시세. price -1 = 시세 없음 */
+    private record Quote(int slot, long price) {}
+
+    private static final class TeamBook {
+        final long teamId;
+        final String name;
+        final Long competitionId;
+        final long cashFixed;
+        final List<Position> positions = new ArrayList<>();
+        long nav;
+        /** 등록된 대회 순위표 (대회 없음·종료면 null) */
+        Partition partition;
+
+        TeamBook(long teamId, String name, Long competitionId, long cashFixed) {
+            this.teamId = teamId;
+            this.name = name;
+            this.competitionId = competitionId;
+            this.cashFixed = cashFixed;
+        }
+    }
+
+    /** 대회 하나의 순위표와 마지막 발행 스냅샷 */
+    private static final class Partition {
+        final long competitionId;
+        final NavLeaderboard board = new NavLeaderboard();
+        /** 락 안에서만 쓰기 */
+        long version;
+        volatile RankingSnapshot snapshot;
+
+        Partition(long competitionId, long version, RankingSnapshot empty) {
+            this.competitionId = competitionId;
+            this.version = version;
+            this.snapshot = empty;
+        }
+    }
+
+    private static final class Position {
+        final TeamBook team;
+        final int slot;
+        final long quantity;
+        final long avgPriceFixed;
+        /** 평가에 쓴 현재가(원). -1 = 시세 없음 → 평균단가로 평가 */
+        long price = -1L;
+        long valueFixed;
+
+        Position(TeamBook team, int slot, long quantity, long avgPriceFixed) {
+            this.team = team;
+            this.slot = slot;
+            this.quantity = quantity;
+            this.avgPriceFixed = avgPriceFixed;
+            this.valueFixed = quantity * avgPriceFixed;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public TeamValuationEngine(MatchingRoomRepository matchingRoomRepository,
+                               TeamAccountRepository teamAccountRepository,
+                               TeamHoldingRepository teamHoldingRepository,
+                               QuoteStore quoteStore,
+                               @Lazy KisApiService kisApiService,
+                               @Value("${uniport.valuation.sweep-seconds:5}") long sweepSeconds,
+                               @Value("${uniport.valuation.quote-refresh-seconds:60}") long quoteRefreshSeconds,
+                               @Value("${uniport.valuation.rebuild-minutes:10}") long rebuildMinutes,
+                               @Value("${uniport.valuation.snapshot-millis:1000}") long snapshotMillis,
+                               @Value("${uniport.valuation.parallelism:0}") int parallelism) {
+        this.matchingRoomRepository = matchingRoomRepository;
+        this.teamAccountRepository = teamAccountRepository;
+        this.teamHoldingRepository = teamHoldingRepository;
+        this.quoteStore = quoteStore;
+        this.kisApiService = kisApiService;
+        this.sweepMillis = TimeUnit.SECONDS.toMillis(Math.max(1L, sweepSeconds));
+        this.quoteRefreshMillis = TimeUnit.SECONDS.toMillis(Math.max(1L, quoteRefreshSeconds));
+        this.rebuildMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, rebuildMinutes));
+        this.snapshotMillis = Math.max(100L, snapshotMillis);
+        this.holdersBySlot = (List<Position>[]) new List<?>[quoteStore.capacity()];
+        this.snapshot = new RankingSnapshot(epoch + ".0", 0L, System.currentTimeMillis(), List.of());
+        this.valuationPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    t.setName("team-valuation-fj-" + t.getPoolIndex());
+                    return t;
+                },
+                null, false);
+    }
+
+    /** 시드 데이터 적재(CommandLineRunner) 이후 첫 전체 적재 */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        scheduler.scheduleWithFixedDelay(this::sweep, 0L, sweepMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::publishSnapshot, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        valuationPool.shutdownNow();
+    }
+
+    @Override
+    public void onTicks(TickRingBuffer ring, long fromSeq, long toSeq) {
+        boolean locked = false;
+        try {
+            for (long seq = fromSeq; seq < toSeq; seq++) {
+                int slot = quoteStore.slotOf(ring.codeKey(seq));
+                if (slot == QuoteStore.NO_SLOT || slot >= holdersBySlot.length || holdersBySlot[slot] == null) {
+                    continue;
+                }
+                if (!locked) {
+                    lock.lock();
+                    locked = true;
+                }
+                applyPrice(slot, ring.currentPrice(seq));
+                ticksApplied.increment();
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 팀 현금·보유 종목이 바뀌었음 (주문 체결, 방 시작·삭제). 트랜잭션 안이면 커밋 후, 아니면 바로
+     * team-valuation 스레드에서 그 팀만 다시 읽는다. 롤백되면 아무것도 하지 않는다.
+     */
+    public void onTeamChanged(Long teamId) {
+        if (teamId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirty(teamId);
+                }
+            });
+        } else {
+            markDirty(teamId);
+        }
+    }
+
+    private void markDirty(Long teamId) {
+        if (dirtyTeams.add(teamId)) {
+            scheduler.execute(this::drainDirty);
+        }
+    }
+
+    /** 마지막으로 발행된 전체 순위 스냅샷. 읽기 비용은 팀 수와 무관하다. */
+    public RankingSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 대회 순위표의 마지막 스냅샷 (그 대회 팀만, 대회 내 순위). 소속 팀이 없었거나 종료로 고정된 대회면 null.
+     * 읽기 비용은 다른 대회 팀 수와 무관하다.
+     */
+    public RankingSnapshot snapshot(long competitionId) {
+        Partition partition = partitions.get(competitionId);
+        return partition != null ? partition.snapshot : null;
+    }
+
+    /** 순위표가 바뀌었으면 새 스냅샷 발행 (team-valuation 스레드). 대회 순위표는 바뀐 대회만 다시 만든다. */
+    private void publishSnapshot() {
+        if (snapshot.version() == version) {
+            return;
+        }
+        lock.lock();
+        try {
+            long v = version;
+            long now = System.currentTimeMillis();
+            snapshot = new RankingSnapshot(epoch + "." + v, v, now, range(leaderboard, 0, leaderboard.size()));
+            for (Partition partition : partitions.values()) {
+                if (partition.snapshot.version() != partition.version) {
+                    partition.snapshot = new RankingSnapshot(
+                            epoch + ".c" + partition.competitionId + "." + partition.version, partition.version, now,
+                            range(partition.board, 0, partition.board.size()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        snapshotBuilds.increment();
+    }
+
+    /**
+     * 대회 순위 고정. team-valuation 스레드에서 앞서 들어온 체결 재적재를 마친 뒤 그 시점 대회 순위표로 최종 스냅샷을 만들고,
+     * 이후 그 대회 partition은 유지하지 않는다. 이미 고정됐으면 null로 완료된다.
+     */
+    public CompletableFuture<RankingSnapshot> freezeCompetition(long competitionId) {
+        return CompletableFuture.supplyAsync(() -> {
+            drainDirty();
+            lock.lock();
+            try {
+                if (!frozenCompetitions.add(competitionId)) {
+                    return null;
+                }
+                Partition partition = partitions.remove(competitionId);
+                if (partition == null) {
+                    return new RankingSnapshot(epoch + ".c" + competitionId + ".0", 0L,
+                            System.currentTimeMillis(), List.of());
+                }
+                List<TeamStanding> rows = range(partition.board, 0, partition.board.size());
+                for (TeamStanding row : rows) {
+                    TeamBook team = teams.get(row.teamId());
+                    if (team != null) {
+                        team.partition = null;
+                    }
+                }
+                return new RankingSnapshot(epoch + ".c" + competitionId + "." + partition.version,
+                        partition.version, System.currentTimeMillis(), rows);
+            } finally {
+                lock.unlock();
+            }
+        }, scheduler);
+    }
+
+    /** 고정을 풀고 소속 팀을 다시 대회 순위표에 올린다 (종료 취소). */
+    public void reopenCompetition(long competitionId) {
+        scheduler.execute(() -> {
+            lock.lock();
+            try {
+                if (!frozenCompetitions.remove(competitionId)) {
+                    return;
+                }
+                for (TeamBook team : teams.values()) {
+                    if (team.competitionId != null && team.competitionId == competitionId) {
+                        joinPartition(team);
+                    }
+                }
+                version++;
+            } finally {
+                lock.unlock();
+            }
+            publishSnapshot();
+        });
+    }
+
+    /** 팀이 속한 대회 ID. 순위표에 없거나 대회가 없으면 null. */
+    public Long competitionOf(long teamId) {
+        lock.lock();
+        try {
+            TeamBook team = teams.get(teamId);
+            return team != null ? team.competitionId : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 팀 한 곳의 현재 평가액·순위 (O(log n)). 순위표에 없으면 null. */
+    public TeamStanding standing(long teamId) {
+        lock.lock();
+        try {
+            TeamBook team = teams.get(teamId);
+            if (team == null) {
+                return null;
+            }
+            return new TeamStanding(teamId, team.name, team.nav, leaderboard.rankOf(teamId, team.nav));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 팀 순위 앞뒤 radius 팀씩 (자기 포함). 순위표에 없으면 빈 리스트. */
+    public List<TeamStanding> around(long teamId, int radius) {
+        lock.lock();
+        try {
+            TeamBook team = teams.get(teamId);
+            if (team == null) {
+                return List.of();
+            }
+            int index = leaderboard.rankOf(teamId, team.nav) - 1;
+            int r = Math.max(0, radius);
+            return range(leaderboard, index - r, index + r + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 락 안에서 호출. board의 순위 구간 [fromIndex, toIndex) */
+    private List<TeamStanding> range(NavLeaderboard board, int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(board.size(), toIndex);
+        if (from >= to) {
+            return List.of();
+        }
+        long[] ids = new long[to - from];
+        long[] navs = new long[to - from];
+        int n = board.range(from, to, ids, navs);
+        List<TeamStanding> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            TeamBook team = teams.get(ids[i]);
+            rows.add(new TeamStanding(ids[i], team != null ? team.name : null, navs[i], from + i + 1));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /** 락 안에서 호출. slot 종목 보유 포지션을 새 현재가로 재평가 */
+    private void applyPrice(int slot, long price) {
+        List<Position> holders = holdersBySlot[slot];
+        if (holders == null || price <= 0L) {
+            return;
+        }
+        for (Position p : holders) {
+            if (p.price == price) {
+                continue;
+            }
+            long value = p.quantity * price * NAV_UNIT;
+            long diff = value - p.valueFixed;
+            p.price = price;
+            p.valueFixed = value;
+            moveTo(p.team, p.team.nav + diff);
+        }
+    }
+
+    /** 락 안에서 호출. 평가액이 바뀐 팀의 순위표 자리 이동 */
+    private void moveTo(TeamBook team, long nav) {
+        if (nav == team.nav) {
+            return;
+        }
+        leaderboard.remove(team.teamId, team.nav);
+        Partition partition = team.partition;
+        if (partition != null) {
+            partition.board.remove(team.teamId, team.nav);
+            partition.board.add(team.teamId, nav);
+            partition.version++;
+        }
+        team.nav = nav;
+        leaderboard.add(team.teamId, nav);
+        navUpdates.increment();
+        version++;
+    }
+
+    /** 주기 작업: 첫 적재·주기적 전체 재적재, 보유 종목 시세 보충, 전 포지션 재평가 */
+    private void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            if (!loaded || now - lastRebuildAt >= rebuildMillis) {
+                rebuild();
+                loaded = true;
+                lastRebuildAt = now;
+            } else {
+                drainDirty();
+            }
+            if (now - lastQuoteRefreshAt >= quoteRefreshMillis) {
+                lastQuoteRefreshAt = now;
+                refreshHeldQuotes();
+            }
+            repriceAll();
+        } catch (Exception e) {
+            log.warn("team valuation sweep failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * DB 기준 전체 재적재. 시작되지 않았거나 삭제된 팀은 빠진다.
+     * 시작된 팀의 현금·보유 종목을 각각 한 번의 쿼리로 읽고, 시세를 종목당 한 번 읽은 뒤 팀별 평가는 병렬로 한다.
+     */
+    private void rebuild() {
+        // 적재 중 커밋된 변경은 dirty로 다시 들어와 뒤이어 개별 재적재된다
+        dirtyTeams.clear();
+        List<MatchingRoom> started = matchingRoomRepository.findByStatus("started");
+        List<Long> teamIds = started.stream().map(MatchingRoom::getId).toList();
+        Map<Long, BigDecimal> cash = new HashMap<>();
+        Map<Long, List<TeamHolding>> holdings = new HashMap<>();
+        if (!teamIds.isEmpty()) {
+            for (TeamAccount account : teamAccountRepository.findByTeamIdIn(teamIds)) {
+                cash.put(account.getTeamId(), account.getCashBalance());
+            }
+            for (TeamHolding h : teamHoldingRepository.findByTeamIdIn(teamIds)) {
+                holdings.computeIfAbsent(h.getTeamId(), k -> new ArrayList<>()).add(h);
+            }
+        }
+        Map<String, Quote> quotes = readQuotes(holdings.values());
+        List<TeamBook> books = valuationPool.submit(() -> started.parallelStream()
+                .map(room -> value(room, cash.get(room.getId()),
+                        holdings.getOrDefault(room.getId(), List.of()), quotes))
+                .toList()).join();
+        lock.lock();
+        try {
+            Set<Long> keep = new HashSet<>();
+            for (TeamBook book : books) {
+                keep.add(book.teamId);
+                install(book);
+            }
+            for (Long teamId : new ArrayList<>(teams.keySet())) {
+                if (!keep.contains(teamId)) {
+                    uninstall(teamId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        rebuilds.increment();
+        publishSnapshot();
+        log.debug("team valuation rebuilt: {} teams", books.size());
+    }
+
+    private void drainDirty() {
+        Iterator<Long> it = dirtyTeams.iterator();
+        boolean reloaded = false;
+        while (it.hasNext()) {
+            Long teamId = it.next();
+            it.remove();
+            try {
+                reload(teamId);
+                reloaded = true;
+            } catch (Exception e) {
+                // 다음 전체 재적재에서 맞춘다
+                log.debug("team valuation reload failed for {}: {}", teamId, e.getMessage());
+            }
+        }
+        if (reloaded) {
+            publishSnapshot();
+        }
+    }
+
+    private void reload(Long teamId) {
+        MatchingRoom room = matchingRoomRepository.findById(teamId)
+                .filter(r -> "started".equals(r.getStatus()))
+                .orElse(null);
+        TeamBook book = null;
+        if (room != null) {
+            BigDecimal cash = teamAccountRepository.findByTeamId(teamId)
+                    .map(TeamAccount::getCashBalance)
+                    .orElse(null);
+            List<TeamHolding> holdings = teamHoldingRepository.findByTeamId(teamId);
+            book = value(room, cash, holdings, readQuotes(List.of(holdings)));
+        }
+        lock.lock();
+        try {
+            if (book != null) {
+                install(book);
+            } else {
+                uninstall(teamId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        teamReloads.increment();
+    }
+
+    /** 보유 종목 시세 일괄 읽기 (종목당 1회, 없으면 slot만 할당) */
+    private Map<String, Quote> readQuotes(Collection<List<TeamHolding>> holdings) {
+        Map<String, Quote> quotes = new HashMap<>();
+        QuoteView v = new QuoteView();
+        for (List<TeamHolding> list : holdings) {
+            for (TeamHolding h : list) {
+                quotes.computeIfAbsent(h.getStockCode(), code -> {
+                    int slot = quoteStore.slotFor(code);
+                    long price = slot != QuoteStore.NO_SLOT && quoteStore.read(slot, v) ? v.getCurrentPrice() : -1L;
+                    return new Quote(slot, price);
+                });
+            }
+        }
+        return quotes;
+    }
+
+    /** 팀 장부 생성·평가 (락 밖, 병렬 호출 가능). 현금 기록이 없으면 초기 자금. 시세 없는 종목은 평균단가로 평가. */
+    private static TeamBook value(MatchingRoom room, BigDecimal cash, List<TeamHolding> holdings,
+                                  Map<String, Quote> quotes) {
+        long cashFixed = toFixed(cash != null ? cash : INITIAL_TEAM_BALANCE);
+        String name = room.getName() != null ? room.getName() : "팀 " + room.getId();
+        TeamBook team = new TeamBook(room.getId(), name, room.getCompetitionId(), cashFixed);
+        long nav = cashFixed;
+        for (TeamHolding h : holdings) {
+            if (h.getQuantity() <= 0) {
+                continue;
+            }
+            Quote q = quotes.get(h.getStockCode());
+            Position p = new Position(team, q != null ? q.slot() : QuoteStore.NO_SLOT, h.getQuantity(),
+                    toFixed(h.getAveragePurchasePrice()));
+            if (q != null && q.price() > 0L) {
+                p.price = q.price();
+                p.valueFixed = p.quantity * q.price() * NAV_UNIT;
+            }
+            team.positions.add(p);
+            nav += p.valueFixed;
+        }
+        team.nav = nav;
+        return team;
+    }
+
+    /** 락 안에서 호출. 기존 장부를 새 장부로 바꾸고 역색인·순위표에 등록 */
+    private void install(TeamBook team) {
+        uninstall(team.teamId);
+        for (Position p : team.positions) {
+            if (p.slot == QuoteStore.NO_SLOT || p.slot >= holdersBySlot.length) {
+                continue;
+            }
+            List<Position> holders = holdersBySlot[p.slot];
+            if (holders == null) {
+                holders = new ArrayList<>(4);
+                holdersBySlot[p.slot] = holders;
+            }
+            holders.add(p);
+        }
+        teams.put(team.teamId, team);
+        leaderboard.add(team.teamId, team.nav);
+        joinPartition(team);
+        version++;
+    }
+
+    /** 락 안에서 호출. 팀을 소속 대회 순위표에 등록 (대회 없음·고정된 대회면 건너뜀) */
+    private void joinPartition(TeamBook team) {
+        if (team.competitionId == null || team.partition != null || frozenCompetitions.contains(team.competitionId)) {
+            return;
+        }
+        Partition partition = partitions.get(team.competitionId);
+        if (partition == null) {
+            // 고정 후 다시 열린 대회도 이전 tag와 겹치지 않도록 전체 버전에서 시작 (partition 변경마다 전체 버전도 오른다)
+            long base = ++version;
+            partition = new Partition(team.competitionId, base,
+                    new RankingSnapshot(epoch + ".c" + team.competitionId + "." + base, base,
+                            System.currentTimeMillis(), List.of()));
+            partitions.put(team.competitionId, partition);
+        }
+        partition.board.add(team.teamId, team.nav);
+        partition.version++;
+        team.partition = partition;
+    }
+
+    /** 락 안에서 호출. 팀 장부·역색인·순위표 항목 제거 */
+    private void uninstall(long teamId) {
+        TeamBook team = teams.remove(teamId);
+        if (team == null) {
+            return;
+        }
+        for (Position p : team.positions) {
+            if (p.slot == QuoteStore.NO_SLOT || p.slot >= holdersBySlot.length) {
+                continue;
+            }
+            List<Position> holders = holdersBySlot[p.slot];
+            if (holders != null) {
+                holders.remove(p);
+                if (holders.isEmpty()) {
+                    holdersBySlot[p.slot] = null;
+                }
+            }
+        }
+        leaderboard.remove(teamId, team.nav);
+        Partition partition = team.partition;
+        if (partition != null) {
+            partition.board.remove(teamId, team.nav);
+            partition.version++;
+            team.partition = null;
+        }
+        version++;
+    }
+
+    /** QuoteStore 최신가로 전 포지션 재평가 (REST 조회로 갱신된 시세, 락 없이 건너뛴 틱 반영) */
+    private void repriceAll() {
+        lock.lock();
+        try {
+            for (int slot = 0; slot < holdersBySlot.length; slot++) {
+                if (holdersBySlot[slot] != null && quoteStore.read(slot, view)) {
+                    applyPrice(slot, view.getCurrentPrice());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 보유 종목 시세 보충. 신선하면 캐시, 오래됐으면 KIS 조회(BACKGROUND)로 QuoteStore를 채우고 실시간 구독을 건다.
+     * 결과는 다음 repriceAll에서 반영.
+     */
+    private void refreshHeldQuotes() {
+        if (!kisApiService.isKisConfigured()) {
+            return;
+        }
+        Set<String> codes = new LinkedHashSet<>();
+        lock.lock();
+        try {
+            for (int slot = 0; slot < holdersBySlot.length; slot++) {
+                if (holdersBySlot[slot] != null) {
+                    String code = quoteStore.getStockCode(slot);
+                    if (code != null) {
+                        codes.add(code);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (codes.isEmpty()) {
+            return;
+        }
+        try {
+            kisApiService.getStockPrices(codes, KisPriority.BACKGROUND);
+        } catch (Exception e) {
+            log.debug("team valuation quote refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private static long toFixed(BigDecimal value) {
+        if (value == null) {
+            return 0L;
+        }
+        return value.setScale(NAV_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    /** 팀·포지션·보유 종목 수, 대회 순위표·고정 대회 수, 틱 반영·평가액 변경·재적재·스냅샷 발행 건수, 현재 스냅샷 버전·나이 */
+    public Map<String, Object> getStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        int positions = 0;
+        int stocks = 0;
+        int frozen;
+        lock.lock();
+        try {
+            m.put("teams", teams.size());
+            frozen = frozenCompetitions.size();
+            for (TeamBook team : teams.values()) {
+                positions += team.positions.size();
+            }
+            for (List<Position> holders : holdersBySlot) {
+                if (holders != null) {
+                    stocks++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        m.put("positions", positions);
+        m.put("indexedStocks", stocks);
+        m.put("partitions", partitions.size());
+        m.put("frozenCompetitions", frozen);
+        m.put("pendingReloads", dirtyTeams.size());
+        m.put("ticksApplied", ticksApplied.sum());
+        m.put("navUpdates", navUpdates.sum());
+        m.put("teamReloads", teamReloads.sum());
+        m.put("rebuilds", rebuilds.sum());
+        m.put("snapshotBuilds", snapshotBuilds.sum());
+        RankingSnapshot snap = snapshot;
+        m.put("snapshotVersion", snap.version());
+        m.put("snapshotAgeMillis", System.currentTimeMillis() - snap.builtAtMillis());
+        return m;
+    }
+}
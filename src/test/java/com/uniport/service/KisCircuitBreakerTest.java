@@ -0,0 +1,213 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KisCircuitBreakerTest {
+
+    private static final String PRICE_URL = "https://kis/uapi/domestic-stock/v1/quotations/inquire-price?x=1";
+    private static final String CHART_URL = "https://kis/uapi/domestic-stock/v1/quotations/inquire-daily-itemchartprice";
+
+    /** 창 4건, 최소 4건, 50%에서 열림, 1초 후 반열림, 시험 호출 2건, 지연 예산 50ms */
+    private static KisCircuitBreaker breaker() {
+        return new KisCircuitBreaker(4, 4, 50, 1, 2, 50, 50, 50, 50, 50, 50);
+    }
+
+    @Test
+    void staysClosedBelowFailureRate() {
+        KisCircuitBreaker cb = breaker();
+        fail(cb, PRICE_URL);
+        ok(cb, PRICE_URL);
+        ok(cb, PRICE_URL);
+        ok(cb, PRICE_URL);
+        assertEquals("CLOSED", state(cb, "PRICE"));
+    }
+
+    @Test
+    void opensAtFailureRateAndRejectsWithoutCalling() {
+        KisCircuitBreaker cb = breaker();
+        ok(cb, PRICE_URL);
+        fail(cb, PRICE_URL);
+        ok(cb, PRICE_URL);
+        fail(cb, PRICE_URL);
+        assertEquals("OPEN", state(cb, "PRICE"));
+
+        AtomicInteger calls = new AtomicInteger();
+        ApiException e = assertThrows(ApiException.class, () -> cb.call(PRICE_URL, calls::incrementAndGet));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(KisCircuitBreaker.ERROR_CODE_KIS_CIRCUIT_OPEN, e.getErrorCode());
+        assertEquals(0, calls.get());
+        assertEquals(1L, stat(cb, "PRICE", "rejected"));
+        // 다른 엔드포인트 그룹은 영향 없음
+        assertEquals("CLOSED", state(cb, "CHART"));
+        assertEquals("ok", cb.call(CHART_URL, () -> "ok"));
+    }
+
+    @Test
+    void slowCallsCountAsBad() {
+        KisCircuitBreaker cb = breaker();
+        for (int i = 0; i < 4; i++) {
+            cb.call(PRICE_URL, () -> {
+                sleep(70);
+                return null;
+            });
+        }
+        assertEquals("OPEN", state(cb, "PRICE"));
+        assertEquals(4L, stat(cb, "PRICE", "slowCalls"));
+    }
+
+    @Test
+    void clientErrorsAndNonKisFailuresAreIgnored() {
+        KisCircuitBreaker cb = breaker();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpClientErrorException.class, () -> cb.call(PRICE_URL, () -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }));
+            assertThrows(IllegalStateException.class, () -> cb.call(PRICE_URL, () -> {
+                throw new IllegalStateException("decode");
+            }));
+        }
+        assertEquals("CLOSED", state(cb, "PRICE"));
+        assertEquals(0L, stat(cb, "PRICE", "calls"));
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulProbes() {
+        KisCircuitBreaker cb = breaker();
+        openPrice(cb);
+        sleep(1_100);
+        ok(cb, PRICE_URL);
+        assertEquals("HALF_OPEN", state(cb, "PRICE"));
+        ok(cb, PRICE_URL);
+        assertEquals("CLOSED", state(cb, "PRICE"));
+        // 닫힌 뒤 창은 비어 있어 실패 1건으로 다시 열리지 않음
+        fail(cb, PRICE_URL);
+        assertEquals("CLOSED", state(cb, "PRICE"));
+    }
+
+    @Test
+    void halfOpenReopensOnFailedProbe() {
+        KisCircuitBreaker cb = breaker();
+        openPrice(cb);
+        sleep(1_100);
+        fail(cb, PRICE_URL);
+        assertEquals("OPEN", state(cb, "PRICE"));
+        assertEquals(2L, stat(cb, "PRICE", "opened"));
+        assertThrows(ApiException.class, () -> cb.call(PRICE_URL, () -> 1));
+    }
+
+    @Test
+    void halfOpenAdmitsOnlyProbeSlots() throws InterruptedException {
+        KisCircuitBreaker cb = new KisCircuitBreaker(4, 4, 50, 1, 1, 5_000, 5_000, 5_000, 5_000, 5_000, 5_000);
+        openPrice(cb);
+        sleep(1_100);
+        CountDownLatch inProbe = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread probe = new Thread(() -> cb.call(PRICE_URL, () -> {
+            inProbe.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        probe.start();
+        inProbe.await();
+        // 시험 호출이 진행 중인 동안 나머지는 거절
+        assertThrows(ApiException.class, () -> cb.call(PRICE_URL, () -> 1));
+        release.countDown();
+        probe.join();
+        assertEquals("CLOSED", state(cb, "PRICE"));
+    }
+
+    @Test
+    void openCircuitRejectsPermitBeforeCall() {
+        KisCircuitBreaker cb = breaker();
+        openPrice(cb);
+        ApiException e = assertThrows(ApiException.class, () -> cb.tryAcquire(PRICE_URL));
+        assertEquals(KisCircuitBreaker.ERROR_CODE_KIS_CIRCUIT_OPEN, e.getErrorCode());
+    }
+
+    @Test
+    void releasedProbePermitFreesSlot() {
+        KisCircuitBreaker cb = new KisCircuitBreaker(4, 4, 50, 1, 1, 5_000, 5_000, 5_000, 5_000, 5_000, 5_000);
+        openPrice(cb);
+        sleep(1_100);
+        KisCircuitBreaker.Permit permit = cb.tryAcquire(PRICE_URL);
+        // 시험 호출 자리 1개를 쥐고 있는 동안 나머지는 거절
+        assertThrows(ApiException.class, () -> cb.tryAcquire(PRICE_URL));
+        // 한도 토큰을 못 받아 호출 없이 반납 → 서킷 결과로 세지 않고 자리만 돌려준다
+        permit.release();
+        permit.release();
+        assertEquals("HALF_OPEN", state(cb, "PRICE"));
+        assertEquals(4L, stat(cb, "PRICE", "calls"));
+        ok(cb, PRICE_URL);
+        assertEquals("CLOSED", state(cb, "PRICE"));
+    }
+
+    @Test
+    void latencyBudgetCountsOnlyTheCall() {
+        KisCircuitBreaker cb = breaker();
+        for (int i = 0; i < 4; i++) {
+            KisCircuitBreaker.Permit permit = cb.tryAcquire(PRICE_URL);
+            // 허가 후 한도 토큰 대기는 지연 예산에 들어가지 않음
+            sleep(70);
+            permit.call(() -> "ok");
+        }
+        assertEquals("CLOSED", state(cb, "PRICE"));
+        assertEquals(0L, stat(cb, "PRICE", "slowCalls"));
+        KisCircuitBreaker.Permit used = cb.tryAcquire(PRICE_URL);
+        used.call(() -> "ok");
+        assertThrows(IllegalStateException.class, () -> used.call(() -> "again"));
+    }
+
+    private static void openPrice(KisCircuitBreaker cb) {
+        for (int i = 0; i < 4; i++) {
+            fail(cb, PRICE_URL);
+        }
+        assertEquals("OPEN", state(cb, "PRICE"));
+    }
+
+    private static void ok(KisCircuitBreaker cb, String url) {
+        cb.call(url, () -> "ok");
+    }
+
+    private static void fail(KisCircuitBreaker cb, String url) {
+        assertThrows(RuntimeException.class, () -> cb.call(url, () -> {
+            if (url.contains("chart")) {
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            throw new ResourceAccessException("Read timed out");
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String state(KisCircuitBreaker cb, String endpoint) {
+        return (String) ((Map<String, Object>) cb.getStats().get(endpoint)).get("state");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long stat(KisCircuitBreaker cb, String endpoint, String key) {
+        return ((Number) ((Map<String, Object>) cb.getStats().get(endpoint)).get(key)).longValue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
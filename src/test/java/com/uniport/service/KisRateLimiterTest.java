@@ -0,0 +1,123 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KisRateLimiterTest {
+
+    @Test
+    void burstIsGrantedWithoutQueueing() {
+        KisRateLimiter limiter = new KisRateLimiter(1, 3, 10, 3000, 5000, 15000);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(KisPriority.BACKGROUND);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(3L, stat(limiter, KisPriority.BACKGROUND, "acquired"));
+        assertEquals(0L, stat(limiter, KisPriority.BACKGROUND, "queued"));
+    }
+
+    @Test
+    void higherPriorityOvertakesEarlierLowerPriorityWaiter() throws Exception {
+        KisRateLimiter limiter = new KisRateLimiter(2, 1, 10, 3000, 5000, 15000);
+        limiter.acquire(KisPriority.INTERACTIVE);
+        List<KisPriority> order = new CopyOnWriteArrayList<>();
+
+        Thread background = acquireAsync(limiter, KisPriority.BACKGROUND, order, new AtomicReference<>());
+        waitUntil(() -> stat(limiter, KisPriority.BACKGROUND, "queueDepth") == 1);
+        Thread interactive = acquireAsync(limiter, KisPriority.INTERACTIVE, order, new AtomicReference<>());
+        background.join();
+        interactive.join();
+
+        assertEquals(List.of(KisPriority.INTERACTIVE, KisPriority.BACKGROUND), order);
+        assertEquals(1L, stat(limiter, KisPriority.BACKGROUND, "queued"));
+    }
+
+    @Test
+    void rejectsImmediatelyWhenEstimatedWaitExceedsBudget() {
+        KisRateLimiter limiter = new KisRateLimiter(1, 1, 10, 100, 5000, 15000);
+        limiter.acquire(KisPriority.INTERACTIVE);
+        long start = System.nanoTime();
+        ApiException e = assertThrows(ApiException.class, () -> limiter.acquire(KisPriority.INTERACTIVE));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(KisRateLimiter.ERROR_CODE_KIS_RATE_LIMITED, e.getErrorCode());
+        assertEquals(1L, stat(limiter, KisPriority.INTERACTIVE, "rejectedDeadline"));
+    }
+
+    /** 예상 대기로는 들어왔지만 높은 우선순위에 밀려 허용 대기시간을 넘기면 대기 중에 거절 */
+    @Test
+    void waiterTimesOutWhenOvertakenPastItsDeadline() throws Exception {
+        KisRateLimiter limiter = new KisRateLimiter(1, 1, 10, 3000, 5000, 1500);
+        limiter.acquire(KisPriority.INTERACTIVE);
+        List<KisPriority> order = new CopyOnWriteArrayList<>();
+        AtomicReference<Throwable> backgroundError = new AtomicReference<>();
+        AtomicReference<Throwable> interactiveError = new AtomicReference<>();
+
+        Thread background = acquireAsync(limiter, KisPriority.BACKGROUND, order, backgroundError);
+        waitUntil(() -> stat(limiter, KisPriority.BACKGROUND, "queueDepth") == 1);
+        Thread interactive = acquireAsync(limiter, KisPriority.INTERACTIVE, order, interactiveError);
+        background.join();
+        interactive.join();
+
+        assertNull(interactiveError.get());
+        assertTrue(backgroundError.get() instanceof ApiException);
+        assertEquals(List.of(KisPriority.INTERACTIVE), order);
+        assertEquals(1L, stat(limiter, KisPriority.BACKGROUND, "rejectedDeadline"));
+        assertEquals(0L, stat(limiter, KisPriority.BACKGROUND, "queueDepth"));
+    }
+
+    @Test
+    void rejectsWhenPriorityQueueIsFull() throws Exception {
+        KisRateLimiter limiter = new KisRateLimiter(2, 1, 1, 3000, 5000, 15000);
+        limiter.acquire(KisPriority.MARKET_DATA);
+        List<KisPriority> order = new CopyOnWriteArrayList<>();
+        Thread waiter = acquireAsync(limiter, KisPriority.MARKET_DATA, order, new AtomicReference<>());
+        waitUntil(() -> stat(limiter, KisPriority.MARKET_DATA, "queueDepth") == 1);
+
+        assertThrows(ApiException.class, () -> limiter.acquire(KisPriority.MARKET_DATA));
+        assertEquals(1L, stat(limiter, KisPriority.MARKET_DATA, "rejectedQueueFull"));
+        waiter.join();
+        assertEquals(List.of(KisPriority.MARKET_DATA), order);
+    }
+
+    private static Thread acquireAsync(KisRateLimiter limiter, KisPriority priority, List<KisPriority> order,
+                                       AtomicReference<Throwable> error) {
+        Thread t = new Thread(() -> {
+            try {
+                limiter.acquire(priority);
+                order.add(priority);
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long stat(KisRateLimiter limiter, KisPriority priority, String name) {
+        Map<String, Object> priorities = (Map<String, Object>) limiter.getStats().get("priorities");
+        Object value = ((Map<String, Object>) priorities.get(priority.name())).get(name);
+        return ((Number) value).longValue();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.uniport.service;
+
+import com.uniport.exception.ApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> flight.execute("k", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "a";
+            }));
+            started.await();
+            Future<String> second = executor.submit(() -> flight.execute("k", () -> {
+                loads.incrementAndGet();
+                return "x";
+            }));
+            waitFor(() -> stat(flight, "coalesced") == 1);
+            release.countDown();
+            assertEquals("a", first.get());
+            assertEquals("a", second.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0L, stat(flight, "inFlight"));
+    }
+
+    @Test
+    void loaderExceptionReachesEveryCaller() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        ApiException e = assertThrows(ApiException.class, () -> flight.execute("k", () -> {
+            throw new ApiException("down", HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+        assertEquals("down", e.getMessage());
+        // 실패한 결과는 남지 않음
+        assertEquals("c", flight.execute("k", () -> "c"));
+    }
+
+    @Test
+    void leavingWaiterDoesNotInterruptSharedFlight() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.execute("k", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw new ApiException("KIS request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+                }
+                return "b";
+            }));
+            started.await();
+            Future<String> waiter = executor.submit(() -> flight.execute("k", () -> "x"));
+            waitFor(() -> stat(flight, "coalesced") == 1);
+            // 처음 호출한 쪽이 빠져도 기다리는 호출이 남아 있으면 flight는 계속
+            leader.cancel(true);
+            release.countDown();
+            assertEquals("b", waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, interrupted.get());
+        assertEquals(0L, stat(flight, "abandoned"));
+    }
+
+    @Test
+    void lastWaiterLeavingInterruptsFlight() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> caller = executor.submit(() -> flight.execute("k", () -> {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "x";
+            }));
+            started.await();
+            caller.cancel(true);
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1L, stat(flight, "abandoned"));
+        waitFor(() -> stat(flight, "inFlight") == 0);
+        // 끊긴 flight에 붙지 않고 새로 실행
+        assertEquals("d", flight.execute("k", () -> "d"));
+        assertEquals(2L, stat(flight, "executions"));
+    }
+
+    @Test
+    void interruptedCallerGetsServiceUnavailable() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<HttpStatus> status = new AtomicReference<>();
+        Thread caller = Thread.ofVirtual().start(() -> {
+            try {
+                flight.execute("k", () -> {
+                    started.countDown();
+                    await(new CountDownLatch(1));
+                    return "x";
+                });
+            } catch (ApiException e) {
+                status.set(e.getStatus());
+            }
+            assertTrue(Thread.currentThread().isInterrupted());
+        });
+        started.await();
+        caller.interrupt();
+        caller.join(5_000);
+        assertFalse(caller.isAlive());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, status.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("KIS request interrupted", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static long stat(SingleFlight<?, ?> flight, String key) {
+        Map<String, Object> stats = flight.getStats();
+        return ((Number) stats.get(key)).longValue();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.uniport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockMasterIndexTest {
+
+    private static final Charset MS949 = Charset.forName("MS949");
+
+    @TempDir
+    Path dir;
+
+    private StockMasterIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        writeMaster(dir.resolve("kospi_code.mst"), 228,
+                "005930", "삼성전자",
+                "005935", "삼성전자우",
+                "006400", "삼성SDI",
+                "028260", "삼성물산",
+                "000660", "SK하이닉스",
+                "035420", "NAVER");
+        writeMaster(dir.resolve("kosdaq_code.mst"), 222,
+                "247540", "에코프로비엠",
+                "086520", "에코프로",
+                "293490", "카카오게임즈");
+        index = new StockMasterIndex(dir.toString());
+        index.reloadIfChanged();
+    }
+
+    @Test
+    void readsNamesAndMarketsFromFixedWidthCp949Files() {
+        assertTrue(index.isLoaded());
+        assertEquals(9, ((Number) index.getStats().get("symbols")).intValue());
+        assertEquals("삼성전자", index.nameOf("005930"));
+        assertEquals("SK하이닉스", index.nameOf(" 000660 "));
+        assertNull(index.nameOf("999999"));
+        assertEquals("종목_999999", index.displayName("999999"));
+        assertEquals("KOSDAQ", index.search("293490", 1).get(0).market());
+        assertEquals("KOSPI", index.search("005930", 1).get(0).market());
+    }
+
+    @Test
+    void codePrefixPutsExactCodeFirstThenShorterNames() {
+        assertEquals(List.of("005930", "005935"), codes(index.search("0059", 10)));
+        assertEquals(List.of("005930"), codes(index.search("005930", 10)));
+        assertEquals("005935", codes(index.search("005935", 10)).get(0));
+    }
+
+    @Test
+    void namePrefixOrdersByExactThenLengthThenCode() {
+        assertEquals(List.of("005930", "028260", "005935", "006400"), codes(index.search("삼성", 10)));
+        assertEquals(List.of("005930", "005935"), codes(index.search("삼성전자", 10)));
+        assertEquals(List.of("000660"), codes(index.search("sk", 10)));
+        assertEquals(List.of("035420"), codes(index.search("Naver", 10)));
+    }
+
+    @Test
+    void chosungQueryMatchesInitialConsonants() {
+        assertEquals(List.of("005930", "028260", "005935", "006400"), codes(index.search("ㅅㅅ", 10)));
+        assertEquals(List.of("086520", "247540"), codes(index.search("ㅇㅋㅍㄹ", 10)));
+        assertEquals(List.of("293490"), codes(index.search("ㅋㅋ", 10)));
+        assertEquals("ㅅㅅsdi", StockMasterIndex.toChosung("삼성SDI"));
+    }
+
+    @Test
+    void containsMatchesRankAfterPrefixMatches() {
+        assertEquals(List.of("005930", "005935"), codes(index.search("전자", 10)));
+        assertEquals(List.of("005930", "028260", "005935", "006400"), codes(index.search("삼", 10)));
+        assertEquals(List.of("247540"), codes(index.search("비엠", 10)));
+    }
+
+    @Test
+    void limitAndBlankQueries() {
+        assertEquals(2, index.search("삼성", 2).size());
+        assertTrue(index.search(" ", 10).isEmpty());
+        assertTrue(index.search("삼성", 0).isEmpty());
+        assertTrue(index.search("없는종목", 10).isEmpty());
+    }
+
+    @Test
+    void reloadsWhenMasterFileChanges() throws IOException {
+        Path kospi = dir.resolve("kospi_code.mst");
+        writeMaster(kospi, 228, "005930", "삼성전자", "005380", "현대차");
+        Files.setLastModifiedTime(kospi, FileTime.fromMillis(Files.getLastModifiedTime(kospi).toMillis() + 60_000L));
+        index.reloadIfChanged();
+        assertEquals("현대차", index.nameOf("005380"));
+        assertNull(index.nameOf("005935"));
+        assertEquals("에코프로", index.nameOf("086520"));
+    }
+
+    @Test
+    void missingFilesLeaveIndexEmpty() {
+        StockMasterIndex empty = new StockMasterIndex(dir.resolve("none").toString());
+        empty.reloadIfChanged();
+        assertFalse(empty.isLoaded());
+        assertTrue(empty.search("삼성", 10).isEmpty());
+    }
+
+    /** KIS 마스터 형식: 단축코드 9자 + 표준코드 12자 + 종목명 + 고정폭 부가정보(tailLength자) */
+    private static void writeMaster(Path file, int tailLength, String... codeAndNames) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < codeAndNames.length; i += 2) {
+            String code = codeAndNames[i];
+            sb.append(String.format("%-9s", code))
+                    .append(String.format("%-12s", "KR7" + code + "000"))
+                    .append(codeAndNames[i + 1])
+                    .append("  ")
+                    .append("0".repeat(tailLength))
+                    .append('\n');
+        }
+        Files.write(file, sb.toString().getBytes(MS949));
+    }
+
+    private static List<String> codes(List<StockMasterIndex.Match> matches) {
+        return matches.stream().map(StockMasterIndex.Match::code).toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.uniport.service.candle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandleStoreTest {
+
+    @TempDir
+    Path dir;
+
+    /** firstDate ~ 20240110 매일 캔들이 있는 KIS (요청 구간 안의 것만 돌려줌) */
+    private static final class FakeKis implements CandleStore.Fetcher {
+        final int firstDate;
+        final AtomicInteger calls = new AtomicInteger();
+
+        FakeKis(int firstDate) {
+            this.firstDate = firstDate;
+        }
+
+        @Override
+        public List<Candle> fetch(int fromDate, int toDate) {
+            calls.incrementAndGet();
+            List<Candle> out = new ArrayList<>();
+            for (int d = Math.max(fromDate, firstDate); d <= Math.min(toDate, 20240110); d++) {
+                out.add(new Candle(d, d, d, d, d, 1L));
+            }
+            return out;
+        }
+    }
+
+    @Test
+    void unknownCodeCreatesNoFile() throws Exception {
+        CandleStore store = new CandleStore(dir.toString(), 60, 8);
+        List<Candle> got = store.getRange(CandleStore.Kind.STOCK, "999999", "D", 20240101, 20240110, (f, t) -> List.of());
+        assertTrue(got.isEmpty());
+        try (var files = Files.list(dir)) {
+            assertEquals(0L, files.count());
+        }
+        assertEquals(0, ((Number) store.getStats().get("openSeries")).intValue());
+    }
+
+    @Test
+    void coveredFromIsEarliestReceivedCandleAndEarlierRangeIsAskedOnce() {
+        CandleStore store = new CandleStore(dir.toString(), 3600, 8);
+        FakeKis kis = new FakeKis(20240105);
+        List<Candle> got = store.getRange(CandleStore.Kind.STOCK, "005930", "D", 20240101, 20240110, kis);
+        assertEquals(6, got.size());
+        assertEquals(20240105, got.get(0).date());
+        int calls = kis.calls.get();
+
+        // 같은 시작일: 이미 요청해 본 구간이라 저장분으로 응답
+        assertEquals(6, store.getRange(CandleStore.Kind.STOCK, "005930", "D", 20240101, 20240110, kis).size());
+        assertEquals(calls, kis.calls.get());
+
+        // 더 이른 시작일: 받은 적 없는 구간이라 다시 요청, 저장분은 유지
+        assertEquals(6, store.getRange(CandleStore.Kind.STOCK, "005930", "D", 20231201, 20240110, kis).size());
+        assertTrue(kis.calls.get() > calls);
+    }
+
+    @Test
+    void storedRangeIsServedWithoutFetching() {
+        CandleStore store = new CandleStore(dir.toString(), 3600, 8);
+        FakeKis kis = new FakeKis(20240102);
+        store.getRange(CandleStore.Kind.INDEX, "0001", "D", 20240102, 20240110, kis);
+        int calls = kis.calls.get();
+        List<Candle> got = store.getRange(CandleStore.Kind.INDEX, "0001", "D", 20240103, 20240105, kis);
+        assertEquals(List.of(20240103, 20240104, 20240105), got.stream().map(Candle::date).toList());
+        assertEquals(calls, kis.calls.get());
+    }
+
+    @Test
+    void openSeriesAreBoundedAndEvictedSeriesReopenFromDisk() {
+        CandleStore store = new CandleStore(dir.toString(), 3600, 2);
+        FakeKis kis = new FakeKis(20240102);
+        for (String code : List.of("000001", "000002", "000003", "000004")) {
+            store.getRange(CandleStore.Kind.STOCK, code, "D", 20240102, 20240110, kis);
+        }
+        assertEquals(2, ((Number) store.getStats().get("openSeries")).intValue());
+        assertEquals(2L, ((Number) store.getStats().get("evictions")).longValue());
+        assertFalse(((List<?>) store.getStats().get("series")).contains("STOCK_000001_D"));
+
+        // 축출된 시리즈는 디스크 파일에서 다시 열어 KIS 없이 응답
+        int calls = kis.calls.get();
+        List<Candle> got = store.getRange(CandleStore.Kind.STOCK, "000001", "D", 20240102, 20240104, kis);
+        assertEquals(3, got.size());
+        assertEquals(calls, kis.calls.get());
+    }
+}
@@ -0,0 +1,133 @@
+package com.uniport.service.equity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EquityBlockTest {
+
+    private static final long T0 = 1_767_225_600L;
+
+    @Test
+    void regularConstantSeriesCostsTwoBitsPerSample() {
+        EquityBlock block = new EquityBlock();
+        long[][] samples = new long[1_000][];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new long[] {T0 + i * 10L, 100_000_000_0000L};
+        }
+        append(block, samples);
+        assertRoundTrip(block, samples);
+        // 첫 표본 128비트 + 둘째 표본(간격 10: '10'+7, 같은 값 '0') 10비트 + 이후 표본당 2비트
+        assertEquals((128 + 10 + 998 * 2 + 7) / 8, block.sizeBytes());
+    }
+
+    @Test
+    void roundTripsEveryDeltaOfDeltaWidth() {
+        long[] gaps = {1, 1, 60, 3, 200, 5, 2_000, 7, 100_000, 1, 2_000_000_000L, 1, 1};
+        long[][] samples = new long[gaps.length + 1][];
+        long t = T0;
+        samples[0] = new long[] {t, 5L};
+        for (int i = 0; i < gaps.length; i++) {
+            t += gaps[i];
+            samples[i + 1] = new long[] {t, 5L + i};
+        }
+        EquityBlock block = new EquityBlock();
+        append(block, samples);
+        assertRoundTrip(block, samples);
+    }
+
+    @Test
+    void roundTripsValueXorCasesIncludingNegativeAndExtremes() {
+        long[] values = {0L, 0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE, 123_456_789L, 123_456_790L,
+                123_456_790L, 1L << 40, (1L << 40) + 1, -987_654_321_0000L, 0L};
+        long[][] samples = new long[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            samples[i] = new long[] {T0 + i * 5L, values[i]};
+        }
+        EquityBlock block = new EquityBlock();
+        append(block, samples);
+        assertRoundTrip(block, samples);
+    }
+
+    @Test
+    void roundTripsRandomSeries() {
+        Random rnd = new Random(7L);
+        List<long[]> list = new ArrayList<>();
+        long t = T0;
+        long nav = 10_000_000_0000L;
+        for (int i = 0; i < 5_000; i++) {
+            t += rnd.nextInt(10) == 0 ? 1 + rnd.nextInt(5_000) : 10;
+            if (rnd.nextInt(3) != 0) {
+                nav += (rnd.nextInt(2_000_001) - 1_000_000) * 100L;
+            }
+            list.add(new long[] {t, nav});
+        }
+        long[][] samples = list.toArray(new long[0][]);
+        EquityBlock block = new EquityBlock();
+        append(block, samples);
+        assertRoundTrip(block, samples);
+        assertTrue(block.sizeBytes() < samples.length * 16 / 3);
+    }
+
+    @Test
+    void rejectsNonIncreasingTimestamps() {
+        EquityBlock block = new EquityBlock();
+        assertTrue(block.append(T0, 1L));
+        assertFalse(block.append(T0, 2L));
+        assertFalse(block.append(T0 - 1, 3L));
+        assertTrue(block.append(T0 + 1, 4L));
+        assertEquals(2, block.count());
+        assertEquals(T0, block.startSeconds());
+        assertEquals(T0 + 1, block.lastSeconds());
+        assertRoundTrip(block, new long[][] {{T0, 1L}, {T0 + 1, 4L}});
+    }
+
+    @Test
+    void rejectsGapChangeBeyond32Bits() {
+        EquityBlock block = new EquityBlock();
+        assertTrue(block.append(T0, 1L));
+        assertTrue(block.append(T0 + 10, 2L));
+        assertFalse(block.append(T0 + 10 + 3_000_000_000L, 3L));
+        assertTrue(block.append(T0 + 20, 4L));
+        assertRoundTrip(block, new long[][] {{T0, 1L}, {T0 + 10, 2L}, {T0 + 20, 4L}});
+    }
+
+    @Test
+    void singleAndEmptyBlocks() {
+        EquityBlock single = new EquityBlock();
+        single.append(T0, 42L);
+        assertEquals(16, single.sizeBytes());
+        assertRoundTrip(single, new long[][] {{T0, 42L}});
+
+        EquityBlock empty = new EquityBlock();
+        assertEquals(0, empty.toBytes().length);
+        List<long[]> out = new ArrayList<>();
+        EquityBlock.decode(empty.toBytes(), 0, (s, v) -> out.add(new long[] {s, v}));
+        assertTrue(out.isEmpty());
+    }
+
+    private static void append(EquityBlock block, long[][] samples) {
+        for (long[] s : samples) {
+            assertTrue(block.append(s[0], s[1]));
+        }
+        assertEquals(samples.length, block.count());
+    }
+
+    private static void assertRoundTrip(EquityBlock block, long[][] expected) {
+        byte[] bytes = block.toBytes();
+        assertEquals(block.sizeBytes(), bytes.length);
+        List<long[]> out = new ArrayList<>();
+        EquityBlock.decode(bytes, block.count(), (s, v) -> out.add(new long[] {s, v}));
+        assertEquals(expected.length, out.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], out.get(i), "sample " + i);
+        }
+    }
+}
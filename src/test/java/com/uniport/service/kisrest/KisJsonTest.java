@@ -0,0 +1,129 @@
+package com.uniport.service.kisrest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KisJsonTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Test
+    void decimalKeepsTheScaleOfTheString() throws IOException {
+        for (String s : new String[]{"71500", "-1.23", "+0.50", "0", "-0.00", "0.0001", ".5", "5.", "000123"}) {
+            assertEquals(new BigDecimal(s), decimal("\"" + s + "\""), s);
+        }
+    }
+
+    @Test
+    void decimalIgnoresCommasAndPadding() throws IOException {
+        assertEquals(new BigDecimal("71500"), decimal("\"71,500\""));
+        assertEquals(new BigDecimal("-1234567.89"), decimal("\" -1,234,567.89 \""));
+        assertEquals(new BigDecimal("0"), decimal("\" 0 \""));
+    }
+
+    @Test
+    void decimalFallsBackBeyondLongDigits() throws IOException {
+        assertEquals(new BigDecimal("12345678901234567890.5"), decimal("\"12345678901234567890.5\""));
+        assertEquals(new BigDecimal("-9999999999999999999"), decimal("\"-9,999,999,999,999,999,999\""));
+        assertNull(decimal("\"12345678901234567890x\""));
+    }
+
+    @Test
+    void decimalRejectsMalformedSignsAndPoints() throws IOException {
+        for (String s : new String[]{"", " ", "-", "+", ".", "1.2.3", "1-2", "1+", "--1", "-.-1", "abc", "1e5", "N/A"}) {
+            assertNull(decimal("\"" + s + "\""), s);
+        }
+    }
+
+    @Test
+    void decimalAcceptsJsonNumbersAndSkipsOtherTokens() throws IOException {
+        assertEquals(new BigDecimal("71500"), decimal("71500"));
+        assertEquals(new BigDecimal("-1.25"), decimal("-1.25"));
+        assertNull(decimal("null"));
+        assertNull(decimal("true"));
+        assertNull(decimal("{\"a\":{\"b\":1}}"));
+        assertNull(decimal("[1,2]"));
+    }
+
+    @Test
+    void longValueParsesSignedIntegersWithCommas() throws IOException {
+        assertEquals(Long.valueOf(1234567L), longValue("\"1,234,567\""));
+        assertEquals(Long.valueOf(-42L), longValue("\"-42\""));
+        assertEquals(Long.valueOf(42L), longValue("\"+42\""));
+        assertEquals(Long.valueOf(0L), longValue("\"-0\""));
+        assertEquals(Long.valueOf(7L), longValue("7"));
+        assertEquals(Long.valueOf(Long.MAX_VALUE), longValue("\"9223372036854775807\""));
+        assertEquals(Long.valueOf(Long.MIN_VALUE), longValue("\"-9,223,372,036,854,775,808\""));
+    }
+
+    @Test
+    void longValueRejectsFractionsOverflowAndGarbage() throws IOException {
+        for (String json : new String[]{"\"1.5\"", "\"\"", "\"-\"", "\"1-\"", "\"+-1\"", "\"abc\"", "\"9223372036854775808\"",
+                "99999999999999999999", "1.0", "null", "[]"}) {
+            assertNull(longValue(json), json);
+        }
+    }
+
+    @Test
+    void textTrimsScalarsAndSkipsContainers() throws IOException {
+        assertEquals("005930", text("\" 005930 \""));
+        assertEquals("12", text("12"));
+        assertNull(text("null"));
+        assertNull(text("{\"a\":[1,2]}"));
+    }
+
+    @Test
+    void valueReadersLeaveTheParserOnTheNextField() throws IOException {
+        try (JsonParser p = JSON.createParser("{\"a\":{\"x\":[1]},\"b\":\"-3.5\",\"c\":[\"1\"],\"d\":\"9\"}")) {
+            p.nextToken();
+            p.nextToken();
+            p.nextToken();
+            assertNull(KisJson.decimal(p));
+            assertEquals("b", p.nextFieldName());
+            p.nextToken();
+            assertEquals(new BigDecimal("-3.5"), KisJson.decimal(p));
+            assertEquals("c", p.nextFieldName());
+            p.nextToken();
+            assertNull(KisJson.longValue(p));
+            assertEquals("d", p.nextFieldName());
+            p.nextToken();
+            assertEquals(Long.valueOf(9L), KisJson.longValue(p));
+            assertEquals(JsonToken.END_OBJECT, p.nextToken());
+        }
+    }
+
+    private static BigDecimal decimal(String json) throws IOException {
+        try (JsonParser p = parserAt(json)) {
+            return KisJson.decimal(p);
+        }
+    }
+
+    private static Long longValue(String json) throws IOException {
+        try (JsonParser p = parserAt(json)) {
+            return KisJson.longValue(p);
+        }
+    }
+
+    private static String text(String json) throws IOException {
+        try (JsonParser p = parserAt(json)) {
+            return KisJson.text(p);
+        }
+    }
+
+    /** {"v": json} 의 값 토큰에 놓인 파서 (KIS 응답 행 안의 필드 값과 같은 위치) */
+    private static JsonParser parserAt(String json) throws IOException {
+        JsonParser p = JSON.createParser("{\"v\":" + json + "}");
+        p.nextToken();
+        p.nextToken();
+        p.nextToken();
+        return p;
+    }
+}
@@ -0,0 +1,99 @@
+package com.uniport.service.kisrest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KisResponseReaderTest {
+
+    private final KisResponseReader reader = new KisResponseReader();
+
+    @Test
+    void decodesSingleObjectOutputAndSkipsUnknownFields() throws IOException {
+        String body = "{\"unknown\":{\"nested\":[1,{\"x\":2}]},\"output\":{\"stck_shrn_iscd\":\"005930\","
+                + "\"hts_kor_isnm\":\"삼성전자\",\"extra\":[\"a\"],\"stck_prpr\":\"71,500\",\"prdy_vrss\":\"-500\","
+                + "\"prdy_ctrt\":\"-0.69\",\"acml_vol\":\"12,345,678\"},\"rt_cd\":\"0\",\"msg_cd\":\"MCA00000\","
+                + "\"msg1\":\"정상처리 되었습니다.\"}";
+        KisResponse<KisPriceRow> r = reader.read(in(body), "FHKST01010100", KisPriceRow.DECODER);
+        assertFalse(r.isError());
+        assertEquals("MCA00000", r.msgCd());
+        KisPriceRow row = r.first("output");
+        assertEquals("005930", row.code());
+        assertEquals("삼성전자", row.name());
+        assertEquals(new BigDecimal("71500"), row.currentPrice());
+        assertEquals(new BigDecimal("-500"), row.change());
+        assertEquals(new BigDecimal("-0.69"), row.changeRate());
+        assertEquals(Long.valueOf(12_345_678L), row.volume());
+    }
+
+    @Test
+    void decodesRowArraysAndSkipsNonObjectElements() throws IOException {
+        String body = "{\"rt_cd\":\"0\",\"output\":[{\"bstp_nmix_prpr\":\"2,650.31\",\"bstp_nmix_prdy_vrss\":\"+12.5\","
+                + "\"bstp_nmix_prdy_ctrt\":\"0.47\"},null,\"x\",[1],{\"bstp_nmix_prpr\":\"-\"}]}";
+        KisResponse<KisIndexRow> r = reader.read(in(body), "FHPUP02100000", KisIndexRow.DECODER);
+        List<KisIndexRow> rows = r.rows("output");
+        assertEquals(2, rows.size());
+        assertEquals(new BigDecimal("2650.31"), rows.get(0).value());
+        assertEquals(new BigDecimal("12.5"), rows.get(0).change());
+        assertNull(rows.get(1).value());
+    }
+
+    @Test
+    void keepsOutput1AndOutput2Separately() throws IOException {
+        String body = "{\"output1\":{\"bstp_nmix_prpr\":\"1\"},\"output2\":[{\"bstp_nmix_prpr\":\"2\"},"
+                + "{\"bstp_nmix_prpr\":\"3\"}],\"output3\":[{\"bstp_nmix_prpr\":\"4\"}]}";
+        KisResponse<KisIndexRow> r = reader.read(in(body), "T", KisIndexRow.DECODER);
+        assertEquals(1, r.rows("output1").size());
+        assertEquals(2, r.rows("output2").size());
+        assertTrue(r.rows("output3").isEmpty());
+        assertEquals(new BigDecimal("2"), r.first("output", "output2").value());
+        assertNull(r.first("output"));
+    }
+
+    @Test
+    void readsErrorHeadersAndOAuthErrors() throws IOException {
+        KisResponse<KisIndexRow> r = reader.read(in("{\"rt_cd\":\"1\",\"msg_cd\":\"EGW00201\",\"msg1\":\"초당 거래건수를 초과하였습니다.\"}"),
+                "T", KisIndexRow.DECODER);
+        assertTrue(r.isError());
+        assertTrue(r.errorMessage("price").contains("msg_cd=EGW00201"));
+
+        KisResponse<KisIndexRow> oauth = reader.read(in("{\"error\":\"invalid_client\",\"error_description\":\"bad\"}"),
+                "T", KisIndexRow.DECODER);
+        assertFalse(oauth.isError());
+        assertEquals("invalid_client", oauth.error());
+        assertTrue(oauth.rows("output").isEmpty());
+    }
+
+    @Test
+    void firstHeaderValueWinsOverAlias() throws IOException {
+        KisResponse<KisIndexRow> r = reader.read(in("{\"rt_cd\":\"0\",\"rtCd\":\"1\",\"msg1\":\"a\",\"message\":\"b\"}"),
+                "T", KisIndexRow.DECODER);
+        assertEquals("0", r.rtCd());
+        assertEquals("a", r.msg1());
+    }
+
+    @Test
+    void emptyOrNonObjectBodyIsNullButCounted() throws IOException {
+        assertNull(reader.read(in(""), "EMPTY", KisIndexRow.DECODER));
+        assertNull(reader.read(in("[1,2]"), "EMPTY", KisIndexRow.DECODER));
+        assertNull(reader.read(null, "EMPTY", KisIndexRow.DECODER));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) reader.getStats().get("EMPTY");
+        assertEquals(3L, ((Number) stats.get("calls")).longValue());
+    }
+
+    private static InputStream in(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.uniport.service.kisws;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuoteStoreTest {
+
+    @Test
+    void slotIsStableAndCapacityIsEnforced() {
+        QuoteStore store = new QuoteStore(2);
+        int a = store.slotFor("005930");
+        int b = store.slotFor("000660");
+        assertEquals(a, store.slotFor("005930"));
+        assertEquals(a, store.slotOf("005930"));
+        assertEquals(2, store.size());
+        assertEquals(QuoteStore.NO_SLOT, store.slotFor("035420"));
+        assertEquals(QuoteStore.NO_SLOT, store.slotOf("035420"));
+        assertEquals("000660", store.getStockCode(b));
+    }
+
+    @Test
+    void unwrittenSlotReadsAsMissing() {
+        QuoteStore store = new QuoteStore(16);
+        int slot = store.slotFor("005930");
+        assertFalse(store.read(slot, new QuoteView()));
+        assertEquals(-1L, store.getCurrentPrice("005930"));
+        assertEquals(-1L, store.getCurrentPrice("000660"));
+    }
+
+    @Test
+    void putConvertsRestValues() {
+        QuoteStore store = new QuoteStore(16);
+        store.put("005930", "삼성전자", new BigDecimal("71000"), new BigDecimal("-500"),
+                new BigDecimal("-0.70"), 1234L, 1_000L);
+        QuoteView view = new QuoteView();
+        assertTrue(store.read("005930", view));
+        assertEquals(71000L, view.getCurrentPrice());
+        assertEquals(-500L, view.getChange());
+        assertEquals(0, new BigDecimal("-0.70").compareTo(view.changeRateAsBigDecimal()));
+        assertEquals(1234L, view.getVolume());
+        assertEquals(1_000L, view.getUpdatedAtMillis());
+        assertEquals("삼성전자", store.getStockName(store.slotOf("005930")));
+
+        store.put("005930", null, null, null, null, 0L, 2_000L);
+        assertEquals(71000L, store.getCurrentPrice("005930"));
+    }
+
+    /** 여러 writer가 같은 slot에 쓰는 동안 reader는 항상 한 번의 쓰기로 만든 값 묶음만 본다 */
+    @Test
+    void readersNeverSeeTornWritesUnderConcurrentWriters() throws Exception {
+        QuoteStore store = new QuoteStore(16);
+        int slot = store.slotFor("005930");
+        store.update(slot, 1L, -1L, 1, 3L, 1L);
+
+        int writers = 4;
+        int readers = 2;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> torn = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long base = (w + 1) * 1_000_000_000L;
+            threads.add(new Thread(() -> {
+                await(start);
+                for (long i = 1; i <= 200_000; i++) {
+                    long v = base + i;
+                    store.update(slot, v, -v, (int) v, v * 3, v);
+                }
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                QuoteView view = new QuoteView();
+                await(start);
+                while (running.get()) {
+                    assertTrue(store.read(slot, view));
+                    long v = view.getCurrentPrice();
+                    if (view.getChange() != -v || view.getChangeRateFixed() != (int) v
+                            || view.getVolume() != v * 3 || view.getUpdatedAtMillis() != v) {
+                        torn.compareAndSet(null, "price=" + v + " change=" + view.getChange()
+                                + " volume=" + view.getVolume() + " updatedAt=" + view.getUpdatedAtMillis());
+                    }
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (int i = 0; i < writers; i++) {
+            threads.get(i).join();
+        }
+        running.set(false);
+        for (int i = writers; i < threads.size(); i++) {
+            threads.get(i).join();
+        }
+
+        assertNull(torn.get());
+        assertTrue(reads.get() > 0);
+        QuoteView last = new QuoteView();
+        assertTrue(store.read(slot, last));
+        assertEquals(200_000L, last.getCurrentPrice() % 1_000_000_000L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.uniport.service.kisws;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RealtimeTickPipelineTest {
+
+    /** 디스패처 스레드에서 받은 가격을 순서대로 기록 */
+    private static final class RecordingHandler implements RealtimeTickHandler {
+        final List<Long> prices = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        @Override
+        public synchronized void onTicks(TickRingBuffer ring, long fromSeq, long toSeq) {
+            threads.add(Thread.currentThread());
+            for (long seq = fromSeq; seq < toSeq; seq++) {
+                prices.add(ring.currentPrice(seq));
+            }
+        }
+
+        synchronized int size() {
+            return prices.size();
+        }
+    }
+
+    @Test
+    void deliversEveryRingInOrderToAllHandlers() throws Exception {
+        RealtimeTickHandler failing = (ring, from, to) -> {
+            throw new IllegalStateException("boom");
+        };
+        RecordingHandler recorder = new RecordingHandler();
+        RealtimeTickPipeline pipeline = new RealtimeTickPipeline(List.of(failing, recorder), 64, 16);
+        pipeline.start();
+        try {
+            TickRingBuffer first = pipeline.newProducerRing();
+            TickRingBuffer second = pipeline.newProducerRing();
+            int ticks = 5_000;
+            Thread a = producer(pipeline, first, 1_000_000L, ticks);
+            Thread b = producer(pipeline, second, 2_000_000L, ticks);
+            a.start();
+            b.start();
+            a.join();
+            b.join();
+            waitUntil(() -> recorder.size() == 2 * ticks);
+
+            synchronized (recorder) {
+                long lastA = 0L;
+                long lastB = 0L;
+                for (long p : recorder.prices) {
+                    if (p < 2_000_000L) {
+                        assertEquals(lastA == 0L ? 1_000_000L : lastA + 1, p);
+                        lastA = p;
+                    } else {
+                        assertEquals(lastB == 0L ? 2_000_000L : lastB + 1, p);
+                        lastB = p;
+                    }
+                }
+                assertEquals(1_000_000L + ticks - 1, lastA);
+                assertEquals(2_000_000L + ticks - 1, lastB);
+                assertTrue(recorder.threads.stream().allMatch(t -> t.getName().equals("kis-tick-dispatcher")));
+            }
+            assertEquals(0L, pipeline.getStats().get("dropped"));
+            assertEquals(0L, pipeline.getStats().get("queueDepth"));
+            assertTrue((Long) pipeline.getStats().get("handlerErrors") > 0L);
+            assertTrue((Long) pipeline.getStats().get("maxBatch") <= 16L);
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    /** 링이 차면 파이프라인은 틱을 버리므로, 자리가 날 때까지 기다렸다가 순서대로 ticks개를 넣는다 */
+    private static Thread producer(RealtimeTickPipeline pipeline, TickRingBuffer ring, long first, int ticks) {
+        return new Thread(() -> {
+            RealtimeTickBatch batch = new RealtimeTickBatch();
+            for (long v = first; v < first + ticks; v++) {
+                while (ring.depth() >= ring.capacity()) {
+                    Thread.onSpinWait();
+                }
+                batch.clear();
+                batch.add(StockCodeKey.pack("005930"), v, 0L, 0, v);
+                pipeline.publish(ring, batch, 0L);
+            }
+        });
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
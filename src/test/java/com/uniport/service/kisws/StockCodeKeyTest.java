@@ -0,0 +1,43 @@
+package com.uniport.service.kisws;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StockCodeKeyTest {
+
+    @Test
+    void packUnpackRoundTrip() {
+        for (String code : new String[]{"005930", "0000J0", "Q500001", "A", "12345678"}) {
+            long key = StockCodeKey.pack(code);
+            assertNotEquals(StockCodeKey.NONE, key);
+            assertEquals(code, StockCodeKey.unpack(key));
+        }
+    }
+
+    @Test
+    void packTrimsSurroundingWhitespaceWithinRange() {
+        String frame = "H0STCNT0^ 005930 ^70000";
+        long key = StockCodeKey.pack(frame, 9, 17);
+        assertEquals(StockCodeKey.pack("005930"), key);
+        assertEquals("005930", StockCodeKey.unpack(key));
+    }
+
+    @Test
+    void invalidCodesPackToNone() {
+        assertEquals(StockCodeKey.NONE, StockCodeKey.pack(null));
+        assertEquals(StockCodeKey.NONE, StockCodeKey.pack(""));
+        assertEquals(StockCodeKey.NONE, StockCodeKey.pack("   "));
+        assertEquals(StockCodeKey.NONE, StockCodeKey.pack("123456789"));
+        assertEquals(StockCodeKey.NONE, StockCodeKey.pack("삼성전자"));
+        assertNull(StockCodeKey.unpack(StockCodeKey.NONE));
+    }
+
+    @Test
+    void distinctCodesHaveDistinctKeys() {
+        assertNotEquals(StockCodeKey.pack("005930"), StockCodeKey.pack("005935"));
+        assertNotEquals(StockCodeKey.pack("05930"), StockCodeKey.pack("005930"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.uniport.service.kisws;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TickRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(2, new TickRingBuffer(1).capacity());
+        assertEquals(8, new TickRingBuffer(5).capacity());
+        assertEquals(8, new TickRingBuffer(8).capacity());
+    }
+
+    @Test
+    void slotsWrapAroundAfterRelease() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        assertEquals(3, ring.publish(batch(100, 3), 1L));
+        assertEquals(3L, ring.writeSeq());
+        ring.release(3L);
+
+        assertEquals(3, ring.publish(batch(200, 3), 2L));
+        assertEquals(3L, ring.readSeq());
+        assertEquals(6L, ring.writeSeq());
+        assertEquals(3L, ring.depth());
+        for (long seq = 3; seq < 6; seq++) {
+            long v = 200 + (seq - 3);
+            assertEquals(StockCodeKey.pack(code(v)), ring.codeKey(seq));
+            assertEquals(v, ring.currentPrice(seq));
+            assertEquals(-v, ring.change(seq));
+            assertEquals((int) v, ring.changeRateFixed(seq));
+            assertEquals(v * 10, ring.volume(seq));
+            assertEquals(2L, ring.receivedAtMillis(seq));
+        }
+        assertEquals(6L, ring.publishedCount());
+        assertEquals(0L, ring.droppedCount());
+    }
+
+    @Test
+    void fullRingDropsOverflowWithoutOverwriting() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        assertEquals(4, ring.publish(batch(100, 6), 1L));
+        assertEquals(2L, ring.droppedCount());
+        assertEquals(1L, ring.overrunCount());
+
+        assertEquals(0, ring.publish(batch(300, 2), 2L));
+        assertEquals(4L, ring.droppedCount());
+        assertEquals(2L, ring.overrunCount());
+        for (long seq = 0; seq < 4; seq++) {
+            assertEquals(100 + seq, ring.currentPrice(seq));
+        }
+
+        ring.release(2L);
+        assertEquals(2, ring.publish(batch(400, 3), 3L));
+        assertEquals(5L, ring.droppedCount());
+        assertEquals(3L, ring.overrunCount());
+        assertEquals(103L, ring.currentPrice(3));
+        assertEquals(400L, ring.currentPrice(4));
+        assertEquals(401L, ring.currentPrice(5));
+        assertEquals(4L, ring.depth());
+        assertEquals(6L, ring.publishedCount());
+    }
+
+    @Test
+    void emptyBatchIsNoOp() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        assertEquals(0, ring.publish(new RealtimeTickBatch(), 1L));
+        assertEquals(0L, ring.writeSeq());
+        assertEquals(0L, ring.overrunCount());
+    }
+
+    static RealtimeTickBatch batch(long first, int n) {
+        RealtimeTickBatch batch = new RealtimeTickBatch();
+        for (int i = 0; i < n; i++) {
+            long v = first + i;
+            batch.add(StockCodeKey.pack(code(v)), v, -v, (int) v, v * 10);
+        }
+        return batch;
+    }
+
+    static String code(long v) {
+        return String.format("%06d", v);
+    }
+}
@@ -0,0 +1,142 @@
+package com.uniport.service.valuation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NavLeaderboardTest {
+
+    /** 순위 기준: 평가액 내림차순, 같으면 팀 ID 오름차순 */
+    private static final Comparator<long[]> ORDER = Comparator.<long[]>comparingLong(e -> -e[1])
+            .thenComparingLong(e -> e[0]);
+
+    @Test
+    void ranksByNavDescendingThenTeamId() {
+        NavLeaderboard board = new NavLeaderboard();
+        board.add(3L, 500L);
+        board.add(1L, 700L);
+        board.add(2L, 500L);
+        board.add(4L, 100L);
+
+        assertEquals(4, board.size());
+        assertEquals(1, board.rankOf(1L, 700L));
+        assertEquals(2, board.rankOf(2L, 500L));
+        assertEquals(3, board.rankOf(3L, 500L));
+        assertEquals(4, board.rankOf(4L, 100L));
+
+        long[] ids = new long[4];
+        long[] navs = new long[4];
+        assertEquals(4, board.range(0, 10, ids, navs));
+        assertArrayEquals(new long[] {1L, 2L, 3L, 4L}, ids);
+        assertArrayEquals(new long[] {700L, 500L, 500L, 100L}, navs);
+    }
+
+    @Test
+    void updateMovesTeamAndShiftsOthers() {
+        NavLeaderboard board = new NavLeaderboard();
+        for (long id = 1; id <= 5; id++) {
+            board.add(id, id * 100L);
+        }
+        // 1번 팀 100 → 1000: 꼴찌에서 1위로
+        assertTrue(board.remove(1L, 100L));
+        board.add(1L, 1_000L);
+        assertEquals(5, board.size());
+        assertEquals(1, board.rankOf(1L, 1_000L));
+        assertEquals(2, board.rankOf(5L, 500L));
+        assertEquals(5, board.rankOf(2L, 200L));
+
+        long[] ids = new long[2];
+        long[] navs = new long[2];
+        assertEquals(2, board.range(1, 3, ids, navs));
+        assertArrayEquals(new long[] {5L, 4L}, ids);
+    }
+
+    @Test
+    void removeNeedsExactEntryAndRangeClampsBounds() {
+        NavLeaderboard board = new NavLeaderboard();
+        board.add(1L, 100L);
+        board.add(2L, 200L);
+        assertFalse(board.remove(1L, 101L));
+        assertFalse(board.remove(3L, 100L));
+        assertEquals(2, board.size());
+
+        long[] ids = new long[2];
+        long[] navs = new long[2];
+        assertEquals(0, board.range(2, 5, ids, navs));
+        assertEquals(0, board.range(1, 1, ids, navs));
+        assertEquals(1, board.range(-3, 1, ids, navs));
+        assertEquals(2L, ids[0]);
+
+        assertTrue(board.remove(2L, 200L));
+        assertTrue(board.remove(1L, 100L));
+        assertEquals(0, board.size());
+        assertEquals(1, board.rankOf(9L, 0L));
+        assertEquals(0, board.range(0, 10, ids, navs));
+    }
+
+    @Test
+    void matchesSortedReferenceAfterRandomUpdates() {
+        Random rnd = new Random(42L);
+        NavLeaderboard board = new NavLeaderboard();
+        TreeSet<long[]> reference = new TreeSet<>(ORDER);
+        Map<Long, Long> navByTeam = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            long teamId = rnd.nextInt(300);
+            // 좁은 값 범위로 동점을 자주 만든다
+            long nav = rnd.nextInt(50) * 1_000L;
+            Long old = navByTeam.get(teamId);
+            if (old != null) {
+                assertTrue(board.remove(teamId, old));
+                reference.remove(new long[] {teamId, old});
+            }
+            if (rnd.nextInt(10) == 0) {
+                navByTeam.remove(teamId);
+            } else {
+                board.add(teamId, nav);
+                reference.add(new long[] {teamId, nav});
+                navByTeam.put(teamId, nav);
+            }
+
+            if (step % 250 == 0) {
+                assertMatches(board, reference, rnd);
+            }
+        }
+        assertMatches(board, reference, rnd);
+    }
+
+    private static void assertMatches(NavLeaderboard board, TreeSet<long[]> reference, Random rnd) {
+        List<long[]> sorted = new ArrayList<>(reference);
+        assertEquals(sorted.size(), board.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            long[] e = sorted.get(i);
+            assertEquals(i + 1, board.rankOf(e[0], e[1]));
+        }
+        for (int k = 0; k < 10; k++) {
+            int from = rnd.nextInt(sorted.size() + 5) - 2;
+            int to = from + rnd.nextInt(40);
+            long[] ids = new long[40];
+            long[] navs = new long[40];
+            int n = board.range(from, to, ids, navs);
+            int expectedFrom = Math.max(0, from);
+            int expectedTo = Math.min(sorted.size(), to);
+            assertEquals(Math.max(0, expectedTo - expectedFrom), n);
+            for (int i = 0; i < n; i++) {
+                long[] e = sorted.get(expectedFrom + i);
+                assertEquals(e[0], ids[i]);
+                assertEquals(e[1], navs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.uniport.service.valuation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TeamRiskTrackerTest {
+
+    private static final long DAY1 = 1_767_225_600_000L;
+    private static final long DAY2 = DAY1 + 86_400_000L;
+    private static final long DAY3 = DAY2 + 86_400_000L;
+
+    @Test
+    void returnsAreMeasuredWithinASessionOnly() {
+        TeamRiskTracker tracker = new TeamRiskTracker(5);
+        tracker.onSample(DAY1, List.of(row(1L, 100L)));
+        tracker.onSample(DAY1, List.of(row(1L, 110L)));
+        assertEquals(1L, tracker.risk(1L).returns());
+
+        // 밤사이 110 → 200 갭은 수익률로 세지 않는다
+        tracker.onSample(DAY2, List.of(row(1L, 200L)));
+        assertEquals(1L, tracker.risk(1L).returns());
+        tracker.onSample(DAY2, List.of(row(1L, 220L)));
+        TeamRisk risk = tracker.risk(1L);
+        assertEquals(2L, risk.returns());
+        // 두 수익률 모두 +10%라 분산 0
+        assertEquals(Double.NaN, risk.sharpe());
+        assertEquals(0d, risk.volatility(), 1e-12);
+        assertEquals(0d, risk.maxDrawdown(), 1e-12);
+    }
+
+    @Test
+    void turnoverSurvivesUntilTeamAppearsInSnapshot() {
+        TeamRiskTracker tracker = new TeamRiskTracker(5);
+        tracker.onSample(DAY1, List.of(row(1L, 100L)));
+        tracker.onTrade(2L, new BigDecimal("-1000000"));
+        tracker.onSample(DAY1, List.of(row(1L, 100L)));
+        assertNull(tracker.risk(2L));
+
+        tracker.onSample(DAY1, List.of(row(1L, 100L), row(2L, 100L)));
+        assertNotNull(tracker.risk(2L));
+        assertEquals(0.1d, tracker.risk(2L).turnover(), 1e-12);
+    }
+
+    @Test
+    void prunesOnlyTeamsInactiveForAFullSession() {
+        TeamRiskTracker tracker = new TeamRiskTracker(5);
+        tracker.onSample(DAY1, List.of(row(1L, 100L), row(2L, 100L)));
+        // DAY2: 2번 팀은 순위표에서 빠졌지만 DAY1에는 활동했으므로 유지
+        tracker.onSample(DAY2, List.of(row(1L, 100L)));
+        assertEquals(2, ((Number) tracker.getStats().get("teams")).intValue());
+
+        // DAY3: 2번 팀은 DAY2 내내 활동이 없었으므로 버린다. 3번 팀은 DAY2 중 체결이 있어 유지
+        tracker.onTrade(3L, new BigDecimal("500000"));
+        tracker.onSample(DAY3, List.of(row(1L, 100L)));
+        assertEquals(2, ((Number) tracker.getStats().get("teams")).intValue());
+        assertEquals(1L, ((Number) tracker.getStats().get("pruned")).longValue());
+
+        tracker.onSample(DAY3, List.of(row(1L, 100L), row(3L, 100L)));
+        assertEquals(0.05d, tracker.risk(3L).turnover(), 1e-12);
+    }
+
+    @Test
+    void drawdownTracksPeak() {
+        TeamRiskTracker tracker = new TeamRiskTracker(5);
+        tracker.onSample(DAY1, List.of(row(1L, 100L)));
+        tracker.onSample(DAY1, List.of(row(1L, 120L)));
+        tracker.onSample(DAY1, List.of(row(1L, 90L)));
+        tracker.onSample(DAY1, List.of(row(1L, 108L)));
+        TeamRisk risk = tracker.risk(1L);
+        assertEquals(0.25d, risk.maxDrawdown(), 1e-12);
+        assertEquals(0.1d, risk.drawdown(), 1e-12);
+        assertEquals(4L, tracker.published().version());
+    }
+
+    private static TeamStanding row(long teamId, long navFixed) {
+        return new TeamStanding(teamId, "team" + teamId, navFixed, 1);
+    }
+}